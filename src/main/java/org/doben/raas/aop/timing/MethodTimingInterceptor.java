@@ -0,0 +1,129 @@
+package org.doben.raas.aop.timing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.MethodClassKey;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Interceptor timing the calls of the intercepted methods, in a timer per class, method and exception thrown.
+ * <p>
+ * The class is the one of the bean called rather than the one declaring the method, so that the methods a bean inherits,
+ * such as the {@code findById} of the repositories, are timed apart for each bean. A bean proxied through its
+ * interfaces, such as a Spring Data repository, is named after the first of them declaring the method.
+ * <p>
+ * The timers of a method of a class are looked up once, then cached along with their tags, and the arguments and results of the
+ * calls are never read. With a sample rate below 1, only a random share of the calls is timed, and the others are
+ * only delayed by the draw.
+ */
+public class MethodTimingInterceptor implements MethodInterceptor {
+
+    public static final String METER_NAME = "method.timed";
+    public static final String METER_DESCRIPTION = "Time of the calls of the application services, repositories and endpoints";
+
+    private static final String NO_EXCEPTION = "none";
+
+    private final Supplier<MeterRegistry> registry;
+
+    private final double sampleRate;
+
+    private final Map<MethodClassKey, MethodTimers> timers = new ConcurrentHashMap<>();
+
+    /**
+     * @param registry the registry of the timers, looked up on the first call of each method: the interceptor is
+     * created along with the proxies, before the registry is configured.
+     * @param sampleRate the share of the calls timed, from 0 to 1.
+     */
+    public MethodTimingInterceptor(Supplier<MeterRegistry> registry, double sampleRate) {
+        this.registry = registry;
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (sampleRate < 1 && (sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            return invocation.proceed();
+        }
+        long start = System.nanoTime();
+        try {
+            Object result = invocation.proceed();
+            timers(invocation).success.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable e) {
+            timers(invocation).failure(e.getClass()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private MethodTimers timers(MethodInvocation invocation) {
+        Object bean = invocation instanceof ProxyMethodInvocation proxyInvocation
+            ? proxyInvocation.getProxy()
+            : invocation.getThis();
+        MethodClassKey key = new MethodClassKey(invocation.getMethod(), bean != null ? bean.getClass() : null);
+        MethodTimers methodTimers = timers.get(key);
+        if (methodTimers == null) {
+            methodTimers = timers.computeIfAbsent(key, absent -> new MethodTimers(invocation.getMethod(), bean));
+        }
+        return methodTimers;
+    }
+
+    /**
+     * The class a call is timed under: the class of the bean, or the interface of a JDK proxy declaring the method,
+     * such as a Spring Data repository.
+     */
+    private static Class<?> timedClass(Method method, Object bean) {
+        if (bean == null) {
+            return method.getDeclaringClass();
+        }
+        if (Proxy.isProxyClass(bean.getClass())) {
+            for (Class<?> proxiedInterface : bean.getClass().getInterfaces()) {
+                if (method.getDeclaringClass().isAssignableFrom(proxiedInterface)) {
+                    return proxiedInterface;
+                }
+            }
+            return method.getDeclaringClass();
+        }
+        return ClassUtils.getUserClass(AopUtils.getTargetClass(bean));
+    }
+
+    private final class MethodTimers {
+
+        private final MeterRegistry meterRegistry;
+        private final String className;
+        private final String methodName;
+        private final Timer success;
+        private final Map<Class<?>, Timer> failures = new ConcurrentHashMap<>();
+
+        private MethodTimers(Method method, Object bean) {
+            this.meterRegistry = registry.get();
+            this.className = timedClass(method, bean).getName();
+            this.methodName = method.getName();
+            this.success = timer(NO_EXCEPTION);
+        }
+
+        private Timer failure(Class<?> exceptionClass) {
+            return failures.computeIfAbsent(exceptionClass, type -> timer(type.getSimpleName()));
+        }
+
+        private Timer timer(String exception) {
+            return Timer
+                .builder(METER_NAME)
+                .description(METER_DESCRIPTION)
+                .tag("class", className)
+                .tag("method", methodName)
+                .tag("exception", exception)
+                .register(meterRegistry);
+        }
+    }
+}
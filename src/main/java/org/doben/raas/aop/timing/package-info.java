@@ -0,0 +1,4 @@
+/**
+ * Method timing interceptor.
+ */
+package org.doben.raas.aop.timing;
@@ -0,0 +1,136 @@
+package org.doben.raas.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The eviction of an entry, or of every entry, of a cache, as broadcast to the other nodes.
+ * <p>
+ * The cache is named by a Hibernate entity name or collection role for the second-level cache, and by the cache name
+ * otherwise. An invalidation is written as a line of the cache name and the key separated by a tab, the key being
+ * {@code L} followed by a {@link Long} key, {@code S} followed by a {@link String} key, or {@code *} for every entry.
+ * Keys of any other type, or strings spanning lines, invalidate every entry of their cache.
+ */
+public final class CacheInvalidation {
+
+    private static final char SEPARATOR = '\t';
+
+    private static final String ALL = "*";
+
+    private final String cacheName;
+
+    private final Object key;
+
+    private CacheInvalidation(String cacheName, Object key) {
+        this.cacheName = cacheName;
+        this.key = key;
+    }
+
+    /**
+     * Create the invalidation of an entry of a cache, or of every entry if the key cannot be broadcast.
+     *
+     * @param cacheName the name of the cache.
+     * @param key the key of the entry, {@code null} for every entry.
+     * @return the invalidation.
+     */
+    public static CacheInvalidation of(String cacheName, Object key) {
+        if (cacheName.indexOf(SEPARATOR) >= 0 || cacheName.indexOf('\n') >= 0) {
+            throw new IllegalArgumentException("Invalid cache name " + cacheName);
+        }
+        boolean broadcastable =
+            key instanceof Long || (key instanceof String string && string.indexOf(SEPARATOR) < 0 && string.indexOf('\n') < 0);
+        return new CacheInvalidation(cacheName, broadcastable ? key : null);
+    }
+
+    public String getCacheName() {
+        return cacheName;
+    }
+
+    /**
+     * The key of the invalidated entry, {@code null} if every entry is invalidated.
+     */
+    public Object getKey() {
+        return key;
+    }
+
+    String encode() {
+        String encodedKey;
+        if (key instanceof Long id) {
+            encodedKey = "L" + id;
+        } else if (key instanceof String string) {
+            encodedKey = "S" + string;
+        } else {
+            encodedKey = ALL;
+        }
+        return cacheName + SEPARATOR + encodedKey;
+    }
+
+    /**
+     * Read an invalidation written by {@link #encode()}.
+     *
+     * @throws IllegalArgumentException if the line is not an invalidation.
+     */
+    static CacheInvalidation decode(String line) {
+        int separator = line.indexOf(SEPARATOR);
+        if (separator <= 0 || separator == line.length() - 1) {
+            throw new IllegalArgumentException("Invalid cache invalidation " + line);
+        }
+        String cacheName = line.substring(0, separator);
+        String encodedKey = line.substring(separator + 1);
+        return switch (encodedKey.charAt(0)) {
+            case 'L' -> new CacheInvalidation(cacheName, Long.valueOf(encodedKey.substring(1)));
+            case 'S' -> new CacheInvalidation(cacheName, encodedKey.substring(1));
+            case '*' -> new CacheInvalidation(cacheName, null);
+            default -> throw new IllegalArgumentException("Invalid cache invalidation " + line);
+        };
+    }
+
+    static String encodeAll(Collection<CacheInvalidation> invalidations) {
+        StringBuilder lines = new StringBuilder();
+        for (CacheInvalidation invalidation : invalidations) {
+            lines.append(invalidation.encode()).append('\n');
+        }
+        return lines.toString();
+    }
+
+    /**
+     * Read the invalidations written by {@link #encodeAll(Collection)}, skipping the lines that are not invalidations.
+     */
+    static List<CacheInvalidation> decodeAll(String lines) {
+        List<CacheInvalidation> invalidations = new ArrayList<>();
+        for (String line : lines.split("\n")) {
+            if (!line.isEmpty()) {
+                try {
+                    invalidations.add(decode(line));
+                } catch (IllegalArgumentException e) {
+                    // Written by a newer node, or truncated
+                }
+            }
+        }
+        return invalidations;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CacheInvalidation)) {
+            return false;
+        }
+        CacheInvalidation that = (CacheInvalidation) o;
+        return cacheName.equals(that.cacheName) && Objects.equals(key, that.key);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(cacheName, key);
+    }
+
+    @Override
+    public String toString() {
+        return "CacheInvalidation{cacheName='" + cacheName + "', key=" + key + "}";
+    }
+}
@@ -0,0 +1,220 @@
+package org.doben.raas.cache;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.sql.DataSource;
+import org.doben.raas.config.ApplicationProperties;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.metamodel.MappingMetamodel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Broadcasts the evictions of the second-level cache and of the user caches to the other nodes, and applies theirs.
+ * <p>
+ * The updates and deletions of cached entities and collections are published by a Hibernate listener, the other
+ * evictions by their callers. The invalidations are coalesced, and sent as one batch every
+ * {@code application.cache.invalidation.batch-interval} or as soon as {@code max-batch} are pending, through the
+ * transport of {@code application.cache.invalidation.backend}. Nothing is published without a backend.
+ */
+@Component
+public class CacheInvalidationBus {
+
+    private final Logger log = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    private final ApplicationProperties.Cache.Invalidation properties;
+
+    private final SessionFactoryImplementor sessionFactory;
+
+    private final CacheManager cacheManager;
+
+    private final CacheInvalidationTransport transport;
+
+    private final Object lock = new Object();
+
+    private Set<CacheInvalidation> pending = new LinkedHashSet<>();
+
+    private ScheduledExecutorService executor;
+
+    public CacheInvalidationBus(
+        ApplicationProperties applicationProperties,
+        EntityManagerFactory entityManagerFactory,
+        CacheManager cacheManager,
+        DataSource dataSource,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.properties = applicationProperties.getCache().getInvalidation();
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.cacheManager = cacheManager;
+        String node = UUID.randomUUID().toString();
+        this.transport =
+            switch (properties.getBackend()) {
+                case JDBC -> new JdbcCacheInvalidationTransport(
+                    node,
+                    properties.getJdbc().getPollInterval(),
+                    properties.getJdbc().getRetention(),
+                    dataSource,
+                    transactionManager
+                );
+                case UDP -> new UdpCacheInvalidationTransport(
+                    node,
+                    properties.getUdp().getGroup(),
+                    properties.getUdp().getPort(),
+                    properties.getUdp().getNetworkInterface(),
+                    properties.getUdp().getTimeToLive()
+                );
+                case NONE -> null;
+            };
+    }
+
+    @PostConstruct
+    void start() {
+        if (transport == null) {
+            return;
+        }
+        executor =
+            Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "cache-invalidation");
+                thread.setDaemon(true);
+                return thread;
+            });
+        long intervalMillis = properties.getBatchInterval().toMillis();
+        executor.scheduleWithFixedDelay(this::flush, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        transport.start(this::apply);
+        log.info("Broadcasting the cache invalidations through the {} backend", properties.getBackend());
+    }
+
+    @PreDestroy
+    void stop() {
+        if (transport == null) {
+            return;
+        }
+        executor.shutdown();
+        flush();
+        transport.stop();
+    }
+
+    /**
+     * Whether the invalidations are broadcast to other nodes.
+     */
+    public boolean isEnabled() {
+        return transport != null;
+    }
+
+    /**
+     * Broadcast the eviction of an entry of a cache, once the current transaction, if any, is committed.
+     *
+     * @param cacheName the Hibernate entity name or collection role, or the name of a cache of the cache manager.
+     * @param key the key of the entry, {@code null} to evict every entry.
+     */
+    public void publish(String cacheName, Object key) {
+        if (transport == null) {
+            return;
+        }
+        CacheInvalidation invalidation = CacheInvalidation.of(cacheName, key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        enqueue(invalidation);
+                    }
+                }
+            );
+        } else {
+            enqueue(invalidation);
+        }
+    }
+
+    /**
+     * Add an invalidation to the next batch, sending it now if it is full.
+     */
+    void enqueue(CacheInvalidation invalidation) {
+        if (transport == null) {
+            return;
+        }
+        boolean full;
+        synchronized (lock) {
+            pending.add(invalidation);
+            full = pending.size() >= properties.getMaxBatch();
+        }
+        if (full && !executor.isShutdown()) {
+            executor.execute(this::flush);
+        }
+    }
+
+    private void flush() {
+        List<CacheInvalidation> batch;
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = new ArrayList<>(pending);
+            pending = new LinkedHashSet<>();
+        }
+        try {
+            transport.send(batch);
+            log.debug("Sent {} cache invalidations", batch.size());
+        } catch (RuntimeException e) {
+            log.warn("Could not send {} cache invalidations", batch.size(), e);
+        }
+    }
+
+    /**
+     * Apply the invalidations of another node to the caches of this node.
+     */
+    void apply(List<CacheInvalidation> batch) {
+        log.debug("Received {} cache invalidations", batch.size());
+        for (CacheInvalidation invalidation : batch) {
+            try {
+                evict(invalidation);
+            } catch (RuntimeException e) {
+                log.warn("Could not apply {}", invalidation, e);
+            }
+        }
+    }
+
+    private void evict(CacheInvalidation invalidation) {
+        String name = invalidation.getCacheName();
+        Object key = invalidation.getKey();
+        MappingMetamodel metamodel = sessionFactory.getMappingMetamodel();
+        org.hibernate.Cache secondLevelCache = sessionFactory.getCache();
+        if (metamodel.findEntityDescriptor(name) != null) {
+            if (key == null) {
+                secondLevelCache.evictEntityData(name);
+            } else {
+                secondLevelCache.evictEntityData(name, key);
+            }
+        } else if (metamodel.findCollectionDescriptor(name) != null) {
+            if (key == null) {
+                secondLevelCache.evictCollectionData(name);
+            } else {
+                secondLevelCache.evictCollectionData(name, key);
+            }
+        } else {
+            Cache<Object, Object> cache = cacheManager.getCache(name);
+            if (cache == null) {
+                log.debug("Ignoring the invalidation of the unknown cache {}", name);
+            } else if (key == null) {
+                cache.clear();
+            } else {
+                cache.remove(key);
+            }
+        }
+    }
+}
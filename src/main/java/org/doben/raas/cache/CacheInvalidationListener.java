@@ -0,0 +1,121 @@
+package org.doben.raas.cache;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.AbstractCollectionEvent;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCollectionRecreateEvent;
+import org.hibernate.event.spi.PostCollectionRecreateEventListener;
+import org.hibernate.event.spi.PostCollectionRemoveEvent;
+import org.hibernate.event.spi.PostCollectionRemoveEventListener;
+import org.hibernate.event.spi.PostCollectionUpdateEvent;
+import org.hibernate.event.spi.PostCollectionUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.collection.CollectionPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the updates and deletions of the cached entities and collections to the {@link CacheInvalidationBus}, once
+ * their transaction is committed, so that the other nodes evict them as Hibernate evicts them on this node.
+ * <p>
+ * Insertions are not published, as no node can have cached an entity that did not exist.
+ */
+@Component
+class CacheInvalidationListener
+    implements
+        PostUpdateEventListener,
+        PostDeleteEventListener,
+        PostCollectionUpdateEventListener,
+        PostCollectionRemoveEventListener,
+        PostCollectionRecreateEventListener {
+
+    private final CacheInvalidationBus bus;
+
+    CacheInvalidationListener(CacheInvalidationBus bus) {
+        this.bus = bus;
+    }
+
+    @Autowired
+    void registerWith(EntityManagerFactory entityManagerFactory) {
+        if (!bus.isEnabled()) {
+            return;
+        }
+        EventListenerRegistry listeners = entityManagerFactory
+            .unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry()
+            .getService(EventListenerRegistry.class);
+        listeners.appendListeners(EventType.POST_UPDATE, this);
+        listeners.appendListeners(EventType.POST_DELETE, this);
+        listeners.appendListeners(EventType.POST_COLLECTION_UPDATE, this);
+        listeners.appendListeners(EventType.POST_COLLECTION_REMOVE, this);
+        listeners.appendListeners(EventType.POST_COLLECTION_RECREATE, this);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        onEntityChange(event.getSession(), event.getPersister(), event.getId());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        onEntityChange(event.getSession(), event.getPersister(), event.getId());
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    @Override
+    public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+        onCollectionChange(event);
+    }
+
+    @Override
+    public void onPostRemoveCollection(PostCollectionRemoveEvent event) {
+        onCollectionChange(event);
+    }
+
+    @Override
+    public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+        onCollectionChange(event);
+    }
+
+    private void onEntityChange(EventSource session, EntityPersister persister, Object id) {
+        if (persister.canWriteToCache()) {
+            publishOnCommit(session, persister.getEntityName(), id);
+        }
+    }
+
+    private void onCollectionChange(AbstractCollectionEvent event) {
+        String role = event.getCollection().getRole();
+        if (role == null) {
+            return;
+        }
+        CollectionPersister persister = event.getSession().getFactory().getMappingMetamodel().findCollectionDescriptor(role);
+        if (persister != null && persister.hasCache()) {
+            publishOnCommit(event.getSession(), role, event.getAffectedOwnerIdOrNull());
+        }
+    }
+
+    private void publishOnCommit(EventSource session, String cacheName, Object key) {
+        CacheInvalidation invalidation = CacheInvalidation.of(cacheName, key);
+        session
+            .getActionQueue()
+            .registerProcess(
+                (AfterTransactionCompletionProcess) (success, completedSession) -> {
+                    if (success) {
+                        bus.enqueue(invalidation);
+                    }
+                }
+            );
+    }
+}
@@ -0,0 +1,23 @@
+package org.doben.raas.cache;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Carries the batches of invalidations between the nodes. A node does not receive the batches it sends.
+ */
+interface CacheInvalidationTransport {
+    /**
+     * Start receiving the batches of the other nodes.
+     *
+     * @param receiver called with each received batch, from a thread of the transport.
+     */
+    void start(Consumer<List<CacheInvalidation>> receiver);
+
+    /**
+     * Send a batch to the other nodes.
+     */
+    void send(List<CacheInvalidation> batch);
+
+    void stop();
+}
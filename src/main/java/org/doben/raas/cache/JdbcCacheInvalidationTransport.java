@@ -0,0 +1,187 @@
+package org.doben.raas.cache;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Transport through the {@code cache_invalidation} table of the shared database, which every node polls.
+ * <p>
+ * Each batch is a row. A node reads the rows above the highest id below which it has read every row. Ids are allocated
+ * when a row is inserted, not when it is committed, so a row may appear below rows already read: the missing ids are
+ * polled again until they appear, or until they are deemed rolled back after {@link #MAX_GAP_POLLS} polls. Rows are
+ * deleted once older than the retention.
+ */
+class JdbcCacheInvalidationTransport implements CacheInvalidationTransport {
+
+    static final int MAX_GAP_POLLS = 30;
+
+    private static final int MAX_ROWS = 1000;
+
+    private final Logger log = LoggerFactory.getLogger(JdbcCacheInvalidationTransport.class);
+
+    private final String node;
+
+    private final Duration pollInterval;
+
+    private final Duration retention;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final NavigableSet<Long> read = new TreeSet<>();
+
+    private long watermark;
+
+    private int gapPolls;
+
+    private ScheduledExecutorService executor;
+
+    JdbcCacheInvalidationTransport(
+        String node,
+        Duration pollInterval,
+        Duration retention,
+        DataSource dataSource,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.node = node;
+        this.pollInterval = pollInterval;
+        this.retention = retention;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setMaxRows(MAX_ROWS);
+        // Batches are sent after their transaction completed, or from the batching thread
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public void start(Consumer<List<CacheInvalidation>> receiver) {
+        try {
+            // The caches start empty, the earlier rows are not relevant
+            Long last = transactionTemplate.execute(status ->
+                jdbcTemplate.queryForObject("select max(id) from cache_invalidation", Long.class)
+            );
+            watermark = last == null ? 0 : last;
+        } catch (RuntimeException e) {
+            log.warn("Could not read the last cache invalidation, reading them all", e);
+        }
+        executor =
+            Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "cache-invalidation-jdbc");
+                thread.setDaemon(true);
+                return thread;
+            });
+        long pollMillis = pollInterval.toMillis();
+        executor.scheduleWithFixedDelay(() -> poll(receiver), pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+        long purgeMillis = Math.max(pollMillis, retention.toMillis() / 10);
+        executor.scheduleWithFixedDelay(this::purge, purgeMillis, purgeMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void send(List<CacheInvalidation> batch) {
+        transactionTemplate.executeWithoutResult(status ->
+            jdbcTemplate.update(
+                "insert into cache_invalidation (node, invalidations, created_date) values (?, ?, ?)",
+                node,
+                CacheInvalidation.encodeAll(batch),
+                LocalDateTime.now(ZoneOffset.UTC)
+            )
+        );
+    }
+
+    @Override
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void poll(Consumer<List<CacheInvalidation>> receiver) {
+        try {
+            List<Row> rows = transactionTemplate.execute(status ->
+                jdbcTemplate.query(
+                    "select id, node, invalidations from cache_invalidation where id > ? order by id",
+                    (resultSet, rowNum) -> new Row(resultSet.getLong(1), resultSet.getString(2), resultSet.getString(3)),
+                    watermark
+                )
+            );
+            if (rows != null) {
+                for (Row row : rows) {
+                    if (read.add(row.id) && !node.equals(row.node)) {
+                        receiver.accept(CacheInvalidation.decodeAll(row.invalidations));
+                    }
+                }
+            }
+            advance();
+        } catch (RuntimeException e) {
+            log.warn("Could not poll the cache invalidations", e);
+        }
+    }
+
+    /**
+     * Raise the watermark over the rows read without any missing id below them, or over the missing ids once they have
+     * been missing for too long.
+     */
+    void advance() {
+        while (!read.isEmpty()) {
+            if (read.first() == watermark + 1) {
+                watermark = read.pollFirst();
+                gapPolls = 0;
+            } else if (++gapPolls > MAX_GAP_POLLS) {
+                log.debug("Skipping the cache invalidations {} to {}, never committed", watermark + 1, read.first() - 1);
+                watermark = read.first() - 1;
+            } else {
+                return;
+            }
+        }
+        gapPolls = 0;
+    }
+
+    long getWatermark() {
+        return watermark;
+    }
+
+    void markRead(long id) {
+        read.add(id);
+    }
+
+    private void purge() {
+        try {
+            // In UTC, as Hibernate writes the other dates, whatever the time zone of the node
+            LocalDateTime before = LocalDateTime.now(ZoneOffset.UTC).minus(retention);
+            transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.update("delete from cache_invalidation where created_date < ?", before)
+            );
+        } catch (RuntimeException e) {
+            log.warn("Could not delete the expired cache invalidations", e);
+        }
+    }
+
+    private static final class Row {
+
+        private final long id;
+        private final String node;
+        private final String invalidations;
+
+        private Row(long id, String node, String invalidations) {
+            this.id = id;
+            this.node = node;
+            this.invalidations = invalidations;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package org.doben.raas.cache;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MulticastSocket;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.net.StandardSocketOptions;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Transport through a UDP multicast group, which every node joins.
+ * <p>
+ * A datagram holds the id of the sending node on its first line, then as many invalidations as fit in
+ * {@link #MAX_DATAGRAM_SIZE} bytes: a batch is sent as several datagrams if needed. Delivery is not guaranteed, a lost
+ * datagram leaves its entries cached on the nodes that missed it until they expire.
+ */
+class UdpCacheInvalidationTransport implements CacheInvalidationTransport {
+
+    static final int MAX_DATAGRAM_SIZE = 60_000;
+
+    private static final int RECEIVE_BUFFER_SIZE = 65_535;
+
+    private final Logger log = LoggerFactory.getLogger(UdpCacheInvalidationTransport.class);
+
+    private final String node;
+
+    private final InetSocketAddress group;
+
+    private final String networkInterfaceName;
+
+    private final int timeToLive;
+
+    private MulticastSocket socket;
+
+    private NetworkInterface networkInterface;
+
+    private volatile boolean running;
+
+    UdpCacheInvalidationTransport(String node, String group, int port, String networkInterfaceName, int timeToLive) {
+        this.node = node;
+        this.group = new InetSocketAddress(group, port);
+        this.networkInterfaceName = networkInterfaceName;
+        this.timeToLive = timeToLive;
+    }
+
+    @Override
+    public void start(Consumer<List<CacheInvalidation>> receiver) {
+        try {
+            socket = new MulticastSocket(group.getPort());
+            socket.setOption(StandardSocketOptions.IP_MULTICAST_TTL, timeToLive);
+            if (networkInterfaceName != null) {
+                networkInterface = NetworkInterface.getByName(networkInterfaceName);
+                if (networkInterface == null) {
+                    throw new SocketException("Unknown network interface " + networkInterfaceName);
+                }
+                socket.setOption(StandardSocketOptions.IP_MULTICAST_IF, networkInterface);
+            }
+            socket.joinGroup(group, networkInterface);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not join the cache invalidation group " + group, e);
+        }
+        running = true;
+        Thread thread = new Thread(() -> receive(receiver), "cache-invalidation-udp");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void send(List<CacheInvalidation> batch) {
+        for (byte[] datagram : datagrams(node, batch)) {
+            try {
+                socket.send(new DatagramPacket(datagram, datagram.length, group));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not send the cache invalidations to " + group, e);
+            }
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (socket != null) {
+            try {
+                socket.leaveGroup(group, networkInterface);
+            } catch (IOException e) {
+                log.debug("Could not leave the cache invalidation group {}", group, e);
+            }
+            socket.close();
+        }
+    }
+
+    private void receive(Consumer<List<CacheInvalidation>> receiver) {
+        byte[] buffer = new byte[RECEIVE_BUFFER_SIZE];
+        while (running) {
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            try {
+                socket.receive(packet);
+                String text = new String(packet.getData(), packet.getOffset(), packet.getLength(), StandardCharsets.UTF_8);
+                int firstLine = text.indexOf('\n');
+                if (firstLine > 0 && !node.equals(text.substring(0, firstLine))) {
+                    receiver.accept(CacheInvalidation.decodeAll(text.substring(firstLine + 1)));
+                }
+            } catch (IOException e) {
+                if (running) {
+                    log.warn("Could not receive the cache invalidations from {}", group, e);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not apply the cache invalidations received from {}", describe(packet.getAddress()), e);
+            }
+        }
+    }
+
+    /**
+     * Split a batch into datagrams of at most {@link #MAX_DATAGRAM_SIZE} bytes, each starting with the id of the node.
+     */
+    static List<byte[]> datagrams(String node, List<CacheInvalidation> batch) {
+        byte[] header = (node + "\n").getBytes(StandardCharsets.UTF_8);
+        List<byte[]> datagrams = new ArrayList<>();
+        StringBuilder lines = new StringBuilder();
+        int size = header.length;
+        for (CacheInvalidation invalidation : batch) {
+            String line = invalidation.encode() + "\n";
+            int lineSize = line.getBytes(StandardCharsets.UTF_8).length;
+            if (size + lineSize > MAX_DATAGRAM_SIZE && !lines.isEmpty()) {
+                datagrams.add(datagram(header, lines));
+                lines.setLength(0);
+                size = header.length;
+            }
+            lines.append(line);
+            size += lineSize;
+        }
+        if (!lines.isEmpty()) {
+            datagrams.add(datagram(header, lines));
+        }
+        return datagrams;
+    }
+
+    private static byte[] datagram(byte[] header, CharSequence lines) {
+        byte[] body = lines.toString().getBytes(StandardCharsets.UTF_8);
+        byte[] datagram = new byte[header.length + body.length];
+        System.arraycopy(header, 0, datagram, 0, header.length);
+        System.arraycopy(body, 0, datagram, header.length, body.length);
+        return datagram;
+    }
+
+    private static String describe(InetAddress address) {
+        return address == null ? "an unknown node" : address.getHostAddress();
+    }
+}
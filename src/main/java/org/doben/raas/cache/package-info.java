@@ -0,0 +1,4 @@
+/**
+ * Invalidation of the caches of the other nodes.
+ */
+package org.doben.raas.cache;
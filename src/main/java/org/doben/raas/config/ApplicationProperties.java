@@ -1,6 +1,12 @@
 package org.doben.raas.config;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 
 /**
  * Properties specific to Raas.
@@ -10,7 +16,1086 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
 public class ApplicationProperties {
+
+    private final BulkImport bulkImport = new BulkImport();
+
+    private final Export export = new Export();
+
+    private final Analytics analytics = new Analytics();
+
+    private final Cache cache = new Cache();
+
+    private final WarmUp warmUp = new WarmUp();
+
+    private final Security security = new Security();
+
+    private final VirtualThreads virtualThreads = new VirtualThreads();
+
+    private final Mail mail = new Mail();
+
+    private final MethodTiming methodTiming = new MethodTiming();
+
+    private final AsyncLogging asyncLogging = new AsyncLogging();
+
+    private final StaticAssets staticAssets = new StaticAssets();
+
+    private final Spa spa = new Spa();
+
+    private final ReadReplicas readReplicas = new ReadReplicas();
+
     // jhipster-needle-application-properties-property
+
+    public BulkImport getBulkImport() {
+        return bulkImport;
+    }
+
+    public Export getExport() {
+        return export;
+    }
+
+    public Analytics getAnalytics() {
+        return analytics;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public WarmUp getWarmUp() {
+        return warmUp;
+    }
+
+    public Security getSecurity() {
+        return security;
+    }
+
+    public VirtualThreads getVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public Mail getMail() {
+        return mail;
+    }
+
+    public MethodTiming getMethodTiming() {
+        return methodTiming;
+    }
+
+    public AsyncLogging getAsyncLogging() {
+        return asyncLogging;
+    }
+
+    public StaticAssets getStaticAssets() {
+        return staticAssets;
+    }
+
+    public Spa getSpa() {
+        return spa;
+    }
+
+    public ReadReplicas getReadReplicas() {
+        return readReplicas;
+    }
+
     // jhipster-needle-application-properties-property-getter
+
+    public static class BulkImport {
+
+        /**
+         * Number of rows persisted per transaction.
+         */
+        private int chunkSize = 500;
+
+        /**
+         * Maximum number of row-level errors kept in an import report.
+         */
+        private int maxReportedErrors = 1000;
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public int getMaxReportedErrors() {
+            return maxReportedErrors;
+        }
+
+        public void setMaxReportedErrors(int maxReportedErrors) {
+            this.maxReportedErrors = maxReportedErrors;
+        }
+    }
+
+    public static class Export {
+
+        /**
+         * JDBC fetch size of export queries. With MySQL Connector/J, {@code -2147483648} (Integer.MIN_VALUE) streams rows one by one.
+         */
+        private int fetchSize = 1000;
+
+        /**
+         * Number of rows written between two flushes of the response and clears of the persistence context.
+         */
+        private int chunkSize = 500;
+
+        public int getFetchSize() {
+            return fetchSize;
+        }
+
+        public void setFetchSize(int fetchSize) {
+            this.fetchSize = fetchSize;
+        }
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+    }
+
+    public static class Analytics {
+
+        /**
+         * Cron expression of the full rebuild of the in-memory attendance analytics columns, which drops deleted rows.
+         */
+        private String rebuildCron = "0 0 3 * * ?";
+
+        public String getRebuildCron() {
+            return rebuildCron;
+        }
+
+        public void setRebuildCron(String rebuildCron) {
+            this.rebuildCron = rebuildCron;
+        }
+    }
+
+    public static class Cache {
+
+        /**
+         * Fraction of the expiry by which each entry's expiry is randomly shortened, so that entries cached together do not
+         * all expire together. Used by the regions that do not set their own.
+         */
+        private double expiryJitter = 0.1;
+
+        /**
+         * Policies of the cache regions, by region name without the {@code org.doben.raas.domain.} prefix, such as
+         * {@code Person} or {@code Attendance.patients}. Names with a dot must be written in brackets in YAML. Regions
+         * without a policy use the {@code jhipster.cache.ehcache} sizing and time-to-live.
+         */
+        private final Map<String, Region> regions = new LinkedHashMap<>();
+
+        private final Invalidation invalidation = new Invalidation();
+
+        public double getExpiryJitter() {
+            return expiryJitter;
+        }
+
+        public void setExpiryJitter(double expiryJitter) {
+            this.expiryJitter = expiryJitter;
+        }
+
+        public Map<String, Region> getRegions() {
+            return regions;
+        }
+
+        public Invalidation getInvalidation() {
+            return invalidation;
+        }
+
+        public static class Region {
+
+            /**
+             * Maximum number of entries on heap, {@code jhipster.cache.ehcache.max-entries} if not set.
+             */
+            private Long maxEntries;
+
+            /**
+             * Size of an off-heap tier behind the heap, sized in bytes and holding serialized entries. No off-heap tier if
+             * not set.
+             */
+            private DataSize offHeapSize;
+
+            /**
+             * Time after which an entry expires once written, {@code jhipster.cache.ehcache.time-to-live-seconds} if not
+             * set, none if {@code 0}.
+             */
+            private Long timeToLiveSeconds;
+
+            /**
+             * Time after which an entry expires once last read, none if not set. Only applies to the regions without a
+             * time-to-live, as the reads do not extend the time-to-live.
+             */
+            private Long timeToIdleSeconds;
+
+            /**
+             * Fraction of the expiry by which each entry's expiry is randomly shortened, {@code application.cache.expiry-jitter}
+             * if not set.
+             */
+            private Double expiryJitter;
+
+            public Long getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(Long maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+
+            public DataSize getOffHeapSize() {
+                return offHeapSize;
+            }
+
+            public void setOffHeapSize(DataSize offHeapSize) {
+                this.offHeapSize = offHeapSize;
+            }
+
+            public Long getTimeToLiveSeconds() {
+                return timeToLiveSeconds;
+            }
+
+            public void setTimeToLiveSeconds(Long timeToLiveSeconds) {
+                this.timeToLiveSeconds = timeToLiveSeconds;
+            }
+
+            public Long getTimeToIdleSeconds() {
+                return timeToIdleSeconds;
+            }
+
+            public void setTimeToIdleSeconds(Long timeToIdleSeconds) {
+                this.timeToIdleSeconds = timeToIdleSeconds;
+            }
+
+            public Double getExpiryJitter() {
+                return expiryJitter;
+            }
+
+            public void setExpiryJitter(Double expiryJitter) {
+                this.expiryJitter = expiryJitter;
+            }
+        }
+
+        public static class Invalidation {
+
+            public enum Backend {
+                /**
+                 * No invalidations are sent nor received, for a single node.
+                 */
+                NONE,
+                /**
+                 * Invalidations are written to, and polled from, a table of the shared database.
+                 */
+                JDBC,
+                /**
+                 * Invalidations are sent to, and received from, a UDP multicast group.
+                 */
+                UDP,
+            }
+
+            /**
+             * How the evictions of the second-level cache and the user caches are broadcast to the other nodes.
+             */
+            private Backend backend = Backend.NONE;
+
+            /**
+             * Time during which invalidations are coalesced before they are sent as one batch.
+             */
+            private Duration batchInterval = Duration.ofMillis(200);
+
+            /**
+             * Number of distinct invalidations after which a batch is sent without waiting for the batch interval.
+             */
+            private int maxBatch = 500;
+
+            private final Jdbc jdbc = new Jdbc();
+
+            private final Udp udp = new Udp();
+
+            public Backend getBackend() {
+                return backend;
+            }
+
+            public void setBackend(Backend backend) {
+                this.backend = backend;
+            }
+
+            public Duration getBatchInterval() {
+                return batchInterval;
+            }
+
+            public void setBatchInterval(Duration batchInterval) {
+                this.batchInterval = batchInterval;
+            }
+
+            public int getMaxBatch() {
+                return maxBatch;
+            }
+
+            public void setMaxBatch(int maxBatch) {
+                this.maxBatch = maxBatch;
+            }
+
+            public Jdbc getJdbc() {
+                return jdbc;
+            }
+
+            public Udp getUdp() {
+                return udp;
+            }
+
+            public static class Jdbc {
+
+                /**
+                 * Time between two polls of the {@code cache_invalidation} table.
+                 */
+                private Duration pollInterval = Duration.ofSeconds(1);
+
+                /**
+                 * Time after which the batches are deleted from the {@code cache_invalidation} table.
+                 */
+                private Duration retention = Duration.ofHours(1);
+
+                public Duration getPollInterval() {
+                    return pollInterval;
+                }
+
+                public void setPollInterval(Duration pollInterval) {
+                    this.pollInterval = pollInterval;
+                }
+
+                public Duration getRetention() {
+                    return retention;
+                }
+
+                public void setRetention(Duration retention) {
+                    this.retention = retention;
+                }
+            }
+
+            public static class Udp {
+
+                /**
+                 * Multicast group the nodes join.
+                 */
+                private String group = "239.255.42.99";
+
+                private int port = 45588;
+
+                /**
+                 * Name of the network interface to join the group on, the system default if not set.
+                 */
+                private String networkInterface;
+
+                /**
+                 * Number of routers the datagrams may cross, {@code 1} for the local network only.
+                 */
+                private int timeToLive = 1;
+
+                public String getGroup() {
+                    return group;
+                }
+
+                public void setGroup(String group) {
+                    this.group = group;
+                }
+
+                public int getPort() {
+                    return port;
+                }
+
+                public void setPort(int port) {
+                    this.port = port;
+                }
+
+                public String getNetworkInterface() {
+                    return networkInterface;
+                }
+
+                public void setNetworkInterface(String networkInterface) {
+                    this.networkInterface = networkInterface;
+                }
+
+                public int getTimeToLive() {
+                    return timeToLive;
+                }
+
+                public void setTimeToLive(int timeToLive) {
+                    this.timeToLive = timeToLive;
+                }
+            }
+        }
+    }
+
+    public static class WarmUp {
+
+        /**
+         * Whether to warm the caches, the connection pool and the JIT up before the application reports it is ready.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Number of most recently modified activated users loaded into the user caches.
+         */
+        private int users = 100;
+
+        /**
+         * Number of most recent attendances loaded, along with their participants, into the second-level cache.
+         */
+        private int attendances = 1000;
+
+        /**
+         * Number of most recently created people loaded into the second-level cache.
+         */
+        private int people = 1000;
+
+        /**
+         * Number of times each warm-up request is sent to the API.
+         */
+        private int requests = 50;
+
+        /**
+         * Time after which the remaining warm-up steps are skipped.
+         */
+        private Duration timeout = Duration.ofMinutes(2);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getUsers() {
+            return users;
+        }
+
+        public void setUsers(int users) {
+            this.users = users;
+        }
+
+        public int getAttendances() {
+            return attendances;
+        }
+
+        public void setAttendances(int attendances) {
+            this.attendances = attendances;
+        }
+
+        public int getPeople() {
+            return people;
+        }
+
+        public void setPeople(int people) {
+            this.people = people;
+        }
+
+        public int getRequests() {
+            return requests;
+        }
+
+        public void setRequests(int requests) {
+            this.requests = requests;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
+
+    public static class Security {
+
+        /**
+         * Maximum number of verified tokens kept, with their authorities, so that they are not verified again on each
+         * request. No cache if {@code 0}.
+         */
+        private int verifiedTokenCacheSize = 10_000;
+
+        private final PasswordHashing passwordHashing = new PasswordHashing();
+
+        private final RateLimit rateLimit = new RateLimit();
+
+        public int getVerifiedTokenCacheSize() {
+            return verifiedTokenCacheSize;
+        }
+
+        public void setVerifiedTokenCacheSize(int verifiedTokenCacheSize) {
+            this.verifiedTokenCacheSize = verifiedTokenCacheSize;
+        }
+
+        public PasswordHashing getPasswordHashing() {
+            return passwordHashing;
+        }
+
+        public RateLimit getRateLimit() {
+            return rateLimit;
+        }
+
+        public static class PasswordHashing {
+
+            /**
+             * Time a password hash should take. The BCrypt cost is calibrated at startup to the highest cost whose hash
+             * takes no longer, between the minimum and maximum costs. No calibration if {@code 0}, the minimum cost is used.
+             */
+            private Duration targetTime = Duration.ofMillis(100);
+
+            /**
+             * Lowest BCrypt cost, whatever the calibration.
+             */
+            private int minCost = 10;
+
+            /**
+             * Highest BCrypt cost, whatever the calibration.
+             */
+            private int maxCost = 14;
+
+            /**
+             * Number of threads hashing passwords, half the available processors if {@code 0}.
+             */
+            private int threads = 0;
+
+            /**
+             * Number of hashes waiting for a thread, beyond which hashes are rejected with a 503 status.
+             */
+            private int queueCapacity = 50;
+
+            public Duration getTargetTime() {
+                return targetTime;
+            }
+
+            public void setTargetTime(Duration targetTime) {
+                this.targetTime = targetTime;
+            }
+
+            public int getMinCost() {
+                return minCost;
+            }
+
+            public void setMinCost(int minCost) {
+                this.minCost = minCost;
+            }
+
+            public int getMaxCost() {
+                return maxCost;
+            }
+
+            public void setMaxCost(int maxCost) {
+                this.maxCost = maxCost;
+            }
+
+            public int getThreads() {
+                return threads;
+            }
+
+            public void setThreads(int threads) {
+                this.threads = threads;
+            }
+
+            public int getQueueCapacity() {
+                return queueCapacity;
+            }
+
+            public void setQueueCapacity(int queueCapacity) {
+                this.queueCapacity = queueCapacity;
+            }
+        }
+
+        public static class RateLimit {
+
+            /**
+             * Whether the authentications and password reset requests are rate limited, by login and by address.
+             */
+            private boolean enabled = true;
+
+            /**
+             * Maximum number of buckets kept for each of the logins and the addresses. The least recently used ones are
+             * evicted beyond it.
+             */
+            private int maxBuckets = 100_000;
+
+            /**
+             * Bucket of each login, or email of a password reset request.
+             */
+            private final Bucket login = new Bucket(true, 10, Duration.ofMinutes(1));
+
+            /**
+             * Bucket of each client address, disabled by default. Users behind the same proxy share it, so it is
+             * larger. Behind a load balancer, it needs {@code server.forward-headers-strategy}, or else all the clients
+             * share the address of the load balancer.
+             */
+            private final Bucket address = new Bucket(false, 100, Duration.ofMinutes(1));
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getMaxBuckets() {
+                return maxBuckets;
+            }
+
+            public void setMaxBuckets(int maxBuckets) {
+                this.maxBuckets = maxBuckets;
+            }
+
+            public Bucket getLogin() {
+                return login;
+            }
+
+            public Bucket getAddress() {
+                return address;
+            }
+
+            public static class Bucket {
+
+                /**
+                 * Whether the attempts are limited by this bucket.
+                 */
+                private boolean enabled;
+
+                /**
+                 * Number of attempts allowed at once.
+                 */
+                private int capacity;
+
+                /**
+                 * Time after which an empty bucket allows as many attempts again.
+                 */
+                private Duration refillPeriod;
+
+                public Bucket() {}
+
+                Bucket(boolean enabled, int capacity, Duration refillPeriod) {
+                    this.enabled = enabled;
+                    this.capacity = capacity;
+                    this.refillPeriod = refillPeriod;
+                }
+
+                public boolean isEnabled() {
+                    return enabled;
+                }
+
+                public void setEnabled(boolean enabled) {
+                    this.enabled = enabled;
+                }
+
+                public int getCapacity() {
+                    return capacity;
+                }
+
+                public void setCapacity(int capacity) {
+                    this.capacity = capacity;
+                }
+
+                public Duration getRefillPeriod() {
+                    return refillPeriod;
+                }
+
+                public void setRefillPeriod(Duration refillPeriod) {
+                    this.refillPeriod = refillPeriod;
+                }
+            }
+        }
+    }
+
+    public static class VirtualThreads {
+
+        /**
+         * Whether the requests, the {@code @Async} tasks and the scheduled jobs run on virtual threads. Needs Java 21 or
+         * later, platform threads are used otherwise.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Whether to report the virtual threads blocked while pinned to their carrier thread, such as in a
+         * {@code synchronized} section of the JDBC driver or of Hibernate.
+         */
+        private boolean tracePinning = false;
+
+        /**
+         * Time a virtual thread must stay pinned to be reported.
+         */
+        private Duration pinningThreshold = Duration.ofMillis(20);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public boolean isTracePinning() {
+            return tracePinning;
+        }
+
+        public void setTracePinning(boolean tracePinning) {
+            this.tracePinning = tracePinning;
+        }
+
+        public Duration getPinningThreshold() {
+            return pinningThreshold;
+        }
+
+        public void setPinningThreshold(Duration pinningThreshold) {
+            this.pinningThreshold = pinningThreshold;
+        }
+    }
     // jhipster-needle-application-properties-property-class
+
+    public static class Mail {
+
+        /**
+         * Maximum number of mails sent over one connection to the SMTP server.
+         */
+        private int batchSize = 50;
+
+        /**
+         * Interval between two polls of the outbox, for the mails due again and those enqueued by the other nodes.
+         */
+        private Duration pollInterval = Duration.ofSeconds(10);
+
+        /**
+         * Number of failed attempts after which a mail is abandoned.
+         */
+        private int maxAttempts = 8;
+
+        /**
+         * Delay before the second attempt to send a mail, doubled after each failed attempt.
+         */
+        private Duration initialBackoff = Duration.ofSeconds(30);
+
+        /**
+         * Maximum delay between two attempts to send a mail.
+         */
+        private Duration maxBackoff = Duration.ofHours(1);
+
+        /**
+         * Maximum number of mails sent per rate limit period by each node, 0 for no limit.
+         */
+        private int rateLimit = 600;
+
+        private Duration rateLimitPeriod = Duration.ofMinutes(1);
+
+        /**
+         * Time after which the abandoned mails are deleted from the outbox, counted from their enqueuing.
+         */
+        private Duration abandonedRetention = Duration.ofDays(30);
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(Duration pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public Duration getInitialBackoff() {
+            return initialBackoff;
+        }
+
+        public void setInitialBackoff(Duration initialBackoff) {
+            this.initialBackoff = initialBackoff;
+        }
+
+        public Duration getMaxBackoff() {
+            return maxBackoff;
+        }
+
+        public void setMaxBackoff(Duration maxBackoff) {
+            this.maxBackoff = maxBackoff;
+        }
+
+        public int getRateLimit() {
+            return rateLimit;
+        }
+
+        public void setRateLimit(int rateLimit) {
+            this.rateLimit = rateLimit;
+        }
+
+        public Duration getRateLimitPeriod() {
+            return rateLimitPeriod;
+        }
+
+        public void setRateLimitPeriod(Duration rateLimitPeriod) {
+            this.rateLimitPeriod = rateLimitPeriod;
+        }
+
+        public Duration getAbandonedRetention() {
+            return abandonedRetention;
+        }
+
+        public void setAbandonedRetention(Duration abandonedRetention) {
+            this.abandonedRetention = abandonedRetention;
+        }
+    }
+
+    public static class MethodTiming {
+
+        /**
+         * Whether to time the calls of the services, repositories, REST endpoints and security components.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Share of the calls timed, from 0 to 1.
+         */
+        private double sampleRate = 1.0;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getSampleRate() {
+            return sampleRate;
+        }
+
+        public void setSampleRate(double sampleRate) {
+            this.sampleRate = sampleRate;
+        }
+    }
+
+    public static class AsyncLogging {
+
+        /**
+         * Whether the JSON console logs, when {@code jhipster.logging.use-json-format} is set, are encoded and written
+         * by a dedicated thread rather than by the threads logging.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Number of events waiting to be encoded beyond which events are dropped, rounded up to a power of two.
+         */
+        private int ringBufferSize = 8192;
+
+        /**
+         * What to do with the events logged faster than they are written.
+         */
+        private AsyncJsonConsoleAppender.Overflow overflow = AsyncJsonConsoleAppender.Overflow.SAMPLE;
+
+        /**
+         * Share of the events below WARN kept once the ring buffer is three quarters full, with the SAMPLE overflow.
+         */
+        private int sampleOneIn = 16;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getRingBufferSize() {
+            return ringBufferSize;
+        }
+
+        public void setRingBufferSize(int ringBufferSize) {
+            this.ringBufferSize = ringBufferSize;
+        }
+
+        public AsyncJsonConsoleAppender.Overflow getOverflow() {
+            return overflow;
+        }
+
+        public void setOverflow(AsyncJsonConsoleAppender.Overflow overflow) {
+            this.overflow = overflow;
+        }
+
+        public int getSampleOneIn() {
+            return sampleOneIn;
+        }
+
+        public void setSampleOneIn(int sampleOneIn) {
+            this.sampleOneIn = sampleOneIn;
+        }
+    }
+
+    public static class StaticAssets {
+
+        /**
+         * Whether the static assets with a content hash in their name are served ahead of the security filters, in
+         * production.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Time the browsers may cache the hashed assets for, as they never change.
+         */
+        private Duration immutableMaxAge = Duration.ofDays(365);
+
+        /**
+         * Size of the hashed assets, and their compressed variants, kept in memory when they are not on the file
+         * system, as when packaged in the application jar.
+         */
+        private DataSize memoryCacheSize = DataSize.ofMegabytes(32);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getImmutableMaxAge() {
+            return immutableMaxAge;
+        }
+
+        public void setImmutableMaxAge(Duration immutableMaxAge) {
+            this.immutableMaxAge = immutableMaxAge;
+        }
+
+        public DataSize getMemoryCacheSize() {
+            return memoryCacheSize;
+        }
+
+        public void setMemoryCacheSize(DataSize memoryCacheSize) {
+            this.memoryCacheSize = memoryCacheSize;
+        }
+    }
+
+    public static class Spa {
+
+        /**
+         * Prefixes of the paths never forwarded to the client index.html.
+         */
+        private List<String> excludedRoots = new ArrayList<>(List.of("/api", "/management", "/v3/api-docs", "/h2-console"));
+
+        public List<String> getExcludedRoots() {
+            return excludedRoots;
+        }
+
+        public void setExcludedRoots(List<String> excludedRoots) {
+            this.excludedRoots = excludedRoots;
+        }
+    }
+
+    public static class ReadReplicas {
+
+        /**
+         * Whether the read-only transactions are sent to the replicas, the others staying on the
+         * {@code spring.datasource} primary.
+         */
+        private boolean enabled = false;
+
+        /**
+         * JDBC URLs of the replicas, each with a pool configured as the primary one.
+         */
+        private List<String> urls = new ArrayList<>();
+
+        /**
+         * Login of the replicas, the one of the primary if not set.
+         */
+        private String username;
+
+        /**
+         * Password of the replicas, the one of the primary if not set.
+         */
+        private String password;
+
+        /**
+         * Time after which a connection to a replica fails, its read-only transaction then going to another replica or
+         * the primary.
+         */
+        private Duration connectionTimeout = Duration.ofSeconds(2);
+
+        /**
+         * Time between two checks of each replica.
+         */
+        private Duration healthCheckInterval = Duration.ofSeconds(5);
+
+        /**
+         * Time the read-only transactions of a user go to the primary after they wrote, so that they see their
+         * changes despite the replication lag, or zero.
+         */
+        private Duration readYourWritesWindow = Duration.ZERO;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public List<String> getUrls() {
+            return urls;
+        }
+
+        public void setUrls(List<String> urls) {
+            this.urls = urls;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public Duration getConnectionTimeout() {
+            return connectionTimeout;
+        }
+
+        public void setConnectionTimeout(Duration connectionTimeout) {
+            this.connectionTimeout = connectionTimeout;
+        }
+
+        public Duration getHealthCheckInterval() {
+            return healthCheckInterval;
+        }
+
+        public void setHealthCheckInterval(Duration healthCheckInterval) {
+            this.healthCheckInterval = healthCheckInterval;
+        }
+
+        public Duration getReadYourWritesWindow() {
+            return readYourWritesWindow;
+        }
+
+        public void setReadYourWritesWindow(Duration readYourWritesWindow) {
+            this.readYourWritesWindow = readYourWritesWindow;
+        }
+    }
 }
@@ -1,6 +1,8 @@
 package org.doben.raas.config;
 
+import java.util.Optional;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
@@ -15,6 +17,16 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import tech.jhipster.async.ExceptionHandlingAsyncTaskExecutor;
 
+/**
+ * Executors of the {@code @Async} tasks.
+ * <p>
+ * With {@code application.virtual-threads.enabled}, the tasks run on virtual threads, at most
+ * {@code spring.task.execution.pool.max-size} at once, instead of a pool of platform threads. The other tasks are
+ * queued up to {@code spring.task.execution.pool.queue-capacity} either way, so that the caller never waits for them
+ * to start. The mails are sent by the platform thread of the {@link org.doben.raas.service.MailDispatcher} whatever the
+ * mode: the mail client holds locks while it waits for the SMTP server, which would pin the virtual threads to the few
+ * carrier threads.
+ */
 @Configuration
 @EnableAsync
 @EnableScheduling
@@ -25,13 +37,30 @@ public class AsyncConfiguration implements AsyncConfigurer {
 
     private final TaskExecutionProperties taskExecutionProperties;
 
-    public AsyncConfiguration(TaskExecutionProperties taskExecutionProperties) {
+    private final Optional<ThreadFactory> virtualThreads;
+
+    public AsyncConfiguration(TaskExecutionProperties taskExecutionProperties, ApplicationProperties applicationProperties) {
         this.taskExecutionProperties = taskExecutionProperties;
+        this.virtualThreads =
+            applicationProperties.getVirtualThreads().isEnabled()
+                ? VirtualThreads.factory(taskExecutionProperties.getThreadNamePrefix())
+                : Optional.empty();
     }
 
     @Override
     @Bean(name = "taskExecutor")
     public Executor getAsyncExecutor() {
+        if (virtualThreads.isPresent()) {
+            log.debug("Creating Async Task Executor on virtual threads");
+            // Queued as on platform threads, so that a caller never waits for a task to start
+            ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+            executor.setThreadFactory(virtualThreads.orElseThrow());
+            executor.setCorePoolSize(taskExecutionProperties.getPool().getMaxSize());
+            executor.setMaxPoolSize(taskExecutionProperties.getPool().getMaxSize());
+            executor.setAllowCoreThreadTimeOut(true);
+            executor.setQueueCapacity(taskExecutionProperties.getPool().getQueueCapacity());
+            return new ExceptionHandlingAsyncTaskExecutor(executor);
+        }
         log.debug("Creating Async Task Executor");
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(taskExecutionProperties.getPool().getCoreSize());
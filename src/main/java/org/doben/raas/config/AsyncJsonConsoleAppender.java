@@ -0,0 +1,235 @@
+package org.doben.raas.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.encoder.Encoder;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import net.logstash.logback.encoder.StreamingEncoder;
+
+/**
+ * Appender writing the log events to the console from its own thread, so that the threads logging them never encode
+ * nor write them.
+ * <p>
+ * The events are handed over through a bounded {@link LogEventRing}: when it is full, events are dropped rather than
+ * waited for. With the {@link Overflow#SAMPLE} policy, once the ring is three quarters full only one in
+ * {@code sampleOneIn} of the events below {@code WARN} is kept, leaving the room to the warnings and errors. The encoder
+ * thread encodes the events into a single buffer, reused for the life of the thread and written to the console once the
+ * ring is drained.
+ */
+public class AsyncJsonConsoleAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+
+    public enum Overflow {
+        /**
+         * Events are only dropped when the ring is full.
+         */
+        DROP,
+        /**
+         * Events below {@code WARN} are sampled once the ring is three quarters full, and dropped when it is full.
+         */
+        SAMPLE,
+    }
+
+    private static final int FLUSH_SIZE = 64 * 1024;
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private static final long STOP_TIMEOUT_MILLIS = 1000;
+
+    private Encoder<ILoggingEvent> encoder;
+
+    private OutputStream outputStream = System.out;
+
+    private int ringBufferSize = 8192;
+
+    private Overflow overflow = Overflow.SAMPLE;
+
+    private int sampleOneIn = 16;
+
+    private Statistics statistics = new Statistics();
+
+    private LogEventRing ring;
+
+    private int samplingThreshold;
+
+    private Thread worker;
+
+    private volatile boolean running;
+
+    private volatile boolean parked;
+
+    public void setEncoder(Encoder<ILoggingEvent> encoder) {
+        this.encoder = encoder;
+    }
+
+    public void setOutputStream(OutputStream outputStream) {
+        this.outputStream = outputStream;
+    }
+
+    public void setRingBufferSize(int ringBufferSize) {
+        this.ringBufferSize = ringBufferSize;
+    }
+
+    public void setOverflow(Overflow overflow) {
+        this.overflow = overflow;
+    }
+
+    public void setSampleOneIn(int sampleOneIn) {
+        this.sampleOneIn = sampleOneIn;
+    }
+
+    /**
+     * Set the statistics, shared by the appenders replacing this one when the logging is reset.
+     */
+    public void setStatistics(Statistics statistics) {
+        this.statistics = statistics;
+    }
+
+    @Override
+    public void start() {
+        if (encoder == null) {
+            addError("No encoder set for the appender named \"" + name + "\".");
+            return;
+        }
+        ring = new LogEventRing(ringBufferSize);
+        samplingThreshold = ring.capacity() - ring.capacity() / 4;
+        statistics.ring = ring;
+        running = true;
+        worker = new Thread(this::encode, "log-encoder");
+        worker.setDaemon(true);
+        worker.start();
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        running = false;
+        LockSupport.unpark(worker);
+        try {
+            worker.join(STOP_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (statistics.ring == ring) {
+            statistics.ring = null;
+        }
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        if (
+            overflow == Overflow.SAMPLE &&
+            !event.getLevel().isGreaterOrEqual(Level.WARN) &&
+            ring.size() >= samplingThreshold &&
+            ThreadLocalRandom.current().nextInt(sampleOneIn) != 0
+        ) {
+            statistics.sampled.increment();
+            return;
+        }
+        event.prepareForDeferredProcessing();
+        if (!ring.offer(event)) {
+            statistics.full.increment();
+            return;
+        }
+        if (parked) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    private void encode() {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(FLUSH_SIZE * 2);
+        while (running || !ring.isEmpty()) {
+            ILoggingEvent event = ring.poll();
+            if (event == null) {
+                flush(buffer);
+                parked = true;
+                if (running && ring.isEmpty()) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                parked = false;
+                continue;
+            }
+            try {
+                if (encoder instanceof StreamingEncoder<?>) {
+                    @SuppressWarnings("unchecked")
+                    StreamingEncoder<ILoggingEvent> streamingEncoder = (StreamingEncoder<ILoggingEvent>) encoder;
+                    streamingEncoder.encode(event, buffer);
+                } else {
+                    buffer.writeBytes(encoder.encode(event));
+                }
+            } catch (IOException | RuntimeException e) {
+                statistics.failed.increment();
+            }
+            if (buffer.size() >= FLUSH_SIZE) {
+                flush(buffer);
+            }
+        }
+        flush(buffer);
+    }
+
+    private void flush(ByteArrayOutputStream buffer) {
+        if (buffer.size() == 0) {
+            return;
+        }
+        try {
+            buffer.writeTo(outputStream);
+            outputStream.flush();
+        } catch (IOException e) {
+            statistics.failed.increment();
+        }
+        buffer.reset();
+    }
+
+    /**
+     * Counts of the events dropped by the appenders, and size of the ring of the current one.
+     */
+    public static class Statistics {
+
+        private final LongAdder full = new LongAdder();
+
+        private final LongAdder sampled = new LongAdder();
+
+        private final LongAdder failed = new LongAdder();
+
+        private volatile LogEventRing ring;
+
+        /**
+         * The number of events dropped as the ring was full.
+         */
+        public long getFull() {
+            return full.sum();
+        }
+
+        /**
+         * The number of events dropped by the sampling.
+         */
+        public long getSampled() {
+            return sampled.sum();
+        }
+
+        /**
+         * The number of events that could not be encoded, and of the batches that could not be written.
+         */
+        public long getFailed() {
+            return failed.sum();
+        }
+
+        /**
+         * The number of events waiting to be encoded.
+         */
+        public int getQueued() {
+            LogEventRing current = ring;
+            return current == null ? 0 : current.size();
+        }
+    }
+}
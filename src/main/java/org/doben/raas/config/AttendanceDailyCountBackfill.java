@@ -0,0 +1,87 @@
+package org.doben.raas.config;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TimeZone;
+import liquibase.change.custom.CustomTaskChange;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomChangeException;
+import liquibase.exception.DatabaseException;
+import liquibase.exception.ValidationErrors;
+import liquibase.resource.ResourceAccessor;
+
+/**
+ * Liquibase change backfilling the {@code attendance_daily_count} rollup from the existing attendances.
+ * <p>
+ * The attendances are bucketed in Java, by the UTC day of their date as Hibernate reads it with
+ * {@code hibernate.jdbc.time_zone} set to UTC, like {@code AttendanceStatisticsService} buckets the attendances it
+ * counts. A cast of the column to a date would depend on the time zone of the database session instead.
+ */
+public class AttendanceDailyCountBackfill implements CustomTaskChange {
+
+    private int buckets;
+
+    @Override
+    public void execute(Database database) throws CustomChangeException {
+        JdbcConnection connection = (JdbcConnection) database.getConnection();
+        Calendar utc = Calendar.getInstance(TimeZone.getTimeZone(ZoneOffset.UTC));
+        Map<List<Object>, Long> counts = new LinkedHashMap<>();
+        try (
+            Statement select = connection.createStatement();
+            ResultSet attendances = select.executeQuery("select date_time, place, how_many from attendance where date_time is not null")
+        ) {
+            while (attendances.next()) {
+                LocalDate day = LocalDate.ofInstant(attendances.getTimestamp(1, utc).toInstant(), ZoneOffset.UTC);
+                String place = Objects.requireNonNullElse(attendances.getString(2), "");
+                String howMany = Objects.requireNonNullElse(attendances.getString(3), "");
+                counts.merge(Arrays.asList(day, place, howMany), 1L, Long::sum);
+            }
+        } catch (DatabaseException | SQLException e) {
+            throw new CustomChangeException("Could not read the attendances", e);
+        }
+        try (
+            PreparedStatement insert = connection.prepareStatement(
+                "insert into attendance_daily_count (count_date, place, how_many, attendance_count) values (?, ?, ?, ?)"
+            )
+        ) {
+            for (Map.Entry<List<Object>, Long> count : counts.entrySet()) {
+                insert.setObject(1, count.getKey().get(0));
+                insert.setString(2, (String) count.getKey().get(1));
+                insert.setString(3, (String) count.getKey().get(2));
+                insert.setLong(4, count.getValue());
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        } catch (DatabaseException | SQLException e) {
+            throw new CustomChangeException("Could not backfill the attendance counts", e);
+        }
+        buckets = counts.size();
+    }
+
+    @Override
+    public String getConfirmationMessage() {
+        return "Backfilled " + buckets + " attendance daily counts";
+    }
+
+    @Override
+    public void setUp() {}
+
+    @Override
+    public void setFileOpener(ResourceAccessor resourceAccessor) {}
+
+    @Override
+    public ValidationErrors validate(Database database) {
+        return new ValidationErrors();
+    }
+}
@@ -6,6 +6,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.slf4j.Marker;
 import org.slf4j.MarkerFactory;
 import org.springframework.boot.ansi.AnsiColor;
@@ -16,6 +17,9 @@ import org.springframework.boot.ansi.AnsiStyle;
 /**
  * Log filter to prevent attackers from forging log entries by submitting input containing CRLF characters.
  * CRLF characters are replaced with a red colored _ character.
+ * <p>
+ * It runs on every log line: a line without CRLF characters is returned as is, and the replacement and whether a
+ * logger is safe are only resolved once.
  *
  * @see <a href="https://owasp.org/www-community/attacks/Log_Injection">Log Forging Description</a>
  * @see <a href="https://github.com/jhipster/generator-jhipster/issues/14949">JHipster issue</a>
@@ -43,27 +47,77 @@ public class CRLFLogConverter extends CompositeConverter<ILoggingEvent> {
         ELEMENTS = Collections.unmodifiableMap(ansiElements);
     }
 
+    private final Map<String, Boolean> safeLoggers = new ConcurrentHashMap<>();
+
+    private volatile String replacement;
+
     @Override
     protected String transform(ILoggingEvent event, String in) {
-        AnsiElement element = ELEMENTS.get(getFirstOption());
         List<Marker> markers = event.getMarkerList();
         if ((markers != null && !markers.isEmpty() && markers.get(0).contains(CRLF_SAFE_MARKER)) || isLoggerSafe(event)) {
             return in;
         }
-        String replacement = element == null ? "_" : toAnsiString("_", element);
-        return in.replaceAll("[\n\r\t]", replacement);
+        return replaceCrlf(in);
     }
 
     protected boolean isLoggerSafe(ILoggingEvent event) {
-        for (String safeLogger : SAFE_LOGGERS) {
-            if (event.getLoggerName().startsWith(safeLogger)) {
-                return true;
-            }
+        String loggerName = event.getLoggerName();
+        Boolean safe = safeLoggers.get(loggerName);
+        if (safe == null) {
+            safe = safeLoggers.computeIfAbsent(loggerName, CRLFLogConverter::isSafeLoggerName);
         }
-        return false;
+        return safe;
     }
 
     protected String toAnsiString(String in, AnsiElement element) {
         return AnsiOutput.toString(element, in);
     }
+
+    private String replaceCrlf(String in) {
+        int length = in.length();
+        int index = 0;
+        while (index < length && !isCrlf(in.charAt(index))) {
+            index++;
+        }
+        if (index == length) {
+            return in;
+        }
+        String replacement = replacement();
+        StringBuilder out = new StringBuilder(length + replacement.length() * 4);
+        int start = 0;
+        for (; index < length; index++) {
+            if (isCrlf(in.charAt(index))) {
+                out.append(in, start, index).append(replacement);
+                start = index + 1;
+            }
+        }
+        return out.append(in, start, length).toString();
+    }
+
+    /**
+     * Resolved on the first replacement rather than when the converter is started, as Spring Boot may only configure
+     * the ANSI output after the logging.
+     */
+    private String replacement() {
+        String resolved = replacement;
+        if (resolved == null) {
+            AnsiElement element = ELEMENTS.get(getFirstOption());
+            resolved = element == null ? "_" : toAnsiString("_", element);
+            replacement = resolved;
+        }
+        return resolved;
+    }
+
+    private static boolean isCrlf(char c) {
+        return c == '\n' || c == '\r' || c == '\t';
+    }
+
+    private static boolean isSafeLoggerName(String loggerName) {
+        for (String safeLogger : SAFE_LOGGERS) {
+            if (loggerName.startsWith(safeLogger)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
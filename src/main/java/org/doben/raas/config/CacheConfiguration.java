@@ -1,9 +1,21 @@
 package org.doben.raas.config;
 
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.config.MeterFilter;
 import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.doben.raas.domain.User;
 import org.ehcache.config.builders.*;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.expiry.ExpiryPolicy;
 import org.ehcache.jsr107.Eh107Configuration;
 import org.hibernate.cache.jcache.ConfigSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
 import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
@@ -19,20 +31,26 @@ import tech.jhipster.config.cache.PrefixedKeyGenerator;
 @EnableCaching
 public class CacheConfiguration {
 
+    /**
+     * Prefix of the entity and collection regions, left out of the region names in {@link ApplicationProperties.Cache}.
+     */
+    private static final String DOMAIN_PREFIX = "org.doben.raas.domain.";
+
+    private static final String NO_ENTITY = "none";
+
+    private final Logger log = LoggerFactory.getLogger(CacheConfiguration.class);
+
     private GitProperties gitProperties;
     private BuildProperties buildProperties;
-    private final javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration;
-
-    public CacheConfiguration(JHipsterProperties jHipsterProperties) {
-        JHipsterProperties.Cache.Ehcache ehcache = jHipsterProperties.getCache().getEhcache();
-
-        jcacheConfiguration =
-            Eh107Configuration.fromEhcacheCacheConfiguration(
-                CacheConfigurationBuilder
-                    .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(ehcache.getMaxEntries()))
-                    .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(ehcache.getTimeToLiveSeconds())))
-                    .build()
-            );
+    private final JHipsterProperties.Cache.Ehcache ehcache;
+    private final ApplicationProperties.Cache cacheProperties;
+    private final Set<String> unusedRegions;
+    private final Map<String, String> cacheEntities = new ConcurrentHashMap<>();
+
+    public CacheConfiguration(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
+        this.ehcache = jHipsterProperties.getCache().getEhcache();
+        this.cacheProperties = applicationProperties.getCache();
+        this.unusedRegions = new LinkedHashSet<>(cacheProperties.getRegions().keySet());
     }
 
     @Bean
@@ -43,26 +61,99 @@ public class CacheConfiguration {
     @Bean
     public JCacheManagerCustomizer cacheManagerCustomizer() {
         return cm -> {
-            createCache(cm, org.doben.raas.repository.UserRepository.USERS_BY_LOGIN_CACHE);
-            createCache(cm, org.doben.raas.repository.UserRepository.USERS_BY_EMAIL_CACHE);
-            createCache(cm, org.doben.raas.domain.User.class.getName());
-            createCache(cm, org.doben.raas.domain.Authority.class.getName());
-            createCache(cm, org.doben.raas.domain.User.class.getName() + ".authorities");
-            createCache(cm, org.doben.raas.domain.Person.class.getName());
-            createCache(cm, org.doben.raas.domain.Attendance.class.getName());
-            createCache(cm, org.doben.raas.domain.Attendance.class.getName() + ".professionals");
-            createCache(cm, org.doben.raas.domain.Attendance.class.getName() + ".patients");
+            createCache(cm, org.doben.raas.repository.UserRepository.USERS_BY_LOGIN_CACHE, User.class);
+            createCache(cm, org.doben.raas.repository.UserRepository.USERS_BY_EMAIL_CACHE, User.class);
+            createCache(cm, org.doben.raas.domain.User.class.getName(), User.class);
+            createCache(cm, org.doben.raas.domain.Authority.class.getName(), org.doben.raas.domain.Authority.class);
+            createCache(cm, org.doben.raas.domain.User.class.getName() + ".authorities", User.class);
+            createCache(cm, org.doben.raas.domain.Person.class.getName(), org.doben.raas.domain.Person.class);
+            createCache(cm, org.doben.raas.domain.Attendance.class.getName(), org.doben.raas.domain.Attendance.class);
+            createCache(cm, org.doben.raas.domain.Attendance.class.getName() + ".professionals", org.doben.raas.domain.Attendance.class);
+            createCache(cm, org.doben.raas.domain.Attendance.class.getName() + ".patients", org.doben.raas.domain.Attendance.class);
             // jhipster-needle-ehcache-add-entry
+            unusedRegions.forEach(region -> log.warn("Cache policy configured for unknown region {}", region));
         };
     }
 
-    private void createCache(javax.cache.CacheManager cm, String cacheName) {
+    private void createCache(javax.cache.CacheManager cm, String cacheName, Class<?> entity) {
+        cacheEntities.put(cacheName, entity.getSimpleName());
         javax.cache.Cache<Object, Object> cache = cm.getCache(cacheName);
         if (cache != null) {
             cache.clear();
         } else {
-            cm.createCache(cacheName, jcacheConfiguration);
+            cm.createCache(cacheName, jcacheConfiguration(cacheName));
+        }
+        // Backs the hit, miss, put, removal and eviction meters Spring Boot binds to the cache
+        cm.enableStatistics(cacheName, true);
+    }
+
+    /**
+     * Tag the cache meters with the region and the entity they cache, such as {@code Attendance.patients} and
+     * {@code Attendance}, or {@code none} for a cache not created here.
+     */
+    @Bean
+    public MeterFilter cacheRegionMeterFilter() {
+        return new MeterFilter() {
+            @Override
+            public Meter.Id map(Meter.Id id) {
+                String cacheName = id.getTag("cache");
+                if (cacheName == null || !id.getName().startsWith("cache.") || id.getTag("region") != null) {
+                    return id;
+                }
+                String region = region(cacheName);
+                String entity = cacheEntities.getOrDefault(cacheName, NO_ENTITY);
+                return id.withTag(Tag.of("region", region)).withTag(Tag.of("entity", entity));
+            }
+        };
+    }
+
+    private static String region(String cacheName) {
+        return cacheName.startsWith(DOMAIN_PREFIX) ? cacheName.substring(DOMAIN_PREFIX.length()) : cacheName;
+    }
+
+    /**
+     * Build the configuration of a region from its policy, falling back to the {@code jhipster.cache.ehcache} settings.
+     */
+    private javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration(String cacheName) {
+        String region = region(cacheName);
+        unusedRegions.remove(region);
+        ApplicationProperties.Cache.Region policy = cacheProperties
+            .getRegions()
+            .getOrDefault(region, new ApplicationProperties.Cache.Region());
+
+        long maxEntries = policy.getMaxEntries() != null ? policy.getMaxEntries() : ehcache.getMaxEntries();
+        ResourcePoolsBuilder resourcePools = ResourcePoolsBuilder.heap(maxEntries);
+        if (policy.getOffHeapSize() != null) {
+            resourcePools = resourcePools.offheap(policy.getOffHeapSize().toBytes(), MemoryUnit.B);
+        }
+        long timeToLiveSeconds = policy.getTimeToLiveSeconds() != null ? policy.getTimeToLiveSeconds() : ehcache.getTimeToLiveSeconds();
+        if (timeToLiveSeconds > 0 && policy.getTimeToIdleSeconds() != null) {
+            log.warn("Cache region {} has a time-to-live, its time-to-idle is ignored", region);
+        }
+        double jitter = policy.getExpiryJitter() != null ? policy.getExpiryJitter() : cacheProperties.getExpiryJitter();
+        ExpiryPolicy<Object, Object> expiry = new JitteredExpiryPolicy(
+            timeToLiveSeconds > 0 ? Duration.ofSeconds(timeToLiveSeconds) : null,
+            policy.getTimeToIdleSeconds() != null ? Duration.ofSeconds(policy.getTimeToIdleSeconds()) : null,
+            jitter
+        );
+
+        CacheConfigurationBuilder<Object, Object> builder = CacheConfigurationBuilder
+            .newCacheConfigurationBuilder(Object.class, Object.class, resourcePools)
+            .withExpiry(expiry);
+        if (policy.getOffHeapSize() != null) {
+            CompactSerializer serializer = new CompactSerializer(CacheConfiguration.class.getClassLoader());
+            builder = builder.withKeySerializer(serializer).withValueSerializer(serializer);
         }
+        log.debug(
+            "Cache region {}: {} entries on heap, {} off heap, time-to-live {}s, time-to-idle {}s, jitter {}",
+            region,
+            maxEntries,
+            policy.getOffHeapSize(),
+            timeToLiveSeconds,
+            policy.getTimeToIdleSeconds(),
+            jitter
+        );
+        return Eh107Configuration.fromEhcacheCacheConfiguration(builder.build());
     }
 
     @Autowired(required = false)
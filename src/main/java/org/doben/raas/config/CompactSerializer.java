@@ -0,0 +1,99 @@
+package org.doben.raas.config;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+import org.ehcache.spi.serialization.Serializer;
+import org.ehcache.spi.serialization.SerializerException;
+
+/**
+ * Serializer of the off-heap cache tiers.
+ * <p>
+ * Entries are Java-serialized, as the Hibernate cache keys and entries only guarantee {@link java.io.Serializable}.
+ * Serialized forms above a threshold are deflated: cached entities repeat their class descriptors and field names, and
+ * compress well, so that more of them fit in the same off-heap size. A leading byte tells whether a form is deflated.
+ */
+class CompactSerializer implements Serializer<Object> {
+
+    static final int DEFLATE_THRESHOLD = 256;
+
+    private static final byte PLAIN = 0;
+
+    private static final byte DEFLATED = 1;
+
+    private final ClassLoader classLoader;
+
+    CompactSerializer(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    @Override
+    public ByteBuffer serialize(Object object) throws SerializerException {
+        byte[] plain = write(object, null);
+        if (plain.length - 1 < DEFLATE_THRESHOLD) {
+            return ByteBuffer.wrap(plain);
+        }
+        byte[] deflated = write(object, new Deflater(Deflater.BEST_SPEED));
+        return ByteBuffer.wrap(deflated.length < plain.length ? deflated : plain);
+    }
+
+    @Override
+    public Object read(ByteBuffer binary) throws ClassNotFoundException, SerializerException {
+        ByteBuffer buffer = binary.duplicate();
+        byte format = buffer.get();
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        InputStream in = new ByteArrayInputStream(bytes);
+        try (ObjectInputStream objects = new ClassLoaderObjectInputStream(format == DEFLATED ? new InflaterInputStream(in) : in)) {
+            return objects.readObject();
+        } catch (IOException e) {
+            throw new SerializerException(e);
+        }
+    }
+
+    @Override
+    public boolean equals(Object object, ByteBuffer binary) throws ClassNotFoundException, SerializerException {
+        return object.equals(read(binary));
+    }
+
+    private byte[] write(Object object, Deflater deflater) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write(deflater == null ? PLAIN : DEFLATED);
+        OutputStream out = deflater == null ? bytes : new DeflaterOutputStream(bytes, deflater);
+        try (ObjectOutputStream objects = new ObjectOutputStream(out)) {
+            objects.writeObject(object);
+        } catch (IOException e) {
+            throw new SerializerException(e);
+        } finally {
+            if (deflater != null) {
+                deflater.end();
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private class ClassLoaderObjectInputStream extends ObjectInputStream {
+
+        ClassLoaderObjectInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            try {
+                return Class.forName(desc.getName(), false, classLoader);
+            } catch (ClassNotFoundException e) {
+                return super.resolveClass(desc);
+            }
+        }
+    }
+}
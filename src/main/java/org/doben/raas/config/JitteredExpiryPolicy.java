@@ -0,0 +1,69 @@
+package org.doben.raas.config;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import org.ehcache.expiry.ExpiryPolicy;
+
+/**
+ * Expiry policy of a cache region, with a time-to-live and a time-to-idle.
+ * <p>
+ * Each expiry is shortened by a random fraction of itself, up to the jitter, so that the entries loaded together, such as
+ * after a restart, expire over a period instead of all at once. The configured times remain upper bounds.
+ * <p>
+ * The time-to-idle only applies without a time-to-live: the expiry of an entry cannot see when it was written, so a read
+ * extending it could keep an entry read often in the cache forever. With a time-to-live, the reads keep the expiry.
+ */
+class JitteredExpiryPolicy implements ExpiryPolicy<Object, Object> {
+
+    private final Duration timeToLive;
+
+    private final Duration timeToIdle;
+
+    private final double jitter;
+
+    /**
+     * @param timeToLive the expiry after a write, or {@code null} for none.
+     * @param timeToIdle the expiry after a read, or {@code null} for none, ignored with a time-to-live.
+     * @param jitter the maximum fraction by which an expiry is shortened, from {@code 0} to {@code 1}.
+     */
+    JitteredExpiryPolicy(Duration timeToLive, Duration timeToIdle, double jitter) {
+        if (jitter < 0 || jitter > 1) {
+            throw new IllegalArgumentException("Expiry jitter must be between 0 and 1: " + jitter);
+        }
+        this.timeToLive = timeToLive;
+        this.timeToIdle = timeToIdle;
+        this.jitter = jitter;
+    }
+
+    @Override
+    public Duration getExpiryForCreation(Object key, Object value) {
+        return afterWrite();
+    }
+
+    @Override
+    public Duration getExpiryForAccess(Object key, Supplier<?> value) {
+        // null keeps the current expiry
+        return timeToLive != null || timeToIdle == null ? null : jittered(timeToIdle);
+    }
+
+    @Override
+    public Duration getExpiryForUpdate(Object key, Supplier<?> oldValue, Object newValue) {
+        return afterWrite();
+    }
+
+    private Duration afterWrite() {
+        if (timeToLive != null) {
+            return jittered(timeToLive);
+        }
+        return timeToIdle != null ? jittered(timeToIdle) : INFINITE;
+    }
+
+    private Duration jittered(Duration expiry) {
+        long spread = (long) (expiry.toMillis() * jitter);
+        if (spread <= 0) {
+            return expiry;
+        }
+        return expiry.minusMillis(ThreadLocalRandom.current().nextLong(spread + 1));
+    }
+}
@@ -0,0 +1,103 @@
+package org.doben.raas.config;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free ring of log events, offered by any thread and polled by a single one.
+ * <p>
+ * Each slot carries a sequence telling whether it is free for the offer of a given position or holds the event of
+ * that position, so that producers only contend on the claim of the next position and never wait for the consumer.
+ */
+final class LogEventRing {
+
+    private final int capacity;
+
+    private final int mask;
+
+    private final AtomicReferenceArray<ILoggingEvent> events;
+
+    private final AtomicLongArray sequences;
+
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Only written by the consumer.
+     */
+    private volatile long head;
+
+    /**
+     * @param capacity the minimum number of events held, rounded up to a power of two.
+     */
+    LogEventRing(int capacity) {
+        this.capacity = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1);
+        this.mask = this.capacity - 1;
+        this.events = new AtomicReferenceArray<>(this.capacity);
+        this.sequences = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Add an event, if the ring is not full.
+     *
+     * @return whether the event was added.
+     */
+    boolean offer(ILoggingEvent event) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long available = sequences.get(index) - position;
+            if (available == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    events.set(index, event);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (available < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Remove the oldest event, from the consumer thread.
+     *
+     * @return the event, or {@code null} if the ring is empty.
+     */
+    ILoggingEvent poll() {
+        long position = head;
+        int index = (int) position & mask;
+        if (sequences.get(index) != position + 1) {
+            return null;
+        }
+        ILoggingEvent event = events.get(index);
+        events.set(index, null);
+        sequences.set(index, position + capacity);
+        head = position + 1;
+        return event;
+    }
+
+    /**
+     * The number of events held, possibly including events still being added.
+     */
+    int size() {
+        long size = tail.get() - head;
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+
+    boolean isEmpty() {
+        long position = head;
+        return sequences.get((int) position & mask) != position + 1;
+    }
+}
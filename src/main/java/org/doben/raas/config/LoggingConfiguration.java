@@ -2,13 +2,26 @@ package org.doben.raas.config;
 
 import static tech.jhipster.config.logging.LoggingUtils.*;
 
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
 import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggerContextListener;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.ConsoleAppender;
+import ch.qos.logback.core.spi.ContextAwareBase;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.ToDoubleFunction;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import tech.jhipster.config.JHipsterProperties;
 
@@ -18,10 +31,23 @@ import tech.jhipster.config.JHipsterProperties;
 @Configuration
 public class LoggingConfiguration {
 
+    public static final String DROPPED_METER_NAME = "logging.async.dropped";
+    public static final String DROPPED_METER_DESCRIPTION = "Number of log events dropped by the asynchronous console appender";
+
+    public static final String QUEUED_METER_NAME = "logging.async.queued";
+    public static final String QUEUED_METER_DESCRIPTION = "Number of log events waiting to be written by the asynchronous console appender";
+
+    private static final String CONSOLE_APPENDER_NAME = "CONSOLE";
+
+    private final AsyncJsonConsoleAppender.Statistics asyncStatistics = new AsyncJsonConsoleAppender.Statistics();
+
+    private final boolean asyncConsole;
+
     public LoggingConfiguration(
         @Value("${spring.application.name}") String appName,
         @Value("${server.port}") String serverPort,
         JHipsterProperties jHipsterProperties,
+        ApplicationProperties applicationProperties,
         ObjectMapper mapper
     ) throws JsonProcessingException {
         LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
@@ -33,15 +59,137 @@ public class LoggingConfiguration {
 
         JHipsterProperties.Logging loggingProperties = jHipsterProperties.getLogging();
         JHipsterProperties.Logging.Logstash logstashProperties = loggingProperties.getLogstash();
+        ApplicationProperties.AsyncLogging asyncLoggingProperties = applicationProperties.getAsyncLogging();
+        asyncConsole = loggingProperties.isUseJsonFormat() && asyncLoggingProperties.isEnabled();
 
         if (loggingProperties.isUseJsonFormat()) {
             addJsonConsoleAppender(context, customFields);
         }
+        if (asyncConsole) {
+            addAsyncJsonConsoleAppender(context, asyncLoggingProperties, asyncStatistics);
+        }
         if (logstashProperties.isEnabled()) {
             addLogstashTcpSocketAppender(context, customFields, logstashProperties);
         }
-        if (loggingProperties.isUseJsonFormat() || logstashProperties.isEnabled()) {
+        if (asyncConsole) {
+            AsyncLoggerContextListener listener = new AsyncLoggerContextListener(
+                customFields,
+                logstashProperties,
+                asyncLoggingProperties,
+                asyncStatistics
+            );
+            listener.setContext(context);
+            context.addListener(listener);
+        } else if (loggingProperties.isUseJsonFormat() || logstashProperties.isEnabled()) {
             addContextListener(context, customFields, loggingProperties);
         }
     }
+
+    @Bean
+    public MeterBinder asyncLoggingMeterBinder() {
+        return registry -> {
+            if (!asyncConsole) {
+                return;
+            }
+            dropped(registry, "full", AsyncJsonConsoleAppender.Statistics::getFull);
+            dropped(registry, "sampled", AsyncJsonConsoleAppender.Statistics::getSampled);
+            dropped(registry, "failed", AsyncJsonConsoleAppender.Statistics::getFailed);
+            Gauge
+                .builder(QUEUED_METER_NAME, asyncStatistics, AsyncJsonConsoleAppender.Statistics::getQueued)
+                .description(QUEUED_METER_DESCRIPTION)
+                .register(registry);
+        };
+    }
+
+    private void dropped(MeterRegistry registry, String reason, ToDoubleFunction<AsyncJsonConsoleAppender.Statistics> count) {
+        FunctionCounter
+            .builder(DROPPED_METER_NAME, asyncStatistics, count)
+            .description(DROPPED_METER_DESCRIPTION)
+            .tag("reason", reason)
+            .register(registry);
+    }
+
+    /**
+     * Replace the JSON console appender with an asynchronous one, using its encoder.
+     */
+    private static void addAsyncJsonConsoleAppender(
+        LoggerContext context,
+        ApplicationProperties.AsyncLogging properties,
+        AsyncJsonConsoleAppender.Statistics statistics
+    ) {
+        Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        Appender<ILoggingEvent> console = root.getAppender(CONSOLE_APPENDER_NAME);
+        if (!(console instanceof ConsoleAppender<ILoggingEvent> consoleAppender)) {
+            return;
+        }
+        AsyncJsonConsoleAppender asyncAppender = new AsyncJsonConsoleAppender();
+        asyncAppender.setContext(context);
+        asyncAppender.setName(CONSOLE_APPENDER_NAME);
+        asyncAppender.setEncoder(consoleAppender.getEncoder());
+        asyncAppender.setRingBufferSize(properties.getRingBufferSize());
+        asyncAppender.setOverflow(properties.getOverflow());
+        asyncAppender.setSampleOneIn(properties.getSampleOneIn());
+        asyncAppender.setStatistics(statistics);
+        asyncAppender.start();
+        root.detachAppender(consoleAppender);
+        consoleAppender.stop();
+        root.addAppender(asyncAppender);
+    }
+
+    /**
+     * Adds the JSON console and Logstash appenders back when the logging is reset, as the listener of JHipster does,
+     * with the console appender made asynchronous.
+     */
+    private static class AsyncLoggerContextListener extends ContextAwareBase implements LoggerContextListener {
+
+        private final String customFields;
+        private final JHipsterProperties.Logging.Logstash logstashProperties;
+        private final ApplicationProperties.AsyncLogging asyncLoggingProperties;
+        private final AsyncJsonConsoleAppender.Statistics statistics;
+
+        private AsyncLoggerContextListener(
+            String customFields,
+            JHipsterProperties.Logging.Logstash logstashProperties,
+            ApplicationProperties.AsyncLogging asyncLoggingProperties,
+            AsyncJsonConsoleAppender.Statistics statistics
+        ) {
+            this.customFields = customFields;
+            this.logstashProperties = logstashProperties;
+            this.asyncLoggingProperties = asyncLoggingProperties;
+            this.statistics = statistics;
+        }
+
+        @Override
+        public boolean isResetResistant() {
+            return true;
+        }
+
+        @Override
+        public void onStart(LoggerContext context) {
+            reset(context);
+        }
+
+        @Override
+        public void onReset(LoggerContext context) {
+            reset(context);
+        }
+
+        @Override
+        public void onStop(LoggerContext context) {
+            // Nothing to do
+        }
+
+        @Override
+        public void onLevelChange(Logger logger, Level level) {
+            // Nothing to do
+        }
+
+        private void reset(LoggerContext context) {
+            addJsonConsoleAppender(context, customFields);
+            addAsyncJsonConsoleAppender(context, asyncLoggingProperties, statistics);
+            if (logstashProperties.isEnabled()) {
+                addLogstashTcpSocketAppender(context, customFields, logstashProperties);
+            }
+        }
+    }
 }
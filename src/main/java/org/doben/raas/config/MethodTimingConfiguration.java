@@ -0,0 +1,43 @@
+package org.doben.raas.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.doben.raas.aop.logging.LoggingAspect;
+import org.doben.raas.aop.timing.MethodTimingInterceptor;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.aspectj.AspectJExpressionPointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.env.Environment;
+
+/**
+ * Times the calls of the services, repositories and REST endpoints, those logged by the {@link LoggingAspect} in
+ * development, and of the security components, when {@code application.method-timing.enabled} is set.
+ * <p>
+ * Nothing is proxied for it otherwise.
+ */
+@Configuration
+@ConditionalOnProperty(name = "application.method-timing.enabled", havingValue = "true")
+public class MethodTimingConfiguration {
+
+    static final String POINTCUT =
+        "(applicationPackagePointcut() && springBeanPointcut())" +
+        " || (within(org.doben.raas.security..*) && within(@org.springframework.stereotype.Component *))";
+
+    /**
+     * Created along with the proxies, before most beans: the registry and the properties are only read once needed.
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor methodTimingAdvisor(ObjectProvider<MeterRegistry> meterRegistry, Environment environment) {
+        AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut();
+        pointcut.setPointcutDeclarationScope(LoggingAspect.class);
+        pointcut.setExpression(POINTCUT);
+        double sampleRate = environment.getProperty("application.method-timing.sample-rate", Double.class, 1.0);
+        return new DefaultPointcutAdvisor(pointcut, new MethodTimingInterceptor(meterRegistry::getObject, sampleRate));
+    }
+}
@@ -0,0 +1,122 @@
+package org.doben.raas.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.doben.raas.security.SecurityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Sends the read-only transactions to the MySQL replicas, when {@code application.read-replicas.enabled} is set.
+ * <p>
+ * The {@code spring.datasource} pool, which Spring Boot no longer creates, stays the primary: the writes, Liquibase and
+ * the statements run outside of a transaction go to it. Each replica gets a read-only pool configured as the primary
+ * one. See {@link ReadWriteRoutingDataSource}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "application.read-replicas.enabled", havingValue = "true")
+public class ReadReplicasConfiguration {
+
+    public static final String ROUTED_METER_NAME = "datasource.routed";
+    public static final String ROUTED_METER_DESCRIPTION = "Number of connections sent to the primary or to a replica";
+
+    public static final String HEALTHY_METER_NAME = "datasource.replicas.healthy";
+    public static final String HEALTHY_METER_DESCRIPTION = "Number of replicas the read-only transactions are sent to";
+
+    private final Logger log = LoggerFactory.getLogger(ReadReplicasConfiguration.class);
+
+    private final ApplicationProperties.ReadReplicas properties;
+
+    private final List<HikariDataSource> replicaPools = new ArrayList<>();
+
+    public ReadReplicasConfiguration(ApplicationProperties applicationProperties) {
+        this.properties = applicationProperties.getReadReplicas();
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReadWriteRoutingDataSource readWriteRoutingDataSource(HikariDataSource primaryDataSource) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        List<String> urls = properties.getUrls();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            primaryDataSource.copyStateTo(replica);
+            replica.setPoolName(primaryDataSource.getPoolName() + "-replica-" + (i + 1));
+            replica.setJdbcUrl(urls.get(i));
+            if (properties.getUsername() != null) {
+                replica.setUsername(properties.getUsername());
+                replica.setPassword(properties.getPassword());
+            }
+            replica.setReadOnly(true);
+            replica.setConnectionTimeout(properties.getConnectionTimeout().toMillis());
+            // Failing replicas are taken out of the rotation instead of failing the startup
+            replica.setInitializationFailTimeout(-1);
+            replicaPools.add(replica);
+            replicas.put(replica.getPoolName(), replica);
+        }
+        if (replicas.isEmpty()) {
+            log.warn("No replica is set in application.read-replicas.urls, all the transactions go to the primary");
+        }
+        ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(
+            primaryDataSource,
+            replicas,
+            properties.getReadYourWritesWindow(),
+            SecurityUtils::getCurrentUserLogin
+        );
+        routingDataSource.start(properties.getHealthCheckInterval());
+        return routingDataSource;
+    }
+
+    /**
+     * The data source of the application, only requesting a connection on the first statement of a transaction, once
+     * it is known to be read-only.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource readWriteRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(readWriteRoutingDataSource);
+    }
+
+    @Bean
+    public MeterBinder readReplicasMeterBinder(ReadWriteRoutingDataSource readWriteRoutingDataSource) {
+        return registry -> {
+            // Spring Boot only instruments the pool of the primary, the data source beans unwrapping to it
+            for (HikariDataSource replica : replicaPools) {
+                if (replica.getMetricRegistry() == null && replica.getMetricsTrackerFactory() == null) {
+                    replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+                }
+            }
+            for (ReadWriteRoutingDataSource.Route route : ReadWriteRoutingDataSource.Route.values()) {
+                FunctionCounter
+                    .builder(ROUTED_METER_NAME, readWriteRoutingDataSource, dataSource -> dataSource.getRouted(route))
+                    .description(ROUTED_METER_DESCRIPTION)
+                    .tag("route", route.getTag())
+                    .register(registry);
+            }
+            Gauge
+                .builder(HEALTHY_METER_NAME, readWriteRoutingDataSource, ReadWriteRoutingDataSource::getHealthyReplicas)
+                .description(HEALTHY_METER_DESCRIPTION)
+                .register(registry);
+        };
+    }
+}
@@ -0,0 +1,358 @@
+package org.doben.raas.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import javax.sql.DataSource;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Data source sending the connections of the read-only transactions to the replicas, in turn, and the others to the
+ * primary.
+ * <p>
+ * The transaction must be known when the connection is requested, which it is not yet when the transaction manager
+ * begins it: this data source is wrapped in a {@link LazyConnectionDataSourceProxy}, which only requests the connection
+ * on the first statement.
+ * <p>
+ * A replica is checked by a background thread, and taken out of the rotation as soon as a connection to it fails; the
+ * read-only transactions go to the primary while no replica is healthy. When the read-your-writes window is set, the
+ * read-only transactions of a user also go to the primary during that window after each of their writing transactions
+ * committed, so that they see their changes despite the replication lag. The writes are tracked per node: a user whose
+ * requests are spread over several nodes may still read from a replica lagging behind their write on another node.
+ * <p>
+ * The entity managers of a transaction sent to a replica read from the second-level cache, but do not put into it what
+ * they load: a lagging replica would otherwise refill the cache with the rows a write just evicted, for every node and
+ * user until the entries expire.
+ */
+public class ReadWriteRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    /**
+     * Where a connection was sent, and why.
+     */
+    public enum Route {
+        /**
+         * To the primary, outside of a read-only transaction.
+         */
+        PRIMARY("primary"),
+        /**
+         * To a replica.
+         */
+        REPLICA("replica"),
+        /**
+         * To the primary, as the user wrote within the read-your-writes window.
+         */
+        READ_YOUR_WRITES("read-your-writes"),
+        /**
+         * To the primary, as no replica was healthy.
+         */
+        FAILOVER("failover");
+
+        private final String tag;
+
+        Route(String tag) {
+            this.tag = tag;
+        }
+
+        public String getTag() {
+            return tag;
+        }
+    }
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 1;
+
+    private final Logger log = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+
+    private final DataSource primary;
+
+    private final List<Replica> replicas;
+
+    private final long readYourWritesNanos;
+
+    private final Supplier<Optional<String>> currentUser;
+
+    private final LongSupplier nanoClock;
+
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final LongAdder[] routed = new LongAdder[Route.values().length];
+
+    private ScheduledExecutorService executor;
+
+    /**
+     * @param primary the primary, for the writes.
+     * @param replicas the replicas, by name.
+     * @param readYourWritesWindow the time the read-only transactions of a user go to the primary after they wrote, or
+     * zero.
+     * @param currentUser the login of the current user, if any.
+     */
+    public ReadWriteRoutingDataSource(
+        DataSource primary,
+        Map<String, DataSource> replicas,
+        Duration readYourWritesWindow,
+        Supplier<Optional<String>> currentUser
+    ) {
+        this(primary, replicas, readYourWritesWindow, currentUser, System::nanoTime);
+    }
+
+    ReadWriteRoutingDataSource(
+        DataSource primary,
+        Map<String, DataSource> replicas,
+        Duration readYourWritesWindow,
+        Supplier<Optional<String>> currentUser,
+        LongSupplier nanoClock
+    ) {
+        this.primary = primary;
+        this.replicas = new ArrayList<>(replicas.size());
+        replicas.forEach((name, dataSource) -> this.replicas.add(new Replica(name, dataSource)));
+        this.readYourWritesNanos = readYourWritesWindow.toNanos();
+        this.currentUser = currentUser;
+        this.nanoClock = nanoClock;
+        for (int i = 0; i < routed.length; i++) {
+            routed[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Start checking the replicas.
+     *
+     * @param healthCheckInterval the time between two checks of each replica.
+     */
+    public void start(Duration healthCheckInterval) {
+        executor =
+            Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "read-replicas-health");
+                thread.setDaemon(true);
+                return thread;
+            });
+        long intervalMillis = healthCheckInterval.toMillis();
+        executor.scheduleWithFixedDelay(this::checkHealth, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop checking the replicas, and close those which can be.
+     */
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("Could not close replica {}", replica.name, e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return (T) this;
+        }
+        return primary.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || primary.isWrapperFor(iface);
+    }
+
+    public long getRouted(Route route) {
+        return routed[route.ordinal()].sum();
+    }
+
+    public int getHealthyReplicas() {
+        int healthy = 0;
+        for (Replica replica : replicas) {
+            if (replica.healthy) {
+                healthy++;
+            }
+        }
+        return healthy;
+    }
+
+    /**
+     * Check each replica, putting it back into the rotation or taking it out, and forget the writes older than the
+     * read-your-writes window.
+     */
+    void checkHealth() {
+        for (Replica replica : replicas) {
+            boolean healthy;
+            try (Connection connection = replica.dataSource.getConnection()) {
+                healthy = connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+            } catch (SQLException | RuntimeException e) {
+                log.debug("Replica {} failed its health check", replica.name, e);
+                healthy = false;
+            }
+            if (healthy && !replica.healthy) {
+                log.info("Replica {} is healthy, sending read-only transactions to it", replica.name);
+            } else if (!healthy && replica.healthy) {
+                log.warn("Replica {} is unhealthy, no longer sending read-only transactions to it", replica.name);
+            }
+            replica.healthy = healthy;
+        }
+        if (readYourWritesNanos > 0) {
+            long now = nanoClock.getAsLong();
+            lastWrites.values().removeIf(written -> now - written >= readYourWritesNanos);
+        }
+    }
+
+    private Connection route(ConnectionSource source) throws SQLException {
+        if (!isReadOnlyTransaction()) {
+            recordWriteOnCommit();
+            return connect(primary, source, Route.PRIMARY);
+        }
+        if (wroteRecently()) {
+            return connect(primary, source, Route.READ_YOUR_WRITES);
+        }
+        int size = replicas.size();
+        int first = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((first + i) % size);
+            if (replica.healthy) {
+                try {
+                    Connection connection = connect(replica.dataSource, source, Route.REPLICA);
+                    keepOutOfSecondLevelCache();
+                    return connection;
+                } catch (SQLException | RuntimeException e) {
+                    log.warn("Could not connect to replica {}, no longer sending read-only transactions to it", replica.name, e);
+                    replica.healthy = false;
+                }
+            }
+        }
+        return connect(primary, source, Route.FAILOVER);
+    }
+
+    private static boolean isReadOnlyTransaction() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return false;
+        }
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    /**
+     * Stop the entity managers of the current transaction from putting what they load into the second-level cache,
+     * until the transaction completes.
+     */
+    private static void keepOutOfSecondLevelCache() {
+        for (Object resource : TransactionSynchronizationManager.getResourceMap().values()) {
+            if (resource instanceof EntityManagerHolder holder && holder.getEntityManager() != null) {
+                Session session = holder.getEntityManager().unwrap(Session.class);
+                CacheMode cacheMode = session.getCacheMode();
+                if (cacheMode == null || !cacheMode.isPutEnabled()) {
+                    continue;
+                }
+                session.setCacheMode(CacheMode.GET);
+                if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                    TransactionSynchronizationManager.registerSynchronization(
+                        new TransactionSynchronization() {
+                            @Override
+                            public void afterCompletion(int status) {
+                                if (session.isOpen()) {
+                                    session.setCacheMode(cacheMode);
+                                }
+                            }
+                        }
+                    );
+                }
+            }
+        }
+    }
+
+    private Connection connect(DataSource dataSource, ConnectionSource source, Route route) throws SQLException {
+        Connection connection = source.getConnection(dataSource);
+        routed[route.ordinal()].increment();
+        return connection;
+    }
+
+    private void recordWriteOnCommit() {
+        if (
+            readYourWritesNanos <= 0 ||
+            !TransactionSynchronizationManager.isActualTransactionActive() ||
+            !TransactionSynchronizationManager.isSynchronizationActive()
+        ) {
+            return;
+        }
+        currentUser
+            .get()
+            .ifPresent(login ->
+                TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                            lastWrites.put(login, nanoClock.getAsLong());
+                        }
+                    }
+                )
+            );
+    }
+
+    private boolean wroteRecently() {
+        if (readYourWritesNanos <= 0 || lastWrites.isEmpty()) {
+            return false;
+        }
+        Optional<String> login = currentUser.get();
+        if (login.isEmpty()) {
+            return false;
+        }
+        Long written = lastWrites.get(login.orElseThrow());
+        return written != null && nanoClock.getAsLong() - written < readYourWritesNanos;
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection getConnection(DataSource dataSource) throws SQLException;
+    }
+
+    private static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+
+        /**
+         * Healthy until proven otherwise, so that the replicas are used from the start.
+         */
+        private volatile boolean healthy = true;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -8,6 +8,7 @@ import com.nimbusds.jose.util.Base64;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
 import org.doben.raas.management.SecurityMetersService;
+import org.doben.raas.security.VerifiedJwtCache;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -24,10 +25,19 @@ public class SecurityJwtConfiguration {
     @Value("${jhipster.security.authentication.jwt.base64-secret}")
     private String jwtKey;
 
+    /**
+     * Cache of the verified tokens, which verifies a token again once it expired, so that the invalid token meters count
+     * every rejected token. Not used if {@code application.security.verified-token-cache-size} is {@code 0}.
+     */
     @Bean
-    public JwtDecoder jwtDecoder(SecurityMetersService metersService) {
+    public VerifiedJwtCache verifiedJwtCache(ApplicationProperties applicationProperties) {
+        return new VerifiedJwtCache(applicationProperties.getSecurity().getVerifiedTokenCacheSize());
+    }
+
+    @Bean
+    public JwtDecoder jwtDecoder(SecurityMetersService metersService, VerifiedJwtCache verifiedJwtCache) {
         NimbusJwtDecoder jwtDecoder = NimbusJwtDecoder.withSecretKey(getSecretKey()).macAlgorithm(JWT_ALGORITHM).build();
-        return token -> {
+        JwtDecoder meteredJwtDecoder = token -> {
             try {
                 return jwtDecoder.decode(token);
             } catch (Exception e) {
@@ -43,6 +53,7 @@ public class SecurityJwtConfiguration {
                 throw e;
             }
         };
+        return verifiedJwtCache.isEnabled() ? verifiedJwtCache.decoder(meteredJwtDecoder) : meteredJwtDecoder;
     }
 
     @Bean
@@ -51,13 +62,15 @@ public class SecurityJwtConfiguration {
     }
 
     @Bean
-    public JwtAuthenticationConverter jwtAuthenticationConverter() {
+    public JwtAuthenticationConverter jwtAuthenticationConverter(VerifiedJwtCache verifiedJwtCache) {
         JwtGrantedAuthoritiesConverter grantedAuthoritiesConverter = new JwtGrantedAuthoritiesConverter();
         grantedAuthoritiesConverter.setAuthorityPrefix("");
         grantedAuthoritiesConverter.setAuthoritiesClaimName(AUTHORITIES_KEY);
 
         JwtAuthenticationConverter jwtAuthenticationConverter = new JwtAuthenticationConverter();
-        jwtAuthenticationConverter.setJwtGrantedAuthoritiesConverter(grantedAuthoritiesConverter);
+        jwtAuthenticationConverter.setJwtGrantedAuthoritiesConverter(
+            verifiedJwtCache.isEnabled() ? verifiedJwtCache.authoritiesConverter(grantedAuthoritiesConverter) : grantedAuthoritiesConverter
+        );
         return jwtAuthenticationConverter;
     }
 
@@ -1,12 +1,21 @@
 package org.doben.raas.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
 import java.util.concurrent.TimeUnit;
+import org.doben.raas.web.filter.StaticAssetsFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.support.ResourcePatternResolver;
 import org.springframework.http.CacheControl;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistration;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
 import tech.jhipster.config.JHipsterConstants;
 import tech.jhipster.config.JHipsterProperties;
 
@@ -46,7 +55,34 @@ public class StaticResourcesWebConfiguration implements WebMvcConfigurer {
     }
 
     protected void initializeResourceHandler(ResourceHandlerRegistration resourceHandlerRegistration) {
-        resourceHandlerRegistration.addResourceLocations(RESOURCE_LOCATIONS).setCacheControl(getCacheControl());
+        resourceHandlerRegistration
+            .addResourceLocations(RESOURCE_LOCATIONS)
+            .setCacheControl(getCacheControl())
+            .resourceChain(true)
+            .addResolver(new EncodedResourceResolver());
+    }
+
+    /**
+     * Serves the hashed assets before the security filters, which run at {@link SecurityProperties#DEFAULT_FILTER_ORDER},
+     * with the security headers these would have written.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "application.static-assets.enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<StaticAssetsFilter> staticAssetsFilter(
+        ApplicationProperties applicationProperties,
+        ResourcePatternResolver resourcePatternResolver,
+        MeterRegistry meterRegistry
+    ) throws IOException {
+        FilterRegistrationBean<StaticAssetsFilter> registration = new FilterRegistrationBean<>(
+            new StaticAssetsFilter(
+                applicationProperties.getStaticAssets(),
+                SecurityConfiguration.staticHeaderWriters(jhipsterProperties),
+                resourcePatternResolver,
+                meterRegistry
+            )
+        );
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
     }
 
     protected CacheControl getCacheControl() {
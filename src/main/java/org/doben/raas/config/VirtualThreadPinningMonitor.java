@@ -0,0 +1,135 @@
+package org.doben.raas.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reports the virtual threads blocked while pinned to their carrier thread, from the {@code jdk.VirtualThreadPinned}
+ * flight recorder events.
+ * <p>
+ * A virtual thread blocking inside a {@code synchronized} section, or a native frame, keeps its carrier thread, and
+ * enough of them stall every virtual thread. Each pinning is timed by the code path holding it: the JDBC driver and
+ * connection pool, Hibernate, the mail client, or any other code. The first pinning at each frame is logged with its
+ * stack.
+ */
+public class VirtualThreadPinningMonitor implements AutoCloseable {
+
+    public static final String METER_NAME = "jvm.threads.virtual.pinned";
+    public static final String METER_DESCRIPTION = "Time virtual threads were blocked while pinned to their carrier thread";
+    public static final String METER_PATH_DIMENSION = "path";
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private static final int MAX_LOGGED_FRAMES = 100;
+
+    private static final int LOGGED_STACK_DEPTH = 20;
+
+    private static final Map<String, String> PATHS = Map.of(
+        "com.mysql.",
+        "jdbc",
+        "com.zaxxer.hikari.",
+        "jdbc",
+        "java.sql.",
+        "jdbc",
+        "org.hibernate.",
+        "hibernate",
+        "jakarta.mail.",
+        "mail",
+        "org.eclipse.angus.mail.",
+        "mail"
+    );
+
+    private final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    private final MeterRegistry registry;
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    private final Set<String> loggedFrames = ConcurrentHashMap.newKeySet();
+
+    private final RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(Duration threshold, MeterRegistry registry) {
+        this.registry = registry;
+        this.stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+        log.info("Reporting the virtual threads pinned for more than {} ms", threshold.toMillis());
+    }
+
+    @Override
+    public void close() {
+        stream.close();
+    }
+
+    void onPinned(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        List<RecordedFrame> frames = stackTrace == null ? List.of() : stackTrace.getFrames();
+        String path = "other";
+        String pinnedAt = null;
+        for (RecordedFrame frame : frames) {
+            if (!frame.isJavaFrame()) {
+                continue;
+            }
+            String className = frame.getMethod().getType().getName();
+            String framePath = path(className);
+            if (framePath != null) {
+                path = framePath;
+                pinnedAt = className + "." + frame.getMethod().getName();
+                break;
+            }
+        }
+        timer(path).record(event.getDuration());
+        if (pinnedAt == null && !frames.isEmpty()) {
+            RecordedFrame top = frames.get(0);
+            pinnedAt = top.getMethod().getType().getName() + "." + top.getMethod().getName();
+        }
+        if (pinnedAt != null && loggedFrames.size() < MAX_LOGGED_FRAMES && loggedFrames.add(pinnedAt)) {
+            StringBuilder stack = new StringBuilder();
+            frames
+                .stream()
+                .limit(LOGGED_STACK_DEPTH)
+                .forEach(frame ->
+                    stack
+                        .append("\n\tat ")
+                        .append(frame.getMethod().getType().getName())
+                        .append('.')
+                        .append(frame.getMethod().getName())
+                        .append(':')
+                        .append(frame.getLineNumber())
+                );
+            log.warn("Virtual thread pinned for {} ms on the {} path at {}{}", event.getDuration().toMillis(), path, pinnedAt, stack);
+        }
+    }
+
+    /**
+     * The code path a class belongs to, if it is one of the reported paths.
+     */
+    static String path(String className) {
+        for (Map.Entry<String, String> prefix : PATHS.entrySet()) {
+            if (className.startsWith(prefix.getKey())) {
+                return prefix.getValue();
+            }
+        }
+        return null;
+    }
+
+    private Timer timer(String path) {
+        return timers.computeIfAbsent(
+            path,
+            name -> Timer.builder(METER_NAME).description(METER_DESCRIPTION).tag(METER_PATH_DIMENSION, name).register(registry)
+        );
+    }
+}
@@ -0,0 +1,32 @@
+package org.doben.raas.config;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Factories of virtual threads, when the running JVM has them.
+ * <p>
+ * The application is built for Java 17, which has no virtual threads: the Java 21 {@code Thread.ofVirtual()} builder
+ * is called by reflection, and a JVM without it, or with it as a disabled preview, has no factory.
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {}
+
+    /**
+     * Get a factory of virtual threads named with a prefix and a counter.
+     *
+     * @param prefix the prefix of the names of the threads.
+     * @return the factory, or empty if the running JVM has no virtual threads.
+     */
+    static Optional<ThreadFactory> factory(String prefix) {
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            return Optional.of((ThreadFactory) builderType.getMethod("factory").invoke(builder));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+}
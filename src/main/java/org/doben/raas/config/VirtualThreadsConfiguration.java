@@ -0,0 +1,67 @@
+package org.doben.raas.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Optional;
+import java.util.concurrent.ThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.task.TaskSchedulerCustomizer;
+import org.springframework.boot.web.embedded.undertow.UndertowServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Runs the requests and the scheduled jobs on virtual threads, when {@code application.virtual-threads.enabled} is set
+ * and the JVM has virtual threads. The {@code @Async} tasks are set up by {@link AsyncConfiguration}.
+ * <p>
+ * Most of the time of a request is spent waiting for the database, which a virtual thread does without holding a
+ * platform thread. The number of connections is still bounded by the Hikari pool, which the extra requests wait for as
+ * they waited for a worker thread before.
+ */
+@Configuration
+@ConditionalOnProperty(name = "application.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadsConfiguration {
+
+    private final Logger log = LoggerFactory.getLogger(VirtualThreadsConfiguration.class);
+
+    private final ApplicationProperties applicationProperties;
+
+    public VirtualThreadsConfiguration(ApplicationProperties applicationProperties) {
+        this.applicationProperties = applicationProperties;
+        if (VirtualThreads.factory("probe-").isEmpty()) {
+            log.warn("Virtual threads need Java 21 or later, running on platform threads on Java {}", Runtime.version().feature());
+        }
+    }
+
+    /**
+     * Dispatch the servlet requests to a new virtual thread each, instead of an XNIO worker thread.
+     */
+    @Bean
+    public WebServerFactoryCustomizer<UndertowServletWebServerFactory> virtualThreadsUndertowCustomizer() {
+        return factory ->
+            VirtualThreads
+                .factory("undertow-")
+                .ifPresent(threads ->
+                    factory.addDeploymentInfoCustomizers(deploymentInfo -> {
+                        deploymentInfo.setExecutor(command -> threads.newThread(command).start());
+                        deploymentInfo.setAsyncExecutor(command -> threads.newThread(command).start());
+                    })
+                );
+    }
+
+    @Bean
+    public TaskSchedulerCustomizer virtualThreadsTaskSchedulerCustomizer() {
+        return scheduler -> {
+            Optional<ThreadFactory> threads = VirtualThreads.factory(scheduler.getThreadNamePrefix());
+            threads.ifPresent(scheduler::setThreadFactory);
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "application.virtual-threads.trace-pinning", havingValue = "true")
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(MeterRegistry meterRegistry) {
+        return new VirtualThreadPinningMonitor(applicationProperties.getVirtualThreads().getPinningThreshold(), meterRegistry);
+    }
+}
@@ -9,6 +9,7 @@ import java.util.HashSet;
 import java.util.Set;
 import org.doben.raas.domain.enumeration.HowMany;
 import org.doben.raas.domain.enumeration.Place;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
 
@@ -39,12 +40,18 @@ public class Attendance implements Serializable {
     @Column(name = "how_many")
     private HowMany howMany;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @OneToMany(fetch = FetchType.LAZY, mappedBy = "attendancesAsProfessional")
+    @BatchSize(size = 100)
     @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JsonIgnoreProperties(value = { "user", "attendancesAsProfessional", "attendancesAsPatient" }, allowSetters = true)
     private Set<Person> professionals = new HashSet<>();
 
     @OneToMany(fetch = FetchType.LAZY, mappedBy = "attendancesAsPatient")
+    @BatchSize(size = 100)
     @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JsonIgnoreProperties(value = { "user", "attendancesAsProfessional", "attendancesAsPatient" }, allowSetters = true)
     private Set<Person> patients = new HashSet<>();
@@ -103,6 +110,19 @@ public class Attendance implements Serializable {
         this.howMany = howMany;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public Attendance version(Long version) {
+        this.setVersion(version);
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public Set<Person> getProfessionals() {
         return this.professionals;
     }
@@ -192,6 +212,7 @@ public class Attendance implements Serializable {
             ", dateTime='" + getDateTime() + "'" +
             ", place='" + getPlace() + "'" +
             ", howMany='" + getHowMany() + "'" +
+            ", version=" + getVersion() +
             "}";
     }
 }
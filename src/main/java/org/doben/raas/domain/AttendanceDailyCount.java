@@ -0,0 +1,112 @@
+package org.doben.raas.domain;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.*;
+import java.io.Serializable;
+import java.time.LocalDate;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Number of attendances of a day, for a place and a number of patients.
+ * <p>
+ * A rollup maintained in the same transaction as every attendance change, so that statistics never scan the
+ * {@code attendance} table. Days are UTC days. Rows are only written through
+ * {@link org.doben.raas.repository.AttendanceDailyCountRepositoryWithUpsert}; an attendance without place or number of
+ * patients is counted with an empty {@code place} or {@code howMany}.
+ */
+@Entity
+@Table(name = "attendance_daily_count")
+@Immutable
+public class AttendanceDailyCount implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @NotNull
+    @Column(name = "count_date", nullable = false)
+    private LocalDate countDate;
+
+    @NotNull
+    @Column(name = "place", nullable = false)
+    private String place;
+
+    @NotNull
+    @Column(name = "how_many", nullable = false)
+    private String howMany;
+
+    @Column(name = "attendance_count", nullable = false)
+    private long attendanceCount;
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public LocalDate getCountDate() {
+        return this.countDate;
+    }
+
+    public void setCountDate(LocalDate countDate) {
+        this.countDate = countDate;
+    }
+
+    public String getPlace() {
+        return this.place;
+    }
+
+    public void setPlace(String place) {
+        this.place = place;
+    }
+
+    public String getHowMany() {
+        return this.howMany;
+    }
+
+    public void setHowMany(String howMany) {
+        this.howMany = howMany;
+    }
+
+    public long getAttendanceCount() {
+        return this.attendanceCount;
+    }
+
+    public void setAttendanceCount(long attendanceCount) {
+        this.attendanceCount = attendanceCount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof AttendanceDailyCount)) {
+            return false;
+        }
+        return getId() != null && getId().equals(((AttendanceDailyCount) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "AttendanceDailyCount{" +
+            "id=" + getId() +
+            ", countDate='" + getCountDate() + "'" +
+            ", place='" + getPlace() + "'" +
+            ", howMany='" + getHowMany() + "'" +
+            ", attendanceCount=" + getAttendanceCount() +
+            "}";
+    }
+}
@@ -39,6 +39,10 @@ public class Person implements Serializable {
     @Column(name = "email")
     private String email;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(unique = true)
     private User user;
@@ -118,6 +122,19 @@ public class Person implements Serializable {
         this.email = email;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public Person version(Long version) {
+        this.setVersion(version);
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public User getUser() {
         return this.user;
     }
@@ -185,6 +202,7 @@ public class Person implements Serializable {
             ", motherName='" + getMotherName() + "'" +
             ", birthdate='" + getBirthdate() + "'" +
             ", email='" + getEmail() + "'" +
+            ", version=" + getVersion() +
             "}";
     }
 }
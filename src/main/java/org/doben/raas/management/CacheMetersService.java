@@ -0,0 +1,205 @@
+package org.doben.raas.management;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import javax.cache.CacheManager;
+import org.ehcache.core.InternalCache;
+import org.ehcache.core.internal.statistics.DefaultCacheStatistics;
+import org.ehcache.core.statistics.CacheStatistics;
+import org.ehcache.core.statistics.TierStatistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Meters of the cache regions, on top of the hit, miss, put, removal and eviction meters Spring Boot binds to every JCache
+ * cache.
+ * <p>
+ * The size of a region is read from the Ehcache statistics, which the JCache API does not expose: they are built on the
+ * Ehcache cache each JCache cache unwraps to, and left out if the caches are not Ehcache ones.
+ */
+@Service
+public class CacheMetersService {
+
+    public static final String CACHE_TAG = "cache";
+
+    public static final String SIZE_METER_NAME = "cache.size";
+    public static final String SIZE_METER_DESCRIPTION = "The number of entries in the cache, on heap and off heap.";
+
+    private static final String ON_HEAP_TIER = "OnHeap";
+    private static final String OFF_HEAP_TIER = "OffHeap";
+
+    private final Logger log = LoggerFactory.getLogger(CacheMetersService.class);
+
+    private final CacheManager cacheManager;
+
+    private final CacheMissLoadListener missLoads;
+
+    /**
+     * By cache rather than name, as a cache destroyed and created again under the same name has new statistics.
+     */
+    private final Map<javax.cache.Cache<?, ?>, CacheStatistics> statisticsByCache = new ConcurrentHashMap<>();
+
+    public CacheMetersService(MeterRegistry registry, CacheManager cacheManager, CacheMissLoadListener missLoads) {
+        this.cacheManager = cacheManager;
+        this.missLoads = missLoads;
+        for (String cacheName : cacheManager.getCacheNames()) {
+            if (statistics(cacheName) != null) {
+                Gauge
+                    .builder(SIZE_METER_NAME, () -> size(statistics(cacheName)))
+                    .description(SIZE_METER_DESCRIPTION)
+                    .tag(CACHE_TAG, cacheName)
+                    .register(registry);
+            }
+        }
+    }
+
+    /**
+     * Get the statistics of every region, the ones whose misses cost the most first.
+     * <p>
+     * The cost of the misses of a region is its number of misses times the mean time to load an entry after a miss. Regions
+     * with no timed load, such as the Spring caches, are costed at the mean time of all the timed loads.
+     *
+     * @return the statistics of the regions.
+     */
+    public List<RegionStatistics> regionStatistics() {
+        List<RegionStatistics> regions = new ArrayList<>();
+        double totalLoadTime = 0;
+        long totalLoads = 0;
+        for (String cacheName : cacheManager.getCacheNames()) {
+            RegionStatistics region = new RegionStatistics(cacheName);
+            CacheStatistics statistics = statistics(cacheName);
+            if (statistics != null) {
+                region.hits = statistics.getCacheHits();
+                region.misses = statistics.getCacheMisses();
+                region.evictions = statistics.getCacheEvictions();
+                region.expirations = statistics.getCacheExpirations();
+                region.size = size(statistics);
+                TierStatistics offHeap = statistics.getTierStatistics().get(OFF_HEAP_TIER);
+                region.offHeapBytes = offHeap == null ? null : offHeap.getOccupiedByteSize();
+            }
+            Timer loads = missLoads.findTimer(cacheName);
+            if (loads != null && loads.count() > 0) {
+                region.missLoadMillis = loads.mean(TimeUnit.MILLISECONDS);
+                totalLoadTime += loads.totalTime(TimeUnit.MILLISECONDS);
+                totalLoads += loads.count();
+            }
+            regions.add(region);
+        }
+        Double meanLoadMillis = totalLoads == 0 ? null : totalLoadTime / totalLoads;
+        for (RegionStatistics region : regions) {
+            Double loadMillis = region.missLoadMillis;
+            if (loadMillis == null) {
+                loadMillis = meanLoadMillis;
+                region.missCostEstimated = true;
+            }
+            region.missCostMillis = loadMillis == null ? 0 : region.misses * loadMillis;
+        }
+        regions.sort(Comparator.comparingDouble(RegionStatistics::getMissCostMillis).reversed());
+        return regions;
+    }
+
+    private static long size(CacheStatistics statistics) {
+        if (statistics == null) {
+            return 0;
+        }
+        Map<String, TierStatistics> tiers = statistics.getTierStatistics();
+        // The lowest tier holds every entry, the heap only the most used ones
+        TierStatistics authority = tiers.containsKey(OFF_HEAP_TIER) ? tiers.get(OFF_HEAP_TIER) : tiers.get(ON_HEAP_TIER);
+        return authority == null ? 0 : authority.getMappings();
+    }
+
+    /**
+     * The Ehcache statistics of a cache, or {@code null} if it is not an Ehcache cache.
+     */
+    private CacheStatistics statistics(String cacheName) {
+        javax.cache.Cache<?, ?> cache = cacheManager.getCache(cacheName);
+        if (cache == null || cache.isClosed()) {
+            return null;
+        }
+        CacheStatistics statistics = statisticsByCache.get(cache);
+        if (statistics == null) {
+            try {
+                statistics = new DefaultCacheStatistics(cache.unwrap(InternalCache.class));
+            } catch (IllegalArgumentException e) {
+                log.warn("Ehcache statistics not available from {}, its size is not reported", cacheName);
+                return null;
+            }
+            statisticsByCache.keySet().removeIf(javax.cache.Cache::isClosed);
+            statisticsByCache.put(cache, statistics);
+        }
+        return statistics;
+    }
+
+    /**
+     * Statistics of a cache region.
+     */
+    public static class RegionStatistics {
+
+        private final String cache;
+        private long hits;
+        private long misses;
+        private long evictions;
+        private long expirations;
+        private long size;
+        private Long offHeapBytes;
+        private Double missLoadMillis;
+        private double missCostMillis;
+        private boolean missCostEstimated;
+
+        RegionStatistics(String cache) {
+            this.cache = cache;
+        }
+
+        public String getCache() {
+            return cache;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public double getHitRatio() {
+            return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        public long getExpirations() {
+            return expirations;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public Long getOffHeapBytes() {
+            return offHeapBytes;
+        }
+
+        public Double getMissLoadMillis() {
+            return missLoadMillis;
+        }
+
+        public double getMissCostMillis() {
+            return missCostMillis;
+        }
+
+        public boolean isMissCostEstimated() {
+            return missCostEstimated;
+        }
+    }
+}
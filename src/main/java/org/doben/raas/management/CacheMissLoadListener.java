@@ -0,0 +1,181 @@
+package org.doben.raas.management;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.hibernate.cache.spi.access.CollectionDataAccess;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.collection.spi.PersistentCollection;
+import org.hibernate.engine.spi.CollectionEntry;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.LoadEvent;
+import org.hibernate.event.spi.LoadEventListener;
+import org.hibernate.persister.collection.CollectionPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times the entity and collection loads that miss the second-level cache, by region.
+ * <p>
+ * Hibernate has no hook around a load from the database, so a listener run first records when a load starts that is
+ * neither in the persistence context nor in the cache, and a listener run last records its duration. Loads nested in a
+ * load, such as its associations, are stacked per thread.
+ */
+@Component
+class CacheMissLoadListener {
+
+    static final String METER_NAME = "cache.miss.load";
+    static final String METER_DESCRIPTION = "Time to load an entry from the database after a second-level cache miss";
+
+    /**
+     * Loads pending beyond this depth are left over by failed loads, whose last listener was not run.
+     */
+    private static final int MAX_DEPTH = 64;
+
+    private final MeterRegistry registry;
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    private final ThreadLocal<Deque<PendingLoad>> pendingLoads = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private final Before before = new Before();
+
+    private final After after = new After();
+
+    CacheMissLoadListener(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Autowired
+    void registerWith(EntityManagerFactory entityManagerFactory) {
+        EventListenerRegistry listeners = entityManagerFactory
+            .unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry()
+            .getService(EventListenerRegistry.class);
+        listeners.prependListeners(EventType.LOAD, before);
+        listeners.appendListeners(EventType.LOAD, after);
+        listeners.prependListeners(EventType.INIT_COLLECTION, before);
+        listeners.appendListeners(EventType.INIT_COLLECTION, after);
+    }
+
+    /**
+     * The timer of the loads missing a region, if any load missed it.
+     */
+    Timer findTimer(String region) {
+        return timers.get(region);
+    }
+
+    Timer timer(String region) {
+        return timers.computeIfAbsent(
+            region,
+            name -> Timer.builder(METER_NAME).description(METER_DESCRIPTION).tag(CacheMetersService.CACHE_TAG, name).register(registry)
+        );
+    }
+
+    private void start(Object event, String region) {
+        Deque<PendingLoad> loads = pendingLoads.get();
+        if (loads.size() >= MAX_DEPTH) {
+            loads.clear();
+        }
+        loads.push(new PendingLoad(event, region, System.nanoTime()));
+    }
+
+    private void stop(Object event) {
+        Deque<PendingLoad> loads = pendingLoads.get();
+        PendingLoad load = loads.peek();
+        if (load != null && load.event == event) {
+            loads.pop();
+            timer(load.region).record(System.nanoTime() - load.start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static boolean cacheReadable(EventSource session) {
+        return session.getCacheMode().isGetEnabled();
+    }
+
+    /**
+     * Starts timing the loads that will go to the database.
+     */
+    final class Before implements LoadEventListener, InitializeCollectionEventListener {
+
+        @Override
+        public void onLoad(LoadEvent event, LoadType loadType) {
+            EventSource session = event.getSession();
+            EntityPersister persister = session.getFactory().getMappingMetamodel().findEntityDescriptor(event.getEntityClassName());
+            if (persister == null || !persister.canReadFromCache() || !cacheReadable(session)) {
+                return;
+            }
+            try {
+                Object id = event.getEntityId();
+                if (session.getPersistenceContextInternal().containsEntity(session.generateEntityKey(id, persister))) {
+                    return;
+                }
+                EntityDataAccess cache = persister.getCacheAccessStrategy();
+                if (!cache.contains(cache.generateCacheKey(id, persister, session.getFactory(), session.getTenantIdentifier()))) {
+                    start(event, cache.getRegion().getName());
+                }
+            } catch (RuntimeException e) {
+                // Not timed, the load itself reports the error, such as an id of the wrong type
+            }
+        }
+
+        @Override
+        public void onInitializeCollection(InitializeCollectionEvent event) {
+            PersistentCollection<?> collection = event.getCollection();
+            EventSource session = event.getSession();
+            if (collection.wasInitialized() || !cacheReadable(session)) {
+                return;
+            }
+            CollectionEntry entry = session.getPersistenceContextInternal().getCollectionEntry(collection);
+            CollectionPersister persister = entry == null ? null : entry.getLoadedPersister();
+            if (persister == null || !persister.hasCache()) {
+                return;
+            }
+            CollectionDataAccess cache = persister.getCacheAccessStrategy();
+            Object cacheKey = cache.generateCacheKey(entry.getLoadedKey(), persister, session.getFactory(), session.getTenantIdentifier());
+            if (!cache.contains(cacheKey)) {
+                start(event, cache.getRegion().getName());
+            }
+        }
+    }
+
+    /**
+     * Records the duration of the timed loads.
+     */
+    final class After implements LoadEventListener, InitializeCollectionEventListener {
+
+        @Override
+        public void onLoad(LoadEvent event, LoadType loadType) {
+            stop(event);
+        }
+
+        @Override
+        public void onInitializeCollection(InitializeCollectionEvent event) {
+            stop(event);
+        }
+    }
+
+    private static final class PendingLoad {
+
+        private final Object event;
+        private final String region;
+        private final long start;
+
+        private PendingLoad(Object event, String region, long start) {
+            this.event = event;
+            this.region = region;
+            this.start = start;
+        }
+    }
+}
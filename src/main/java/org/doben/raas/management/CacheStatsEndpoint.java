@@ -0,0 +1,25 @@
+package org.doben.raas.management;
+
+import java.util.List;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code /management/cachestats} endpoint, listing the statistics of the cache regions, ranked by the cost of their misses.
+ */
+@Component
+@Endpoint(id = "cachestats")
+public class CacheStatsEndpoint {
+
+    private final CacheMetersService cacheMetersService;
+
+    public CacheStatsEndpoint(CacheMetersService cacheMetersService) {
+        this.cacheMetersService = cacheMetersService;
+    }
+
+    @ReadOperation
+    public List<CacheMetersService.RegionStatistics> cacheStats() {
+        return cacheMetersService.regionStatistics();
+    }
+}
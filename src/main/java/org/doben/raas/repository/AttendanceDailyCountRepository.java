@@ -0,0 +1,39 @@
+package org.doben.raas.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import org.doben.raas.domain.AttendanceDailyCount;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the AttendanceDailyCount entity.
+ */
+@Repository
+public interface AttendanceDailyCountRepository
+    extends AttendanceDailyCountRepositoryWithUpsert, JpaRepository<AttendanceDailyCount, Long> {
+    /**
+     * Get the non-zero daily counts of a date range, as values rather than managed entities: the counts are changed by
+     * native upserts, which do not refresh the entities already loaded by the persistence context.
+     */
+    @Query(
+        "select daily.countDate as countDate, daily.place as place, daily.howMany as howMany, " +
+        "daily.attendanceCount as attendanceCount from AttendanceDailyCount daily " +
+        "where daily.countDate between :from and :to and daily.attendanceCount <> 0 order by daily.countDate"
+    )
+    List<DailyCount> findCountsByCountDateBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * The count of a day, place and number of patients.
+     */
+    interface DailyCount {
+        LocalDate getCountDate();
+
+        String getPlace();
+
+        String getHowMany();
+
+        long getAttendanceCount();
+    }
+}
@@ -0,0 +1,18 @@
+package org.doben.raas.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Atomic increments of the {@link org.doben.raas.domain.AttendanceDailyCount} rollup.
+ */
+public interface AttendanceDailyCountRepositoryWithUpsert {
+    /**
+     * Add {@code delta} to the count of a day, creating the row if needed.
+     *
+     * @param countDate the day.
+     * @param place the place name, or an empty string.
+     * @param howMany the number of patients name, or an empty string.
+     * @param delta the value to add, negative to remove attendances.
+     */
+    void increment(LocalDate countDate, String place, String howMany, long delta);
+}
@@ -0,0 +1,35 @@
+package org.doben.raas.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.time.LocalDate;
+import org.doben.raas.domain.AttendanceDailyCount;
+import org.hibernate.query.NativeQuery;
+
+/**
+ * Upserts with {@code insert ... on duplicate key update}, supported by MySQL and by H2 in MySQL mode, so that
+ * concurrent transactions never lose an increment.
+ */
+public class AttendanceDailyCountRepositoryWithUpsertImpl implements AttendanceDailyCountRepositoryWithUpsert {
+
+    private static final String UPSERT =
+        "insert into attendance_daily_count (count_date, place, how_many, attendance_count) values (:countDate, :place, :howMany, :delta) " +
+        "on duplicate key update attendance_count = attendance_count + :delta";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void increment(LocalDate countDate, String place, String howMany, long delta) {
+        entityManager
+            .createNativeQuery(UPSERT)
+            .unwrap(NativeQuery.class)
+            // Without it, Hibernate would evict every second-level cache region after the statement
+            .addSynchronizedEntityClass(AttendanceDailyCount.class)
+            .setParameter("countDate", countDate)
+            .setParameter("place", place)
+            .setParameter("howMany", howMany)
+            .setParameter("delta", delta)
+            .executeUpdate();
+    }
+}
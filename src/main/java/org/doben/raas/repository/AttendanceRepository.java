@@ -1,7 +1,20 @@
 package org.doben.raas.repository;
 
+import jakarta.persistence.QueryHint;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 import org.doben.raas.domain.Attendance;
+import org.doben.raas.domain.Attendance_;
+import org.doben.raas.domain.enumeration.HowMany;
+import org.doben.raas.domain.enumeration.Place;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,4 +22,68 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface AttendanceRepository extends JpaRepository<Attendance, Long> {}
+public interface AttendanceRepository
+    extends AttendanceRepositoryWithPartialUpdate, JpaRepository<Attendance, Long>, JpaSpecificationExecutor<Attendance> {
+    // Filters, served by the (date_time, id), (place, how_many, date_time) and (how_many, date_time) indexes.
+
+    static Specification<Attendance> dateTimeFrom(Instant from) {
+        return (root, query, builder) -> builder.greaterThanOrEqualTo(root.get(Attendance_.dateTime), from);
+    }
+
+    static Specification<Attendance> dateTimeBefore(Instant to) {
+        return (root, query, builder) -> builder.lessThan(root.get(Attendance_.dateTime), to);
+    }
+
+    static Specification<Attendance> placeIs(Place place) {
+        return (root, query, builder) -> builder.equal(root.get(Attendance_.place), place);
+    }
+
+    static Specification<Attendance> howManyIs(HowMany howMany) {
+        return (root, query, builder) -> builder.equal(root.get(Attendance_.howMany), howMany);
+    }
+
+    // Keyset pagination, newest first: dated attendances on the (date_time, id) index, then undated ones by id.
+
+    @Query(
+        "select attendance from Attendance attendance where attendance.dateTime is not null " +
+        "order by attendance.dateTime desc, attendance.id desc"
+    )
+    List<Attendance> findDatedFirst(Pageable pageable);
+
+    @Query(
+        "select attendance from Attendance attendance where attendance.dateTime <= :dateTime " +
+        "and (attendance.dateTime < :dateTime or attendance.id < :id) order by attendance.dateTime desc, attendance.id desc"
+    )
+    List<Attendance> findDatedAfter(@Param("dateTime") Instant dateTime, @Param("id") Long id, Pageable pageable);
+
+    @Query("select attendance from Attendance attendance where attendance.dateTime is null order by attendance.id desc")
+    List<Attendance> findUndatedFirst(Pageable pageable);
+
+    @Query(
+        "select attendance from Attendance attendance where attendance.dateTime is null and attendance.id < :id " +
+        "order by attendance.id desc"
+    )
+    List<Attendance> findUndatedAfter(@Param("id") Long id, Pageable pageable);
+
+    // Participants fetched along with a single attendance. Pages cannot fetch collections in the same query, and rely on
+    // the @BatchSize of the collections instead.
+
+    @EntityGraph(attributePaths = { "professionals", "patients" })
+    Optional<Attendance> findOneWithEagerRelationshipsById(Long id);
+
+    // Full scan feeding the in-memory analytics columns, in primary key order.
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(
+        "select attendance.id, attendance.dateTime, attendance.place, attendance.howMany from Attendance attendance " +
+        "order by attendance.id"
+    )
+    Stream<Object[]> streamColumns();
+
+    // Versions, for the conditional requests.
+
+    @Query("select attendance.version from Attendance attendance where attendance.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    Page<EntityVersion> findAllVersionsBy(Pageable pageable);
+}
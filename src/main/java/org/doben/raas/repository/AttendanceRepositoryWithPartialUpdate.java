@@ -0,0 +1,19 @@
+package org.doben.raas.repository;
+
+import org.doben.raas.domain.Attendance;
+
+/**
+ * Partial updates of the {@link Attendance} entity in a single statement.
+ */
+public interface AttendanceRepositoryWithPartialUpdate {
+    /**
+     * Write the non-null fields of a patch to an attendance, leaving the others untouched, in a single statement run only if
+     * the row still has the version of the attendance. The attendance is detached from the current persistence context, with the
+     * fields of the patch and the new version set; it replaces the row in the second-level cache once committed.
+     *
+     * @param attendance the attendance to update, as read by the current persistence context or from the second-level cache.
+     * @param patch the fields to update.
+     * @return whether the attendance still had its version, and was updated.
+     */
+    boolean partialUpdate(Attendance attendance, Attendance patch);
+}
@@ -0,0 +1,30 @@
+package org.doben.raas.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.doben.raas.cache.CacheInvalidationBus;
+import org.doben.raas.domain.Attendance;
+
+/**
+ * Partial updates of the attendances, as a native {@code update} of the supplied columns only.
+ */
+public class AttendanceRepositoryWithPartialUpdateImpl implements AttendanceRepositoryWithPartialUpdate {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    public AttendanceRepositoryWithPartialUpdateImpl(CacheInvalidationBus cacheInvalidationBus) {
+        this.cacheInvalidationBus = cacheInvalidationBus;
+    }
+
+    @Override
+    public boolean partialUpdate(Attendance attendance, Attendance patch) {
+        return new PartialUpdate(Attendance.class, "attendance", cacheInvalidationBus)
+            .set("date_time", patch.getDateTime(), attendance::setDateTime)
+            .set("place", patch.getPlace(), attendance::setPlace)
+            .set("how_many", patch.getHowMany(), attendance::setHowMany)
+            .execute(entityManager, attendance, attendance.getId(), attendance.getVersion());
+    }
+}
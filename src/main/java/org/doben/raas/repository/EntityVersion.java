@@ -0,0 +1,10 @@
+package org.doben.raas.repository;
+
+/**
+ * Projection of a versioned entity on its id and version, enough to tell whether it changed.
+ */
+public interface EntityVersion {
+    Long getId();
+
+    Long getVersion();
+}
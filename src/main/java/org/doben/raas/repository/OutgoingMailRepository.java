@@ -0,0 +1,47 @@
+package org.doben.raas.repository;
+
+import java.time.Instant;
+import java.util.List;
+import org.doben.raas.domain.OutgoingMail;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the OutgoingMail entity.
+ */
+@Repository
+public interface OutgoingMailRepository extends JpaRepository<OutgoingMail, Long> {
+    @Query("select mail from OutgoingMail mail where mail.nextAttemptDate <= :now order by mail.nextAttemptDate, mail.id")
+    List<OutgoingMail> findDue(@Param("now") Instant now, Pageable pageable);
+
+    /**
+     * Claim a due mail for an attempt, unless another node claimed it first: the mail is not due again until the end
+     * of the lease. The persistence context is cleared, so that the mails loaded beforehand are not written back over
+     * the claim when it is flushed.
+     *
+     * @return 1 if the mail was claimed, 0 otherwise.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query(
+        "update OutgoingMail mail set mail.attempts = mail.attempts + 1, mail.nextAttemptDate = :leaseEnd " +
+        "where mail.id = :id and mail.nextAttemptDate = :due"
+    )
+    int claim(@Param("id") Long id, @Param("due") Instant due, @Param("leaseEnd") Instant leaseEnd);
+
+    @Modifying
+    @Query("update OutgoingMail mail set mail.nextAttemptDate = :nextAttemptDate, mail.lastError = :lastError where mail.id = :id")
+    int reschedule(@Param("id") Long id, @Param("nextAttemptDate") Instant nextAttemptDate, @Param("lastError") String lastError);
+
+    long countByNextAttemptDateNotNull();
+
+    /**
+     * Delete the abandoned mails enqueued before a date.
+     *
+     * @return the number of mails deleted.
+     */
+    @Modifying
+    @Query("delete from OutgoingMail mail where mail.nextAttemptDate is null and mail.createdDate < :before")
+    int deleteAbandonedBefore(@Param("before") Instant before);
+}
@@ -0,0 +1,117 @@
+package org.doben.raas.repository;
+
+import jakarta.persistence.EntityManager;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import org.doben.raas.cache.CacheInvalidationBus;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.query.NativeQuery;
+
+/**
+ * A single {@code update} statement of the supplied columns of a versioned row, applied to the entity it was read as,
+ * which then replaces the row in the second-level cache.
+ * <p>
+ * Hibernate evicts the whole region of an entity after a bulk or native update of its table. The statement is
+ * synchronized on a query space no entity maps to instead, and the row is locked in the second-level cache until the
+ * transaction completes, as Hibernate does for its own updates: the concurrent reads miss it and cannot cache the row
+ * as it was before the update. Once committed, the patched entity is cached, so that the row is not read again, and the
+ * eviction is broadcast to the other nodes.
+ */
+final class PartialUpdate {
+
+    private static final String UNMAPPED_QUERY_SPACE = "partial_update";
+
+    private final Class<?> entityClass;
+
+    private final String table;
+
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    private final Map<String, Object> columns = new LinkedHashMap<>();
+
+    PartialUpdate(Class<?> entityClass, String table, CacheInvalidationBus cacheInvalidationBus) {
+        this.entityClass = entityClass;
+        this.table = table;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+    }
+
+    /**
+     * Add a column to the statement and set its field of the entity, unless its value is {@code null}.
+     */
+    <V> PartialUpdate set(String column, V value, Consumer<V> field) {
+        if (value != null) {
+            columns.put(column, value instanceof Enum<?> constant ? constant.name() : value);
+            field.accept(value);
+        }
+        return this;
+    }
+
+    /**
+     * Execute the statement, incrementing the version of the row if it still has the version of the entity. The entity
+     * is detached from the persistence context, so that it is not written again by the next flush, and gets the new
+     * version once the row is updated.
+     *
+     * @param entity the entity as read, managed by the persistence context, with the fields set.
+     * @return whether the row exists with the version of the entity.
+     */
+    boolean execute(EntityManager entityManager, Object entity, Long id, Long version) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(entityClass);
+        Long nextVersion = version + 1;
+        // Built while the entity is managed, for its collections to be cached by the key of their owner
+        Object cacheEntry = null;
+        if (persister.canWriteToCache() && session.getCacheMode().isPutEnabled()) {
+            Object[] state = persister.getValues(entity);
+            state[persister.getVersionProperty()] = nextVersion;
+            cacheEntry = persister.getCacheEntryStructure().structure(persister.buildCacheEntry(entity, state, nextVersion, session));
+        }
+        entityManager.detach(entity);
+
+        EntityDataAccess cache = persister.canWriteToCache() ? persister.getCacheAccessStrategy() : null;
+        Object key = cache != null ? cache.generateCacheKey(id, persister, session.getFactory(), session.getTenantIdentifier()) : null;
+        SoftLock lock = cache != null ? cache.lockItem(session, key, version) : null;
+
+        String assignments = columns
+            .keySet()
+            .stream()
+            .map(column -> column + " = :" + column + ", ")
+            .collect(Collectors.joining("", "", "version = version + 1"));
+        NativeQuery<?> query = entityManager
+            .createNativeQuery("update " + table + " set " + assignments + " where id = :id and version = :version")
+            .unwrap(NativeQuery.class)
+            .addSynchronizedQuerySpace(UNMAPPED_QUERY_SPACE)
+            .setParameter("id", id)
+            .setParameter("version", version);
+        columns.forEach(query::setParameter);
+        boolean updated = query.executeUpdate() > 0;
+
+        if (!updated) {
+            if (cache != null) {
+                // The cached entity is stale, if that is what was read
+                cache.unlockItem(session, key, lock);
+                cache.evict(key);
+            }
+            return false;
+        }
+        persister.setValue(entity, persister.getVersionProperty(), nextVersion);
+        cacheInvalidationBus.publish(entityClass.getName(), id);
+        if (cache != null) {
+            Object committedEntry = cacheEntry;
+            session
+                .getActionQueue()
+                .registerProcess((success, completedSession) -> {
+                    if (success && committedEntry != null) {
+                        cache.afterUpdate(completedSession, key, committedEntry, nextVersion, version, lock);
+                    } else {
+                        cache.unlockItem(completedSession, key, lock);
+                    }
+                });
+        }
+        return true;
+    }
+}
@@ -1,7 +1,15 @@
 package org.doben.raas.repository;
 
+import jakarta.persistence.QueryHint;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 import org.doben.raas.domain.Person;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,4 +17,32 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface PersonRepository extends JpaRepository<Person, Long> {}
+public interface PersonRepository extends PersonRepositoryWithPartialUpdate, JpaRepository<Person, Long> {
+    // Participants of an attendance, served by the foreign key indexes.
+
+    List<Person> findAllByAttendancesAsProfessionalId(Long attendanceId);
+
+    List<Person> findAllByAttendancesAsPatientId(Long attendanceId);
+
+    // Keyset pagination on the primary key, newest first.
+
+    List<Person> findAllByOrderByIdDesc(Pageable pageable);
+
+    List<Person> findAllByIdLessThanOrderByIdDesc(Long id, Pageable pageable);
+
+    // Full scan of the patients feeding the in-memory analytics columns, in primary key order.
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(
+        "select person.id, person.birthdate, person.attendancesAsPatient.id from Person person " +
+        "where person.attendancesAsPatient is not null order by person.id"
+    )
+    Stream<Object[]> streamPatientColumns();
+
+    // Versions, for the conditional requests.
+
+    @Query("select person.version from Person person where person.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    Page<EntityVersion> findAllVersionsBy(Pageable pageable);
+}
@@ -0,0 +1,19 @@
+package org.doben.raas.repository;
+
+import org.doben.raas.domain.Person;
+
+/**
+ * Partial updates of the {@link Person} entity in a single statement.
+ */
+public interface PersonRepositoryWithPartialUpdate {
+    /**
+     * Write the non-null fields of a patch to a person, leaving the others untouched, in a single statement run only if
+     * the row still has the version of the person. The person is detached from the current persistence context, with the
+     * fields of the patch and the new version set; it replaces the row in the second-level cache once committed.
+     *
+     * @param person the person to update, as read by the current persistence context or from the second-level cache.
+     * @param patch the fields to update.
+     * @return whether the person still had its version, and was updated.
+     */
+    boolean partialUpdate(Person person, Person patch);
+}
@@ -0,0 +1,31 @@
+package org.doben.raas.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.doben.raas.cache.CacheInvalidationBus;
+import org.doben.raas.domain.Person;
+
+/**
+ * Partial updates of the people, as a native {@code update} of the supplied columns only.
+ */
+public class PersonRepositoryWithPartialUpdateImpl implements PersonRepositoryWithPartialUpdate {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    public PersonRepositoryWithPartialUpdateImpl(CacheInvalidationBus cacheInvalidationBus) {
+        this.cacheInvalidationBus = cacheInvalidationBus;
+    }
+
+    @Override
+    public boolean partialUpdate(Person person, Person patch) {
+        return new PartialUpdate(Person.class, "person", cacheInvalidationBus)
+            .set("name", patch.getName(), person::setName)
+            .set("mother_name", patch.getMotherName(), person::setMotherName)
+            .set("birthdate", patch.getBirthdate(), person::setBirthdate)
+            .set("email", patch.getEmail(), person::setEmail)
+            .execute(entityManager, person, person.getId(), person.getVersion());
+    }
+}
@@ -0,0 +1,38 @@
+package org.doben.raas.repository;
+
+import java.util.Objects;
+import org.doben.raas.cache.CacheInvalidationBus;
+import org.doben.raas.domain.User;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evicts a changed user from the caches of {@link UserRepository}, on this node and, through the
+ * {@link CacheInvalidationBus}, on the others.
+ */
+@Component
+public class UserCaches {
+
+    private final CacheManager cacheManager;
+
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    public UserCaches(CacheManager cacheManager, CacheInvalidationBus cacheInvalidationBus) {
+        this.cacheManager = cacheManager;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+    }
+
+    /**
+     * Evict a user from the caches by login and by email.
+     *
+     * @param user the user.
+     */
+    public void clear(User user) {
+        Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE)).evict(user.getLogin());
+        cacheInvalidationBus.publish(UserRepository.USERS_BY_LOGIN_CACHE, user.getLogin());
+        if (user.getEmail() != null) {
+            Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE)).evict(user.getEmail());
+            cacheInvalidationBus.publish(UserRepository.USERS_BY_EMAIL_CACHE, user.getEmail());
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package org.doben.raas.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.doben.raas.config.ApplicationProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * BCrypt password encoder whose cost is calibrated at startup, and which hashes on its own bounded pool of threads.
+ * <p>
+ * The cost is the highest one whose hash takes no longer than the target time on this machine. Stored hashes of a lower
+ * cost are reported for {@link #upgradeEncoding(String) upgrade}, so that they are hashed again with the current cost
+ * on the next successful login. Hashes of a higher cost, as stored by a faster node, are kept: they are no weaker, and
+ * nodes calibrated differently would otherwise hash the same passwords again back and forth.
+ * <p>
+ * The request threads wait for the hashing threads, which limits the processors taken by hashing whatever the number of
+ * concurrent logins. Once the queue of the pool is full, hashes are rejected with a
+ * {@link PasswordHashingRejectedException}, instead of taking more request threads.
+ */
+public class AdaptivePasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+    public static final String HASH_METER_NAME = "security.password.hashing";
+    public static final String HASH_METER_DESCRIPTION = "Time to hash a password, or to check one against its hash";
+    public static final String QUEUE_METER_NAME = "security.password.hashing.queue";
+    public static final String QUEUE_METER_DESCRIPTION = "Time a password hash waited for a hashing thread";
+    public static final String QUEUED_METER_NAME = "security.password.hashing.queued";
+    public static final String QUEUED_METER_DESCRIPTION = "The number of password hashes waiting for a hashing thread";
+    public static final String REJECTED_METER_NAME = "security.password.hashing.rejected";
+    public static final String REJECTED_METER_DESCRIPTION = "The number of password hashes rejected as the hashing queue was full";
+
+    private static final Pattern BCRYPT_PATTERN = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+
+    private static final String CALIBRATION_PASSWORD = "calibration";
+
+    private static final int CALIBRATION_RUNS = 3;
+
+    private final Logger log = LoggerFactory.getLogger(AdaptivePasswordEncoder.class);
+
+    private final int cost;
+
+    private final BCryptPasswordEncoder encoder;
+
+    private final ThreadPoolExecutor executor;
+
+    private final Timer queueTimer;
+
+    private final Timer encodeTimer;
+
+    private final Timer matchTimer;
+
+    private final Counter rejectedCounter;
+
+    public AdaptivePasswordEncoder(ApplicationProperties.Security.PasswordHashing properties, MeterRegistry registry) {
+        this.cost = calibrate(properties.getTargetTime(), properties.getMinCost(), properties.getMaxCost());
+        this.encoder = new BCryptPasswordEncoder(cost);
+        int threads = properties.getThreads() > 0 ? properties.getThreads() : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor =
+            new ThreadPoolExecutor(
+                threads,
+                threads,
+                0,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity())),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            );
+        this.queueTimer = Timer.builder(QUEUE_METER_NAME).description(QUEUE_METER_DESCRIPTION).register(registry);
+        this.encodeTimer = Timer.builder(HASH_METER_NAME).description(HASH_METER_DESCRIPTION).tag("operation", "encode").register(registry);
+        this.matchTimer = Timer.builder(HASH_METER_NAME).description(HASH_METER_DESCRIPTION).tag("operation", "match").register(registry);
+        this.rejectedCounter = Counter.builder(REJECTED_METER_NAME).description(REJECTED_METER_DESCRIPTION).register(registry);
+        Gauge.builder(QUEUED_METER_NAME, executor.getQueue(), Collection::size).description(QUEUED_METER_DESCRIPTION).register(registry);
+        log.info("Hashing passwords with a BCrypt cost of {} on {} threads", cost, threads);
+    }
+
+    /**
+     * The BCrypt cost of the new hashes.
+     */
+    public int getCost() {
+        return cost;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return hash(encodeTimer, () -> encoder.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return hash(matchTimer, () -> encoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Whether a stored hash is of a lower cost than the current one, to be hashed again.
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_PATTERN.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) < cost;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private <T> T hash(Timer timer, Supplier<T> hash) {
+        long queuedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future =
+                executor.submit(() -> {
+                    queueTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                    return timer.record(hash);
+                });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new PasswordHashingRejectedException();
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing a password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Could not hash a password", e.getCause());
+        }
+    }
+
+    /**
+     * Find the highest cost whose hash takes no longer than the target time, by timing hashes of the minimum cost: each
+     * cost doubles the time of the previous one.
+     */
+    static int calibrate(Duration targetTime, int minCost, int maxCost) {
+        if (targetTime.isZero() || targetTime.isNegative()) {
+            return minCost;
+        }
+        BCryptPasswordEncoder calibration = new BCryptPasswordEncoder(minCost);
+        calibration.encode(CALIBRATION_PASSWORD);
+        long fastest = Long.MAX_VALUE;
+        for (int run = 0; run < CALIBRATION_RUNS; run++) {
+            long start = System.nanoTime();
+            calibration.encode(CALIBRATION_PASSWORD);
+            fastest = Math.min(fastest, System.nanoTime() - start);
+        }
+        return cost(fastest, targetTime.toNanos(), minCost, maxCost);
+    }
+
+    static int cost(long minCostNanos, long targetNanos, int minCost, int maxCost) {
+        int cost = minCost;
+        long nanos = minCostNanos;
+        while (cost < maxCost && nanos * 2 <= targetNanos) {
+            nanos *= 2;
+            cost++;
+        }
+        return cost;
+    }
+}
@@ -0,0 +1,84 @@
+package org.doben.raas.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Locale;
+import org.doben.raas.config.ApplicationProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rate limits the authentications and the password reset requests by login and, when enabled, by client address, so
+ * that a credential-stuffing burst is rejected before any user lookup or password hash.
+ */
+@Component
+public class AuthenticationRateLimiter {
+
+    public static final String REJECTED_METER_NAME = "security.authentication.rate-limited";
+    public static final String REJECTED_METER_DESCRIPTION = "The number of authentication attempts rejected by the rate limits";
+    public static final String REJECTED_METER_LIMIT_DIMENSION = "limit";
+
+    private final Logger log = LoggerFactory.getLogger(AuthenticationRateLimiter.class);
+
+    private final boolean enabled;
+
+    private final TokenBuckets logins;
+
+    private final TokenBuckets addresses;
+
+    private final Counter loginRejectedCounter;
+
+    private final Counter addressRejectedCounter;
+
+    public AuthenticationRateLimiter(ApplicationProperties applicationProperties, MeterRegistry registry) {
+        ApplicationProperties.Security.RateLimit properties = applicationProperties.getSecurity().getRateLimit();
+        this.enabled = properties.isEnabled();
+        this.logins = buckets(properties.getLogin(), properties.getMaxBuckets());
+        this.addresses = buckets(properties.getAddress(), properties.getMaxBuckets());
+        this.loginRejectedCounter = rejectedCounter("login").register(registry);
+        this.addressRejectedCounter = rejectedCounter("address").register(registry);
+    }
+
+    /**
+     * Take an attempt from the buckets of a client address and of a login.
+     *
+     * @param login the login or email the attempt is for, if any.
+     * @param address the address of the client.
+     * @return {@link Duration#ZERO} if the attempt is allowed, or else the time after which it may be retried.
+     */
+    public Duration tryAcquire(String login, String address) {
+        if (!enabled) {
+            return Duration.ZERO;
+        }
+        if (address != null && addresses != null) {
+            Duration wait = addresses.tryConsume(address);
+            if (!wait.isZero()) {
+                addressRejectedCounter.increment();
+                log.debug("Too many authentication attempts from {}", address);
+                return wait;
+            }
+        }
+        if (login != null) {
+            Duration wait = logins.tryConsume(login.trim().toLowerCase(Locale.ENGLISH));
+            if (!wait.isZero()) {
+                loginRejectedCounter.increment();
+                log.debug("Too many authentication attempts for {}", login);
+                return wait;
+            }
+        }
+        return Duration.ZERO;
+    }
+
+    private static TokenBuckets buckets(ApplicationProperties.Security.RateLimit.Bucket bucket, int maxBuckets) {
+        if (!bucket.isEnabled()) {
+            return null;
+        }
+        return new TokenBuckets(bucket.getCapacity(), bucket.getRefillPeriod(), maxBuckets);
+    }
+
+    private static Counter.Builder rejectedCounter(String limit) {
+        return Counter.builder(REJECTED_METER_NAME).description(REJECTED_METER_DESCRIPTION).tag(REJECTED_METER_LIMIT_DIMENSION, limit);
+    }
+}
@@ -3,29 +3,35 @@ package org.doben.raas.security;
 import java.util.*;
 import org.doben.raas.domain.Authority;
 import org.doben.raas.domain.User;
+import org.doben.raas.repository.UserCaches;
 import org.doben.raas.repository.UserRepository;
 import org.hibernate.validator.internal.constraintvalidators.hv.EmailValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
- * Authenticate a user from the database.
+ * Authenticate a user from the database, and store the password hashed again with the current cost when its hash is
+ * {@link org.springframework.security.crypto.password.PasswordEncoder#upgradeEncoding(String) to be upgraded}.
  */
 @Component("userDetailsService")
-public class DomainUserDetailsService implements UserDetailsService {
+public class DomainUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final Logger log = LoggerFactory.getLogger(DomainUserDetailsService.class);
 
     private final UserRepository userRepository;
 
-    public DomainUserDetailsService(UserRepository userRepository) {
+    private final UserCaches userCaches;
+
+    public DomainUserDetailsService(UserRepository userRepository, UserCaches userCaches) {
         this.userRepository = userRepository;
+        this.userCaches = userCaches;
     }
 
     @Override
@@ -47,6 +53,23 @@ public class DomainUserDetailsService implements UserDetailsService {
             .orElseThrow(() -> new UsernameNotFoundException("User " + lowercaseLogin + " was not found in the database"));
     }
 
+    /**
+     * Store the password of a user hashed again after a successful login, unless it was changed since.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository
+            .findOneByLogin(user.getUsername())
+            .filter(stored -> Objects.equals(stored.getPassword(), user.getPassword()))
+            .ifPresent(stored -> {
+                log.debug("Rehashing the password of {}", stored.getLogin());
+                stored.setPassword(newPassword);
+                userCaches.clear(stored);
+            });
+        return org.springframework.security.core.userdetails.User.withUserDetails(user).password(newPassword).build();
+    }
+
     private org.springframework.security.core.userdetails.User createSpringSecurityUser(String lowercaseLogin, User user) {
         if (!user.isActivated()) {
             throw new UserNotActivatedException("User " + lowercaseLogin + " was not activated");
@@ -0,0 +1,129 @@
+package org.doben.raas.security;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets by key, such as a login or an address, each holding up to a number of tokens and refilled at a constant
+ * rate: an attempt takes a token, and is rejected while its bucket is empty.
+ * <p>
+ * The buckets are split into lock-striped maps by hash of their key, so that attempts on different keys rarely contend.
+ * A bucket left idle for the time to refill it completely is as good as new, and is evicted on the next access to its
+ * stripe. Each stripe holds a bounded number of buckets, and evicts the least recently used one beyond it.
+ */
+public class TokenBuckets {
+
+    private static final int STRIPES = 64;
+
+    private final double capacity;
+
+    private final double tokensPerNano;
+
+    private final long idleNanos;
+
+    private final int maxBucketsPerStripe;
+
+    private final LongSupplier nanoTime;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    /**
+     * @param capacity the number of tokens of a full bucket.
+     * @param refillPeriod the time to refill an empty bucket.
+     * @param maxBuckets the maximum number of buckets kept.
+     */
+    public TokenBuckets(int capacity, Duration refillPeriod, int maxBuckets) {
+        this(capacity, refillPeriod, maxBuckets, System::nanoTime);
+    }
+
+    TokenBuckets(int capacity, Duration refillPeriod, int maxBuckets, LongSupplier nanoTime) {
+        this.capacity = capacity;
+        this.idleNanos = refillPeriod.toNanos();
+        this.tokensPerNano = (double) capacity / idleNanos;
+        this.maxBucketsPerStripe = Math.max(1, maxBuckets / STRIPES);
+        this.nanoTime = nanoTime;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Take a token from the bucket of a key.
+     *
+     * @param key the key of the bucket.
+     * @return {@link Duration#ZERO} if a token was taken, or else the time until the bucket holds a token again.
+     */
+    public Duration tryConsume(String key) {
+        int hash = key.hashCode();
+        Stripe stripe = stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+        long waitNanos;
+        synchronized (stripe) {
+            waitNanos = stripe.tryConsume(key, nanoTime.getAsLong());
+        }
+        return waitNanos == 0 ? Duration.ZERO : Duration.ofNanos(waitNanos);
+    }
+
+    int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Buckets in the order of their last access, which is also the order of their last refill.
+     */
+    private final class Stripe extends LinkedHashMap<String, Bucket> {
+
+        private static final long serialVersionUID = 1L;
+
+        private Stripe() {
+            super(16, 0.75f, true);
+        }
+
+        private long tryConsume(String key, long now) {
+            evictIdle(now);
+            Bucket bucket = get(key);
+            if (bucket == null) {
+                put(key, new Bucket(capacity - 1, now));
+                return 0;
+            }
+            bucket.tokens = Math.min(capacity, bucket.tokens + (now - bucket.refilledAt) * tokensPerNano);
+            bucket.refilledAt = now;
+            if (bucket.tokens >= 1) {
+                bucket.tokens--;
+                return 0;
+            }
+            return (long) Math.ceil((1 - bucket.tokens) / tokensPerNano);
+        }
+
+        private void evictIdle(long now) {
+            Iterator<Bucket> buckets = values().iterator();
+            while (buckets.hasNext() && now - buckets.next().refilledAt >= idleNanos) {
+                buckets.remove();
+            }
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+            return size() > maxBucketsPerStripe;
+        }
+    }
+
+    private static final class Bucket {
+
+        private double tokens;
+        private long refilledAt;
+
+        private Bucket(double tokens, long refilledAt) {
+            this.tokens = tokens;
+            this.refilledAt = refilledAt;
+        }
+    }
+}
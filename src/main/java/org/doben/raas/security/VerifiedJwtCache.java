@@ -0,0 +1,153 @@
+package org.doben.raas.security;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+/**
+ * Cache of the verified JSON Web Tokens, along with the authorities converted from their claims, so that a token
+ * presented again is neither parsed, nor verified, nor converted again.
+ * <p>
+ * Entries are keyed by the SHA-256 hash of their token, and expire at the expiry of their token: the token is then
+ * verified again, and rejected as expired. Only verified tokens are cached, so an invalid token is verified, and
+ * reported, each time it is presented. Once the cache is full, the expired entries are evicted, then the entries expiring
+ * first.
+ */
+public class VerifiedJwtCache {
+
+    private static final String HASH_ALGORITHM = "SHA-256";
+
+    private final int maxEntries;
+
+    private final Clock clock;
+
+    private final Map<ByteBuffer, Entry> entries = new ConcurrentHashMap<>();
+
+    private final ThreadLocal<MessageDigest> digests = ThreadLocal.withInitial(VerifiedJwtCache::newDigest);
+
+    public VerifiedJwtCache(int maxEntries) {
+        this(maxEntries, Clock.systemUTC());
+    }
+
+    VerifiedJwtCache(int maxEntries, Clock clock) {
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+
+    /**
+     * Wrap a decoder, so that it only decodes the tokens not cached.
+     *
+     * @param verifier the decoder parsing and verifying the tokens.
+     * @return the caching decoder.
+     */
+    public JwtDecoder decoder(JwtDecoder verifier) {
+        return token -> {
+            ByteBuffer key = key(token);
+            Instant now = clock.instant();
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (now.isBefore(entry.expiresAt)) {
+                    return entry.jwt;
+                }
+                entries.remove(key, entry);
+            }
+            Jwt jwt = verifier.decode(token);
+            if (jwt.getExpiresAt() != null && now.isBefore(jwt.getExpiresAt())) {
+                if (entries.size() >= maxEntries) {
+                    evict(now);
+                }
+                entries.put(key, new Entry(jwt));
+            }
+            return jwt;
+        };
+    }
+
+    /**
+     * Wrap a converter of the authorities of a token, so that the authorities of a cached token are converted once.
+     *
+     * @param converter the converter of the claims of a token to authorities.
+     * @return the caching converter.
+     */
+    public Converter<Jwt, Collection<GrantedAuthority>> authoritiesConverter(Converter<Jwt, Collection<GrantedAuthority>> converter) {
+        return jwt -> {
+            Entry entry = entries.get(key(jwt.getTokenValue()));
+            if (entry == null || entry.jwt != jwt) {
+                return converter.convert(jwt);
+            }
+            Collection<GrantedAuthority> authorities = entry.authorities;
+            if (authorities == null) {
+                authorities = List.copyOf(converter.convert(jwt));
+                entry.authorities = authorities;
+            }
+            return authorities;
+        };
+    }
+
+    /**
+     * Whether any token is cached, {@code false} if the cache has no room.
+     */
+    public boolean isEnabled() {
+        return maxEntries > 0;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private synchronized void evict(Instant now) {
+        if (entries.size() < maxEntries) {
+            return;
+        }
+        entries.values().removeIf(entry -> !now.isBefore(entry.expiresAt));
+        // Evict an eighth more than needed, so that the next tokens do not each evict one entry
+        int excess = entries.size() - (maxEntries - Math.max(1, maxEntries / 8));
+        if (excess > 0) {
+            entries
+                .entrySet()
+                .stream()
+                .sorted(Comparator.comparing(mapping -> mapping.getValue().expiresAt))
+                .limit(excess)
+                .map(Map.Entry::getKey)
+                .toList()
+                .forEach(entries::remove);
+        }
+    }
+
+    private ByteBuffer key(String token) {
+        MessageDigest digest = digests.get();
+        digest.reset();
+        return ByteBuffer.wrap(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(HASH_ALGORITHM + " is not available", e);
+        }
+    }
+
+    private static final class Entry {
+
+        private final Jwt jwt;
+        private final Instant expiresAt;
+        private volatile Collection<GrantedAuthority> authorities;
+
+        private Entry(Jwt jwt) {
+            this.jwt = jwt;
+            this.expiresAt = jwt.getExpiresAt();
+        }
+    }
+}
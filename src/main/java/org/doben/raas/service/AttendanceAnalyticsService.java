@@ -0,0 +1,287 @@
+package org.doben.raas.service;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import org.doben.raas.domain.Attendance;
+import org.doben.raas.domain.Person;
+import org.doben.raas.domain.enumeration.HowMany;
+import org.doben.raas.domain.enumeration.Place;
+import org.doben.raas.repository.AttendanceRepository;
+import org.doben.raas.repository.PersonRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service answering the attendance dashboards from an in-memory columnar copy of the attendances and their patients.
+ * <p>
+ * The columns are loaded once the application is ready, then kept up to date by {@link AttendanceService} and
+ * {@link PersonService}: each change is applied once its transaction has committed. They are rebuilt from the database
+ * every night, which drops the deleted rows. Changes committed during a rebuild are replayed on the new columns.
+ */
+@Service
+public class AttendanceAnalyticsService {
+
+    /**
+     * Ages above this one all fall in the last band.
+     */
+    private static final int MAX_BANDED_AGE = 100;
+
+    private final Logger log = LoggerFactory.getLogger(AttendanceAnalyticsService.class);
+
+    private final AttendanceRepository attendanceRepository;
+
+    private final PersonRepository personRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private AttendanceColumns columns = new AttendanceColumns();
+
+    /**
+     * Changes applied while a rebuild is running, to be replayed on the rebuilt columns; {@code null} otherwise.
+     */
+    private List<Consumer<AttendanceColumns>> pendingChanges;
+
+    public AttendanceAnalyticsService(
+        AttendanceRepository attendanceRepository,
+        PersonRepository personRepository,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.attendanceRepository = attendanceRepository;
+        this.personRepository = personRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        rebuild();
+    }
+
+    /**
+     * Rebuild the columns from the database.
+     * <p>
+     * This is scheduled to get fired every night, at 03:00 (am).
+     */
+    @Scheduled(cron = "${application.analytics.rebuild-cron:0 0 3 * * ?}")
+    public synchronized void rebuild() {
+        log.debug("Rebuilding the attendance analytics columns");
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        AttendanceColumns rebuilt = new AttendanceColumns();
+        boolean loaded = false;
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<Object[]> rows = attendanceRepository.streamColumns()) {
+                    rows.forEach(row ->
+                        rebuilt.upsert((Long) row[0], epochSecond((Instant) row[1]), ordinal((Place) row[2]), ordinal((HowMany) row[3]))
+                    );
+                }
+                try (Stream<Object[]> rows = personRepository.streamPatientColumns()) {
+                    rows.forEach(row -> rebuilt.upsertPerson((Long) row[0], ((LocalDate) row[1]).toEpochDay(), (Long) row[2]));
+                }
+            });
+            loaded = true;
+        } catch (RuntimeException e) {
+            log.warn("Could not rebuild the attendance analytics columns, keeping the current ones", e);
+        }
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                for (Consumer<AttendanceColumns> change : pendingChanges) {
+                    change.accept(rebuilt);
+                }
+                columns = rebuilt;
+                log.debug("Rebuilt the attendance analytics columns, {} rows", rebuilt.size());
+            }
+            pendingChanges = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Record a created or updated attendance, once the current transaction commits.
+     *
+     * @param attendance the saved attendance.
+     */
+    public void attendanceSaved(Attendance attendance) {
+        long id = attendance.getId();
+        Long epochSecond = epochSecond(attendance.getDateTime());
+        byte place = ordinal(attendance.getPlace());
+        byte howMany = ordinal(attendance.getHowMany());
+        afterCommit(current -> current.upsert(id, epochSecond, place, howMany));
+    }
+
+    /**
+     * Record a deleted attendance, once the current transaction commits.
+     *
+     * @param id the id of the attendance.
+     */
+    public void attendanceDeleted(Long id) {
+        afterCommit(current -> current.delete(id));
+    }
+
+    /**
+     * Record a created or updated person, once the current transaction commits. Only patients are kept.
+     *
+     * @param person the saved person.
+     */
+    public void personSaved(Person person) {
+        long id = person.getId();
+        Attendance attendance = person.getAttendancesAsPatient();
+        if (attendance == null || attendance.getId() == null || person.getBirthdate() == null) {
+            afterCommit(current -> current.deletePerson(id));
+            return;
+        }
+        long birthEpochDay = person.getBirthdate().toEpochDay();
+        Long attendanceId = attendance.getId();
+        afterCommit(current -> current.upsertPerson(id, birthEpochDay, attendanceId));
+    }
+
+    /**
+     * Record a deleted person, once the current transaction commits.
+     *
+     * @param id the id of the person.
+     */
+    public void personDeleted(Long id) {
+        afterCommit(current -> current.deletePerson(id));
+    }
+
+    /**
+     * Count the attendances per hour of the day.
+     *
+     * @param from the inclusive lower bound of {@code dateTime}, or {@code null} for no lower bound.
+     * @param to the exclusive upper bound of {@code dateTime}, or {@code null} for no upper bound.
+     * @param place the place to count, or {@code null} for all places.
+     * @param howMany the number of patients to count, or {@code null} for all.
+     * @param zone the time zone the hours are taken in.
+     * @return the counts, by hour from {@code 0} to {@code 23}.
+     */
+    public Map<String, Long> countByHourOfDay(Instant from, Instant to, Place place, HowMany howMany, ZoneId zone) {
+        log.debug("Request to count Attendances by hour of day from {} to {} at {} for {} in {}", from, to, place, howMany, zone);
+        long[] histogram = read(current -> current.histogramByHourOfDay(filter(from, to, place, howMany), zone));
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (int hour = 0; hour < histogram.length; hour++) {
+            counts.put(String.valueOf(hour), histogram[hour]);
+        }
+        return counts;
+    }
+
+    /**
+     * Count the attendances per day of the week.
+     *
+     * @param from the inclusive lower bound of {@code dateTime}, or {@code null} for no lower bound.
+     * @param to the exclusive upper bound of {@code dateTime}, or {@code null} for no upper bound.
+     * @param place the place to count, or {@code null} for all places.
+     * @param howMany the number of patients to count, or {@code null} for all.
+     * @param zone the time zone the days are taken in.
+     * @return the counts, by day from {@code MONDAY} to {@code SUNDAY}.
+     */
+    public Map<String, Long> countByWeekday(Instant from, Instant to, Place place, HowMany howMany, ZoneId zone) {
+        log.debug("Request to count Attendances by weekday from {} to {} at {} for {} in {}", from, to, place, howMany, zone);
+        long[] histogram = read(current -> current.histogramByWeekday(filter(from, to, place, howMany), zone));
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (DayOfWeek day : DayOfWeek.values()) {
+            counts.put(day.name(), histogram[day.ordinal()]);
+        }
+        return counts;
+    }
+
+    /**
+     * Count the patients of the attendances per age band, their age being taken on the (UTC) attendance day.
+     *
+     * @param from the inclusive lower bound of {@code dateTime}, or {@code null} for no lower bound.
+     * @param to the exclusive upper bound of {@code dateTime}, or {@code null} for no upper bound.
+     * @param place the place to count, or {@code null} for all places.
+     * @param howMany the number of patients to count, or {@code null} for all.
+     * @param bandWidth the width of the bands, in years, from 1 to 100.
+     * @return the counts, by band such as {@code 0-9}, the last one being open such as {@code 100+}.
+     */
+    public Map<String, Long> countByPatientAge(Instant from, Instant to, Place place, HowMany howMany, int bandWidth) {
+        log.debug("Request to count patients by age band of {} from {} to {} at {} for {}", bandWidth, from, to, place, howMany);
+        if (bandWidth < 1 || bandWidth > MAX_BANDED_AGE) {
+            throw new IllegalArgumentException("Band width must be between 1 and " + MAX_BANDED_AGE);
+        }
+        int bands = (MAX_BANDED_AGE + bandWidth - 1) / bandWidth + 1;
+        long[] histogram = read(current -> current.histogramByPatientAge(filter(from, to, place, howMany), bandWidth, bands));
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (int band = 0; band < bands - 1; band++) {
+            counts.put((band * bandWidth) + "-" + ((band + 1) * bandWidth - 1), histogram[band]);
+        }
+        counts.put(((bands - 1) * bandWidth) + "+", histogram[bands - 1]);
+        return counts;
+    }
+
+    private long[] read(Function<AttendanceColumns, long[]> scan) {
+        lock.readLock().lock();
+        try {
+            return scan.apply(columns);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void afterCommit(Consumer<AttendanceColumns> change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        apply(change);
+                    }
+                }
+            );
+        } else {
+            apply(change);
+        }
+    }
+
+    private void apply(Consumer<AttendanceColumns> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(columns);
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static AttendanceColumns.Filter filter(Instant from, Instant to, Place place, HowMany howMany) {
+        return new AttendanceColumns.Filter(epochSecond(from), epochSecond(to), ordinal(place), ordinal(howMany));
+    }
+
+    private static Long epochSecond(Instant instant) {
+        return instant == null ? null : instant.getEpochSecond();
+    }
+
+    private static byte ordinal(Enum<?> value) {
+        return value == null ? AttendanceColumns.NONE : (byte) value.ordinal();
+    }
+}
@@ -0,0 +1,245 @@
+package org.doben.raas.service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * A columnar copy of the attendances and of their patients, in primitive arrays.
+ * <p>
+ * Rows are kept sorted by id, so that a row is found by binary search and new attendances, whose ids are generated in
+ * increasing order, are appended. Deleted rows are only flagged, and dropped by the next full rebuild. Scans split the
+ * rows in ranges, aggregated in parallel into per-range histograms that are then summed.
+ * <p>
+ * This class is not thread-safe: {@link AttendanceAnalyticsService} guards it with a read-write lock.
+ */
+class AttendanceColumns {
+
+    static final byte NONE = -1;
+
+    private static final byte DELETED = -2;
+
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    private static final long NO_ATTENDANCE = 0L;
+
+    private static final int SCAN_RANGE = 1 << 16;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private long[] epochSeconds = new long[INITIAL_CAPACITY];
+    private byte[] places = new byte[INITIAL_CAPACITY];
+    private byte[] howManys = new byte[INITIAL_CAPACITY];
+    private int size;
+
+    private long[] personIds = new long[INITIAL_CAPACITY];
+    private long[] birthEpochDays = new long[INITIAL_CAPACITY];
+    private long[] patientOf = new long[INITIAL_CAPACITY];
+    private int personSize;
+
+    /**
+     * Filter on the attendance rows. Bounds are epoch seconds, the lower one inclusive and the upper one exclusive,
+     * {@code null} for no bound. Undated attendances never match.
+     */
+    static final class Filter {
+
+        private final long from;
+        private final long to;
+        private final byte place;
+        private final byte howMany;
+
+        Filter(Long from, Long to, byte place, byte howMany) {
+            this.from = from == null ? Long.MIN_VALUE : from;
+            this.to = to == null ? Long.MAX_VALUE : to;
+            this.place = place;
+            this.howMany = howMany;
+        }
+
+        private boolean matches(long epochSecond, byte rowPlace, byte rowHowMany) {
+            return (
+                rowPlace != DELETED &&
+                epochSecond != NO_DATE &&
+                epochSecond >= from &&
+                epochSecond < to &&
+                (place == NONE || place == rowPlace) &&
+                (howMany == NONE || howMany == rowHowMany)
+            );
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    void upsert(long id, Long epochSecond, byte place, byte howMany) {
+        int row = Arrays.binarySearch(ids, 0, size, id);
+        if (row < 0) {
+            row = -row - 1;
+            ensureCapacity(size + 1);
+            if (row < size) {
+                shift(row);
+            }
+            size++;
+        }
+        ids[row] = id;
+        epochSeconds[row] = epochSecond == null ? NO_DATE : epochSecond;
+        places[row] = place;
+        howManys[row] = howMany;
+    }
+
+    void delete(long id) {
+        int row = Arrays.binarySearch(ids, 0, size, id);
+        if (row >= 0) {
+            places[row] = DELETED;
+        }
+    }
+
+    void upsertPerson(long id, long birthEpochDay, Long patientOfAttendanceId) {
+        int row = Arrays.binarySearch(personIds, 0, personSize, id);
+        if (row < 0) {
+            row = -row - 1;
+            ensurePersonCapacity(personSize + 1);
+            if (row < personSize) {
+                System.arraycopy(personIds, row, personIds, row + 1, personSize - row);
+                System.arraycopy(birthEpochDays, row, birthEpochDays, row + 1, personSize - row);
+                System.arraycopy(patientOf, row, patientOf, row + 1, personSize - row);
+            }
+            personSize++;
+        }
+        personIds[row] = id;
+        birthEpochDays[row] = birthEpochDay;
+        patientOf[row] = patientOfAttendanceId == null ? NO_ATTENDANCE : patientOfAttendanceId;
+    }
+
+    void deletePerson(long id) {
+        int row = Arrays.binarySearch(personIds, 0, personSize, id);
+        if (row >= 0) {
+            patientOf[row] = NO_ATTENDANCE;
+        }
+    }
+
+    /**
+     * Count the matching attendances per hour of the day, in the given time zone.
+     */
+    long[] histogramByHourOfDay(Filter filter, ZoneId zone) {
+        ZoneRules rules = zone.getRules();
+        return scan(
+            size,
+            24,
+            (histogram, row) -> {
+                if (filter.matches(epochSeconds[row], places[row], howManys[row])) {
+                    long local = epochSeconds[row] + offsetSeconds(rules, epochSeconds[row]);
+                    histogram[(int) (Math.floorMod(local, 86_400L) / 3_600L)]++;
+                }
+            }
+        );
+    }
+
+    /**
+     * Count the matching attendances per day of the week, Monday first, in the given time zone.
+     */
+    long[] histogramByWeekday(Filter filter, ZoneId zone) {
+        ZoneRules rules = zone.getRules();
+        return scan(
+            size,
+            7,
+            (histogram, row) -> {
+                if (filter.matches(epochSeconds[row], places[row], howManys[row])) {
+                    long epochDay = Math.floorDiv(epochSeconds[row] + offsetSeconds(rules, epochSeconds[row]), 86_400L);
+                    // 1970-01-01 was a Thursday
+                    histogram[(int) Math.floorMod(epochDay + 3, 7L)]++;
+                }
+            }
+        );
+    }
+
+    /**
+     * Count the patients of the matching attendances per age band, their age being taken on the attendance day.
+     * The last band holds every older patient.
+     */
+    long[] histogramByPatientAge(Filter filter, int bandWidth, int bands) {
+        return scan(
+            personSize,
+            bands,
+            (histogram, personRow) -> {
+                long attendanceId = patientOf[personRow];
+                if (attendanceId == NO_ATTENDANCE) {
+                    return;
+                }
+                int row = Arrays.binarySearch(ids, 0, size, attendanceId);
+                if (row < 0 || !filter.matches(epochSeconds[row], places[row], howManys[row])) {
+                    return;
+                }
+                LocalDate day = LocalDate.ofEpochDay(Math.floorDiv(epochSeconds[row], 86_400L));
+                int age = Math.max(0, Period.between(LocalDate.ofEpochDay(birthEpochDays[personRow]), day).getYears());
+                histogram[Math.min(age / bandWidth, bands - 1)]++;
+            }
+        );
+    }
+
+    private static long offsetSeconds(ZoneRules rules, long epochSecond) {
+        ZoneOffset offset = rules.isFixedOffset() ? rules.getOffset(Instant.EPOCH) : rules.getOffset(Instant.ofEpochSecond(epochSecond));
+        return offset.getTotalSeconds();
+    }
+
+    private interface RowAggregator {
+        void aggregate(long[] histogram, int row);
+    }
+
+    private static long[] scan(int rows, int buckets, RowAggregator aggregator) {
+        int ranges = (rows + SCAN_RANGE - 1) / SCAN_RANGE;
+        return IntStream
+            .range(0, ranges)
+            .parallel()
+            .mapToObj(range -> {
+                long[] histogram = new long[buckets];
+                int end = Math.min(rows, (range + 1) * SCAN_RANGE);
+                for (int row = range * SCAN_RANGE; row < end; row++) {
+                    aggregator.aggregate(histogram, row);
+                }
+                return histogram;
+            })
+            .reduce(
+                new long[buckets],
+                (left, right) -> {
+                    long[] sum = new long[buckets];
+                    for (int i = 0; i < buckets; i++) {
+                        sum[i] = left[i] + right[i];
+                    }
+                    return sum;
+                }
+            );
+    }
+
+    private void shift(int row) {
+        System.arraycopy(ids, row, ids, row + 1, size - row);
+        System.arraycopy(epochSeconds, row, epochSeconds, row + 1, size - row);
+        System.arraycopy(places, row, places, row + 1, size - row);
+        System.arraycopy(howManys, row, howManys, row + 1, size - row);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > ids.length) {
+            int grown = Math.max(capacity, ids.length + (ids.length >> 1));
+            ids = Arrays.copyOf(ids, grown);
+            epochSeconds = Arrays.copyOf(epochSeconds, grown);
+            places = Arrays.copyOf(places, grown);
+            howManys = Arrays.copyOf(howManys, grown);
+        }
+    }
+
+    private void ensurePersonCapacity(int capacity) {
+        if (capacity > personIds.length) {
+            int grown = Math.max(capacity, personIds.length + (personIds.length >> 1));
+            personIds = Arrays.copyOf(personIds, grown);
+            birthEpochDays = Arrays.copyOf(birthEpochDays, grown);
+            patientOf = Arrays.copyOf(patientOf, grown);
+        }
+    }
+}
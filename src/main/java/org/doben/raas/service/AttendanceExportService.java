@@ -0,0 +1,210 @@
+package org.doben.raas.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import org.doben.raas.config.ApplicationProperties;
+import org.doben.raas.domain.Attendance;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.query.SelectionQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service streaming {@link Attendance} rows to an {@link OutputStream}, in constant memory.
+ * <p>
+ * Rows are read with a forward-only scroll and the configured JDBC fetch size, bypassing the second-level cache.
+ * The persistence context is cleared every {@code application.export.chunk-size} rows, after the output is flushed,
+ * so entities never accumulate whatever the size of the table.
+ */
+@Service
+public class AttendanceExportService {
+
+    private static final String CSV_HEADER = "id;date_time;place;how_many\n";
+
+    private final Logger log = LoggerFactory.getLogger(AttendanceExportService.class);
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final ApplicationProperties.Export properties;
+
+    public AttendanceExportService(
+        EntityManager entityManager,
+        PlatformTransactionManager transactionManager,
+        ObjectMapper objectMapper,
+        ApplicationProperties applicationProperties
+    ) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.properties = applicationProperties.getExport();
+    }
+
+    /**
+     * Write the attendances of a time range, oldest first.
+     *
+     * @param from the inclusive lower bound of {@code dateTime}, or {@code null} for no lower bound.
+     * @param to the exclusive upper bound of {@code dateTime}, or {@code null} for no upper bound.
+     * @param format the output format.
+     * @param out the stream to write to, left open.
+     * @return the number of attendances written.
+     * @throws IOException if the output cannot be written.
+     */
+    public long export(Instant from, Instant to, BulkFormat format, OutputStream out) throws IOException {
+        log.debug("Request to export Attendances from {} to {} as {}", from, to, format);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        RowWriter rowWriter = format == BulkFormat.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(objectMapper, writer);
+        try {
+            Long count = transactionTemplate.execute(status -> {
+                try {
+                    return scroll(from, to, rowWriter);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            rowWriter.flush();
+            log.debug("Exported {} Attendances", count);
+            return count == null ? 0 : count;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private long scroll(Instant from, Instant to, RowWriter rowWriter) throws IOException {
+        StringBuilder hql = new StringBuilder("select attendance from Attendance attendance where 1 = 1");
+        if (from != null) {
+            hql.append(" and attendance.dateTime >= :from");
+        }
+        if (to != null) {
+            hql.append(" and attendance.dateTime < :to");
+        }
+        hql.append(" order by attendance.dateTime, attendance.id");
+
+        Session session = entityManager.unwrap(Session.class);
+        SelectionQuery<Attendance> query = session
+            .createSelectionQuery(hql.toString(), Attendance.class)
+            .setFetchSize(properties.getFetchSize())
+            .setReadOnly(true)
+            .setCacheMode(CacheMode.IGNORE);
+        if (from != null) {
+            query.setParameter("from", from);
+        }
+        if (to != null) {
+            query.setParameter("to", to);
+        }
+
+        int chunkSize = Math.max(1, properties.getChunkSize());
+        rowWriter.start();
+        long count = 0;
+        try (ScrollableResults<Attendance> results = query.scroll(ScrollMode.FORWARD_ONLY)) {
+            while (results.next()) {
+                rowWriter.write(results.get());
+                if (++count % chunkSize == 0) {
+                    rowWriter.flush();
+                    session.clear();
+                }
+            }
+        }
+        session.clear();
+        return count;
+    }
+
+    private interface RowWriter {
+        void start() throws IOException;
+
+        void write(Attendance attendance) throws IOException;
+
+        void flush() throws IOException;
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+
+        private final Writer writer;
+
+        private CsvRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void start() throws IOException {
+            writer.write(CSV_HEADER);
+        }
+
+        @Override
+        public void write(Attendance attendance) throws IOException {
+            writer.write(String.valueOf(attendance.getId()));
+            writer.write(';');
+            if (attendance.getDateTime() != null) {
+                writer.write(attendance.getDateTime().toString());
+            }
+            writer.write(';');
+            if (attendance.getPlace() != null) {
+                writer.write(attendance.getPlace().name());
+            }
+            writer.write(';');
+            if (attendance.getHowMany() != null) {
+                writer.write(attendance.getHowMany().name());
+            }
+            writer.write('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+    }
+
+    /**
+     * Writes the scalar fields only: serializing the entity would initialize its lazy collections, one query per row.
+     */
+    private static final class NdjsonRowWriter implements RowWriter {
+
+        private final JsonGenerator generator;
+
+        private NdjsonRowWriter(ObjectMapper objectMapper, Writer writer) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(writer);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void start() {
+            // NDJSON has no header
+        }
+
+        @Override
+        public void write(Attendance attendance) throws IOException {
+            generator.writeStartObject();
+            generator.writeNumberField("id", attendance.getId());
+            generator.writeStringField("dateTime", attendance.getDateTime() == null ? null : attendance.getDateTime().toString());
+            generator.writeStringField("place", attendance.getPlace() == null ? null : attendance.getPlace().name());
+            generator.writeStringField("howMany", attendance.getHowMany() == null ? null : attendance.getHowMany().name());
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            generator.flush();
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package org.doben.raas.service;
 
+import java.time.Instant;
 import java.util.Optional;
 import org.doben.raas.domain.Attendance;
+import org.doben.raas.domain.enumeration.HowMany;
+import org.doben.raas.domain.enumeration.Place;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -26,10 +29,12 @@ public interface AttendanceService {
     Attendance update(Attendance attendance);
 
     /**
-     * Partially updates a attendance.
+     * Partially updates a attendance, in a single statement writing the non-null fields only. The attendance is only read
+     * first when it is not in the second-level cache.
      *
-     * @param attendance the entity to update partially.
-     * @return the persisted entity.
+     * @param attendance the entity to update partially, with the version it was read at if known.
+     * @return the persisted entity, or empty if there is no attendance with this id.
+     * @throws org.springframework.dao.OptimisticLockingFailureException if the attendance exists at another version.
      */
     Optional<Attendance> partialUpdate(Attendance attendance);
 
@@ -41,6 +46,41 @@ public interface AttendanceService {
      */
     Page<Attendance> findAll(Pageable pageable);
 
+    /**
+     * Get the attendances matching the given filters. A {@code null} filter matches every attendance.
+     *
+     * @param from the inclusive lower bound of the attendance date.
+     * @param to the exclusive upper bound of the attendance date.
+     * @param place the place of the attendance.
+     * @param howMany the number of patients of the attendance.
+     * @param pageable the pagination information.
+     * @return the list of entities.
+     */
+    Page<Attendance> findAllByFilter(Instant from, Instant to, Place place, HowMany howMany, Pageable pageable);
+
+    /**
+     * Get the attendances matching the given filters, with their professionals and patients. A {@code null} filter
+     * matches every attendance. The participants of the whole page are loaded in one query per collection.
+     *
+     * @param from the inclusive lower bound of the attendance date.
+     * @param to the exclusive upper bound of the attendance date.
+     * @param place the place of the attendance.
+     * @param howMany the number of patients of the attendance.
+     * @param pageable the pagination information.
+     * @return the list of entities.
+     */
+    Page<Attendance> findAllWithEagerRelationships(Instant from, Instant to, Place place, HowMany howMany, Pageable pageable);
+
+    /**
+     * Get a slice of the attendances with keyset pagination, without counting them.
+     *
+     * @param cursor the cursor returned with the previous slice, or empty for the first one.
+     * @param size the maximum number of entities in the slice.
+     * @return the slice of entities.
+     * @throws IllegalArgumentException if the cursor is malformed.
+     */
+    CursorPage<Attendance> findAllAfter(String cursor, int size);
+
     /**
      * Get the "id" attendance.
      *
@@ -49,6 +89,14 @@ public interface AttendanceService {
      */
     Optional<Attendance> findOne(Long id);
 
+    /**
+     * Get the "id" attendance, with its professionals and patients.
+     *
+     * @param id the id of the entity.
+     * @return the entity.
+     */
+    Optional<Attendance> findOneWithEagerRelationships(Long id);
+
     /**
      * Delete the "id" attendance.
      *
@@ -0,0 +1,161 @@
+package org.doben.raas.service;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.doben.raas.domain.Attendance;
+import org.doben.raas.domain.AttendanceDailyCount;
+import org.doben.raas.domain.enumeration.HowMany;
+import org.doben.raas.domain.enumeration.Place;
+import org.doben.raas.repository.AttendanceDailyCountRepository;
+import org.doben.raas.service.dto.AttendanceCountDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service maintaining and reading the attendance counts per day, week and month, by place and number of patients.
+ * <p>
+ * The counts are kept in the {@link AttendanceDailyCount} rollup, updated by {@link AttendanceService} in the same
+ * transaction as the attendance itself. Weeks and months are summed from the daily rows, a few rows per day at most,
+ * so no request ever scans the {@code attendance} table. Attendances without a date are not counted.
+ */
+@Service
+@Transactional
+public class AttendanceStatisticsService {
+
+    /**
+     * Length of the periods the attendances are counted by.
+     */
+    public enum Granularity {
+        DAY,
+        WEEK,
+        MONTH,
+    }
+
+    private final Logger log = LoggerFactory.getLogger(AttendanceStatisticsService.class);
+
+    private final AttendanceDailyCountRepository attendanceDailyCountRepository;
+
+    public AttendanceStatisticsService(AttendanceDailyCountRepository attendanceDailyCountRepository) {
+        this.attendanceDailyCountRepository = attendanceDailyCountRepository;
+    }
+
+    /**
+     * Take a snapshot of the counted attributes of an attendance, before it is changed.
+     *
+     * @param attendance the attendance, or {@code null}.
+     * @return the bucket the attendance is counted in, or {@code null} if it is not counted.
+     */
+    public static Bucket bucketOf(Attendance attendance) {
+        if (attendance == null || attendance.getDateTime() == null) {
+            return null;
+        }
+        return new Bucket(attendance.getDateTime(), attendance.getPlace(), attendance.getHowMany());
+    }
+
+    /**
+     * Move an attendance from a bucket to another, in the current transaction.
+     *
+     * @param before the bucket before the change, or {@code null} for a created attendance.
+     * @param after the bucket after the change, or {@code null} for a deleted attendance.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void move(Bucket before, Bucket after) {
+        if (Objects.equals(before, after)) {
+            return;
+        }
+        if (before != null) {
+            increment(before, -1);
+        }
+        if (after != null) {
+            increment(after, 1);
+        }
+    }
+
+    private void increment(Bucket bucket, long delta) {
+        log.trace("Counting {} attendance in {}", delta, bucket);
+        attendanceDailyCountRepository.increment(bucket.day, bucket.place, bucket.howMany, delta);
+    }
+
+    /**
+     * Get the attendance counts of a date range.
+     *
+     * @param granularity the length of the periods.
+     * @param from the first day of the range, inclusive.
+     * @param to the last day of the range, inclusive.
+     * @return the non-zero counts, ordered by period.
+     */
+    @Transactional(readOnly = true)
+    public List<AttendanceCountDTO> getCounts(Granularity granularity, LocalDate from, LocalDate to) {
+        log.debug("Request to get Attendance counts by {} from {} to {}", granularity, from, to);
+        Map<List<Object>, AttendanceCountDTO> counts = new LinkedHashMap<>();
+        for (AttendanceDailyCountRepository.DailyCount daily : attendanceDailyCountRepository.findCountsByCountDateBetween(from, to)) {
+            LocalDate period = periodOf(granularity, daily.getCountDate());
+            Place place = daily.getPlace().isEmpty() ? null : Place.valueOf(daily.getPlace());
+            HowMany howMany = daily.getHowMany().isEmpty() ? null : HowMany.valueOf(daily.getHowMany());
+            AttendanceCountDTO count = counts.computeIfAbsent(
+                Arrays.asList(period, place, howMany),
+                key -> new AttendanceCountDTO(period, place, howMany, 0)
+            );
+            count.setCount(count.getCount() + daily.getAttendanceCount());
+        }
+        return new ArrayList<>(counts.values());
+    }
+
+    private static LocalDate periodOf(Granularity granularity, LocalDate day) {
+        return switch (granularity) {
+            case DAY -> day;
+            case WEEK -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> day.withDayOfMonth(1);
+        };
+    }
+
+    /**
+     * The attributes an attendance is counted by.
+     */
+    public static final class Bucket {
+
+        private final LocalDate day;
+        private final String place;
+        private final String howMany;
+
+        private Bucket(Instant dateTime, Place place, HowMany howMany) {
+            this.day = LocalDate.ofInstant(dateTime, ZoneOffset.UTC);
+            this.place = place == null ? "" : place.name();
+            this.howMany = howMany == null ? "" : howMany.name();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Bucket)) {
+                return false;
+            }
+            Bucket bucket = (Bucket) o;
+            return day.equals(bucket.day) && place.equals(bucket.place) && howMany.equals(bucket.howMany);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(day, place, howMany);
+        }
+
+        @Override
+        public String toString() {
+            return day + "/" + place + "/" + howMany;
+        }
+    }
+}
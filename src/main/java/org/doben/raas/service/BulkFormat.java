@@ -0,0 +1,68 @@
+package org.doben.raas.service;
+
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Formats of the bulk import and export endpoints.
+ */
+public enum BulkFormat {
+    /**
+     * One JSON object per line.
+     */
+    NDJSON(BulkFormat.NDJSON_VALUE),
+
+    /**
+     * {@code ;}-separated values with a header row, as in {@code config/liquibase/fake-data/*.csv}.
+     */
+    CSV(BulkFormat.CSV_VALUE);
+
+    public static final String NDJSON_VALUE = "application/x-ndjson";
+
+    public static final String CSV_VALUE = "text/csv";
+
+    private final String mediaType;
+
+    BulkFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Resolve the format from a {@code Content-Type} header value, ignoring parameters such as {@code charset}.
+     *
+     * @param contentType the content type of the request.
+     * @return the matching format, or empty if the content type is not supported.
+     */
+    public static Optional<BulkFormat> fromContentType(String contentType) {
+        if (contentType == null) {
+            return Optional.empty();
+        }
+        int parameters = contentType.indexOf(';');
+        String type = (parameters < 0 ? contentType : contentType.substring(0, parameters)).trim().toLowerCase(Locale.ROOT);
+        for (BulkFormat format : values()) {
+            if (format.mediaType.equals(type)) {
+                return Optional.of(format);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Resolve the format from its case-insensitive name, such as {@code ndjson} or {@code csv}.
+     *
+     * @param name the name of the format.
+     * @return the matching format, or empty if there is none.
+     */
+    public static Optional<BulkFormat> fromName(String name) {
+        for (BulkFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name)) {
+                return Optional.of(format);
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,403 @@
+package org.doben.raas.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.doben.raas.config.ApplicationProperties;
+import org.doben.raas.domain.Attendance;
+import org.doben.raas.domain.Person;
+import org.doben.raas.domain.enumeration.HowMany;
+import org.doben.raas.domain.enumeration.Place;
+import org.doben.raas.service.dto.BulkImportReportDTO;
+import org.doben.raas.service.dto.BulkImportReportDTO.ChunkDTO;
+import org.doben.raas.service.dto.BulkImportReportDTO.RowErrorDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service streaming large NDJSON or CSV bodies into {@link Attendance} and {@link Person} rows.
+ * <p>
+ * The body is read line by line and persisted in chunks, each chunk in its own transaction. The persistence
+ * context is cleared after every chunk, so memory stays flat whatever the size of the body. A row that cannot
+ * be parsed, validated or inserted is reported and skipped; it never aborts the rest of the load.
+ * <p>
+ * Only the scalar columns are imported, with the layout of {@code config/liquibase/fake-data/*.csv}. Any {@code id}
+ * column is ignored: rows are always inserted as new entities.
+ */
+@Service
+public class BulkImportService {
+
+    private static final char CSV_SEPARATOR = ';';
+
+    private final Logger log = LoggerFactory.getLogger(BulkImportService.class);
+
+    private final AttendanceService attendanceService;
+
+    private final PersonService personService;
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final Validator validator;
+
+    private final ApplicationProperties.BulkImport properties;
+
+    public BulkImportService(
+        AttendanceService attendanceService,
+        PersonService personService,
+        EntityManager entityManager,
+        PlatformTransactionManager transactionManager,
+        ObjectMapper objectMapper,
+        Validator validator,
+        ApplicationProperties applicationProperties
+    ) {
+        this.attendanceService = attendanceService;
+        this.personService = personService;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.properties = applicationProperties.getBulkImport();
+    }
+
+    /**
+     * Import attendances from a streamed body.
+     *
+     * @param body the request body.
+     * @param format the format of the body.
+     * @return the import report.
+     * @throws IOException if the body cannot be read.
+     */
+    public BulkImportReportDTO importAttendances(InputStream body, BulkFormat format) throws IOException {
+        log.debug("Request to bulk import Attendances as {}", format);
+        return importRows(
+            body,
+            format,
+            Attendance.class,
+            BulkImportService::attendanceFromCsv,
+            attendance -> {
+                attendance.setId(null);
+                attendance.setVersion(null);
+                attendance.getProfessionals().clear();
+                attendance.getPatients().clear();
+            },
+            attendanceService::save
+        );
+    }
+
+    /**
+     * Import people from a streamed body.
+     *
+     * @param body the request body.
+     * @param format the format of the body.
+     * @return the import report.
+     * @throws IOException if the body cannot be read.
+     */
+    public BulkImportReportDTO importPeople(InputStream body, BulkFormat format) throws IOException {
+        log.debug("Request to bulk import People as {}", format);
+        return importRows(
+            body,
+            format,
+            Person.class,
+            BulkImportService::personFromCsv,
+            person -> {
+                person.setId(null);
+                person.setVersion(null);
+                person.setUser(null);
+                person.setAttendancesAsProfessional(null);
+                person.setAttendancesAsPatient(null);
+            },
+            personService::save
+        );
+    }
+
+    private <T> BulkImportReportDTO importRows(
+        InputStream body,
+        BulkFormat format,
+        Class<T> type,
+        Function<Map<String, String>, T> csvMapper,
+        Consumer<T> detach,
+        Consumer<T> persister
+    ) throws IOException {
+        int chunkSize = Math.max(1, properties.getChunkSize());
+        Report report = new Report(properties.getMaxReportedErrors());
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        RowParser<T> parser = format == BulkFormat.CSV ? new CsvRowParser<>(csvMapper) : new NdjsonRowParser<>(objectMapper, type);
+
+        List<Row<T>> chunk = new ArrayList<>(chunkSize);
+        long rowNumber = 0;
+        long chunkFirstRow = 0;
+        int chunkRows = 0;
+        int chunkFailed = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            rowNumber++;
+            if (line.isBlank() || parser.isHeader(rowNumber, line)) {
+                continue;
+            }
+            if (chunkRows == 0) {
+                chunkFirstRow = rowNumber;
+            }
+            chunkRows++;
+            report.rowsRead++;
+            try {
+                T entity = parser.parse(line);
+                detach.accept(entity);
+                String violations = validate(entity);
+                if (violations == null) {
+                    chunk.add(new Row<>(rowNumber, entity));
+                } else {
+                    report.error(rowNumber, violations);
+                    chunkFailed++;
+                }
+            } catch (IllegalArgumentException | DateTimeParseException | IOException e) {
+                report.error(rowNumber, e.getMessage());
+                chunkFailed++;
+            }
+            if (chunkRows == chunkSize) {
+                chunkFailed += persistChunk(chunk, detach, persister, report);
+                report.chunk(chunkFirstRow, rowNumber, chunkRows - chunkFailed, chunkFailed);
+                chunk.clear();
+                chunkRows = 0;
+                chunkFailed = 0;
+            }
+        }
+        if (chunkRows > 0) {
+            chunkFailed += persistChunk(chunk, detach, persister, report);
+            report.chunk(chunkFirstRow, rowNumber, chunkRows - chunkFailed, chunkFailed);
+        }
+        log.debug("Bulk import of {} finished: {} rows read, {} imported", type.getSimpleName(), report.rowsRead, report.imported);
+        return report.toDTO();
+    }
+
+    /**
+     * Persist a chunk in a single transaction. If the transaction fails, the rows are replayed one transaction each,
+     * so that only the offending rows are rejected.
+     *
+     * @return the number of rows of the chunk that could not be persisted.
+     */
+    private <T> int persistChunk(List<Row<T>> chunk, Consumer<T> detach, Consumer<T> persister, Report report) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                chunk.forEach(row -> persister.accept(row.entity));
+                entityManager.flush();
+                entityManager.clear();
+            });
+            report.imported += chunk.size();
+            return 0;
+        } catch (RuntimeException chunkFailure) {
+            log.debug("Chunk starting at row {} failed, retrying row by row: {}", chunk.get(0).number, chunkFailure.getMessage());
+        }
+        int failed = 0;
+        for (Row<T> row : chunk) {
+            detach.accept(row.entity);
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    persister.accept(row.entity);
+                    entityManager.flush();
+                    entityManager.clear();
+                });
+                report.imported++;
+            } catch (RuntimeException e) {
+                report.error(row.number, NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+                failed++;
+            }
+        }
+        return failed;
+    }
+
+    private String validate(Object entity) {
+        Set<ConstraintViolation<Object>> violations = validator.validate(entity);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream().map(v -> v.getPropertyPath() + " " + v.getMessage()).sorted().collect(Collectors.joining(", "));
+    }
+
+    private static Attendance attendanceFromCsv(Map<String, String> columns) {
+        Attendance attendance = new Attendance();
+        attendance.setDateTime(parseInstant(columns.get("date_time")));
+        String place = columns.get("place");
+        if (place != null) {
+            attendance.setPlace(Place.valueOf(place.toUpperCase(Locale.ROOT)));
+        }
+        String howMany = columns.get("how_many");
+        if (howMany != null) {
+            attendance.setHowMany(HowMany.valueOf(howMany.toUpperCase(Locale.ROOT)));
+        }
+        return attendance;
+    }
+
+    private static Person personFromCsv(Map<String, String> columns) {
+        Person person = new Person();
+        person.setName(columns.get("name"));
+        person.setMotherName(columns.get("mother_name"));
+        String birthdate = columns.get("birthdate");
+        if (birthdate != null) {
+            person.setBirthdate(LocalDate.parse(birthdate));
+        }
+        person.setEmail(columns.get("email"));
+        return person;
+    }
+
+    /**
+     * Dates without an offset, as written by the Liquibase fake data, are read as UTC.
+     */
+    private static Instant parseInstant(String value) {
+        if (value == null) {
+            return null;
+        }
+        if (value.endsWith("Z") || value.lastIndexOf('+') > 0) {
+            return Instant.parse(value);
+        }
+        return LocalDateTime.parse(value).toInstant(ZoneOffset.UTC);
+    }
+
+    private static final class Row<T> {
+
+        private final long number;
+        private final T entity;
+
+        private Row(long number, T entity) {
+            this.number = number;
+            this.entity = entity;
+        }
+    }
+
+    private interface RowParser<T> {
+        boolean isHeader(long rowNumber, String line);
+
+        T parse(String line) throws IOException;
+    }
+
+    private static final class NdjsonRowParser<T> implements RowParser<T> {
+
+        private final ObjectReader reader;
+
+        private NdjsonRowParser(ObjectMapper objectMapper, Class<T> type) {
+            this.reader = objectMapper.readerFor(type);
+        }
+
+        @Override
+        public boolean isHeader(long rowNumber, String line) {
+            return false;
+        }
+
+        @Override
+        public T parse(String line) throws IOException {
+            T entity = reader.readValue(line);
+            if (entity == null) {
+                throw new IllegalArgumentException("Expected a JSON object");
+            }
+            return entity;
+        }
+    }
+
+    private static final class CsvRowParser<T> implements RowParser<T> {
+
+        private final Function<Map<String, String>, T> mapper;
+        private String[] header;
+
+        private CsvRowParser(Function<Map<String, String>, T> mapper) {
+            this.mapper = mapper;
+        }
+
+        @Override
+        public boolean isHeader(long rowNumber, String line) {
+            if (header != null) {
+                return false;
+            }
+            header = split(line);
+            for (int i = 0; i < header.length; i++) {
+                header[i] = header[i] == null ? "" : header[i].toLowerCase(Locale.ROOT);
+            }
+            return true;
+        }
+
+        @Override
+        public T parse(String line) {
+            String[] values = split(line);
+            if (values.length > header.length) {
+                throw new IllegalArgumentException("Expected " + header.length + " columns but found " + values.length);
+            }
+            Map<String, String> columns = new HashMap<>(header.length * 2);
+            for (int i = 0; i < values.length; i++) {
+                columns.put(header[i], values[i]);
+            }
+            return mapper.apply(columns);
+        }
+
+        private static String[] split(String line) {
+            String[] values = line.split(String.valueOf(CSV_SEPARATOR), -1);
+            for (int i = 0; i < values.length; i++) {
+                String value = values[i].trim();
+                values[i] = value.isEmpty() ? null : value;
+            }
+            return values;
+        }
+    }
+
+    private static final class Report {
+
+        private final int maxErrors;
+        private final BulkImportReportDTO dto = new BulkImportReportDTO();
+        private long rowsRead;
+        private long imported;
+        private long failed;
+
+        private Report(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        private void error(long row, String message) {
+            failed++;
+            if (dto.getErrors().size() < maxErrors) {
+                dto.getErrors().add(new RowErrorDTO(row, message));
+            } else {
+                dto.setErrorsTruncated(true);
+            }
+        }
+
+        private void chunk(long firstRow, long lastRow, int chunkImported, int chunkFailed) {
+            dto.getChunks().add(new ChunkDTO(dto.getChunks().size(), firstRow, lastRow, chunkImported, chunkFailed));
+        }
+
+        private BulkImportReportDTO toDTO() {
+            dto.setRowsRead(rowsRead);
+            dto.setImported(imported);
+            dto.setFailed(failed);
+            return dto;
+        }
+    }
+}
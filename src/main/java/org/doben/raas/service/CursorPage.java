@@ -0,0 +1,39 @@
+package org.doben.raas.service;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A slice of entities read with keyset (seek) pagination.
+ * <p>
+ * Unlike a {@link org.springframework.data.domain.Page}, it carries no total count: only the opaque cursor to
+ * resume from, if there are more entities to read.
+ *
+ * @param <T> the type of the entities.
+ */
+public class CursorPage<T> {
+
+    private final List<T> content;
+
+    private final String nextCursor;
+
+    public CursorPage(List<T> content, String nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    /**
+     * @return the cursor of the next slice, or empty if this is the last one.
+     */
+    public Optional<String> getNextCursor() {
+        return Optional.ofNullable(nextCursor);
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
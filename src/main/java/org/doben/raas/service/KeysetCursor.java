@@ -0,0 +1,43 @@
+package org.doben.raas.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes the seek keys of the last entity of a {@link CursorPage} into an opaque, URL-safe cursor.
+ */
+public final class KeysetCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private KeysetCursor() {}
+
+    /**
+     * Encode the seek keys.
+     *
+     * @param keys the keys, none of them containing {@code |}.
+     * @return the cursor.
+     */
+    public static String encode(String... keys) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(String.join(SEPARATOR, keys).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode the seek keys of a cursor.
+     *
+     * @param cursor the cursor, as returned by {@link #encode(String...)}.
+     * @param expectedKeys the number of keys the cursor must hold.
+     * @return the keys, or {@code null} if the cursor is empty, meaning the first slice.
+     * @throws IllegalArgumentException if the cursor is malformed.
+     */
+    public static String[] decode(String cursor, int expectedKeys) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String[] keys = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8).split("\\|", -1);
+        if (keys.length != expectedKeys) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,336 @@
+package org.doben.raas.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.doben.raas.config.ApplicationProperties;
+import org.doben.raas.domain.OutgoingMail;
+import org.doben.raas.repository.OutgoingMailRepository;
+import org.doben.raas.security.TokenBuckets;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Service sending the mails of the outbox.
+ * <p>
+ * The outbox is drained by a single thread, woken up once a mail is enqueued, and every poll interval for the mails due
+ * again or enqueued by the other nodes. Each batch of due mails is claimed for a lease, so that no other node sends it,
+ * then sent over one connection to the SMTP server. Sent mails are deleted; the others are due again after a delay
+ * doubling with each failed attempt, until they are abandoned. Abandoned mails are kept for inspection, then deleted
+ * once enqueued for longer than their retention. Mails are sent at least once: a mail whose node stops while it is
+ * being sent is sent again at the end of its lease.
+ * <p>
+ * Each node sends no more mails than the rate limit, whatever the number of mails enqueued at once.
+ */
+@Service
+public class MailDispatcher {
+
+    public static final String SENT_METER_NAME = "mail.outbox.sent";
+    public static final String SENT_METER_DESCRIPTION = "The number of mails of the outbox sent";
+    public static final String FAILED_METER_NAME = "mail.outbox.failed";
+    public static final String FAILED_METER_DESCRIPTION = "The number of failed attempts to send a mail of the outbox";
+    public static final String DELIVERY_METER_NAME = "mail.outbox.delivery";
+    public static final String DELIVERY_METER_DESCRIPTION = "Time from the enqueuing of a mail to its sending";
+    public static final String BATCH_METER_NAME = "mail.outbox.batch";
+    public static final String BATCH_METER_DESCRIPTION = "Time to send a batch of mails over one SMTP connection";
+    public static final String PENDING_METER_NAME = "mail.outbox.pending";
+    public static final String PENDING_METER_DESCRIPTION = "The number of mails of the outbox not sent nor abandoned";
+
+    private static final Duration LEASE = Duration.ofMinutes(10);
+
+    private static final Duration STOP_TIMEOUT = Duration.ofSeconds(10);
+
+    private static final int MAX_ERROR_LENGTH = 255;
+
+    private static final String RATE_LIMIT_KEY = "smtp";
+
+    private final Logger log = LoggerFactory.getLogger(MailDispatcher.class);
+
+    private final ApplicationProperties.Mail properties;
+
+    private final OutgoingMailRepository outgoingMailRepository;
+
+    private final JavaMailSender javaMailSender;
+
+    private final JHipsterProperties jHipsterProperties;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final TokenBuckets rateLimit;
+
+    private final Counter sentCounter;
+
+    private final Counter retriedCounter;
+
+    private final Counter abandonedCounter;
+
+    private final Timer deliveryTimer;
+
+    private final Timer batchTimer;
+
+    private final AtomicLong pending = new AtomicLong();
+
+    private final AtomicBoolean wokenUp = new AtomicBoolean();
+
+    private ScheduledExecutorService executor;
+
+    public MailDispatcher(
+        ApplicationProperties applicationProperties,
+        OutgoingMailRepository outgoingMailRepository,
+        JavaMailSender javaMailSender,
+        JHipsterProperties jHipsterProperties,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry
+    ) {
+        this.properties = applicationProperties.getMail();
+        this.outgoingMailRepository = outgoingMailRepository;
+        this.javaMailSender = javaMailSender;
+        this.jHipsterProperties = jHipsterProperties;
+        // The dispatcher is woken up once the transaction of a mail completed
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.rateLimit =
+            properties.getRateLimit() > 0 ? new TokenBuckets(properties.getRateLimit(), properties.getRateLimitPeriod(), 1) : null;
+        this.sentCounter = Counter.builder(SENT_METER_NAME).description(SENT_METER_DESCRIPTION).register(meterRegistry);
+        this.retriedCounter =
+            Counter.builder(FAILED_METER_NAME).description(FAILED_METER_DESCRIPTION).tag("outcome", "retried").register(meterRegistry);
+        this.abandonedCounter =
+            Counter.builder(FAILED_METER_NAME).description(FAILED_METER_DESCRIPTION).tag("outcome", "abandoned").register(meterRegistry);
+        this.deliveryTimer = Timer.builder(DELIVERY_METER_NAME).description(DELIVERY_METER_DESCRIPTION).register(meterRegistry);
+        this.batchTimer = Timer.builder(BATCH_METER_NAME).description(BATCH_METER_DESCRIPTION).register(meterRegistry);
+        Gauge.builder(PENDING_METER_NAME, pending, AtomicLong::get).description(PENDING_METER_DESCRIPTION).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        executor =
+            Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "mail-dispatcher");
+                thread.setDaemon(true);
+                return thread;
+            });
+        long pollMillis = properties.getPollInterval().toMillis();
+        executor.scheduleWithFixedDelay(this::dispatch, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+        long purgeMillis = Math.max(pollMillis, properties.getAbandonedRetention().toMillis() / 10);
+        executor.scheduleWithFixedDelay(this::purgeAbandoned, purgeMillis, purgeMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop the dispatcher, waiting for the batch being sent, if any, to be rescheduled or deleted.
+     */
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            try {
+                if (!executor.awaitTermination(STOP_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+                    log.warn("The mail dispatcher did not stop within {} s", STOP_TIMEOUT.toSeconds());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Drain the outbox as soon as possible, for a mail just enqueued. The wake-ups coming before the outbox is drained
+     * are merged.
+     */
+    public void wakeUp() {
+        if (executor != null && wokenUp.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> {
+                    wokenUp.set(false);
+                    dispatch();
+                });
+            } catch (RejectedExecutionException e) {
+                // Stopping, the mail is sent by the next node to poll
+                wokenUp.set(false);
+            }
+        }
+    }
+
+    /**
+     * Send the due mails of the outbox, a batch at a time, until none is due or the rate limit is reached.
+     */
+    void dispatch() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                List<OutgoingMail> batch = claimBatch();
+                if (batch == null) {
+                    break;
+                }
+                if (!batch.isEmpty()) {
+                    send(batch);
+                }
+            }
+            Long count = transactionTemplate.execute(status -> outgoingMailRepository.countByNextAttemptDateNotNull());
+            pending.set(count == null ? 0 : count);
+        } catch (RuntimeException e) {
+            log.warn("Could not dispatch the mails of the outbox", e);
+        }
+    }
+
+    /**
+     * Delete the abandoned mails enqueued for longer than their retention.
+     */
+    void purgeAbandoned() {
+        try {
+            Instant before = Instant.now().minus(properties.getAbandonedRetention());
+            Integer deleted = transactionTemplate.execute(status -> outgoingMailRepository.deleteAbandonedBefore(before));
+            log.debug("Deleted {} abandoned mails", deleted);
+        } catch (RuntimeException e) {
+            log.warn("Could not delete the abandoned mails of the outbox", e);
+        }
+    }
+
+    /**
+     * Claim the next batch of due mails.
+     *
+     * @return the mails claimed, possibly none if other nodes claimed them first, or {@code null} if no mail can be sent.
+     */
+    private List<OutgoingMail> claimBatch() {
+        return transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+            List<OutgoingMail> due = outgoingMailRepository.findDue(now, PageRequest.of(0, Math.max(1, properties.getBatchSize())));
+            if (due.isEmpty()) {
+                return null;
+            }
+            List<OutgoingMail> claimed = new ArrayList<>(due.size());
+            for (OutgoingMail mail : due) {
+                if (rateLimit != null) {
+                    Duration wait = rateLimit.tryConsume(RATE_LIMIT_KEY);
+                    if (!wait.isZero()) {
+                        log.debug("Mail rate limit reached, resuming in {} ms", wait.toMillis());
+                        if (executor != null) {
+                            executor.schedule(this::wakeUp, wait.toMillis() + 1, TimeUnit.MILLISECONDS);
+                        }
+                        return claimed.isEmpty() ? null : claimed;
+                    }
+                }
+                if (outgoingMailRepository.claim(mail.getId(), mail.getNextAttemptDate(), now.plus(LEASE)) == 1) {
+                    // Detached by the claim: the attempt it counted is only tracked on this copy
+                    mail.setAttempts(mail.getAttempts() + 1);
+                    claimed.add(mail);
+                }
+            }
+            return claimed;
+        });
+    }
+
+    private void send(List<OutgoingMail> batch) {
+        List<OutgoingMail> sendable = new ArrayList<>(batch.size());
+        List<MimeMessage> messages = new ArrayList<>(batch.size());
+        List<OutgoingMail> failed = new ArrayList<>();
+        List<Exception> errors = new ArrayList<>();
+        for (OutgoingMail mail : batch) {
+            try {
+                messages.add(toMessage(mail));
+                sendable.add(mail);
+            } catch (MessagingException e) {
+                failed.add(mail);
+                errors.add(e);
+            }
+        }
+        Map<Object, Exception> failedMessages = Map.of();
+        MailException batchError = null;
+        if (!messages.isEmpty()) {
+            long start = System.nanoTime();
+            try {
+                javaMailSender.send(messages.toArray(new MimeMessage[0]));
+            } catch (MailSendException e) {
+                failedMessages = e.getFailedMessages();
+                batchError = failedMessages.isEmpty() ? e : null;
+            } catch (MailException e) {
+                batchError = e;
+            }
+            batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        List<Long> sent = new ArrayList<>(sendable.size());
+        Instant now = Instant.now();
+        for (int i = 0; i < sendable.size(); i++) {
+            OutgoingMail mail = sendable.get(i);
+            Exception error = batchError != null ? batchError : failedMessages.get(messages.get(i));
+            if (error == null) {
+                sent.add(mail.getId());
+                deliveryTimer.record(Duration.between(mail.getCreatedDate(), now));
+            } else {
+                failed.add(mail);
+                errors.add(error);
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!sent.isEmpty()) {
+                outgoingMailRepository.deleteAllByIdInBatch(sent);
+            }
+            for (int i = 0; i < failed.size(); i++) {
+                reschedule(failed.get(i), errors.get(i), now);
+            }
+        });
+        sentCounter.increment(sent.size());
+        log.debug("Sent {} mails, {} failed", sent.size(), failed.size());
+    }
+
+    private void reschedule(OutgoingMail mail, Exception error, Instant now) {
+        String message = String.valueOf(error.getMessage());
+        String lastError = message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+        if (mail.getAttempts() >= properties.getMaxAttempts()) {
+            log.warn("Email could not be sent to '{}' after {} attempts, abandoning it", mail.getRecipient(), mail.getAttempts(), error);
+            outgoingMailRepository.reschedule(mail.getId(), null, lastError);
+            abandonedCounter.increment();
+        } else {
+            Duration backoff = backoff(mail.getAttempts(), properties.getInitialBackoff(), properties.getMaxBackoff());
+            log.warn("Email could not be sent to '{}', retrying in {} s: {}", mail.getRecipient(), backoff.toSeconds(), message);
+            outgoingMailRepository.reschedule(mail.getId(), now.plus(backoff), lastError);
+            retriedCounter.increment();
+        }
+    }
+
+    private MimeMessage toMessage(OutgoingMail mail) throws MessagingException {
+        MimeMessage mimeMessage = javaMailSender.createMimeMessage();
+        MimeMessageHelper message = new MimeMessageHelper(mimeMessage, mail.isMultipart(), StandardCharsets.UTF_8.name());
+        message.setTo(mail.getRecipient());
+        message.setFrom(jHipsterProperties.getMail().getFrom());
+        message.setSubject(mail.getSubject());
+        message.setText(mail.getContent(), mail.isHtml());
+        return mimeMessage;
+    }
+
+    /**
+     * The delay before the next attempt to send a mail, doubling with each failed attempt.
+     */
+    static Duration backoff(int attempts, Duration initialBackoff, Duration maxBackoff) {
+        Duration backoff = initialBackoff;
+        for (int attempt = 1; attempt < attempts && backoff.compareTo(maxBackoff) < 0; attempt++) {
+            backoff = backoff.multipliedBy(2);
+        }
+        return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+    }
+}
@@ -0,0 +1,134 @@
+package org.doben.raas.service;
+
+import java.io.StringWriter;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.doben.raas.domain.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.thymeleaf.ThymeleafProperties;
+import org.springframework.context.MessageSource;
+import org.springframework.stereotype.Service;
+import org.thymeleaf.TemplateSpec;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Service rendering the mail templates with their {@code user} and {@code baseUrl} variables.
+ * <p>
+ * The templates are processed by Thymeleaf, which parses each of them once when {@code spring.thymeleaf.cache} is set,
+ * from a {@link TemplateSpec} kept per template. The content is written to a buffer sized after the previous mail of
+ * the same template. Subjects are cached per locale.
+ * <p>
+ * Nothing is cached unless {@code spring.thymeleaf.cache} is set, so that templates and messages edited in
+ * development are reloaded.
+ */
+@Service
+public class MailTemplateRenderer {
+
+    private static final String USER = "user";
+
+    private static final String BASE_URL = "baseUrl";
+
+    private static final int INITIAL_CAPACITY = 4096;
+
+    private final SpringTemplateEngine templateEngine;
+
+    private final MessageSource messageSource;
+
+    private final String baseUrl;
+
+    private final boolean cache;
+
+    private final Map<String, Template> templates = new ConcurrentHashMap<>();
+
+    private final Map<SubjectKey, String> subjects = new ConcurrentHashMap<>();
+
+    @Autowired
+    public MailTemplateRenderer(
+        SpringTemplateEngine templateEngine,
+        MessageSource messageSource,
+        JHipsterProperties jHipsterProperties,
+        ThymeleafProperties thymeleafProperties
+    ) {
+        this(templateEngine, messageSource, jHipsterProperties.getMail().getBaseUrl(), thymeleafProperties.isCache());
+    }
+
+    MailTemplateRenderer(SpringTemplateEngine templateEngine, MessageSource messageSource, String baseUrl, boolean cache) {
+        this.templateEngine = templateEngine;
+        this.messageSource = messageSource;
+        this.baseUrl = baseUrl;
+        this.cache = cache;
+    }
+
+    /**
+     * Render the content of a mail to a user.
+     *
+     * @param templateName the name of the template, such as {@code mail/activationEmail}.
+     * @param user the user, the {@code user} variable of the template.
+     * @param locale the locale of the mail.
+     * @return the content.
+     */
+    public String render(String templateName, User user, Locale locale) {
+        Template template = cache ? templates.computeIfAbsent(templateName, Template::new) : new Template(templateName);
+        Context context = new Context(locale);
+        context.setVariable(USER, user);
+        context.setVariable(BASE_URL, baseUrl);
+        StringWriter writer = new StringWriter(template.capacity);
+        templateEngine.process(template.spec, context, writer);
+        String content = writer.toString();
+        template.capacity = Math.max(template.capacity, content.length());
+        return content;
+    }
+
+    /**
+     * Resolve the subject of a mail.
+     *
+     * @param titleKey the key of the subject in the messages.
+     * @param locale the locale of the mail.
+     * @return the subject.
+     */
+    public String subject(String titleKey, Locale locale) {
+        if (!cache) {
+            return messageSource.getMessage(titleKey, null, locale);
+        }
+        return subjects.computeIfAbsent(new SubjectKey(titleKey, locale), key -> messageSource.getMessage(key.titleKey, null, key.locale));
+    }
+
+    private static final class Template {
+
+        private final TemplateSpec spec;
+
+        /**
+         * The length of the longest mail rendered so far, read and written without synchronization as it is a hint.
+         */
+        private int capacity = INITIAL_CAPACITY;
+
+        private Template(String templateName) {
+            this.spec = new TemplateSpec(templateName, TemplateMode.HTML);
+        }
+    }
+
+    private static final class SubjectKey {
+
+        private final String titleKey;
+        private final Locale locale;
+
+        private SubjectKey(String titleKey, Locale locale) {
+            this.titleKey = titleKey;
+            this.locale = locale;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof SubjectKey other && titleKey.equals(other.titleKey) && locale.equals(other.locale);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * titleKey.hashCode() + locale.hashCode();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package org.doben.raas.service;
 
+import java.util.List;
 import java.util.Optional;
 import org.doben.raas.domain.Person;
 import org.springframework.data.domain.Page;
@@ -26,10 +27,12 @@ public interface PersonService {
     Person update(Person person);
 
     /**
-     * Partially updates a person.
+     * Partially updates a person, in a single statement writing the non-null fields only. The person is only read
+     * first when it is not in the second-level cache.
      *
-     * @param person the entity to update partially.
-     * @return the persisted entity.
+     * @param person the entity to update partially, with the version it was read at if known.
+     * @return the persisted entity, or empty if there is no person with this id.
+     * @throws org.springframework.dao.OptimisticLockingFailureException if the person exists at another version.
      */
     Optional<Person> partialUpdate(Person person);
 
@@ -41,6 +44,32 @@ public interface PersonService {
      */
     Page<Person> findAll(Pageable pageable);
 
+    /**
+     * Get a slice of the people with keyset pagination, without counting them.
+     *
+     * @param cursor the cursor returned with the previous slice, or empty for the first one.
+     * @param size the maximum number of entities in the slice.
+     * @return the slice of entities.
+     * @throws IllegalArgumentException if the cursor is malformed.
+     */
+    CursorPage<Person> findAllAfter(String cursor, int size);
+
+    /**
+     * Get the professionals of an attendance.
+     *
+     * @param attendanceId the id of the attendance.
+     * @return the list of entities.
+     */
+    List<Person> findAllProfessionalsOf(Long attendanceId);
+
+    /**
+     * Get the patients of an attendance.
+     *
+     * @param attendanceId the id of the attendance.
+     * @return the list of entities.
+     */
+    List<Person> findAllPatientsOf(Long attendanceId);
+
     /**
      * Get the "id" person.
      *
@@ -8,6 +8,7 @@ import org.doben.raas.config.Constants;
 import org.doben.raas.domain.Authority;
 import org.doben.raas.domain.User;
 import org.doben.raas.repository.AuthorityRepository;
+import org.doben.raas.repository.UserCaches;
 import org.doben.raas.repository.UserRepository;
 import org.doben.raas.security.AuthoritiesConstants;
 import org.doben.raas.security.SecurityUtils;
@@ -15,7 +16,6 @@ import org.doben.raas.service.dto.AdminUserDTO;
 import org.doben.raas.service.dto.UserDTO;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -39,18 +39,22 @@ public class UserService {
 
     private final AuthorityRepository authorityRepository;
 
-    private final CacheManager cacheManager;
+    private final UserCaches userCaches;
+
+    private final MailService mailService;
 
     public UserService(
         UserRepository userRepository,
         PasswordEncoder passwordEncoder,
         AuthorityRepository authorityRepository,
-        CacheManager cacheManager
+        UserCaches userCaches,
+        MailService mailService
     ) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.authorityRepository = authorityRepository;
-        this.cacheManager = cacheManager;
+        this.userCaches = userCaches;
+        this.mailService = mailService;
     }
 
     public Optional<User> activateRegistration(String key) {
@@ -61,7 +65,7 @@ public class UserService {
                 // activate given user for the registration key.
                 user.setActivated(true);
                 user.setActivationKey(null);
-                this.clearUserCaches(user);
+                this.userCaches.clear(user);
                 log.debug("Activated user: {}", user);
                 return user;
             });
@@ -76,7 +80,7 @@ public class UserService {
                 user.setPassword(passwordEncoder.encode(newPassword));
                 user.setResetKey(null);
                 user.setResetDate(null);
-                this.clearUserCaches(user);
+                this.userCaches.clear(user);
                 return user;
             });
     }
@@ -88,7 +92,8 @@ public class UserService {
             .map(user -> {
                 user.setResetKey(RandomUtil.generateResetKey());
                 user.setResetDate(Instant.now());
-                this.clearUserCaches(user);
+                this.userCaches.clear(user);
+                mailService.sendPasswordResetMail(user);
                 return user;
             });
     }
@@ -130,7 +135,8 @@ public class UserService {
         authorityRepository.findById(AuthoritiesConstants.USER).ifPresent(authorities::add);
         newUser.setAuthorities(authorities);
         userRepository.save(newUser);
-        this.clearUserCaches(newUser);
+        this.userCaches.clear(newUser);
+        mailService.sendActivationEmail(newUser);
         log.debug("Created Information for User: {}", newUser);
         return newUser;
     }
@@ -141,7 +147,7 @@ public class UserService {
         }
         userRepository.delete(existingUser);
         userRepository.flush();
-        this.clearUserCaches(existingUser);
+        this.userCaches.clear(existingUser);
         return true;
     }
 
@@ -175,7 +181,8 @@ public class UserService {
             user.setAuthorities(authorities);
         }
         userRepository.save(user);
-        this.clearUserCaches(user);
+        this.userCaches.clear(user);
+        mailService.sendCreationEmail(user);
         log.debug("Created Information for User: {}", user);
         return user;
     }
@@ -192,7 +199,7 @@ public class UserService {
             .filter(Optional::isPresent)
             .map(Optional::get)
             .map(user -> {
-                this.clearUserCaches(user);
+                this.userCaches.clear(user);
                 user.setLogin(userDTO.getLogin().toLowerCase());
                 user.setFirstName(userDTO.getFirstName());
                 user.setLastName(userDTO.getLastName());
@@ -212,7 +219,7 @@ public class UserService {
                     .map(Optional::get)
                     .forEach(managedAuthorities::add);
                 userRepository.save(user);
-                this.clearUserCaches(user);
+                this.userCaches.clear(user);
                 log.debug("Changed Information for User: {}", user);
                 return user;
             })
@@ -224,7 +231,7 @@ public class UserService {
             .findOneByLogin(login)
             .ifPresent(user -> {
                 userRepository.delete(user);
-                this.clearUserCaches(user);
+                this.userCaches.clear(user);
                 log.debug("Deleted User: {}", user);
             });
     }
@@ -251,7 +258,7 @@ public class UserService {
                 user.setLangKey(langKey);
                 user.setImageUrl(imageUrl);
                 userRepository.save(user);
-                this.clearUserCaches(user);
+                this.userCaches.clear(user);
                 log.debug("Changed Information for User: {}", user);
             });
     }
@@ -268,7 +275,7 @@ public class UserService {
                 }
                 String encryptedPassword = passwordEncoder.encode(newPassword);
                 user.setPassword(encryptedPassword);
-                this.clearUserCaches(user);
+                this.userCaches.clear(user);
                 log.debug("Changed password for User: {}", user);
             });
     }
@@ -305,7 +312,7 @@ public class UserService {
             .forEach(user -> {
                 log.debug("Deleting not activated user {}", user.getLogin());
                 userRepository.delete(user);
-                this.clearUserCaches(user);
+                this.userCaches.clear(user);
             });
     }
 
@@ -317,11 +324,4 @@ public class UserService {
     public List<String> getAuthorities() {
         return authorityRepository.findAll().stream().map(Authority::getName).toList();
     }
-
-    private void clearUserCaches(User user) {
-        Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE)).evict(user.getLogin());
-        if (user.getEmail() != null) {
-            Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE)).evict(user.getEmail());
-        }
-    }
 }
@@ -0,0 +1,264 @@
+package org.doben.raas.service;
+
+import static org.doben.raas.security.SecurityUtils.AUTHORITIES_KEY;
+import static org.doben.raas.security.SecurityUtils.JWT_ALGORITHM;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+import org.doben.raas.config.ApplicationProperties;
+import org.doben.raas.domain.Attendance;
+import org.doben.raas.domain.Person;
+import org.doben.raas.domain.User;
+import org.doben.raas.repository.AttendanceRepository;
+import org.doben.raas.repository.AuthorityRepository;
+import org.doben.raas.repository.PersonRepository;
+import org.doben.raas.repository.UserRepository;
+import org.doben.raas.security.AuthoritiesConstants;
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service warming the application up once it has started, when {@code application.warm-up.enabled} is set.
+ * <p>
+ * It runs while the {@link ApplicationReadyEvent} is handled, before Spring Boot switches the readiness state to
+ * accepting traffic, so that the readiness probe only reports the application up once it is warm. It loads the
+ * authorities, the most recently modified users, the most recent attendances with their participants and the most
+ * recently created people into the caches, opens the minimum number of idle connections of the pool, and sends
+ * representative API requests to this node, authenticated with a short-lived token, so that their code paths get
+ * compiled. A failed step is logged and skipped: the warm-up never prevents the application from starting.
+ */
+@Service
+public class WarmUpService {
+
+    private static final int PAGE_SIZE = 100;
+
+    private static final String WARM_UP_SUBJECT = "warm-up";
+
+    private final Logger log = LoggerFactory.getLogger(WarmUpService.class);
+
+    private final ApplicationProperties.WarmUp properties;
+
+    private final AuthorityRepository authorityRepository;
+
+    private final UserRepository userRepository;
+
+    private final AttendanceRepository attendanceRepository;
+
+    private final PersonRepository personRepository;
+
+    private final DataSource dataSource;
+
+    private final JwtEncoder jwtEncoder;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ServerProperties serverProperties;
+
+    public WarmUpService(
+        ApplicationProperties applicationProperties,
+        AuthorityRepository authorityRepository,
+        UserRepository userRepository,
+        AttendanceRepository attendanceRepository,
+        PersonRepository personRepository,
+        DataSource dataSource,
+        JwtEncoder jwtEncoder,
+        PlatformTransactionManager transactionManager,
+        ServerProperties serverProperties
+    ) {
+        this.properties = applicationProperties.getWarmUp();
+        this.serverProperties = serverProperties;
+        this.authorityRepository = authorityRepository;
+        this.userRepository = userRepository;
+        this.attendanceRepository = attendanceRepository;
+        this.personRepository = personRepository;
+        this.dataSource = dataSource;
+        this.jwtEncoder = jwtEncoder;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp(ApplicationReadyEvent event) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Instant start = Instant.now();
+        Instant deadline = start.plus(properties.getTimeout());
+        log.info("Warming up");
+        step("connection pool", deadline, this::primeConnectionPool);
+        step("caches", deadline, this::loadCaches);
+        if (event.getApplicationContext() instanceof WebServerApplicationContext context && context.getWebServer() != null) {
+            String baseUrl = baseUrl(serverProperties, context.getWebServer().getPort());
+            step("API requests", deadline, () -> sendRequests(baseUrl, deadline));
+        }
+        log.info("Warmed up in {} ms", Duration.between(start, Instant.now()).toMillis());
+    }
+
+    /**
+     * The URL of the application as served by this node, with the scheme, address and context path of the server.
+     */
+    static String baseUrl(ServerProperties serverProperties, int port) {
+        boolean secure = serverProperties.getSsl() != null && serverProperties.getSsl().isEnabled();
+        InetAddress address = serverProperties.getAddress();
+        String host = address == null || address.isAnyLocalAddress() ? "localhost" : address.getHostAddress();
+        if (host.contains(":")) {
+            host = "[" + host + "]";
+        }
+        String contextPath = serverProperties.getServlet().getContextPath();
+        return (secure ? "https" : "http") + "://" + host + ":" + port + (contextPath == null ? "" : contextPath);
+    }
+
+    private void step(String name, Instant deadline, Runnable step) {
+        if (Instant.now().isAfter(deadline)) {
+            log.warn("Warm-up timed out, skipping the {}", name);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            step.run();
+            log.debug("Warmed up the {} in {} ms", name, (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.warn("Could not warm up the {}", name, e);
+        }
+    }
+
+    /**
+     * Open the minimum number of idle connections now, instead of on the first requests.
+     */
+    private void primeConnectionPool() {
+        int connections = 1;
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                connections = Math.max(1, dataSource.unwrap(HikariDataSource.class).getMinimumIdle());
+            }
+        } catch (SQLException e) {
+            log.debug("Could not read the size of the connection pool", e);
+        }
+        List<Connection> opened = new ArrayList<>();
+        try {
+            while (opened.size() < connections) {
+                Connection connection = dataSource.getConnection();
+                opened.add(connection);
+                connection.isValid(1);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not open a connection", e);
+        } finally {
+            for (Connection connection : opened) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    log.debug("Could not release a connection", e);
+                }
+            }
+        }
+    }
+
+    private void loadCaches() {
+        transactionTemplate.executeWithoutResult(status -> {
+            authorityRepository.findAll();
+            PageRequest recentUsers = PageRequest.of(0, properties.getUsers(), Sort.by(Sort.Direction.DESC, "lastModifiedDate"));
+            for (User user : userRepository.findAllByIdNotNullAndActivatedIsTrue(recentUsers)) {
+                userRepository.findOneWithAuthoritiesByLogin(user.getLogin());
+            }
+        });
+        for (int page = 0; page * PAGE_SIZE < properties.getAttendances(); page++) {
+            PageRequest attendances = PageRequest.of(page, PAGE_SIZE);
+            boolean last = Boolean.TRUE.equals(
+                transactionTemplate.execute(status -> {
+                    List<Attendance> loaded = attendanceRepository.findDatedFirst(attendances);
+                    for (Attendance attendance : loaded) {
+                        // Batch fetched, which loads the participants too
+                        Hibernate.initialize(attendance.getProfessionals());
+                        Hibernate.initialize(attendance.getPatients());
+                    }
+                    return loaded.size() < PAGE_SIZE;
+                })
+            );
+            if (last) {
+                break;
+            }
+        }
+        for (int page = 0; page * PAGE_SIZE < properties.getPeople(); page++) {
+            PageRequest people = PageRequest.of(page, PAGE_SIZE);
+            List<Person> loaded = transactionTemplate.execute(status -> personRepository.findAllByOrderByIdDesc(people));
+            if (loaded == null || loaded.size() < PAGE_SIZE) {
+                break;
+            }
+        }
+    }
+
+    private void sendRequests(String baseUrl, Instant deadline) {
+        Instant now = Instant.now();
+        JwtClaimsSet claims = JwtClaimsSet
+            .builder()
+            .issuedAt(now)
+            .expiresAt(deadline.isAfter(now) ? deadline : now.plusSeconds(1))
+            .subject(WARM_UP_SUBJECT)
+            .claim(AUTHORITIES_KEY, AuthoritiesConstants.USER)
+            .build();
+        String token = jwtEncoder.encode(JwtEncoderParameters.from(JwsHeader.with(JWT_ALGORITHM).build(), claims)).getTokenValue();
+
+        List<String> paths = new ArrayList<>(List.of("/api/attendances?page=0&size=20", "/api/people?page=0&size=20"));
+        for (Attendance attendance : attendanceRepository.findDatedFirst(PageRequest.of(0, 1))) {
+            paths.add("/api/attendances/" + attendance.getId());
+        }
+        for (Person person : personRepository.findAllByOrderByIdDesc(PageRequest.of(0, 1))) {
+            paths.add("/api/people/" + person.getId());
+        }
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        int failures = 0;
+        for (int i = 0; i < properties.getRequests() && Instant.now().isBefore(deadline); i++) {
+            for (String path : paths) {
+                HttpRequest request = HttpRequest
+                    .newBuilder(URI.create(baseUrl + path))
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                    .timeout(Duration.ofSeconds(10))
+                    .GET()
+                    .build();
+                try {
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() >= 400) {
+                        failures++;
+                    }
+                } catch (IOException e) {
+                    failures++;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+        if (failures > 0) {
+            log.warn("{} warm-up requests failed", failures);
+        }
+    }
+}
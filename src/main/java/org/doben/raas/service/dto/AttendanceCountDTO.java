@@ -0,0 +1,79 @@
+package org.doben.raas.service.dto;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import org.doben.raas.domain.enumeration.HowMany;
+import org.doben.raas.domain.enumeration.Place;
+
+/**
+ * A DTO representing the number of attendances of a period, for a place and a number of patients.
+ */
+public class AttendanceCountDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private LocalDate period;
+
+    private Place place;
+
+    private HowMany howMany;
+
+    private long count;
+
+    public AttendanceCountDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public AttendanceCountDTO(LocalDate period, Place place, HowMany howMany, long count) {
+        this.period = period;
+        this.place = place;
+        this.howMany = howMany;
+        this.count = count;
+    }
+
+    /**
+     * @return the first day of the period: the day itself, the Monday of the week or the first day of the month.
+     */
+    public LocalDate getPeriod() {
+        return period;
+    }
+
+    public void setPeriod(LocalDate period) {
+        this.period = period;
+    }
+
+    public Place getPlace() {
+        return place;
+    }
+
+    public void setPlace(Place place) {
+        this.place = place;
+    }
+
+    public HowMany getHowMany() {
+        return howMany;
+    }
+
+    public void setHowMany(HowMany howMany) {
+        this.howMany = howMany;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "AttendanceCountDTO{" +
+            "period=" + period +
+            ", place=" + place +
+            ", howMany=" + howMany +
+            ", count=" + count +
+            "}";
+    }
+}
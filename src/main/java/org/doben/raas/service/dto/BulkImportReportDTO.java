@@ -0,0 +1,192 @@
+package org.doben.raas.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO reporting the outcome of a bulk import, chunk by chunk and row by row.
+ */
+public class BulkImportReportDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private long rowsRead;
+
+    private long imported;
+
+    private long failed;
+
+    private boolean errorsTruncated;
+
+    private List<ChunkDTO> chunks = new ArrayList<>();
+
+    private List<RowErrorDTO> errors = new ArrayList<>();
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public void setRowsRead(long rowsRead) {
+        this.rowsRead = rowsRead;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public boolean isErrorsTruncated() {
+        return errorsTruncated;
+    }
+
+    public void setErrorsTruncated(boolean errorsTruncated) {
+        this.errorsTruncated = errorsTruncated;
+    }
+
+    public List<ChunkDTO> getChunks() {
+        return chunks;
+    }
+
+    public void setChunks(List<ChunkDTO> chunks) {
+        this.chunks = chunks;
+    }
+
+    public List<RowErrorDTO> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<RowErrorDTO> errors) {
+        this.errors = errors;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BulkImportReportDTO{" +
+            "rowsRead=" + rowsRead +
+            ", imported=" + imported +
+            ", failed=" + failed +
+            ", chunks=" + chunks.size() +
+            ", errors=" + errors.size() +
+            "}";
+    }
+
+    /**
+     * Progress of a single chunk, committed in its own transaction.
+     */
+    public static class ChunkDTO implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private int index;
+
+        private long firstRow;
+
+        private long lastRow;
+
+        private int imported;
+
+        private int failed;
+
+        public ChunkDTO() {
+            // Empty constructor needed for Jackson.
+        }
+
+        public ChunkDTO(int index, long firstRow, long lastRow, int imported, int failed) {
+            this.index = index;
+            this.firstRow = firstRow;
+            this.lastRow = lastRow;
+            this.imported = imported;
+            this.failed = failed;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public void setIndex(int index) {
+            this.index = index;
+        }
+
+        public long getFirstRow() {
+            return firstRow;
+        }
+
+        public void setFirstRow(long firstRow) {
+            this.firstRow = firstRow;
+        }
+
+        public long getLastRow() {
+            return lastRow;
+        }
+
+        public void setLastRow(long lastRow) {
+            this.lastRow = lastRow;
+        }
+
+        public int getImported() {
+            return imported;
+        }
+
+        public void setImported(int imported) {
+            this.imported = imported;
+        }
+
+        public int getFailed() {
+            return failed;
+        }
+
+        public void setFailed(int failed) {
+            this.failed = failed;
+        }
+    }
+
+    /**
+     * A row that could not be imported. Rows are numbered from the first line of the body, header included.
+     */
+    public static class RowErrorDTO implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private long row;
+
+        private String message;
+
+        public RowErrorDTO() {
+            // Empty constructor needed for Jackson.
+        }
+
+        public RowErrorDTO(long row, String message) {
+            this.row = row;
+            this.message = message;
+        }
+
+        public long getRow() {
+            return row;
+        }
+
+        public void setRow(long row) {
+            this.row = row;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public void setMessage(String message) {
+            this.message = message;
+        }
+    }
+}
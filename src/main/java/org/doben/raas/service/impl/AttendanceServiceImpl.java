@@ -1,13 +1,28 @@
 package org.doben.raas.service.impl;
 
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import org.doben.raas.domain.Attendance;
+import org.doben.raas.domain.enumeration.HowMany;
+import org.doben.raas.domain.enumeration.Place;
 import org.doben.raas.repository.AttendanceRepository;
+import org.doben.raas.service.AttendanceAnalyticsService;
 import org.doben.raas.service.AttendanceService;
+import org.doben.raas.service.AttendanceStatisticsService;
+import org.doben.raas.service.AttendanceStatisticsService.Bucket;
+import org.doben.raas.service.CursorPage;
+import org.doben.raas.service.KeysetCursor;
+import org.hibernate.Hibernate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,42 +37,62 @@ public class AttendanceServiceImpl implements AttendanceService {
 
     private final AttendanceRepository attendanceRepository;
 
-    public AttendanceServiceImpl(AttendanceRepository attendanceRepository) {
+    private final AttendanceStatisticsService attendanceStatisticsService;
+
+    private final AttendanceAnalyticsService attendanceAnalyticsService;
+
+    public AttendanceServiceImpl(
+        AttendanceRepository attendanceRepository,
+        AttendanceStatisticsService attendanceStatisticsService,
+        AttendanceAnalyticsService attendanceAnalyticsService
+    ) {
         this.attendanceRepository = attendanceRepository;
+        this.attendanceStatisticsService = attendanceStatisticsService;
+        this.attendanceAnalyticsService = attendanceAnalyticsService;
     }
 
     @Override
     public Attendance save(Attendance attendance) {
         log.debug("Request to save Attendance : {}", attendance);
-        return attendanceRepository.save(attendance);
+        Bucket before = previousBucket(attendance.getId());
+        Attendance result = attendanceRepository.save(attendance);
+        attendanceStatisticsService.move(before, AttendanceStatisticsService.bucketOf(result));
+        attendanceAnalyticsService.attendanceSaved(result);
+        return result;
     }
 
     @Override
     public Attendance update(Attendance attendance) {
         log.debug("Request to update Attendance : {}", attendance);
-        return attendanceRepository.save(attendance);
+        Bucket before = previousBucket(attendance.getId());
+        Attendance result = attendanceRepository.save(attendance);
+        attendanceStatisticsService.move(before, AttendanceStatisticsService.bucketOf(result));
+        attendanceAnalyticsService.attendanceSaved(result);
+        return result;
     }
 
     @Override
     public Optional<Attendance> partialUpdate(Attendance attendance) {
         log.debug("Request to partially update Attendance : {}", attendance);
 
-        return attendanceRepository
-            .findById(attendance.getId())
-            .map(existingAttendance -> {
-                if (attendance.getDateTime() != null) {
-                    existingAttendance.setDateTime(attendance.getDateTime());
-                }
-                if (attendance.getPlace() != null) {
-                    existingAttendance.setPlace(attendance.getPlace());
-                }
-                if (attendance.getHowMany() != null) {
-                    existingAttendance.setHowMany(attendance.getHowMany());
-                }
-
-                return existingAttendance;
-            })
-            .map(attendanceRepository::save);
+        // From the second-level cache if there, and only read from the database otherwise
+        Optional<Attendance> existing = attendanceRepository.findById(attendance.getId());
+        if (existing.isEmpty()) {
+            return Optional.empty();
+        }
+        Attendance result = existing.orElseThrow();
+        if (attendance.getVersion() != null && !attendance.getVersion().equals(result.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Attendance.class, attendance.getId());
+        }
+        Bucket before = AttendanceStatisticsService.bucketOf(result);
+        // Only the supplied columns are written, by a single statement, at the version read
+        if (!attendanceRepository.partialUpdate(result, attendance)) {
+            // Changed since it was cached or read
+            throw new ObjectOptimisticLockingFailureException(Attendance.class, attendance.getId());
+        }
+        attendanceStatisticsService.move(before, AttendanceStatisticsService.bucketOf(result));
+        attendanceAnalyticsService.attendanceSaved(result);
+        return Optional.of(result);
     }
 
     @Override
@@ -67,6 +102,69 @@ public class AttendanceServiceImpl implements AttendanceService {
         return attendanceRepository.findAll(pageable);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Attendance> findAllWithEagerRelationships(Instant from, Instant to, Place place, HowMany howMany, Pageable pageable) {
+        Page<Attendance> page = findAllByFilter(from, to, place, howMany, pageable);
+        // Initializing a collection loads those of the following attendances too, by batches of @BatchSize
+        page.forEach(attendance -> {
+            Hibernate.initialize(attendance.getProfessionals());
+            Hibernate.initialize(attendance.getPatients());
+        });
+        return page;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Attendance> findAllByFilter(Instant from, Instant to, Place place, HowMany howMany, Pageable pageable) {
+        log.debug("Request to get Attendances from {} to {} at {} for {}", from, to, place, howMany);
+        Specification<Attendance> specification = Specification.where(null);
+        if (from != null) {
+            specification = specification.and(AttendanceRepository.dateTimeFrom(from));
+        }
+        if (to != null) {
+            specification = specification.and(AttendanceRepository.dateTimeBefore(to));
+        }
+        if (place != null) {
+            specification = specification.and(AttendanceRepository.placeIs(place));
+        }
+        if (howMany != null) {
+            specification = specification.and(AttendanceRepository.howManyIs(howMany));
+        }
+        return attendanceRepository.findAll(specification, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<Attendance> findAllAfter(String cursor, int size) {
+        log.debug("Request to get Attendances after : {}", cursor);
+        String[] keys = KeysetCursor.decode(cursor, 2);
+        // Dated attendances come first, newest first, then the undated ones. One extra row tells whether there is a next slice.
+        List<Attendance> content = new ArrayList<>(size + 1);
+        try {
+            if (keys == null) {
+                content.addAll(attendanceRepository.findDatedFirst(PageRequest.of(0, size + 1)));
+            } else if (!keys[0].isEmpty()) {
+                Instant dateTime = Instant.parse(keys[0]);
+                content.addAll(attendanceRepository.findDatedAfter(dateTime, Long.valueOf(keys[1]), PageRequest.of(0, size + 1)));
+            }
+            if (keys != null && keys[0].isEmpty()) {
+                content.addAll(attendanceRepository.findUndatedAfter(Long.valueOf(keys[1]), PageRequest.of(0, size + 1)));
+            } else if (content.size() <= size) {
+                content.addAll(attendanceRepository.findUndatedFirst(PageRequest.of(0, size + 1 - content.size())));
+            }
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+        if (content.size() <= size) {
+            return new CursorPage<>(content, null);
+        }
+        List<Attendance> slice = content.subList(0, size);
+        Attendance last = slice.get(size - 1);
+        String dateTime = last.getDateTime() == null ? "" : last.getDateTime().toString();
+        return new CursorPage<>(slice, KeysetCursor.encode(dateTime, last.getId().toString()));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Optional<Attendance> findOne(Long id) {
@@ -74,9 +172,29 @@ public class AttendanceServiceImpl implements AttendanceService {
         return attendanceRepository.findById(id);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Attendance> findOneWithEagerRelationships(Long id) {
+        log.debug("Request to get Attendance with its participants : {}", id);
+        return attendanceRepository.findOneWithEagerRelationshipsById(id);
+    }
+
     @Override
     public void delete(Long id) {
         log.debug("Request to delete Attendance : {}", id);
+        attendanceStatisticsService.move(previousBucket(id), null);
         attendanceRepository.deleteById(id);
+        attendanceAnalyticsService.attendanceDeleted(id);
+    }
+
+    /**
+     * Snapshot the counted attributes of a stored attendance before it is changed. The attendance is loaded into the
+     * persistence context, so the following save or delete does not read it again.
+     */
+    private Bucket previousBucket(Long id) {
+        if (id == null) {
+            return null;
+        }
+        return attendanceRepository.findById(id).map(AttendanceStatisticsService::bucketOf).orElse(null);
     }
 }
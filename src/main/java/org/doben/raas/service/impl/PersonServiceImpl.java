@@ -1,13 +1,19 @@
 package org.doben.raas.service.impl;
 
+import java.util.List;
 import java.util.Optional;
 import org.doben.raas.domain.Person;
 import org.doben.raas.repository.PersonRepository;
+import org.doben.raas.service.AttendanceAnalyticsService;
+import org.doben.raas.service.CursorPage;
+import org.doben.raas.service.KeysetCursor;
 import org.doben.raas.service.PersonService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,45 +28,49 @@ public class PersonServiceImpl implements PersonService {
 
     private final PersonRepository personRepository;
 
-    public PersonServiceImpl(PersonRepository personRepository) {
+    private final AttendanceAnalyticsService attendanceAnalyticsService;
+
+    public PersonServiceImpl(PersonRepository personRepository, AttendanceAnalyticsService attendanceAnalyticsService) {
         this.personRepository = personRepository;
+        this.attendanceAnalyticsService = attendanceAnalyticsService;
     }
 
     @Override
     public Person save(Person person) {
         log.debug("Request to save Person : {}", person);
-        return personRepository.save(person);
+        Person result = personRepository.save(person);
+        attendanceAnalyticsService.personSaved(result);
+        return result;
     }
 
     @Override
     public Person update(Person person) {
         log.debug("Request to update Person : {}", person);
-        return personRepository.save(person);
+        Person result = personRepository.save(person);
+        attendanceAnalyticsService.personSaved(result);
+        return result;
     }
 
     @Override
     public Optional<Person> partialUpdate(Person person) {
         log.debug("Request to partially update Person : {}", person);
 
-        return personRepository
-            .findById(person.getId())
-            .map(existingPerson -> {
-                if (person.getName() != null) {
-                    existingPerson.setName(person.getName());
-                }
-                if (person.getMotherName() != null) {
-                    existingPerson.setMotherName(person.getMotherName());
-                }
-                if (person.getBirthdate() != null) {
-                    existingPerson.setBirthdate(person.getBirthdate());
-                }
-                if (person.getEmail() != null) {
-                    existingPerson.setEmail(person.getEmail());
-                }
-
-                return existingPerson;
-            })
-            .map(personRepository::save);
+        // From the second-level cache if there, and only read from the database otherwise
+        Optional<Person> existing = personRepository.findById(person.getId());
+        if (existing.isEmpty()) {
+            return Optional.empty();
+        }
+        Person result = existing.orElseThrow();
+        if (person.getVersion() != null && !person.getVersion().equals(result.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Person.class, person.getId());
+        }
+        // Only the supplied columns are written, by a single statement, at the version read
+        if (!personRepository.partialUpdate(result, person)) {
+            // Changed since it was cached or read
+            throw new ObjectOptimisticLockingFailureException(Person.class, person.getId());
+        }
+        attendanceAnalyticsService.personSaved(result);
+        return Optional.of(result);
     }
 
     @Override
@@ -70,6 +80,42 @@ public class PersonServiceImpl implements PersonService {
         return personRepository.findAll(pageable);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<Person> findAllAfter(String cursor, int size) {
+        log.debug("Request to get People after : {}", cursor);
+        String[] keys = KeysetCursor.decode(cursor, 1);
+        // One extra row tells whether there is a next slice.
+        List<Person> content;
+        try {
+            content =
+                keys == null
+                    ? personRepository.findAllByOrderByIdDesc(PageRequest.of(0, size + 1))
+                    : personRepository.findAllByIdLessThanOrderByIdDesc(Long.valueOf(keys[0]), PageRequest.of(0, size + 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+        if (content.size() <= size) {
+            return new CursorPage<>(content, null);
+        }
+        List<Person> slice = content.subList(0, size);
+        return new CursorPage<>(slice, KeysetCursor.encode(slice.get(size - 1).getId().toString()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Person> findAllProfessionalsOf(Long attendanceId) {
+        log.debug("Request to get the professionals of Attendance : {}", attendanceId);
+        return personRepository.findAllByAttendancesAsProfessionalId(attendanceId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Person> findAllPatientsOf(Long attendanceId) {
+        log.debug("Request to get the patients of Attendance : {}", attendanceId);
+        return personRepository.findAllByAttendancesAsPatientId(attendanceId);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Optional<Person> findOne(Long id) {
@@ -81,5 +127,6 @@ public class PersonServiceImpl implements PersonService {
     public void delete(Long id) {
         log.debug("Request to delete Person : {}", id);
         personRepository.deleteById(id);
+        attendanceAnalyticsService.personDeleted(id);
     }
 }
@@ -1,34 +1,124 @@
 package org.doben.raas.web.filter;
 
 import jakarta.servlet.FilterChain;
+import jakarta.servlet.RequestDispatcher;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 public class SpaWebFilter extends OncePerRequestFilter {
 
+    private static final String INDEX = "/index.html";
+
+    private final PrefixTrie excludedRoots;
+
+    private volatile RequestDispatcher indexDispatcher;
+
+    /**
+     * @param excludedRoots the prefixes of the paths never forwarded, such as {@code /api}.
+     */
+    public SpaWebFilter(Collection<String> excludedRoots) {
+        this.excludedRoots = new PrefixTrie(excludedRoots);
+    }
+
     /**
      * Forwards any unmapped paths (except those containing a period) to the client {@code index.html}.
      */
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
         throws ServletException, IOException {
-        // Request URI includes the contextPath if any, removed it.
-        String path = request.getRequestURI().substring(request.getContextPath().length());
-        if (
-            !path.startsWith("/api") &&
-            !path.startsWith("/management") &&
-            !path.startsWith("/v3/api-docs") &&
-            !path.startsWith("/h2-console") &&
-            !path.contains(".") &&
-            path.matches("/(.*)")
-        ) {
-            request.getRequestDispatcher("/index.html").forward(request, response);
+        // Request URI includes the contextPath if any, skip it.
+        if (isClientRoute(request.getRequestURI(), request.getContextPath().length())) {
+            RequestDispatcher dispatcher = indexDispatcher;
+            if (dispatcher == null) {
+                dispatcher = request.getServletContext().getRequestDispatcher(INDEX);
+                indexDispatcher = dispatcher;
+            }
+            dispatcher.forward(request, response);
             return;
         }
 
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * Whether the path of a request URI is a route of the client: an absolute path on one line, without a period,
+     * and outside of the excluded roots.
+     *
+     * @param uri the request URI.
+     * @param start the index of the path in the URI, after the context path.
+     */
+    boolean isClientRoute(String uri, int start) {
+        if (start >= uri.length() || uri.charAt(start) != '/' || excludedRoots.matchesPrefixOf(uri, start)) {
+            return false;
+        }
+        for (int i = start + 1; i < uri.length(); i++) {
+            char c = uri.charAt(i);
+            if (c == '.' || c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Trie of the excluded roots, matched by walking the path once, character by character.
+     */
+    private static final class PrefixTrie {
+
+        private char[] keys = new char[0];
+        private PrefixTrie[] children = new PrefixTrie[0];
+        private boolean terminal;
+
+        private PrefixTrie(Collection<String> prefixes) {
+            for (String prefix : prefixes) {
+                PrefixTrie node = this;
+                for (int i = 0; i < prefix.length(); i++) {
+                    node = node.childOrCreate(prefix.charAt(i));
+                }
+                node.terminal = true;
+            }
+        }
+
+        private PrefixTrie() {}
+
+        private PrefixTrie childOrCreate(char key) {
+            PrefixTrie child = child(key);
+            if (child == null) {
+                int length = keys.length;
+                keys = Arrays.copyOf(keys, length + 1);
+                children = Arrays.copyOf(children, length + 1);
+                keys[length] = key;
+                child = new PrefixTrie();
+                children[length] = child;
+            }
+            return child;
+        }
+
+        private PrefixTrie child(char key) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == key) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Whether a prefix is a prefix of the text from the start index.
+         */
+        private boolean matchesPrefixOf(String text, int start) {
+            PrefixTrie node = this;
+            for (int i = start; !node.terminal; i++) {
+                if (i >= text.length() || (node = node.child(text.charAt(i))) == null) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
 }
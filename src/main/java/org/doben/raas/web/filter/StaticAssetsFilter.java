@@ -0,0 +1,319 @@
+package org.doben.raas.web.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.undertow.servlet.spec.ServletOutputStreamImpl;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.doben.raas.config.ApplicationProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.security.web.header.HeaderWriter;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Serves the static assets whose name carries a content hash, such as {@code main.0123456789abcdef.js}, ahead of the
+ * security filters and the {@link SpaWebFilter}: they never change, are public, and are the bulk of the bytes sent to a
+ * browser with a cold cache.
+ * <p>
+ * The assets are indexed once, along with their {@code .br} and {@code .gz} variants compressed by the build, and the
+ * smallest variant accepted by the client is sent as is, so that the server never compresses them. Assets on the file
+ * system are transferred from their file to the socket by Undertow, the others are kept in memory up to a budget.
+ * <p>
+ * As the security filters do not run for these responses, the filter writes the security headers itself, such as
+ * {@code X-Content-Type-Options} and {@code Content-Security-Policy}, with the header writers it is given.
+ */
+public class StaticAssetsFilter extends OncePerRequestFilter {
+
+    public static final String REQUESTS_METER_NAME = "static.assets.requests";
+    public static final String REQUESTS_METER_DESCRIPTION = "Number of requests of hashed static assets served by the fast path";
+
+    public static final String SENT_METER_NAME = "static.assets.sent";
+    public static final String SENT_METER_DESCRIPTION = "Bytes of hashed static assets sent by the fast path";
+
+    private static final String LOCATION = "classpath:/static/";
+
+    private static final Pattern HASHED_NAME = Pattern.compile("[^/]+\\.([0-9a-f]{16,})\\.(js|css|woff2?|ttf|eot|svg|png|jpe?g|gif|webp)");
+
+    private enum Encoding {
+        BR("br", ".br"),
+        GZIP("gzip", ".gz"),
+        IDENTITY("identity", "");
+
+        private final String token;
+        private final String suffix;
+
+        Encoding(String token, String suffix) {
+            this.token = token;
+            this.suffix = suffix;
+        }
+    }
+
+    private final Logger log = LoggerFactory.getLogger(StaticAssetsFilter.class);
+
+    private final Map<String, Asset> assets = new HashMap<>();
+
+    private final String cacheControl;
+
+    private final List<HeaderWriter> headerWriters;
+
+    private final Map<Encoding, Counter> sentCounters = new EnumMap<>(Encoding.class);
+
+    private final Map<Encoding, Counter> bytesCounters = new EnumMap<>(Encoding.class);
+
+    private final Counter notModifiedCounter;
+
+    private long memoryBudget;
+
+    public StaticAssetsFilter(
+        ApplicationProperties.StaticAssets properties,
+        List<HeaderWriter> headerWriters,
+        ResourcePatternResolver resolver,
+        MeterRegistry meterRegistry
+    ) throws IOException {
+        this(LOCATION, properties.getImmutableMaxAge(), properties.getMemoryCacheSize().toBytes(), headerWriters, resolver, meterRegistry);
+    }
+
+    StaticAssetsFilter(
+        String location,
+        Duration maxAge,
+        long memoryBudget,
+        List<HeaderWriter> headerWriters,
+        ResourcePatternResolver resolver,
+        MeterRegistry meterRegistry
+    ) throws IOException {
+        this.cacheControl = CacheControl.maxAge(maxAge).cachePublic().immutable().getHeaderValue();
+        this.headerWriters = headerWriters;
+        this.memoryBudget = memoryBudget;
+        for (Encoding encoding : Encoding.values()) {
+            sentCounters.put(encoding, requestsCounter(meterRegistry, encoding.token, "200"));
+            bytesCounters.put(
+                encoding,
+                Counter
+                    .builder(SENT_METER_NAME)
+                    .description(SENT_METER_DESCRIPTION)
+                    .baseUnit("bytes")
+                    .tag("encoding", encoding.token)
+                    .register(meterRegistry)
+            );
+        }
+        this.notModifiedCounter = requestsCounter(meterRegistry, "none", "304");
+        index(location, resolver);
+    }
+
+    private static Counter requestsCounter(MeterRegistry meterRegistry, String encoding, String status) {
+        return Counter
+            .builder(REQUESTS_METER_NAME)
+            .description(REQUESTS_METER_DESCRIPTION)
+            .tag("encoding", encoding)
+            .tag("status", status)
+            .register(meterRegistry);
+    }
+
+    private void index(String location, ResourcePatternResolver resolver) throws IOException {
+        Resource root = resolver.getResource(location);
+        if (!root.exists()) {
+            return;
+        }
+        Map<String, Resource> resources = new HashMap<>();
+        String base = root.getURL().toString();
+        for (Resource resource : resolver.getResources(location + "**/*")) {
+            if (resource.isReadable()) {
+                String url = resource.getURL().toString();
+                resources.put("/" + url.substring(base.length()), resource);
+            }
+        }
+        for (Map.Entry<String, Resource> entry : resources.entrySet()) {
+            String path = entry.getKey();
+            Matcher matcher = HASHED_NAME.matcher(path.substring(path.lastIndexOf('/') + 1));
+            if (!matcher.matches()) {
+                continue;
+            }
+            MediaType mediaType = MediaTypeFactory.getMediaType(path).orElse(MediaType.APPLICATION_OCTET_STREAM);
+            Asset asset = new Asset(mediaType.toString(), '"' + matcher.group(1) + '"');
+            for (Encoding encoding : Encoding.values()) {
+                Resource resource = resources.get(path + encoding.suffix);
+                if (resource != null) {
+                    asset.variants.put(encoding, variant(resource));
+                }
+            }
+            if (asset.variants.containsKey(Encoding.IDENTITY)) {
+                assets.put(path, asset);
+            }
+        }
+        log.debug("Indexed {} hashed static assets", assets.size());
+    }
+
+    private Variant variant(Resource resource) throws IOException {
+        if (resource.isFile()) {
+            File file = resource.getFile();
+            return new Variant(resource, file, null, file.length());
+        }
+        long length = resource.contentLength();
+        if (length <= memoryBudget) {
+            try (InputStream in = resource.getInputStream()) {
+                byte[] content = in.readAllBytes();
+                memoryBudget -= content.length;
+                return new Variant(resource, null, content, content.length);
+            }
+        }
+        return new Variant(resource, null, null, length);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        String method = request.getMethod();
+        Asset asset = "GET".equals(method) || "HEAD".equals(method)
+            ? assets.get(request.getRequestURI().substring(request.getContextPath().length()))
+            : null;
+        if (asset == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        for (HeaderWriter headerWriter : headerWriters) {
+            headerWriter.writeHeaders(request, response);
+        }
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        response.setHeader(HttpHeaders.ETAG, asset.weakEtag);
+        if (asset.variants.size() > 1) {
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && (ifNoneMatch.contains(asset.etag) || ifNoneMatch.trim().equals("*"))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            notModifiedCounter.increment();
+            return;
+        }
+
+        Encoding encoding = select(asset, request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        Variant variant = asset.variants.get(encoding);
+        response.setContentType(asset.contentType);
+        response.setContentLengthLong(variant.length);
+        if (encoding != Encoding.IDENTITY) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, encoding.token);
+        }
+        sentCounters.get(encoding).increment();
+        if ("HEAD".equals(method)) {
+            return;
+        }
+        variant.writeTo(response.getOutputStream());
+        bytesCounters.get(encoding).increment(variant.length);
+    }
+
+    /**
+     * Select the smallest variant accepted, as per the {@code Accept-Encoding} header, or the uncompressed one.
+     */
+    private static Encoding select(Asset asset, String acceptEncoding) {
+        for (Encoding encoding : Encoding.values()) {
+            if (encoding != Encoding.IDENTITY && asset.variants.containsKey(encoding) && isAccepted(acceptEncoding, encoding)) {
+                return encoding;
+            }
+        }
+        return Encoding.IDENTITY;
+    }
+
+    private static boolean isAccepted(String acceptEncoding, Encoding encoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        boolean wildcard = false;
+        for (String coding : acceptEncoding.split(",")) {
+            int parameters = coding.indexOf(';');
+            String name = (parameters < 0 ? coding : coding.substring(0, parameters)).trim();
+            boolean accepted = parameters < 0 || !isZeroQuality(coding.substring(parameters + 1));
+            if (name.equalsIgnoreCase(encoding.token)) {
+                return accepted;
+            }
+            if (name.equals("*")) {
+                wildcard = accepted;
+            }
+        }
+        return wildcard;
+    }
+
+    private static boolean isZeroQuality(String parameters) {
+        for (String parameter : parameters.split(";")) {
+            String trimmed = parameter.trim();
+            if (trimmed.startsWith("q=") || trimmed.startsWith("Q=")) {
+                try {
+                    return Double.parseDouble(trimmed.substring(2).trim()) == 0;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static final class Asset {
+
+        private final String contentType;
+        /**
+         * The hash of the asset, sent as a weak entity tag as it is shared by the encoded variants.
+         */
+        private final String etag;
+        private final String weakEtag;
+        private final Map<Encoding, Variant> variants = new EnumMap<>(Encoding.class);
+
+        private Asset(String contentType, String etag) {
+            this.contentType = contentType;
+            this.etag = etag;
+            this.weakEtag = "W/" + etag;
+        }
+    }
+
+    private static final class Variant {
+
+        private final Resource resource;
+        private final File file;
+        private final byte[] content;
+        private final long length;
+
+        private Variant(Resource resource, File file, byte[] content, long length) {
+            this.resource = resource;
+            this.file = file;
+            this.content = content;
+            this.length = length;
+        }
+
+        private void writeTo(ServletOutputStream out) throws IOException {
+            if (content != null) {
+                out.write(content);
+            } else if (file != null && out instanceof ServletOutputStreamImpl undertowOut) {
+                try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                    undertowOut.transferFrom(channel);
+                }
+            } else if (file != null) {
+                Files.copy(file.toPath(), out);
+            } else {
+                try (InputStream in = resource.getInputStream()) {
+                    in.transferTo(out);
+                }
+            }
+        }
+    }
+}
@@ -1,12 +1,14 @@
 package org.doben.raas.web.rest;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import java.time.Duration;
 import java.util.*;
 import org.apache.commons.lang3.StringUtils;
 import org.doben.raas.domain.User;
 import org.doben.raas.repository.UserRepository;
+import org.doben.raas.security.AuthenticationRateLimiter;
 import org.doben.raas.security.SecurityUtils;
-import org.doben.raas.service.MailService;
 import org.doben.raas.service.UserService;
 import org.doben.raas.service.dto.AdminUserDTO;
 import org.doben.raas.service.dto.PasswordChangeDTO;
@@ -38,12 +40,12 @@ public class AccountResource {
 
     private final UserService userService;
 
-    private final MailService mailService;
+    private final AuthenticationRateLimiter authenticationRateLimiter;
 
-    public AccountResource(UserRepository userRepository, UserService userService, MailService mailService) {
+    public AccountResource(UserRepository userRepository, UserService userService, AuthenticationRateLimiter authenticationRateLimiter) {
         this.userRepository = userRepository;
         this.userService = userService;
-        this.mailService = mailService;
+        this.authenticationRateLimiter = authenticationRateLimiter;
     }
 
     /**
@@ -60,8 +62,7 @@ public class AccountResource {
         if (isPasswordLengthInvalid(managedUserVM.getPassword())) {
             throw new InvalidPasswordException();
         }
-        User user = userService.registerUser(managedUserVM, managedUserVM.getPassword());
-        mailService.sendActivationEmail(user);
+        userService.registerUser(managedUserVM, managedUserVM.getPassword());
     }
 
     /**
@@ -139,13 +140,17 @@ public class AccountResource {
      * {@code POST   /account/reset-password/init} : Send an email to reset the password of the user.
      *
      * @param mail the mail of the user.
+     * @param request the HTTP request.
+     * @throws TooManyRequestsException {@code 429 (Too Many Requests)} if too many requests were made for the mail or from the address.
      */
     @PostMapping(path = "/account/reset-password/init")
-    public void requestPasswordReset(@RequestBody String mail) {
+    public void requestPasswordReset(@RequestBody String mail, HttpServletRequest request) {
+        Duration retryAfter = authenticationRateLimiter.tryAcquire(mail, request.getRemoteAddr());
+        if (!retryAfter.isZero()) {
+            throw new TooManyRequestsException(retryAfter);
+        }
         Optional<User> user = userService.requestPasswordReset(mail);
-        if (user.isPresent()) {
-            mailService.sendPasswordResetMail(user.orElseThrow());
-        } else {
+        if (user.isEmpty()) {
             // Pretend the request has been successful to prevent checking which emails really exist
             // but log that an invalid attempt has been made
             log.warn("Password reset requested for non existing mail");
@@ -2,23 +2,51 @@ package org.doben.raas.web.rest;
 
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import org.doben.raas.domain.Attendance;
+import org.doben.raas.domain.Person;
+import org.doben.raas.domain.enumeration.HowMany;
+import org.doben.raas.domain.enumeration.Place;
 import org.doben.raas.repository.AttendanceRepository;
+import org.doben.raas.repository.EntityVersion;
+import org.doben.raas.service.AttendanceAnalyticsService;
+import org.doben.raas.service.AttendanceExportService;
 import org.doben.raas.service.AttendanceService;
+import org.doben.raas.service.AttendanceStatisticsService;
+import org.doben.raas.service.BulkFormat;
+import org.doben.raas.service.BulkImportService;
+import org.doben.raas.service.CursorPage;
+import org.doben.raas.service.PersonService;
+import org.doben.raas.service.dto.AttendanceCountDTO;
+import org.doben.raas.service.dto.BulkImportReportDTO;
 import org.doben.raas.web.rest.errors.BadRequestAlertException;
+import org.doben.raas.web.rest.errors.PreconditionFailedAlertException;
+import org.doben.raas.web.util.EntityTagUtil;
+import org.doben.raas.web.util.KeysetPaginationUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
@@ -42,9 +70,32 @@ public class AttendanceResource {
 
     private final AttendanceRepository attendanceRepository;
 
-    public AttendanceResource(AttendanceService attendanceService, AttendanceRepository attendanceRepository) {
+    private final BulkImportService bulkImportService;
+
+    private final AttendanceExportService attendanceExportService;
+
+    private final PersonService personService;
+
+    private final AttendanceStatisticsService attendanceStatisticsService;
+
+    private final AttendanceAnalyticsService attendanceAnalyticsService;
+
+    public AttendanceResource(
+        AttendanceService attendanceService,
+        AttendanceRepository attendanceRepository,
+        BulkImportService bulkImportService,
+        AttendanceExportService attendanceExportService,
+        PersonService personService,
+        AttendanceStatisticsService attendanceStatisticsService,
+        AttendanceAnalyticsService attendanceAnalyticsService
+    ) {
         this.attendanceService = attendanceService;
         this.attendanceRepository = attendanceRepository;
+        this.bulkImportService = bulkImportService;
+        this.attendanceExportService = attendanceExportService;
+        this.personService = personService;
+        this.attendanceStatisticsService = attendanceStatisticsService;
+        this.attendanceAnalyticsService = attendanceAnalyticsService;
     }
 
     /**
@@ -67,19 +118,45 @@ public class AttendanceResource {
             .body(result);
     }
 
+    /**
+     * {@code POST  /attendances/bulk} : Import attendances from a streamed NDJSON or {@code ;}-separated CSV body.
+     * <p>
+     * Rows are persisted in chunks, each in its own transaction. Rows that fail are listed in the report and do not abort the import.
+     *
+     * @param contentType the content type of the body, {@code application/x-ndjson} or {@code text/csv}.
+     * @param body the streamed body.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the import report.
+     * @throws IOException if the body cannot be read.
+     */
+    @PostMapping(value = "/attendances/bulk", consumes = { BulkFormat.NDJSON_VALUE, BulkFormat.CSV_VALUE })
+    public ResponseEntity<BulkImportReportDTO> bulkImportAttendances(
+        @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+        InputStream body
+    ) throws IOException {
+        log.debug("REST request to bulk import Attendances : {}", contentType);
+        BulkFormat format = BulkFormat
+            .fromContentType(contentType)
+            .orElseThrow(() -> new BadRequestAlertException("Unsupported content type", ENTITY_NAME, "contenttypeinvalid"));
+        BulkImportReportDTO report = bulkImportService.importAttendances(body, format);
+        return ResponseEntity.ok(report);
+    }
+
     /**
      * {@code PUT  /attendances/:id} : Updates an existing attendance.
      *
      * @param id the id of the attendance to save.
+     * @param ifMatch the entity tag the attendance must still have, if any.
      * @param attendance the attendance to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated attendance,
      * or with status {@code 400 (Bad Request)} if the attendance is not valid,
+     * or with status {@code 412 (Precondition Failed)} if the attendance does not match {@code If-Match},
      * or with status {@code 500 (Internal Server Error)} if the attendance couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/attendances/{id}")
     public ResponseEntity<Attendance> updateAttendance(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Valid @RequestBody Attendance attendance
     ) throws URISyntaxException {
         log.debug("REST request to update Attendance : {}, {}", id, attendance);
@@ -90,14 +167,32 @@ public class AttendanceResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!attendanceRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        Long version = attendanceRepository
+            .findVersionById(id)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        Long requiredVersion = requiredVersion(ifMatch);
+        if (requiredVersion != null && !requiredVersion.equals(version)) {
+            throw new PreconditionFailedAlertException("The attendance was modified", ENTITY_NAME, "versionmismatch");
+        }
+        // A body without version overwrites the current one, otherwise a concurrent change is detected when writing
+        if (requiredVersion != null || attendance.getVersion() == null) {
+            attendance.setVersion(version);
         }
 
-        Attendance result = attendanceService.update(attendance);
+        Attendance result;
+        try {
+            result = attendanceService.update(attendance);
+        } catch (OptimisticLockingFailureException e) {
+            if (requiredVersion == null) {
+                throw e;
+            }
+            // Changed since If-Match was checked
+            throw new PreconditionFailedAlertException("The attendance was modified", ENTITY_NAME, "versionmismatch");
+        }
         return ResponseEntity
             .ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, attendance.getId().toString()))
+            .eTag(EntityTagUtil.entityTag(result.getVersion()))
             .body(result);
     }
 
@@ -105,16 +200,20 @@ public class AttendanceResource {
      * {@code PATCH  /attendances/:id} : Partial updates given fields of an existing attendance, field will ignore if it is null
      *
      * @param id the id of the attendance to save.
+     * @param ifMatch the entity tag the attendance must still have, if any.
      * @param attendance the attendance to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated attendance,
      * or with status {@code 400 (Bad Request)} if the attendance is not valid,
      * or with status {@code 404 (Not Found)} if the attendance is not found,
+     * or with status {@code 409 (Conflict)} if the attendance changed since it was read,
+     * or with status {@code 412 (Precondition Failed)} if the attendance does not match {@code If-Match},
      * or with status {@code 500 (Internal Server Error)} if the attendance couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/attendances/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<Attendance> partialUpdateAttendance(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @NotNull @RequestBody Attendance attendance
     ) throws URISyntaxException {
         log.debug("REST request to partial update Attendance partially : {}, {}", id, attendance);
@@ -125,43 +224,275 @@ public class AttendanceResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!attendanceRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        Long requiredVersion = requiredVersion(ifMatch);
+        if (requiredVersion != null) {
+            attendance.setVersion(requiredVersion);
+        }
+        Optional<Attendance> result;
+        try {
+            result = attendanceService.partialUpdate(attendance);
+        } catch (OptimisticLockingFailureException e) {
+            if (requiredVersion == null) {
+                throw e;
+            }
+            throw new PreconditionFailedAlertException("The attendance was modified", ENTITY_NAME, "versionmismatch");
         }
 
-        Optional<Attendance> result = attendanceService.partialUpdate(attendance);
-
-        return ResponseUtil.wrapOrNotFound(
-            result,
-            HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, attendance.getId().toString())
-        );
+        HttpHeaders headers = HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, attendance.getId().toString());
+        result.ifPresent(updated -> headers.setETag(EntityTagUtil.entityTag(updated.getVersion())));
+        return ResponseUtil.wrapOrNotFound(result, headers);
     }
 
     /**
-     * {@code GET  /attendances} : get all the attendances.
+     * {@code GET  /attendances} : get all the attendances, optionally filtered by date range, place and number of patients.
+     * <p>
+     * When the {@code after} parameter is present, even empty, the attendances are read with keyset pagination instead:
+     * newest first, the {@code page} and {@code sort} parameters are ignored, no total count is computed and the
+     * {@code Link} header only holds the {@code next} cursor. Keyset pagination cannot be combined with filters.
+     * <p>
+     * With {@code eagerload}, the professionals and patients of the page are loaded too, in one query per collection.
+     * Keyset pagination does not support it.
+     * <p>
+     * Other pages have a weak {@code ETag}, and are {@code 304 (Not Modified)} when {@code If-None-Match} has it. Without
+     * filters, this is checked on the ids and versions of the page only, before the attendances are loaded.
      *
      * @param pageable the pagination information.
+     * @param after the keyset cursor returned by the previous request, or empty for the first slice.
+     * @param from the inclusive lower bound of the attendance date, if any.
+     * @param to the exclusive upper bound of the attendance date, if any.
+     * @param place the place of the attendances, if any.
+     * @param howMany the number of patients of the attendances, if any.
+     * @param eagerload flag to eager load the participants, if allowed.
+     * @param webRequest the current request.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of attendances in body.
      */
     @GetMapping("/attendances")
-    public ResponseEntity<List<Attendance>> getAllAttendances(@org.springdoc.core.annotations.ParameterObject Pageable pageable) {
+    public ResponseEntity<List<Attendance>> getAllAttendances(
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        @RequestParam(name = KeysetPaginationUtil.CURSOR_PARAM, required = false) String after,
+        @RequestParam(name = "from", required = false) Instant from,
+        @RequestParam(name = "to", required = false) Instant to,
+        @RequestParam(name = "place", required = false) Place place,
+        @RequestParam(name = "howMany", required = false) HowMany howMany,
+        @RequestParam(name = "eagerload", required = false, defaultValue = "false") boolean eagerload,
+        WebRequest webRequest
+    ) {
+        boolean filtered = from != null || to != null || place != null || howMany != null;
+        checkRange(from, to);
+        if (after != null) {
+            if (filtered) {
+                throw new BadRequestAlertException("Keyset pagination cannot be combined with filters", ENTITY_NAME, "cursorfiltered");
+            }
+            if (eagerload) {
+                throw new BadRequestAlertException("Keyset pagination cannot eager load participants", ENTITY_NAME, "cursoreagerload");
+            }
+            log.debug("REST request to get a keyset slice of Attendances");
+            CursorPage<Attendance> slice;
+            try {
+                slice = attendanceService.findAllAfter(after, pageable.getPageSize());
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid");
+            }
+            HttpHeaders headers = KeysetPaginationUtil.generateKeysetPaginationHttpHeaders(
+                ServletUriComponentsBuilder.fromCurrentRequest(),
+                slice,
+                pageable.getPageSize()
+            );
+            return ResponseEntity.ok().headers(headers).body(slice.getContent());
+        }
         log.debug("REST request to get a page of Attendances");
-        Page<Attendance> page = attendanceService.findAll(pageable);
+        if (!eagerload && !filtered && webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Page<EntityVersion> versions = attendanceRepository.findAllVersionsBy(pageable);
+            if (webRequest.checkNotModified(EntityTagUtil.pageEntityTag(versions, EntityVersion::getId, EntityVersion::getVersion))) {
+                return null;
+            }
+        }
+        Page<Attendance> page;
+        if (eagerload) {
+            page = attendanceService.findAllWithEagerRelationships(from, to, place, howMany, pageable);
+        } else if (filtered) {
+            page = attendanceService.findAllByFilter(from, to, place, howMany, pageable);
+        } else {
+            page = attendanceService.findAll(pageable);
+        }
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        if (!eagerload) {
+            headers.setETag(EntityTagUtil.pageEntityTag(page, Attendance::getId, Attendance::getVersion));
+        }
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    /**
+     * {@code GET  /attendances/stats} : get the number of attendances per period, place and number of patients.
+     *
+     * @param granularity the length of the periods: {@code DAY}, {@code WEEK} (starting on Monday) or {@code MONTH}.
+     * @param from the first day of the range, inclusive.
+     * @param to the last day of the range, inclusive.
+     * @return the non-zero counts, ordered by period.
+     */
+    @GetMapping("/attendances/stats")
+    public List<AttendanceCountDTO> getAttendanceStatistics(
+        @RequestParam(name = "granularity", defaultValue = "DAY") AttendanceStatisticsService.Granularity granularity,
+        @RequestParam(name = "from") LocalDate from,
+        @RequestParam(name = "to") LocalDate to
+    ) {
+        log.debug("REST request to get Attendance statistics by {} from {} to {}", granularity, from, to);
+        if (from.isAfter(to)) {
+            throw new BadRequestAlertException("The range start must not be after its end", ENTITY_NAME, "rangeinvalid");
+        }
+        return attendanceStatisticsService.getCounts(granularity, from, to);
+    }
+
+    /**
+     * {@code GET  /attendances/analytics/hour-of-day} : get the number of attendances per hour of the day.
+     *
+     * @param from the inclusive lower bound of the attendance date, if any.
+     * @param to the exclusive upper bound of the attendance date, if any.
+     * @param place the place of the attendances, if any.
+     * @param howMany the number of patients of the attendances, if any.
+     * @param zone the time zone the hours are taken in, UTC by default.
+     * @return the counts, by hour from {@code 0} to {@code 23}.
+     */
+    @GetMapping("/attendances/analytics/hour-of-day")
+    public Map<String, Long> getAttendanceCountsByHourOfDay(
+        @RequestParam(name = "from", required = false) Instant from,
+        @RequestParam(name = "to", required = false) Instant to,
+        @RequestParam(name = "place", required = false) Place place,
+        @RequestParam(name = "howMany", required = false) HowMany howMany,
+        @RequestParam(name = "zone", defaultValue = "UTC") ZoneId zone
+    ) {
+        log.debug("REST request to count Attendances by hour of day from {} to {} at {} for {} in {}", from, to, place, howMany, zone);
+        checkRange(from, to);
+        return attendanceAnalyticsService.countByHourOfDay(from, to, place, howMany, zone);
+    }
+
+    /**
+     * {@code GET  /attendances/analytics/weekday} : get the number of attendances per day of the week.
+     *
+     * @param from the inclusive lower bound of the attendance date, if any.
+     * @param to the exclusive upper bound of the attendance date, if any.
+     * @param place the place of the attendances, if any.
+     * @param howMany the number of patients of the attendances, if any.
+     * @param zone the time zone the days are taken in, UTC by default.
+     * @return the counts, by day from {@code MONDAY} to {@code SUNDAY}.
+     */
+    @GetMapping("/attendances/analytics/weekday")
+    public Map<String, Long> getAttendanceCountsByWeekday(
+        @RequestParam(name = "from", required = false) Instant from,
+        @RequestParam(name = "to", required = false) Instant to,
+        @RequestParam(name = "place", required = false) Place place,
+        @RequestParam(name = "howMany", required = false) HowMany howMany,
+        @RequestParam(name = "zone", defaultValue = "UTC") ZoneId zone
+    ) {
+        log.debug("REST request to count Attendances by weekday from {} to {} at {} for {} in {}", from, to, place, howMany, zone);
+        checkRange(from, to);
+        return attendanceAnalyticsService.countByWeekday(from, to, place, howMany, zone);
+    }
+
+    /**
+     * {@code GET  /attendances/analytics/patient-age} : get the number of patients per age band, on the day of their attendance.
+     *
+     * @param from the inclusive lower bound of the attendance date, if any.
+     * @param to the exclusive upper bound of the attendance date, if any.
+     * @param place the place of the attendances, if any.
+     * @param howMany the number of patients of the attendances, if any.
+     * @param bandWidth the width of the age bands, in years, from 1 to 100.
+     * @return the counts, by band such as {@code 0-9}, or with status {@code 400 (Bad Request)} if the band width is invalid.
+     */
+    @GetMapping("/attendances/analytics/patient-age")
+    public Map<String, Long> getPatientCountsByAge(
+        @RequestParam(name = "from", required = false) Instant from,
+        @RequestParam(name = "to", required = false) Instant to,
+        @RequestParam(name = "place", required = false) Place place,
+        @RequestParam(name = "howMany", required = false) HowMany howMany,
+        @RequestParam(name = "bandWidth", defaultValue = "10") int bandWidth
+    ) {
+        log.debug("REST request to count patients by age band of {} from {} to {} at {} for {}", bandWidth, from, to, place, howMany);
+        checkRange(from, to);
+        try {
+            return attendanceAnalyticsService.countByPatientAge(from, to, place, howMany, bandWidth);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "bandwidthinvalid");
+        }
+    }
+
+    /**
+     * {@code GET  /attendances/export} : stream the attendances of a time range, oldest first.
+     * <p>
+     * Rows are written to the response as they are read from the database, so the export runs in constant memory.
+     *
+     * @param format the output format, {@code ndjson} or {@code csv}.
+     * @param from the inclusive lower bound of the attendance date, if any.
+     * @param to the exclusive upper bound of the attendance date, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the streamed attendances in body,
+     * or with status {@code 400 (Bad Request)} if the format is not supported.
+     */
+    @GetMapping("/attendances/export")
+    public ResponseEntity<StreamingResponseBody> exportAttendances(
+        @RequestParam(name = "format", defaultValue = "ndjson") String format,
+        @RequestParam(name = "from", required = false) Instant from,
+        @RequestParam(name = "to", required = false) Instant to
+    ) {
+        log.debug("REST request to export Attendances from {} to {} as {}", from, to, format);
+        BulkFormat exportFormat = BulkFormat
+            .fromName(format)
+            .orElseThrow(() -> new BadRequestAlertException("Unsupported format", ENTITY_NAME, "formatinvalid"));
+        String filename = "attendances." + exportFormat.name().toLowerCase(Locale.ROOT);
+        StreamingResponseBody body = out -> attendanceExportService.export(from, to, exportFormat, out);
+        return ResponseEntity
+            .ok()
+            .contentType(MediaType.parseMediaType(exportFormat.getMediaType()))
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+            .body(body);
+    }
+
     /**
      * {@code GET  /attendances/:id} : get the "id" attendance.
      *
      * @param id the id of the attendance to retrieve.
+     * @param eagerload flag to eager load the participants, if allowed.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the attendance, or with status {@code 404 (Not Found)}.
+     * Without {@code eagerload}, the response has a strong {@code ETag}, and is {@code 304 (Not Modified)} when
+     * {@code If-None-Match} has it.
      */
     @GetMapping("/attendances/{id}")
-    public ResponseEntity<Attendance> getAttendance(@PathVariable Long id) {
+    public ResponseEntity<Attendance> getAttendance(
+        @PathVariable Long id,
+        @RequestParam(name = "eagerload", required = false, defaultValue = "false") boolean eagerload
+    ) {
         log.debug("REST request to get Attendance : {}", id);
+        if (eagerload) {
+            // The participants are not covered by the version of the attendance
+            return ResponseUtil.wrapOrNotFound(attendanceService.findOneWithEagerRelationships(id));
+        }
         Optional<Attendance> attendance = attendanceService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(attendance);
+        HttpHeaders headers = new HttpHeaders();
+        attendance.ifPresent(found -> headers.setETag(EntityTagUtil.entityTag(found.getVersion())));
+        return ResponseUtil.wrapOrNotFound(attendance, headers);
+    }
+
+    /**
+     * {@code GET  /attendances/:id/professionals} : get the professionals of the "id" attendance.
+     *
+     * @param id the id of the attendance.
+     * @return the list of people.
+     */
+    @GetMapping("/attendances/{id}/professionals")
+    public List<Person> getAttendanceProfessionals(@PathVariable Long id) {
+        log.debug("REST request to get the professionals of Attendance : {}", id);
+        return personService.findAllProfessionalsOf(id);
+    }
+
+    /**
+     * {@code GET  /attendances/:id/patients} : get the patients of the "id" attendance.
+     *
+     * @param id the id of the attendance.
+     * @return the list of people.
+     */
+    @GetMapping("/attendances/{id}/patients")
+    public List<Person> getAttendancePatients(@PathVariable Long id) {
+        log.debug("REST request to get the patients of Attendance : {}", id);
+        return personService.findAllPatientsOf(id);
     }
 
     /**
@@ -179,4 +510,18 @@ public class AttendanceResource {
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, false, ENTITY_NAME, id.toString()))
             .build();
     }
+
+    private void checkRange(Instant from, Instant to) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new BadRequestAlertException("The range start must be before its end", ENTITY_NAME, "rangeinvalid");
+        }
+    }
+
+    private Long requiredVersion(String ifMatch) {
+        try {
+            return EntityTagUtil.requiredVersion(ifMatch).orElse(null);
+        } catch (IllegalArgumentException e) {
+            throw new PreconditionFailedAlertException("Unsupported If-Match header", ENTITY_NAME, "versionmismatch");
+        }
+    }
 }
@@ -6,9 +6,12 @@ import static org.doben.raas.security.SecurityUtils.JWT_ALGORITHM;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.stream.Collectors;
+import org.doben.raas.security.AuthenticationRateLimiter;
+import org.doben.raas.web.rest.errors.TooManyRequestsException;
 import org.doben.raas.web.rest.vm.LoginVM;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -46,13 +49,32 @@ public class AuthenticateController {
 
     private final AuthenticationManagerBuilder authenticationManagerBuilder;
 
-    public AuthenticateController(JwtEncoder jwtEncoder, AuthenticationManagerBuilder authenticationManagerBuilder) {
+    private final AuthenticationRateLimiter authenticationRateLimiter;
+
+    public AuthenticateController(
+        JwtEncoder jwtEncoder,
+        AuthenticationManagerBuilder authenticationManagerBuilder,
+        AuthenticationRateLimiter authenticationRateLimiter
+    ) {
         this.jwtEncoder = jwtEncoder;
         this.authenticationManagerBuilder = authenticationManagerBuilder;
+        this.authenticationRateLimiter = authenticationRateLimiter;
     }
 
+    /**
+     * {@code POST /authenticate} : authenticate a user, and return a token.
+     *
+     * @param loginVM the login and password of the user.
+     * @param request the HTTP request.
+     * @return the token.
+     * @throws TooManyRequestsException {@code 429 (Too Many Requests)} if too many attempts were made for the login or from the address.
+     */
     @PostMapping("/authenticate")
-    public ResponseEntity<JWTToken> authorize(@Valid @RequestBody LoginVM loginVM) {
+    public ResponseEntity<JWTToken> authorize(@Valid @RequestBody LoginVM loginVM, HttpServletRequest request) {
+        Duration retryAfter = authenticationRateLimiter.tryAcquire(loginVM.getUsername(), request.getRemoteAddr());
+        if (!retryAfter.isZero()) {
+            throw new TooManyRequestsException(retryAfter);
+        }
         UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
             loginVM.getUsername(),
             loginVM.getPassword()
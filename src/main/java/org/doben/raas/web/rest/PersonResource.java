@@ -2,23 +2,35 @@ package org.doben.raas.web.rest;
 
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import org.doben.raas.domain.Person;
+import org.doben.raas.repository.EntityVersion;
 import org.doben.raas.repository.PersonRepository;
+import org.doben.raas.service.BulkFormat;
+import org.doben.raas.service.BulkImportService;
+import org.doben.raas.service.CursorPage;
 import org.doben.raas.service.PersonService;
+import org.doben.raas.service.dto.BulkImportReportDTO;
 import org.doben.raas.web.rest.errors.BadRequestAlertException;
+import org.doben.raas.web.rest.errors.PreconditionFailedAlertException;
+import org.doben.raas.web.util.EntityTagUtil;
+import org.doben.raas.web.util.KeysetPaginationUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
@@ -42,9 +54,12 @@ public class PersonResource {
 
     private final PersonRepository personRepository;
 
-    public PersonResource(PersonService personService, PersonRepository personRepository) {
+    private final BulkImportService bulkImportService;
+
+    public PersonResource(PersonService personService, PersonRepository personRepository, BulkImportService bulkImportService) {
         this.personService = personService;
         this.personRepository = personRepository;
+        this.bulkImportService = bulkImportService;
     }
 
     /**
@@ -67,19 +82,45 @@ public class PersonResource {
             .body(result);
     }
 
+    /**
+     * {@code POST  /people/bulk} : Import people from a streamed NDJSON or {@code ;}-separated CSV body.
+     * <p>
+     * Rows are persisted in chunks, each in its own transaction. Rows that fail are listed in the report and do not abort the import.
+     *
+     * @param contentType the content type of the body, {@code application/x-ndjson} or {@code text/csv}.
+     * @param body the streamed body.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the import report.
+     * @throws IOException if the body cannot be read.
+     */
+    @PostMapping(value = "/people/bulk", consumes = { BulkFormat.NDJSON_VALUE, BulkFormat.CSV_VALUE })
+    public ResponseEntity<BulkImportReportDTO> bulkImportPeople(
+        @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+        InputStream body
+    ) throws IOException {
+        log.debug("REST request to bulk import People : {}", contentType);
+        BulkFormat format = BulkFormat
+            .fromContentType(contentType)
+            .orElseThrow(() -> new BadRequestAlertException("Unsupported content type", ENTITY_NAME, "contenttypeinvalid"));
+        BulkImportReportDTO report = bulkImportService.importPeople(body, format);
+        return ResponseEntity.ok(report);
+    }
+
     /**
      * {@code PUT  /people/:id} : Updates an existing person.
      *
      * @param id the id of the person to save.
+     * @param ifMatch the entity tag the person must still have, if any.
      * @param person the person to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated person,
      * or with status {@code 400 (Bad Request)} if the person is not valid,
+     * or with status {@code 412 (Precondition Failed)} if the person does not match {@code If-Match},
      * or with status {@code 500 (Internal Server Error)} if the person couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/people/{id}")
     public ResponseEntity<Person> updatePerson(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Valid @RequestBody Person person
     ) throws URISyntaxException {
         log.debug("REST request to update Person : {}, {}", id, person);
@@ -90,14 +131,32 @@ public class PersonResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!personRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        Long version = personRepository
+            .findVersionById(id)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        Long requiredVersion = requiredVersion(ifMatch);
+        if (requiredVersion != null && !requiredVersion.equals(version)) {
+            throw new PreconditionFailedAlertException("The person was modified", ENTITY_NAME, "versionmismatch");
+        }
+        // A body without version overwrites the current one, otherwise a concurrent change is detected when writing
+        if (requiredVersion != null || person.getVersion() == null) {
+            person.setVersion(version);
         }
 
-        Person result = personService.update(person);
+        Person result;
+        try {
+            result = personService.update(person);
+        } catch (OptimisticLockingFailureException e) {
+            if (requiredVersion == null) {
+                throw e;
+            }
+            // Changed since If-Match was checked
+            throw new PreconditionFailedAlertException("The person was modified", ENTITY_NAME, "versionmismatch");
+        }
         return ResponseEntity
             .ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, person.getId().toString()))
+            .eTag(EntityTagUtil.entityTag(result.getVersion()))
             .body(result);
     }
 
@@ -105,16 +164,20 @@ public class PersonResource {
      * {@code PATCH  /people/:id} : Partial updates given fields of an existing person, field will ignore if it is null
      *
      * @param id the id of the person to save.
+     * @param ifMatch the entity tag the person must still have, if any.
      * @param person the person to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated person,
      * or with status {@code 400 (Bad Request)} if the person is not valid,
      * or with status {@code 404 (Not Found)} if the person is not found,
+     * or with status {@code 409 (Conflict)} if the person changed since it was read,
+     * or with status {@code 412 (Precondition Failed)} if the person does not match {@code If-Match},
      * or with status {@code 500 (Internal Server Error)} if the person couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/people/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<Person> partialUpdatePerson(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @NotNull @RequestBody Person person
     ) throws URISyntaxException {
         log.debug("REST request to partial update Person partially : {}, {}", id, person);
@@ -125,29 +188,71 @@ public class PersonResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!personRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        Long requiredVersion = requiredVersion(ifMatch);
+        if (requiredVersion != null) {
+            person.setVersion(requiredVersion);
+        }
+        Optional<Person> result;
+        try {
+            result = personService.partialUpdate(person);
+        } catch (OptimisticLockingFailureException e) {
+            if (requiredVersion == null) {
+                throw e;
+            }
+            throw new PreconditionFailedAlertException("The person was modified", ENTITY_NAME, "versionmismatch");
         }
 
-        Optional<Person> result = personService.partialUpdate(person);
-
-        return ResponseUtil.wrapOrNotFound(
-            result,
-            HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, person.getId().toString())
-        );
+        HttpHeaders headers = HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, person.getId().toString());
+        result.ifPresent(updated -> headers.setETag(EntityTagUtil.entityTag(updated.getVersion())));
+        return ResponseUtil.wrapOrNotFound(result, headers);
     }
 
     /**
      * {@code GET  /people} : get all the people.
+     * <p>
+     * When the {@code after} parameter is present, even empty, the people are read with keyset pagination instead:
+     * newest first, the {@code page} and {@code sort} parameters are ignored, no total count is computed and the
+     * {@code Link} header only holds the {@code next} cursor.
+     * <p>
+     * Pages have a weak {@code ETag}, and are {@code 304 (Not Modified)} when {@code If-None-Match} has it. This is
+     * checked on the ids and versions of the page only, before the people are loaded.
      *
      * @param pageable the pagination information.
+     * @param after the keyset cursor returned by the previous request, or empty for the first slice.
+     * @param webRequest the current request.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of people in body.
      */
     @GetMapping("/people")
-    public ResponseEntity<List<Person>> getAllPeople(@org.springdoc.core.annotations.ParameterObject Pageable pageable) {
+    public ResponseEntity<List<Person>> getAllPeople(
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        @RequestParam(name = KeysetPaginationUtil.CURSOR_PARAM, required = false) String after,
+        WebRequest webRequest
+    ) {
+        if (after != null) {
+            log.debug("REST request to get a keyset slice of People");
+            CursorPage<Person> slice;
+            try {
+                slice = personService.findAllAfter(after, pageable.getPageSize());
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid");
+            }
+            HttpHeaders headers = KeysetPaginationUtil.generateKeysetPaginationHttpHeaders(
+                ServletUriComponentsBuilder.fromCurrentRequest(),
+                slice,
+                pageable.getPageSize()
+            );
+            return ResponseEntity.ok().headers(headers).body(slice.getContent());
+        }
         log.debug("REST request to get a page of People");
+        if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Page<EntityVersion> versions = personRepository.findAllVersionsBy(pageable);
+            if (webRequest.checkNotModified(EntityTagUtil.pageEntityTag(versions, EntityVersion::getId, EntityVersion::getVersion))) {
+                return null;
+            }
+        }
         Page<Person> page = personService.findAll(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        headers.setETag(EntityTagUtil.pageEntityTag(page, Person::getId, Person::getVersion));
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
@@ -156,12 +261,15 @@ public class PersonResource {
      *
      * @param id the id of the person to retrieve.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the person, or with status {@code 404 (Not Found)}.
+     * The response has a strong {@code ETag}, and is {@code 304 (Not Modified)} when {@code If-None-Match} has it.
      */
     @GetMapping("/people/{id}")
     public ResponseEntity<Person> getPerson(@PathVariable Long id) {
         log.debug("REST request to get Person : {}", id);
         Optional<Person> person = personService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(person);
+        HttpHeaders headers = new HttpHeaders();
+        person.ifPresent(found -> headers.setETag(EntityTagUtil.entityTag(found.getVersion())));
+        return ResponseUtil.wrapOrNotFound(person, headers);
     }
 
     /**
@@ -179,4 +287,12 @@ public class PersonResource {
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, false, ENTITY_NAME, id.toString()))
             .build();
     }
+
+    private Long requiredVersion(String ifMatch) {
+        try {
+            return EntityTagUtil.requiredVersion(ifMatch).orElse(null);
+        } catch (IllegalArgumentException e) {
+            throw new PreconditionFailedAlertException("Unsupported If-Match header", ENTITY_NAME, "versionmismatch");
+        }
+    }
 }
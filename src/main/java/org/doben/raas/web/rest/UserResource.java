@@ -10,7 +10,6 @@ import org.doben.raas.config.Constants;
 import org.doben.raas.domain.User;
 import org.doben.raas.repository.UserRepository;
 import org.doben.raas.security.AuthoritiesConstants;
-import org.doben.raas.service.MailService;
 import org.doben.raas.service.UserService;
 import org.doben.raas.service.dto.AdminUserDTO;
 import org.doben.raas.web.rest.errors.BadRequestAlertException;
@@ -85,12 +84,9 @@ public class UserResource {
 
     private final UserRepository userRepository;
 
-    private final MailService mailService;
-
-    public UserResource(UserService userService, UserRepository userRepository, MailService mailService) {
+    public UserResource(UserService userService, UserRepository userRepository) {
         this.userService = userService;
         this.userRepository = userRepository;
-        this.mailService = mailService;
     }
 
     /**
@@ -119,7 +115,6 @@ public class UserResource {
             throw new EmailAlreadyUsedException();
         } else {
             User newUser = userService.createUser(userDTO);
-            mailService.sendCreationEmail(newUser);
             return ResponseEntity
                 .created(new URI("/api/admin/users/" + newUser.getLogin()))
                 .headers(
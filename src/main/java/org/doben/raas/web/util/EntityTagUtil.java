@@ -0,0 +1,69 @@
+package org.doben.raas.web.util;
+
+import java.util.Optional;
+import java.util.function.Function;
+import org.springframework.data.domain.Page;
+
+/**
+ * Utility class for the entity tags of versioned entities, and the conditional requests using them.
+ * <p>
+ * A single entity gets a strong tag, its version. A page gets a weak tag built from the total count and the ids and
+ * versions of its content, which changes whenever an entity of the page is updated or a creation or deletion shifts the
+ * page, and can be computed without loading the entities.
+ */
+public final class EntityTagUtil {
+
+    private static final String ANY = "*";
+
+    private EntityTagUtil() {}
+
+    /**
+     * Generate the strong entity tag of a versioned entity.
+     *
+     * @param version the version of the entity.
+     * @return the quoted entity tag.
+     */
+    public static String entityTag(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Generate the weak entity tag of a page of versioned entities.
+     *
+     * @param page the page.
+     * @param id the id of an element of the page.
+     * @param version the version of an element of the page.
+     * @param <T> the type of the elements of the page.
+     * @return the quoted weak entity tag.
+     */
+    public static <T> String pageEntityTag(Page<T> page, Function<T, Long> id, Function<T, Long> version) {
+        long hash = 1;
+        for (T element : page) {
+            hash = 31 * hash + id.apply(element);
+            hash = 31 * hash + version.apply(element);
+        }
+        return "W/\"" + page.getTotalElements() + "-" + Long.toHexString(hash) + "\"";
+    }
+
+    /**
+     * Read the version an {@code If-Match} header requires.
+     *
+     * @param ifMatch the value of the header, if any.
+     * @return the required version, or empty if any version matches.
+     * @throws IllegalArgumentException if the header is not a single strong entity tag, which no version matches.
+     */
+    public static Optional<Long> requiredVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ANY.equals(ifMatch.trim())) {
+            return Optional.empty();
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new IllegalArgumentException("Not a single strong entity tag: " + ifMatch);
+        }
+        try {
+            return Optional.of(Long.valueOf(tag.substring(1, tag.length() - 1)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a single strong entity tag: " + ifMatch, e);
+        }
+    }
+}
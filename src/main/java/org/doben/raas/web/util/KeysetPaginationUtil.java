@@ -0,0 +1,44 @@
+package org.doben.raas.web.util;
+
+import org.doben.raas.service.CursorPage;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Utility class for handling keyset pagination.
+ * <p>
+ * Only a {@code next} link is generated, and no total count: keyset pagination is meant for deep, sequential reads
+ * where counting the whole table on every request would cost more than reading the slice itself.
+ */
+public final class KeysetPaginationUtil {
+
+    public static final String CURSOR_PARAM = "after";
+
+    private static final String HEADER_HAS_NEXT = "X-Has-Next";
+
+    private KeysetPaginationUtil() {}
+
+    /**
+     * Generate the keyset pagination headers for a slice.
+     *
+     * @param uriBuilder the builder of the current request URI.
+     * @param slice the slice returned to the client.
+     * @param size the requested slice size.
+     * @return the headers.
+     */
+    public static HttpHeaders generateKeysetPaginationHttpHeaders(UriComponentsBuilder uriBuilder, CursorPage<?> slice, int size) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HEADER_HAS_NEXT, Boolean.toString(slice.hasNext()));
+        slice
+            .getNextCursor()
+            .ifPresent(cursor -> {
+                String next = uriBuilder
+                    .replaceQueryParam("page")
+                    .replaceQueryParam(CURSOR_PARAM, cursor)
+                    .replaceQueryParam("size", size)
+                    .toUriString();
+                headers.add(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+            });
+        return headers;
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Web utilities.
+ */
+package org.doben.raas.web.util;
@@ -0,0 +1,66 @@
+package org.doben.raas.aop.timing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.doben.raas.IntegrationTest;
+import org.doben.raas.repository.AttendanceRepository;
+import org.doben.raas.repository.PersonRepository;
+import org.doben.raas.service.PersonService;
+import org.doben.raas.service.impl.PersonServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Integration tests for {@link MethodTimingInterceptor}, on the proxies of the application beans.
+ */
+@IntegrationTest
+@TestPropertySource(properties = "application.method-timing.enabled=true")
+class MethodTimingIT {
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private AttendanceRepository attendanceRepository;
+
+    @Autowired
+    private PersonService personService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void testInheritedRepositoryMethodIsTimedPerRepository() {
+        personRepository.findById(Long.MAX_VALUE);
+        attendanceRepository.findById(Long.MAX_VALUE);
+        attendanceRepository.findById(Long.MAX_VALUE);
+
+        assertThat(timer(PersonRepository.class, "findById").count()).isEqualTo(1);
+        assertThat(timer(AttendanceRepository.class, "findById").count()).isEqualTo(2);
+        assertThat(meterRegistry.find(MethodTimingInterceptor.METER_NAME).tag("class", CrudRepository.class.getName()).timers())
+            .isEmpty();
+        assertThat(meterRegistry.find(MethodTimingInterceptor.METER_NAME).tag("class", JpaRepository.class.getName()).timers())
+            .isEmpty();
+    }
+
+    @Test
+    void testServiceIsTimedUnderItsImplementation() {
+        personService.findOne(Long.MAX_VALUE);
+
+        assertThat(timer(PersonServiceImpl.class, "findOne").count()).isEqualTo(1);
+    }
+
+    private Timer timer(Class<?> timedClass, String method) {
+        return meterRegistry
+            .get(MethodTimingInterceptor.METER_NAME)
+            .tag("class", timedClass.getName())
+            .tag("method", method)
+            .tag("exception", "none")
+            .timer();
+    }
+}
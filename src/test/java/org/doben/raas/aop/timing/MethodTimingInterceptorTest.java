@@ -0,0 +1,137 @@
+package org.doben.raas.aop.timing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+
+/**
+ * Unit tests for {@link MethodTimingInterceptor}.
+ */
+class MethodTimingInterceptorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void testCallIsTimed() {
+        Greeter greeter = proxy(1.0);
+
+        assertThat(greeter.greet("john")).isEqualTo("Hello john");
+        greeter.greet("jane");
+
+        assertThat(
+            meterRegistry
+                .get(MethodTimingInterceptor.METER_NAME)
+                .tag("class", Greeter.class.getName())
+                .tag("method", "greet")
+                .tag("exception", "none")
+                .timer()
+                .count()
+        )
+            .isEqualTo(2);
+    }
+
+    @Test
+    void testFailedCallIsTimedByException() {
+        Greeter greeter = proxy(1.0);
+
+        assertThatThrownBy(() -> greeter.greet(null)).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(
+            meterRegistry
+                .get(MethodTimingInterceptor.METER_NAME)
+                .tag("method", "greet")
+                .tag("exception", "IllegalArgumentException")
+                .timer()
+                .count()
+        )
+            .isEqualTo(1);
+    }
+
+    @Test
+    void testNothingIsTimedWithoutSampling() {
+        Greeter greeter = proxy(0.0);
+
+        greeter.greet("john");
+
+        assertThat(meterRegistry.find(MethodTimingInterceptor.METER_NAME).timers()).isEmpty();
+    }
+
+    @Test
+    void testInheritedMethodIsTimedPerClass() {
+        Greeter english = classProxy(new SimpleGreeter());
+        Greeter french = classProxy(new FrenchGreeter());
+
+        english.greet("john");
+        french.greet("jean");
+        french.greet("jeanne");
+
+        assertThat(timer(SimpleGreeter.class, "greet").count()).isEqualTo(1);
+        assertThat(timer(FrenchGreeter.class, "greet").count()).isEqualTo(2);
+    }
+
+    @Test
+    void testInterfaceProxyIsTimedUnderItsInterface() {
+        ProxyFactory proxyFactory = new ProxyFactory();
+        proxyFactory.addInterface(PoliteGreeter.class);
+        proxyFactory.addAdvice(new MethodTimingInterceptor(() -> meterRegistry, 1.0));
+        proxyFactory.addAdvice((MethodInterceptor) invocation -> "Hello");
+        PoliteGreeter greeter = (PoliteGreeter) proxyFactory.getProxy();
+
+        greeter.greet("john");
+
+        assertThat(timer(PoliteGreeter.class, "greet").count()).isEqualTo(1);
+    }
+
+    private Timer timer(Class<?> timedClass, String method) {
+        return meterRegistry
+            .get(MethodTimingInterceptor.METER_NAME)
+            .tag("class", timedClass.getName())
+            .tag("method", method)
+            .tag("exception", "none")
+            .timer();
+    }
+
+    private Greeter classProxy(Greeter target) {
+        ProxyFactory proxyFactory = new ProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(new MethodTimingInterceptor(() -> meterRegistry, 1.0));
+        return (Greeter) proxyFactory.getProxy();
+    }
+
+    private Greeter proxy(double sampleRate) {
+        ProxyFactory proxyFactory = new ProxyFactory(new SimpleGreeter());
+        proxyFactory.addInterface(Greeter.class);
+        proxyFactory.addAdvice(new MethodTimingInterceptor(() -> meterRegistry, sampleRate));
+        return (Greeter) proxyFactory.getProxy();
+    }
+
+    interface Greeter {
+        String greet(String name);
+    }
+
+    interface PoliteGreeter extends Greeter {}
+
+    static class SimpleGreeter implements Greeter {
+
+        @Override
+        public String greet(String name) {
+            if (name == null) {
+                throw new IllegalArgumentException("No name");
+            }
+            return "Hello " + name;
+        }
+    }
+
+    static class FrenchGreeter extends SimpleGreeter {}
+}
@@ -0,0 +1,61 @@
+package org.doben.raas.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link CacheInvalidation}.
+ */
+class CacheInvalidationTest {
+
+    @Test
+    void testEncodedInvalidationsAreDecoded() {
+        List<CacheInvalidation> invalidations = List.of(
+            CacheInvalidation.of("org.doben.raas.domain.Person", 42L),
+            CacheInvalidation.of("usersByLogin", "admin"),
+            CacheInvalidation.of("org.doben.raas.domain.Attendance.patients", null)
+        );
+
+        assertThat(CacheInvalidation.decodeAll(CacheInvalidation.encodeAll(invalidations))).isEqualTo(invalidations);
+    }
+
+    @Test
+    void testKeysThatCannotBeEncodedInvalidateTheWholeCache() {
+        assertThat(CacheInvalidation.of("usersByLogin", "line\nbreak").getKey()).isNull();
+        assertThat(CacheInvalidation.of("org.doben.raas.domain.Person", 42).getKey()).isNull();
+        assertThatIllegalArgumentException().isThrownBy(() -> CacheInvalidation.of("bad\tname", 1L));
+    }
+
+    @Test
+    void testInvalidLinesAreSkipped() {
+        assertThat(CacheInvalidation.decodeAll("usersByLogin\tSadmin\nnot an invalidation\nPerson\tX1\n"))
+            .containsExactly(CacheInvalidation.of("usersByLogin", "admin"));
+    }
+
+    @Test
+    void testBatchesAreSplitIntoDatagrams() {
+        String node = UUID.randomUUID().toString();
+        List<CacheInvalidation> batch = new ArrayList<>();
+        for (long id = 0; id < 5000; id++) {
+            batch.add(CacheInvalidation.of("org.doben.raas.domain.Person", id));
+        }
+
+        List<byte[]> datagrams = UdpCacheInvalidationTransport.datagrams(node, batch);
+
+        assertThat(datagrams).hasSizeGreaterThan(1);
+        List<CacheInvalidation> received = new ArrayList<>();
+        for (byte[] datagram : datagrams) {
+            assertThat(datagram.length).isLessThanOrEqualTo(UdpCacheInvalidationTransport.MAX_DATAGRAM_SIZE);
+            String text = new String(datagram, StandardCharsets.UTF_8);
+            assertThat(text).startsWith(node + "\n");
+            received.addAll(CacheInvalidation.decodeAll(text.substring(text.indexOf('\n') + 1)));
+        }
+        assertThat(received).isEqualTo(batch);
+    }
+}
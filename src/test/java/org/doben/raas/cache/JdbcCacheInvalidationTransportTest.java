@@ -0,0 +1,66 @@
+package org.doben.raas.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Unit tests for the watermark of {@link JdbcCacheInvalidationTransport}.
+ */
+class JdbcCacheInvalidationTransportTest {
+
+    private JdbcCacheInvalidationTransport transport;
+
+    @BeforeEach
+    void setUp() {
+        transport =
+            new JdbcCacheInvalidationTransport(
+                "node",
+                Duration.ofSeconds(1),
+                Duration.ofHours(1),
+                mock(DataSource.class),
+                mock(PlatformTransactionManager.class)
+            );
+    }
+
+    @Test
+    void testWatermarkAdvancesOverContiguousRows() {
+        transport.markRead(1);
+        transport.markRead(2);
+        transport.markRead(3);
+        transport.advance();
+
+        assertThat(transport.getWatermark()).isEqualTo(3);
+    }
+
+    @Test
+    void testWatermarkWaitsForMissingRows() {
+        transport.markRead(1);
+        transport.markRead(3);
+        transport.advance();
+
+        assertThat(transport.getWatermark()).isEqualTo(1);
+
+        transport.markRead(2);
+        transport.advance();
+
+        assertThat(transport.getWatermark()).isEqualTo(3);
+    }
+
+    @Test
+    void testWatermarkSkipsRowsMissingForTooLong() {
+        transport.markRead(2);
+        for (int poll = 0; poll < JdbcCacheInvalidationTransport.MAX_GAP_POLLS; poll++) {
+            transport.advance();
+            assertThat(transport.getWatermark()).isZero();
+        }
+        transport.advance();
+
+        assertThat(transport.getWatermark()).isEqualTo(2);
+    }
+}
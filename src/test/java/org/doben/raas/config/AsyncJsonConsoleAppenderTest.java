@@ -0,0 +1,166 @@
+package org.doben.raas.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.encoder.EncoderBase;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link AsyncJsonConsoleAppender}.
+ */
+class AsyncJsonConsoleAppenderTest {
+
+    private final LoggerContext context = new LoggerContext();
+
+    private final AsyncJsonConsoleAppender.Statistics statistics = new AsyncJsonConsoleAppender.Statistics();
+
+    private final CountDownLatch writable = new CountDownLatch(1);
+
+    private AsyncJsonConsoleAppender appender;
+
+    @BeforeEach
+    void setUp() {
+        context.setMDCAdapter(new LogbackMDCAdapter());
+    }
+
+    @AfterEach
+    void tearDown() {
+        writable.countDown();
+        appender.stop();
+    }
+
+    @Test
+    void testEventsAreWrittenInOrder() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        appender = appender(output, 16, AsyncJsonConsoleAppender.Overflow.DROP);
+
+        for (int i = 0; i < 100; i++) {
+            appender.doAppend(event(Level.INFO, "message " + i));
+        }
+        appender.stop();
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(100 - (int) statistics.getFull());
+        assertThat(lines[0]).isEqualTo("INFO message 0");
+    }
+
+    @Test
+    void testEventsAreDroppedWhenTheRingIsFull() throws Exception {
+        appender = appender(blockedOutput(), 4, AsyncJsonConsoleAppender.Overflow.DROP);
+        appender.doAppend(event(Level.INFO, "blocking the encoder thread"));
+        awaitEncoderBlocked();
+
+        for (int i = 0; i < 10; i++) {
+            appender.doAppend(event(Level.INFO, "message " + i));
+        }
+
+        assertThat(statistics.getQueued()).isEqualTo(4);
+        assertThat(statistics.getFull()).isEqualTo(6);
+        assertThat(statistics.getSampled()).isZero();
+    }
+
+    @Test
+    void testInfoEventsAreSampledWhenTheRingFillsUp() throws Exception {
+        appender = appender(blockedOutput(), 64, AsyncJsonConsoleAppender.Overflow.SAMPLE);
+        appender.setSampleOneIn(Integer.MAX_VALUE);
+        appender.doAppend(event(Level.INFO, "blocking the encoder thread"));
+        awaitEncoderBlocked();
+
+        for (int i = 0; i < 48; i++) {
+            appender.doAppend(event(Level.INFO, "message " + i));
+        }
+        for (int i = 0; i < 100; i++) {
+            appender.doAppend(event(Level.INFO, "sampled " + i));
+        }
+        for (int i = 0; i < 8; i++) {
+            appender.doAppend(event(Level.ERROR, "error " + i));
+        }
+
+        assertThat(statistics.getSampled()).isEqualTo(100);
+        assertThat(statistics.getQueued()).isEqualTo(48 + 8);
+        assertThat(statistics.getFull()).isZero();
+    }
+
+    private AsyncJsonConsoleAppender appender(OutputStream output, int ringBufferSize, AsyncJsonConsoleAppender.Overflow overflow) {
+        AsyncJsonConsoleAppender asyncAppender = new AsyncJsonConsoleAppender();
+        asyncAppender.setContext(context);
+        asyncAppender.setName("CONSOLE");
+        asyncAppender.setEncoder(new LineEncoder());
+        asyncAppender.setOutputStream(output);
+        asyncAppender.setRingBufferSize(ringBufferSize);
+        asyncAppender.setOverflow(overflow);
+        asyncAppender.setStatistics(statistics);
+        asyncAppender.start();
+        return asyncAppender;
+    }
+
+    private void awaitEncoderBlocked() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (statistics.getQueued() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(statistics.getQueued()).isZero();
+    }
+
+    /**
+     * Output blocking the encoder thread on its first write, until the test ends.
+     */
+    private OutputStream blockedOutput() {
+        return new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[] { (byte) b }, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                try {
+                    writable.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+    }
+
+    private LoggingEvent event(Level level, String message) {
+        LoggingEvent event = new LoggingEvent();
+        event.setLoggerContext(context);
+        event.setLoggerName(AsyncJsonConsoleAppenderTest.class.getName());
+        event.setLevel(level);
+        event.setMessage(message);
+        event.setThreadName(Thread.currentThread().getName());
+        return event;
+    }
+
+    private static final class LineEncoder extends EncoderBase<ILoggingEvent> {
+
+        @Override
+        public byte[] headerBytes() {
+            return null;
+        }
+
+        @Override
+        public byte[] encode(ILoggingEvent event) {
+            return (event.getLevel() + " " + event.getFormattedMessage() + "\n").getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public byte[] footerBytes() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package org.doben.raas.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ch.qos.logback.classic.spi.LoggingEvent;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MarkerFactory;
+
+/**
+ * Unit tests for {@link CRLFLogConverter}.
+ */
+class CRLFLogConverterTest {
+
+    @Test
+    void testCleanLineIsReturnedAsIs() {
+        CRLFLogConverter converter = new CRLFLogConverter();
+        String in = "Request to get Person : 1";
+
+        assertThat(converter.transform(event("org.doben.raas.web.rest.PersonResource"), in)).isSameAs(in);
+    }
+
+    @Test
+    void testCrlfIsReplaced() {
+        CRLFLogConverter converter = new CRLFLogConverter();
+
+        assertThat(converter.transform(event("org.doben.raas.web.rest.PersonResource"), "\nfoo\r\nbar\tbaz\n"))
+            .isEqualTo("_foo__bar_baz_");
+    }
+
+    @Test
+    void testSafeLoggerIsNotSanitized() {
+        CRLFLogConverter converter = new CRLFLogConverter();
+        String in = "select\n  p.id\nfrom person p";
+
+        assertThat(converter.transform(event("org.hibernate.SQL"), in)).isSameAs(in);
+        assertThat(converter.transform(event("org.hibernate.SQL"), in)).isSameAs(in);
+    }
+
+    @Test
+    void testSafeMarkedLineIsNotSanitized() {
+        CRLFLogConverter converter = new CRLFLogConverter();
+        LoggingEvent event = event("org.doben.raas.web.rest.PersonResource");
+        event.addMarker(CRLFLogConverter.CRLF_SAFE_MARKER);
+        String in = "foo\nbar";
+
+        assertThat(converter.transform(event, in)).isSameAs(in);
+    }
+
+    @Test
+    void testOtherMarkersAreSanitized() {
+        CRLFLogConverter converter = new CRLFLogConverter();
+        LoggingEvent event = event("org.doben.raas.web.rest.PersonResource");
+        event.addMarker(MarkerFactory.getMarker("OTHER"));
+
+        assertThat(converter.transform(event, "foo\nbar")).isEqualTo("foo_bar");
+    }
+
+    private static LoggingEvent event(String loggerName) {
+        LoggingEvent event = new LoggingEvent();
+        event.setLoggerName(loggerName);
+        return event;
+    }
+}
@@ -0,0 +1,41 @@
+package org.doben.raas.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link CompactSerializer}.
+ */
+class CompactSerializerTest {
+
+    private final CompactSerializer serializer = new CompactSerializer(CompactSerializerTest.class.getClassLoader());
+
+    @Test
+    void testSmallValueIsKeptPlain() throws Exception {
+        ByteBuffer binary = serializer.serialize(42L);
+
+        assertThat(binary.get(0)).isZero();
+        assertThat(serializer.read(binary)).isEqualTo(42L);
+        assertThat(serializer.equals(42L, binary)).isTrue();
+        assertThat(serializer.equals(43L, binary)).isFalse();
+    }
+
+    @Test
+    void testLargeValueIsDeflated() throws Exception {
+        List<String> value = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            value.add("Maria da Silva " + i);
+        }
+
+        ByteBuffer binary = serializer.serialize(value);
+
+        assertThat(binary.get(0)).isEqualTo((byte) 1);
+        assertThat(serializer.read(binary)).isEqualTo(value);
+        // Reading does not consume the buffer
+        assertThat(serializer.read(binary)).isEqualTo(value);
+    }
+}
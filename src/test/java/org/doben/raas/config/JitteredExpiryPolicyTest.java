@@ -0,0 +1,69 @@
+package org.doben.raas.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import org.ehcache.expiry.ExpiryPolicy;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link JitteredExpiryPolicy}.
+ */
+class JitteredExpiryPolicyTest {
+
+    private static final Duration HOUR = Duration.ofHours(1);
+
+    @Test
+    void testTimeToLiveIsJitteredWithinBounds() {
+        JitteredExpiryPolicy policy = new JitteredExpiryPolicy(HOUR, null, 0.1);
+
+        Set<Duration> expiries = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            Duration expiry = policy.getExpiryForCreation("key", "value");
+            assertThat(expiry).isBetween(HOUR.minusMinutes(6), HOUR);
+            expiries.add(expiry);
+        }
+        assertThat(expiries).hasSizeGreaterThan(1);
+        assertThat(policy.getExpiryForUpdate("key", () -> "old", "new")).isBetween(HOUR.minusMinutes(6), HOUR);
+        assertThat(policy.getExpiryForAccess("key", () -> "value")).isNull();
+    }
+
+    @Test
+    void testWithoutJitter() {
+        JitteredExpiryPolicy policy = new JitteredExpiryPolicy(HOUR, null, 0);
+
+        assertThat(policy.getExpiryForCreation("key", "value")).isEqualTo(HOUR);
+    }
+
+    @Test
+    void testTimeToIdle() {
+        Duration idle = Duration.ofMinutes(10);
+        JitteredExpiryPolicy policy = new JitteredExpiryPolicy(null, idle, 0.1);
+
+        assertThat(policy.getExpiryForCreation("key", "value")).isBetween(idle.minusMinutes(1), idle);
+        assertThat(policy.getExpiryForAccess("key", () -> "value")).isBetween(idle.minusMinutes(1), idle);
+    }
+
+    @Test
+    void testReadsDoNotExtendTheTimeToLive() {
+        JitteredExpiryPolicy policy = new JitteredExpiryPolicy(HOUR, Duration.ofMinutes(10), 0.1);
+
+        assertThat(policy.getExpiryForCreation("key", "value")).isBetween(HOUR.minusMinutes(6), HOUR);
+        assertThat(policy.getExpiryForAccess("key", () -> "value")).isNull();
+    }
+
+    @Test
+    void testNoExpiry() {
+        JitteredExpiryPolicy policy = new JitteredExpiryPolicy(null, null, 0.1);
+
+        assertThat(policy.getExpiryForCreation("key", "value")).isEqualTo(ExpiryPolicy.INFINITE);
+    }
+
+    @Test
+    void testInvalidJitter() {
+        assertThatIllegalArgumentException().isThrownBy(() -> new JitteredExpiryPolicy(HOUR, null, 1.5));
+    }
+}
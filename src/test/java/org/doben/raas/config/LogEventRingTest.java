@@ -0,0 +1,89 @@
+package org.doben.raas.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link LogEventRing}.
+ */
+class LogEventRingTest {
+
+    @Test
+    void testCapacityIsRoundedUpToAPowerOfTwo() {
+        assertThat(new LogEventRing(1000).capacity()).isEqualTo(1024);
+        assertThat(new LogEventRing(1024).capacity()).isEqualTo(1024);
+    }
+
+    @Test
+    void testEventsArePolledInOrderAcrossTheEndOfTheRing() {
+        LogEventRing ring = new LogEventRing(4);
+        List<ILoggingEvent> polled = new ArrayList<>();
+        List<ILoggingEvent> offered = new ArrayList<>();
+
+        for (int i = 0; i < 10; i++) {
+            ILoggingEvent event = new LoggingEvent();
+            offered.add(event);
+            assertThat(ring.offer(event)).isTrue();
+            polled.add(ring.poll());
+        }
+
+        assertThat(polled).containsExactlyElementsOf(offered);
+        assertThat(ring.poll()).isNull();
+        assertThat(ring.isEmpty()).isTrue();
+    }
+
+    @Test
+    void testOfferFailsWhenFull() {
+        LogEventRing ring = new LogEventRing(4);
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(ring.offer(new LoggingEvent())).isTrue();
+        }
+
+        assertThat(ring.offer(new LoggingEvent())).isFalse();
+        assertThat(ring.size()).isEqualTo(4);
+        ring.poll();
+        assertThat(ring.offer(new LoggingEvent())).isTrue();
+    }
+
+    @Test
+    void testNoEventIsLostByConcurrentProducers() throws Exception {
+        LogEventRing ring = new LogEventRing(1 << 16);
+        int producers = 8;
+        int events = 5000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                for (int i = 0; i < events; i++) {
+                    ring.offer(new LoggingEvent());
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        start.countDown();
+        int polled = 0;
+        while (polled < producers * events) {
+            if (ring.poll() != null) {
+                polled++;
+            } else if (threads.stream().noneMatch(Thread::isAlive) && ring.isEmpty()) {
+                break;
+            }
+        }
+
+        assertThat(polled).isEqualTo(producers * events);
+    }
+}
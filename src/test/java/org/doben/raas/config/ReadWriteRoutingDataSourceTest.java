@@ -0,0 +1,225 @@
+package org.doben.raas.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import jakarta.persistence.EntityManager;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.sql.DataSource;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Unit tests for {@link ReadWriteRoutingDataSource}.
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private static final Duration WINDOW = Duration.ofSeconds(2);
+
+    private DataSource primary;
+
+    private DataSource replica1;
+
+    private DataSource replica2;
+
+    private Connection primaryConnection;
+
+    private Connection replica1Connection;
+
+    private Connection replica2Connection;
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private String login = "john";
+
+    private ReadWriteRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        primary = mock(DataSource.class);
+        replica1 = mock(DataSource.class);
+        replica2 = mock(DataSource.class);
+        primaryConnection = connection(primary);
+        replica1Connection = connection(replica1);
+        replica2Connection = connection(replica2);
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", replica1);
+        replicas.put("replica-2", replica2);
+        routingDataSource = new ReadWriteRoutingDataSource(primary, replicas, WINDOW, () -> Optional.ofNullable(login), nanos::get);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.hasResource(this)) {
+            TransactionSynchronizationManager.unbindResource(this);
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void testConnectionOutsideOfATransactionIsFromThePrimary() throws SQLException {
+        assertThat(routingDataSource.getConnection()).isSameAs(primaryConnection);
+        assertThat(routingDataSource.getRouted(ReadWriteRoutingDataSource.Route.PRIMARY)).isEqualTo(1);
+    }
+
+    @Test
+    void testWritingTransactionIsOnThePrimary() throws SQLException {
+        beginTransaction(false);
+
+        assertThat(routingDataSource.getConnection()).isSameAs(primaryConnection);
+    }
+
+    @Test
+    void testReadOnlyTransactionsAreSpreadOverTheReplicas() throws SQLException {
+        beginTransaction(true);
+
+        assertThat(routingDataSource.getConnection()).isSameAs(replica1Connection);
+        assertThat(routingDataSource.getConnection()).isSameAs(replica2Connection);
+        assertThat(routingDataSource.getConnection()).isSameAs(replica1Connection);
+        assertThat(routingDataSource.getRouted(ReadWriteRoutingDataSource.Route.REPLICA)).isEqualTo(3);
+    }
+
+    @Test
+    void testFailingReplicaIsTakenOutOfTheRotation() throws SQLException {
+        when(replica1.getConnection()).thenThrow(new SQLException("Connection refused"));
+        beginTransaction(true);
+
+        assertThat(routingDataSource.getConnection()).isSameAs(replica2Connection);
+        assertThat(routingDataSource.getConnection()).isSameAs(replica2Connection);
+        assertThat(routingDataSource.getHealthyReplicas()).isEqualTo(1);
+    }
+
+    @Test
+    void testReadOnlyTransactionFailsOverToThePrimary() throws SQLException {
+        when(replica1.getConnection()).thenThrow(new SQLException("Connection refused"));
+        when(replica2.getConnection()).thenThrow(new SQLException("Connection refused"));
+        beginTransaction(true);
+
+        assertThat(routingDataSource.getConnection()).isSameAs(primaryConnection);
+        assertThat(routingDataSource.getHealthyReplicas()).isZero();
+        assertThat(routingDataSource.getRouted(ReadWriteRoutingDataSource.Route.FAILOVER)).isEqualTo(1);
+    }
+
+    @Test
+    void testHealthCheckPutsTheReplicaBackIntoTheRotation() throws SQLException {
+        when(replica1.getConnection()).thenThrow(new SQLException("Connection refused"));
+        routingDataSource.checkHealth();
+        assertThat(routingDataSource.getHealthyReplicas()).isEqualTo(1);
+
+        doReturn(replica1Connection).when(replica1).getConnection();
+        routingDataSource.checkHealth();
+
+        assertThat(routingDataSource.getHealthyReplicas()).isEqualTo(2);
+    }
+
+    @Test
+    void testUserReadsFromThePrimaryWithinTheWindowAfterTheyWrote() throws SQLException {
+        beginTransaction(false);
+        routingDataSource.getConnection();
+        commit();
+
+        beginTransaction(true);
+        assertThat(routingDataSource.getConnection()).isSameAs(primaryConnection);
+        assertThat(routingDataSource.getRouted(ReadWriteRoutingDataSource.Route.READ_YOUR_WRITES)).isEqualTo(1);
+
+        login = "jane";
+        assertThat(routingDataSource.getConnection()).isSameAs(replica1Connection);
+
+        login = "john";
+        nanos.addAndGet(WINDOW.toNanos());
+        assertThat(routingDataSource.getConnection()).isSameAs(replica2Connection);
+    }
+
+    @Test
+    void testRolledBackWriteIsNotTracked() throws SQLException {
+        beginTransaction(false);
+        routingDataSource.getConnection();
+        TransactionSynchronizationManager
+            .getSynchronizations()
+            .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        TransactionSynchronizationManager.clearSynchronization();
+
+        beginTransaction(true);
+
+        assertThat(routingDataSource.getConnection()).isSameAs(replica1Connection);
+    }
+
+    @Test
+    void testTransactionOnAReplicaDoesNotPutIntoTheSecondLevelCache() throws SQLException {
+        Session session = session();
+        beginTransaction(true);
+
+        routingDataSource.getConnection();
+
+        verify(session).setCacheMode(CacheMode.GET);
+        TransactionSynchronizationManager
+            .getSynchronizations()
+            .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        verify(session).setCacheMode(CacheMode.NORMAL);
+    }
+
+    @Test
+    void testTransactionOnThePrimaryPutsIntoTheSecondLevelCache() throws SQLException {
+        when(replica1.getConnection()).thenThrow(new SQLException("Connection refused"));
+        when(replica2.getConnection()).thenThrow(new SQLException("Connection refused"));
+        Session session = session();
+        beginTransaction(true);
+
+        routingDataSource.getConnection();
+
+        verify(session, never()).setCacheMode(any());
+    }
+
+    private Session session() {
+        Session session = mock(Session.class);
+        when(session.getCacheMode()).thenReturn(CacheMode.NORMAL);
+        when(session.isOpen()).thenReturn(true);
+        EntityManager entityManager = mock(EntityManager.class);
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        TransactionSynchronizationManager.bindResource(this, new EntityManagerHolder(entityManager));
+        return session;
+    }
+
+    private void beginTransaction(boolean readOnly) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.initSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+    }
+
+    private void commit() {
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    private static Connection connection(DataSource dataSource) throws SQLException {
+        Connection connection = mock(Connection.class);
+        when(connection.isValid(anyInt())).thenReturn(true);
+        when(dataSource.getConnection()).thenReturn(connection);
+        return connection;
+    }
+}
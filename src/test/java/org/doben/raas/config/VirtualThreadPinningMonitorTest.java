@@ -0,0 +1,86 @@
+package org.doben.raas.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedMethod;
+import jdk.jfr.consumer.RecordedStackTrace;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link VirtualThreadPinningMonitor}.
+ */
+class VirtualThreadPinningMonitorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private VirtualThreadPinningMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        monitor = new VirtualThreadPinningMonitor(Duration.ofMillis(20), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        monitor.close();
+    }
+
+    @Test
+    void testPathOfAClass() {
+        assertThat(VirtualThreadPinningMonitor.path("com.mysql.cj.jdbc.ConnectionImpl")).isEqualTo("jdbc");
+        assertThat(VirtualThreadPinningMonitor.path("com.zaxxer.hikari.pool.HikariPool")).isEqualTo("jdbc");
+        assertThat(VirtualThreadPinningMonitor.path("org.hibernate.internal.SessionImpl")).isEqualTo("hibernate");
+        assertThat(VirtualThreadPinningMonitor.path("org.eclipse.angus.mail.smtp.SMTPTransport")).isEqualTo("mail");
+        assertThat(VirtualThreadPinningMonitor.path("org.doben.raas.service.MailService")).isNull();
+    }
+
+    @Test
+    void testPinningIsTimedByTheFirstKnownPath() {
+        monitor.onPinned(event(Duration.ofMillis(30), "java.lang.Object", "com.mysql.cj.NativeSession", "org.hibernate.loader.Loader"));
+        monitor.onPinned(event(Duration.ofMillis(50), "org.hibernate.internal.SessionImpl"));
+
+        assertThat(meterRegistry.get(VirtualThreadPinningMonitor.METER_NAME).tag("path", "jdbc").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(VirtualThreadPinningMonitor.METER_NAME).tag("path", "hibernate").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testPinningOutsideOfTheKnownPathsIsTimedAsOther() {
+        monitor.onPinned(event(Duration.ofMillis(30), "org.doben.raas.service.MailService"));
+        monitor.onPinned(event(Duration.ofMillis(30)));
+
+        assertThat(meterRegistry.get(VirtualThreadPinningMonitor.METER_NAME).tag("path", "other").timer().count()).isEqualTo(2);
+    }
+
+    private static RecordedEvent event(Duration duration, String... classNames) {
+        List<RecordedFrame> frames = new ArrayList<>();
+        for (String className : classNames) {
+            RecordedClass type = mock(RecordedClass.class);
+            when(type.getName()).thenReturn(className);
+            RecordedMethod method = mock(RecordedMethod.class);
+            when(method.getType()).thenReturn(type);
+            when(method.getName()).thenReturn("run");
+            RecordedFrame frame = mock(RecordedFrame.class);
+            when(frame.isJavaFrame()).thenReturn(true);
+            when(frame.getMethod()).thenReturn(method);
+            frames.add(frame);
+        }
+        RecordedStackTrace stackTrace = mock(RecordedStackTrace.class);
+        when(stackTrace.getFrames()).thenReturn(frames);
+        RecordedEvent event = mock(RecordedEvent.class);
+        when(event.getStackTrace()).thenReturn(stackTrace);
+        when(event.getDuration()).thenReturn(duration);
+        return event;
+    }
+}
@@ -0,0 +1,36 @@
+package org.doben.raas.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadFactory;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link VirtualThreads}.
+ */
+class VirtualThreadsTest {
+
+    @Test
+    void testNoFactoryWithoutVirtualThreads() {
+        // Java 19 and 20 have them as a preview, only when enabled
+        assumeTrue(Runtime.version().feature() < 19);
+
+        assertThat(VirtualThreads.factory("test-")).isEmpty();
+    }
+
+    @Test
+    void testFactoryCreatesNamedVirtualThreads() throws Exception {
+        assumeTrue(Runtime.version().feature() >= 21);
+
+        Optional<ThreadFactory> factory = VirtualThreads.factory("test-");
+
+        assertThat(factory).isPresent();
+        Thread first = factory.orElseThrow().newThread(() -> {});
+        Thread second = factory.orElseThrow().newThread(() -> {});
+        assertThat(first.getName()).isEqualTo("test-0");
+        assertThat(second.getName()).isEqualTo("test-1");
+        assertThat(Thread.class.getMethod("isVirtual").invoke(first)).isEqualTo(true);
+    }
+}
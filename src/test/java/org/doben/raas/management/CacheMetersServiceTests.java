@@ -0,0 +1,93 @@
+package org.doben.raas.management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import javax.cache.CacheManager;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CacheMetersServiceTests {
+
+    private static final String PERSON_CACHE = "org.doben.raas.domain.Person";
+
+    private static final String USERS_CACHE = "usersByLogin";
+
+    private MeterRegistry meterRegistry;
+
+    private CacheManager cacheManager;
+
+    private CacheMissLoadListener missLoads;
+
+    private CacheMetersService cacheMetersService;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        cacheManager = new EhcacheCachingProvider().getCacheManager();
+        for (String cacheName : List.of(PERSON_CACHE, USERS_CACHE)) {
+            cacheManager.createCache(
+                cacheName,
+                Eh107Configuration.fromEhcacheCacheConfiguration(
+                    CacheConfigurationBuilder
+                        .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(10))
+                        .build()
+                )
+            );
+        }
+        missLoads = new CacheMissLoadListener(meterRegistry);
+        cacheMetersService = new CacheMetersService(meterRegistry, cacheManager, missLoads);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        cacheManager.close();
+    }
+
+    @Test
+    void testSizeGaugesAreCreated() {
+        javax.cache.Cache<Object, Object> cache = cacheManager.getCache(PERSON_CACHE);
+        for (long id = 0; id < 20; id++) {
+            cache.put(id, "person");
+        }
+
+        assertThat(meterRegistry.get(CacheMetersService.SIZE_METER_NAME).tag("cache", PERSON_CACHE).gauge().value()).isEqualTo(10);
+        assertThat(meterRegistry.get(CacheMetersService.SIZE_METER_NAME).tag("cache", USERS_CACHE).gauge().value()).isZero();
+    }
+
+    @Test
+    void testRegionsAreRankedByMissCost() {
+        javax.cache.Cache<Object, Object> persons = cacheManager.getCache(PERSON_CACHE);
+        persons.put(1L, "person");
+        persons.get(1L);
+        persons.get(2L);
+        javax.cache.Cache<Object, Object> users = cacheManager.getCache(USERS_CACHE);
+        for (int i = 0; i < 3; i++) {
+            users.get("user" + i);
+        }
+        missLoads.timer(PERSON_CACHE).record(Duration.ofMillis(20));
+
+        List<CacheMetersService.RegionStatistics> regions = cacheMetersService.regionStatistics();
+
+        assertThat(regions).extracting(CacheMetersService.RegionStatistics::getCache).containsExactly(USERS_CACHE, PERSON_CACHE);
+        CacheMetersService.RegionStatistics usersStatistics = regions.get(0);
+        assertThat(usersStatistics.getMisses()).isEqualTo(3);
+        assertThat(usersStatistics.isMissCostEstimated()).isTrue();
+        assertThat(usersStatistics.getMissCostMillis()).isEqualTo(60);
+        CacheMetersService.RegionStatistics personStatistics = regions.get(1);
+        assertThat(personStatistics.getHits()).isEqualTo(1);
+        assertThat(personStatistics.getMisses()).isEqualTo(1);
+        assertThat(personStatistics.getHitRatio()).isEqualTo(0.5);
+        assertThat(personStatistics.getSize()).isEqualTo(1);
+        assertThat(personStatistics.getMissLoadMillis()).isEqualTo(20);
+        assertThat(personStatistics.isMissCostEstimated()).isFalse();
+    }
+}
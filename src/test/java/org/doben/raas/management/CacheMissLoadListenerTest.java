@@ -0,0 +1,161 @@
+package org.doben.raas.management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.CacheMode;
+import org.hibernate.cache.spi.DomainDataRegion;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.engine.spi.EntityKey;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.LoadEvent;
+import org.hibernate.event.spi.LoadEventListener;
+import org.hibernate.metamodel.spi.MappingMetamodelImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.service.spi.ServiceRegistryImplementor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+/**
+ * Unit tests for {@link CacheMissLoadListener}.
+ */
+class CacheMissLoadListenerTest {
+
+    private static final String ENTITY = "org.doben.raas.domain.Person";
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private CacheMissLoadListener listener;
+
+    private LoadEventListener before;
+
+    private LoadEventListener after;
+
+    private EventSource session;
+
+    private PersistenceContext persistenceContext;
+
+    private EntityDataAccess cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        listener = new CacheMissLoadListener(meterRegistry);
+        registerListeners();
+
+        SessionFactoryImplementor sessionFactory = mock(SessionFactoryImplementor.class);
+        MappingMetamodelImplementor metamodel = mock(MappingMetamodelImplementor.class);
+        EntityPersister persister = mock(EntityPersister.class);
+        cache = mock(EntityDataAccess.class);
+        DomainDataRegion region = mock(DomainDataRegion.class);
+        session = mock(EventSource.class);
+        persistenceContext = mock(PersistenceContext.class);
+
+        when(session.getFactory()).thenReturn(sessionFactory);
+        when(session.getCacheMode()).thenReturn(CacheMode.NORMAL);
+        when(session.getPersistenceContextInternal()).thenReturn(persistenceContext);
+        when(session.generateEntityKey(any(), eq(persister))).thenReturn(mock(EntityKey.class));
+        when(sessionFactory.getMappingMetamodel()).thenReturn(metamodel);
+        when(metamodel.findEntityDescriptor(ENTITY)).thenReturn(persister);
+        when(persister.canReadFromCache()).thenReturn(true);
+        when(persister.getCacheAccessStrategy()).thenReturn(cache);
+        when(cache.generateCacheKey(any(), eq(persister), eq(sessionFactory), any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(cache.getRegion()).thenReturn(region);
+        when(region.getName()).thenReturn(ENTITY);
+    }
+
+    @Test
+    void testLoadMissingTheCacheIsTimed() {
+        load(1L);
+
+        assertThat(listener.findTimer(ENTITY)).isNotNull();
+        assertThat(listener.findTimer(ENTITY).count()).isEqualTo(1);
+    }
+
+    @Test
+    void testLoadHittingTheCacheIsNotTimed() {
+        when(cache.contains(1L)).thenReturn(true);
+
+        load(1L);
+
+        assertThat(listener.findTimer(ENTITY)).isNull();
+    }
+
+    @Test
+    void testLoadOfAManagedEntityIsNotTimed() {
+        when(persistenceContext.containsEntity(any())).thenReturn(true);
+
+        load(1L);
+
+        assertThat(listener.findTimer(ENTITY)).isNull();
+    }
+
+    @Test
+    void testLoadIgnoringTheCacheIsNotTimed() {
+        when(session.getCacheMode()).thenReturn(CacheMode.IGNORE);
+
+        load(1L);
+
+        assertThat(listener.findTimer(ENTITY)).isNull();
+    }
+
+    @Test
+    void testNestedLoadsAreTimedApart() {
+        LoadEvent outer = new LoadEvent(1L, ENTITY, false, session, null);
+        LoadEvent inner = new LoadEvent(2L, ENTITY, true, session, null);
+
+        before.onLoad(outer, LoadEventListener.GET);
+        before.onLoad(inner, LoadEventListener.GET);
+        after.onLoad(inner, LoadEventListener.GET);
+        after.onLoad(outer, LoadEventListener.GET);
+
+        assertThat(listener.findTimer(ENTITY).count()).isEqualTo(2);
+    }
+
+    @Test
+    void testFailedLoadIsNotTimed() {
+        LoadEvent failed = new LoadEvent(1L, ENTITY, false, session, null);
+        before.onLoad(failed, LoadEventListener.GET);
+
+        // The last listener is not run for the failed load, so the next load does not stop its timing
+        load(2L);
+
+        assertThat(listener.findTimer(ENTITY).count()).isEqualTo(1);
+    }
+
+    private void load(Object id) {
+        LoadEvent event = new LoadEvent(id, ENTITY, false, session, null);
+        before.onLoad(event, LoadEventListener.GET);
+        after.onLoad(event, LoadEventListener.GET);
+    }
+
+    private void registerListeners() {
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+        SessionFactoryImplementor sessionFactory = mock(SessionFactoryImplementor.class);
+        ServiceRegistryImplementor serviceRegistry = mock(ServiceRegistryImplementor.class);
+        EventListenerRegistry listeners = mock(EventListenerRegistry.class);
+        when(entityManagerFactory.unwrap(SessionFactoryImplementor.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getServiceRegistry()).thenReturn(serviceRegistry);
+        when(serviceRegistry.getService(EventListenerRegistry.class)).thenReturn(listeners);
+
+        listener.registerWith(entityManagerFactory);
+
+        ArgumentCaptor<LoadEventListener> first = ArgumentCaptor.forClass(LoadEventListener.class);
+        ArgumentCaptor<LoadEventListener> last = ArgumentCaptor.forClass(LoadEventListener.class);
+        verify(listeners).prependListeners(eq(EventType.LOAD), first.capture());
+        verify(listeners).appendListeners(eq(EventType.LOAD), last.capture());
+        before = first.getValue();
+        after = last.getValue();
+    }
+}
@@ -0,0 +1,78 @@
+package org.doben.raas.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.doben.raas.config.ApplicationProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Unit tests for {@link AdaptivePasswordEncoder}.
+ */
+class AdaptivePasswordEncoderTest {
+
+    private MeterRegistry registry;
+
+    private AdaptivePasswordEncoder encoder;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties.Security.PasswordHashing properties = new ApplicationProperties.Security.PasswordHashing();
+        properties.setTargetTime(Duration.ZERO);
+        properties.setMinCost(4);
+        properties.setThreads(1);
+        registry = new SimpleMeterRegistry();
+        encoder = new AdaptivePasswordEncoder(properties, registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        encoder.close();
+    }
+
+    @Test
+    void testCostIsTheHighestWithinTheTargetTime() {
+        assertThat(AdaptivePasswordEncoder.cost(50, 100, 10, 14)).isEqualTo(11);
+        assertThat(AdaptivePasswordEncoder.cost(50, 399, 10, 14)).isEqualTo(12);
+        assertThat(AdaptivePasswordEncoder.cost(200, 100, 10, 14)).isEqualTo(10);
+        assertThat(AdaptivePasswordEncoder.cost(1, 1_000_000, 10, 14)).isEqualTo(14);
+    }
+
+    @Test
+    void testWithoutTargetTimeTheMinimumCostIsUsed() {
+        assertThat(AdaptivePasswordEncoder.calibrate(Duration.ZERO, 10, 14)).isEqualTo(10);
+        assertThat(encoder.getCost()).isEqualTo(4);
+    }
+
+    @Test
+    void testPasswordIsHashedOnTheHashingThreads() {
+        String hash = encoder.encode("password");
+
+        assertThat(hash).startsWith("$2a$04$");
+        assertThat(encoder.matches("password", hash)).isTrue();
+        assertThat(encoder.matches("wrong", hash)).isFalse();
+        assertThat(registry.get(AdaptivePasswordEncoder.HASH_METER_NAME).tag("operation", "encode").timer().count()).isEqualTo(1);
+        assertThat(registry.get(AdaptivePasswordEncoder.HASH_METER_NAME).tag("operation", "match").timer().count()).isEqualTo(2);
+        assertThat(registry.get(AdaptivePasswordEncoder.QUEUE_METER_NAME).timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    void testOnlyHashesOfALowerCostAreUpgraded() {
+        ApplicationProperties.Security.PasswordHashing properties = new ApplicationProperties.Security.PasswordHashing();
+        properties.setTargetTime(Duration.ZERO);
+        properties.setMinCost(5);
+        properties.setThreads(1);
+        try (AdaptivePasswordEncoder cost5 = new AdaptivePasswordEncoder(properties, registry)) {
+            assertThat(cost5.upgradeEncoding(cost5.encode("password"))).isFalse();
+            assertThat(cost5.upgradeEncoding(new BCryptPasswordEncoder(4).encode("password"))).isTrue();
+            assertThat(cost5.upgradeEncoding(new BCryptPasswordEncoder(6).encode("password"))).isFalse();
+            assertThat(cost5.upgradeEncoding("not a hash")).isFalse();
+            assertThat(cost5.upgradeEncoding(null)).isFalse();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package org.doben.raas.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.doben.raas.config.ApplicationProperties;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link AuthenticationRateLimiter}.
+ */
+class AuthenticationRateLimiterTest {
+
+    private final ApplicationProperties applicationProperties = new ApplicationProperties();
+
+    @Test
+    void testAddressIsNotLimitedByDefault() {
+        AuthenticationRateLimiter rateLimiter = rateLimiter();
+
+        for (int i = 0; i < 200; i++) {
+            assertThat(rateLimiter.tryAcquire("user" + i, "10.0.0.1")).isZero();
+        }
+    }
+
+    @Test
+    void testAddressIsLimitedWhenEnabled() {
+        applicationProperties.getSecurity().getRateLimit().getAddress().setEnabled(true);
+        AuthenticationRateLimiter rateLimiter = rateLimiter();
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(rateLimiter.tryAcquire("user" + i, "10.0.0.1")).isZero();
+        }
+
+        assertThat(rateLimiter.tryAcquire("user", "10.0.0.1")).isPositive();
+        assertThat(rateLimiter.tryAcquire("user", "10.0.0.2")).isZero();
+    }
+
+    @Test
+    void testLoginIsLimited() {
+        AuthenticationRateLimiter rateLimiter = rateLimiter();
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(rateLimiter.tryAcquire("User", "10.0.0." + i)).isZero();
+        }
+
+        assertThat(rateLimiter.tryAcquire("user", "10.0.0.100")).isPositive();
+    }
+
+    private AuthenticationRateLimiter rateLimiter() {
+        return new AuthenticationRateLimiter(applicationProperties, new SimpleMeterRegistry());
+    }
+}
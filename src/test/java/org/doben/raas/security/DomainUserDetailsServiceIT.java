@@ -13,7 +13,9 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -33,6 +35,9 @@ class DomainUserDetailsServiceIT {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
     @Autowired
     @Qualifier("userDetailsService")
     private UserDetailsService domainUserDetailsService;
@@ -70,6 +75,18 @@ class DomainUserDetailsServiceIT {
         userRepository.save(userThree);
     }
 
+    @Test
+    void assertThatRehashedPasswordIsStored() {
+        UserDetails userDetails = domainUserDetailsService.loadUserByUsername(USER_ONE_LOGIN);
+
+        String rehashed = passwordEncoder.encode("password");
+
+        UserDetails updated = ((UserDetailsPasswordService) domainUserDetailsService).updatePassword(userDetails, rehashed);
+
+        assertThat(updated.getPassword()).isEqualTo(rehashed);
+        assertThat(userRepository.findOneByLogin(USER_ONE_LOGIN)).get().extracting(User::getPassword).isEqualTo(rehashed);
+    }
+
     @Test
     void assertThatUserCanBeFoundByLogin() {
         UserDetails userDetails = domainUserDetailsService.loadUserByUsername(USER_ONE_LOGIN);
@@ -0,0 +1,69 @@
+package org.doben.raas.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link TokenBuckets}.
+ */
+class TokenBucketsTest {
+
+    private static final Duration MINUTE = Duration.ofMinutes(1);
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void testAttemptsBeyondTheCapacityAreRejected() {
+        TokenBuckets buckets = new TokenBuckets(3, MINUTE, 1000, now::get);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(buckets.tryConsume("user")).isZero();
+        }
+
+        assertThat(buckets.tryConsume("user")).isEqualTo(Duration.ofSeconds(20));
+        assertThat(buckets.tryConsume("other")).isZero();
+    }
+
+    @Test
+    void testBucketsAreRefilledOverTime() {
+        TokenBuckets buckets = new TokenBuckets(3, MINUTE, 1000, now::get);
+        for (int i = 0; i < 3; i++) {
+            buckets.tryConsume("user");
+        }
+
+        now.addAndGet(Duration.ofSeconds(20).toNanos());
+
+        assertThat(buckets.tryConsume("user")).isZero();
+        assertThat(buckets.tryConsume("user")).isPositive();
+    }
+
+    @Test
+    void testIdleBucketsAreEvicted() {
+        TokenBuckets buckets = new TokenBuckets(3, MINUTE, 1000, now::get);
+        for (int i = 0; i < 1000; i++) {
+            buckets.tryConsume("user" + i);
+        }
+
+        now.addAndGet(MINUTE.toNanos());
+        for (int i = 0; i < 1000; i++) {
+            buckets.tryConsume("other" + i);
+        }
+
+        assertThat(buckets.size()).isLessThanOrEqualTo(1000);
+        assertThat(buckets.tryConsume("user0")).isZero();
+    }
+
+    @Test
+    void testNumberOfBucketsIsBounded() {
+        TokenBuckets buckets = new TokenBuckets(3, MINUTE, 640, now::get);
+
+        for (int i = 0; i < 10_000; i++) {
+            buckets.tryConsume("user" + i);
+        }
+
+        assertThat(buckets.size()).isLessThanOrEqualTo(640);
+    }
+}
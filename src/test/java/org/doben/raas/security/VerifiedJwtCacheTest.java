@@ -0,0 +1,115 @@
+package org.doben.raas.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+/**
+ * Unit tests for {@link VerifiedJwtCache}.
+ */
+class VerifiedJwtCacheTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-18T12:00:00Z");
+
+    private final AtomicInteger verifications = new AtomicInteger();
+
+    private final AtomicInteger conversions = new AtomicInteger();
+
+    private Clock clock;
+
+    private VerifiedJwtCache cache;
+
+    private JwtDecoder decoder;
+
+    private Converter<Jwt, Collection<GrantedAuthority>> authoritiesConverter;
+
+    @BeforeEach
+    void setUp() {
+        clock = mock(Clock.class);
+        when(clock.instant()).thenReturn(NOW);
+        cache = new VerifiedJwtCache(10, clock);
+        decoder =
+            cache.decoder(token -> {
+                verifications.incrementAndGet();
+                if (token.startsWith("invalid")) {
+                    throw new BadJwtException("Invalid signature");
+                }
+                return Jwt
+                    .withTokenValue(token)
+                    .header("alg", "HS512")
+                    .subject("user")
+                    .issuedAt(NOW.minusSeconds(60))
+                    .expiresAt(NOW.plusSeconds(Long.parseLong(token.substring(token.indexOf('-') + 1))))
+                    .build();
+            });
+        authoritiesConverter =
+            cache.authoritiesConverter(jwt -> {
+                conversions.incrementAndGet();
+                return List.of(new SimpleGrantedAuthority(AuthoritiesConstants.USER));
+            });
+    }
+
+    @Test
+    void testVerifiedTokenIsDecodedOnce() {
+        Jwt jwt = decoder.decode("token-60");
+
+        assertThat(decoder.decode("token-60")).isSameAs(jwt);
+        assertThat(verifications).hasValue(1);
+    }
+
+    @Test
+    void testAuthoritiesOfCachedTokenAreConvertedOnce() {
+        Jwt jwt = decoder.decode("token-60");
+
+        assertThat(authoritiesConverter.convert(jwt)).extracting(GrantedAuthority::getAuthority).containsExactly(AuthoritiesConstants.USER);
+        assertThat(authoritiesConverter.convert(decoder.decode("token-60"))).hasSize(1);
+        assertThat(conversions).hasValue(1);
+    }
+
+    @Test
+    void testExpiredTokenIsVerifiedAgain() {
+        decoder.decode("token-60");
+        when(clock.instant()).thenReturn(NOW.plusSeconds(60));
+
+        decoder.decode("token-60");
+
+        assertThat(verifications).hasValue(2);
+    }
+
+    @Test
+    void testInvalidTokenIsVerifiedEachTime() {
+        for (int i = 0; i < 3; i++) {
+            assertThatExceptionOfType(BadJwtException.class).isThrownBy(() -> decoder.decode("invalid-60"));
+        }
+
+        assertThat(verifications).hasValue(3);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void testCacheIsBounded() {
+        for (int i = 1; i <= 25; i++) {
+            decoder.decode("token" + i + "-" + i * 60);
+        }
+
+        assertThat(cache.size()).isLessThanOrEqualTo(10);
+        // The tokens expiring last are kept
+        decoder.decode("token25-1500");
+        assertThat(verifications).hasValue(25);
+    }
+}
@@ -8,6 +8,7 @@ import org.doben.raas.config.SecurityConfiguration;
 import org.doben.raas.config.SecurityJwtConfiguration;
 import org.doben.raas.config.WebConfigurer;
 import org.doben.raas.management.SecurityMetersService;
+import org.doben.raas.security.AuthenticationRateLimiter;
 import org.doben.raas.web.rest.AuthenticateController;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.DirtiesContext;
@@ -26,6 +27,7 @@ import tech.jhipster.config.JHipsterProperties;
         SecurityConfiguration.class,
         SecurityJwtConfiguration.class,
         SecurityMetersService.class,
+        AuthenticationRateLimiter.class,
         AuthenticateController.class,
         JwtAuthenticationTestUtils.class,
     }
@@ -0,0 +1,123 @@
+package org.doben.raas.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link AttendanceColumns}.
+ */
+class AttendanceColumnsTest {
+
+    private static final byte INSTITUTION = 0;
+    private static final byte TERRITORY = 1;
+    private static final byte INDIVIDUAL = 0;
+
+    private static final AttendanceColumns.Filter ALL = new AttendanceColumns.Filter(
+        null,
+        null,
+        AttendanceColumns.NONE,
+        AttendanceColumns.NONE
+    );
+
+    private AttendanceColumns columns;
+
+    @BeforeEach
+    public void init() {
+        columns = new AttendanceColumns();
+    }
+
+    @Test
+    void testHistogramByHourOfDay() {
+        columns.upsert(1L, epochSecond("2026-10-15T09:30:00Z"), INSTITUTION, INDIVIDUAL);
+        columns.upsert(2L, epochSecond("2026-10-15T09:59:59Z"), TERRITORY, INDIVIDUAL);
+        columns.upsert(3L, epochSecond("2026-10-15T23:00:00Z"), INSTITUTION, INDIVIDUAL);
+        columns.upsert(4L, null, INSTITUTION, INDIVIDUAL);
+
+        long[] histogram = columns.histogramByHourOfDay(ALL, ZoneOffset.UTC);
+
+        assertThat(histogram).hasSize(24);
+        assertThat(histogram[9]).isEqualTo(2);
+        assertThat(histogram[23]).isEqualTo(1);
+        assertThat(histogram).containsOnly(0, 1, 2);
+    }
+
+    @Test
+    void testHistogramByWeekdayInZone() {
+        // Thursday in UTC, but already Friday in Tokyo
+        columns.upsert(1L, epochSecond("2026-10-15T20:00:00Z"), INSTITUTION, INDIVIDUAL);
+
+        assertThat(columns.histogramByWeekday(ALL, ZoneOffset.UTC)[3]).isEqualTo(1);
+        assertThat(columns.histogramByWeekday(ALL, ZoneId.of("Asia/Tokyo"))[4]).isEqualTo(1);
+    }
+
+    @Test
+    void testFilter() {
+        columns.upsert(1L, epochSecond("2026-10-15T09:00:00Z"), INSTITUTION, INDIVIDUAL);
+        columns.upsert(2L, epochSecond("2026-10-16T09:00:00Z"), TERRITORY, INDIVIDUAL);
+        columns.upsert(3L, epochSecond("2026-10-17T09:00:00Z"), INSTITUTION, INDIVIDUAL);
+
+        AttendanceColumns.Filter filter = new AttendanceColumns.Filter(
+            epochSecond("2026-10-15T00:00:00Z"),
+            epochSecond("2026-10-17T00:00:00Z"),
+            INSTITUTION,
+            AttendanceColumns.NONE
+        );
+
+        assertThat(columns.histogramByHourOfDay(filter, ZoneOffset.UTC)[9]).isEqualTo(1);
+    }
+
+    @Test
+    void testUpdateAndDelete() {
+        columns.upsert(2L, epochSecond("2026-10-15T09:00:00Z"), INSTITUTION, INDIVIDUAL);
+        columns.upsert(1L, epochSecond("2026-10-15T10:00:00Z"), INSTITUTION, INDIVIDUAL);
+        columns.upsert(2L, epochSecond("2026-10-15T11:00:00Z"), INSTITUTION, INDIVIDUAL);
+        columns.delete(1L);
+
+        long[] histogram = columns.histogramByHourOfDay(ALL, ZoneOffset.UTC);
+
+        assertThat(columns.size()).isEqualTo(2);
+        assertThat(histogram[9]).isZero();
+        assertThat(histogram[10]).isZero();
+        assertThat(histogram[11]).isEqualTo(1);
+    }
+
+    @Test
+    void testHistogramByPatientAge() {
+        columns.upsert(1L, epochSecond("2026-10-15T09:00:00Z"), INSTITUTION, INDIVIDUAL);
+        columns.upsert(2L, epochSecond("2026-10-16T09:00:00Z"), TERRITORY, INDIVIDUAL);
+        // 9 on the attendance day, turning 10 the day after
+        columns.upsertPerson(10L, LocalDate.parse("2016-10-16").toEpochDay(), 1L);
+        columns.upsertPerson(11L, LocalDate.parse("2016-10-16").toEpochDay(), 2L);
+        columns.upsertPerson(12L, LocalDate.parse("1900-01-01").toEpochDay(), 2L);
+        columns.upsertPerson(13L, LocalDate.parse("1990-01-01").toEpochDay(), 1L);
+        columns.deletePerson(13L);
+
+        long[] histogram = columns.histogramByPatientAge(ALL, 10, 11);
+
+        assertThat(histogram[0]).isEqualTo(1);
+        assertThat(histogram[1]).isEqualTo(1);
+        assertThat(histogram[10]).isEqualTo(1);
+        assertThat(histogram[3]).isZero();
+    }
+
+    @Test
+    void testScanAcrossRanges() {
+        int rows = 200_000;
+        long epochSecond = epochSecond("2026-10-15T09:00:00Z");
+        for (int id = 1; id <= rows; id++) {
+            columns.upsert(id, epochSecond, INSTITUTION, INDIVIDUAL);
+        }
+
+        assertThat(columns.histogramByHourOfDay(ALL, ZoneOffset.UTC)[9]).isEqualTo(rows);
+    }
+
+    private static long epochSecond(String instant) {
+        return Instant.parse(instant).getEpochSecond();
+    }
+}
@@ -0,0 +1,69 @@
+package org.doben.raas.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import org.doben.raas.IntegrationTest;
+import org.doben.raas.domain.Attendance;
+import org.doben.raas.domain.enumeration.HowMany;
+import org.doben.raas.domain.enumeration.Place;
+import org.doben.raas.repository.AttendanceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for {@link AttendanceExportService}.
+ */
+@IntegrationTest
+@Transactional
+class AttendanceExportServiceIT {
+
+    private static final Instant FROM = Instant.parse("2023-10-01T00:00:00Z");
+
+    private static final Instant TO = Instant.parse("2023-11-01T00:00:00Z");
+
+    @Autowired
+    private AttendanceRepository attendanceRepository;
+
+    @Autowired
+    private AttendanceExportService attendanceExportService;
+
+    private Attendance inRange;
+
+    @BeforeEach
+    public void init() {
+        inRange =
+            attendanceRepository.saveAndFlush(
+                new Attendance().dateTime(Instant.parse("2023-10-19T01:36:10Z")).place(Place.TERRITORY).howMany(HowMany.INDIVIDUAL)
+            );
+        attendanceRepository.saveAndFlush(new Attendance().dateTime(TO).place(Place.INSTITUTION).howMany(HowMany.GROUP));
+    }
+
+    @Test
+    void assertThatExportWritesCsvRowsInRange() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = attendanceExportService.export(FROM, TO, BulkFormat.CSV, out);
+
+        assertThat(count).isEqualTo(1);
+        assertThat(out.toString(StandardCharsets.UTF_8))
+            .isEqualTo("id;date_time;place;how_many\n" + inRange.getId() + ";2023-10-19T01:36:10Z;TERRITORY;INDIVIDUAL\n");
+    }
+
+    @Test
+    void assertThatExportWritesOneJsonObjectPerLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = attendanceExportService.export(FROM, TO, BulkFormat.NDJSON, out);
+
+        assertThat(count).isEqualTo(1);
+        assertThat(out.toString(StandardCharsets.UTF_8))
+            .isEqualTo(
+                "{\"id\":" + inRange.getId() + ",\"dateTime\":\"2023-10-19T01:36:10Z\",\"place\":\"TERRITORY\",\"howMany\":\"INDIVIDUAL\"}\n"
+            );
+    }
+}
@@ -0,0 +1,70 @@
+package org.doben.raas.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import org.doben.raas.IntegrationTest;
+import org.doben.raas.domain.Person;
+import org.doben.raas.repository.PersonRepository;
+import org.doben.raas.service.dto.BulkImportReportDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Integration tests for {@link BulkImportService}.
+ * <p>
+ * Not transactional, so that each chunk commits or rolls back in its own transaction as it does outside of the tests.
+ */
+@IntegrationTest
+class BulkImportServiceIT {
+
+    private final String motherName = UUID.randomUUID().toString();
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private BulkImportService bulkImportService;
+
+    @AfterEach
+    public void cleanUp() {
+        personRepository.deleteAll(imported());
+    }
+
+    @Test
+    void assertThatARowRejectedByTheDatabaseOnlyFailsItself() throws Exception {
+        // Valid for the entity, but longer than the email column: only the insert fails, within the chunk
+        String body =
+            person("AAAAAAAAAA", "a@example.com") +
+            person("BBBBBBBBBB", "b".repeat(256) + "@example.com") +
+            person("CCCCCCCCCC", "c@example.com");
+
+        BulkImportReportDTO report = bulkImportService.importPeople(
+            new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)),
+            BulkFormat.NDJSON
+        );
+
+        assertThat(report.getRowsRead()).isEqualTo(3);
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(report.getFailed()).isEqualTo(1);
+        assertThat(report.getErrors()).extracting(BulkImportReportDTO.RowErrorDTO::getRow).containsExactly(2L);
+        assertThat(report.getChunks()).hasSize(1);
+        assertThat(report.getChunks().get(0).getImported()).isEqualTo(2);
+        // The other rows of the chunk are committed, once each
+        assertThat(imported()).extracting(Person::getName).containsExactlyInAnyOrder("AAAAAAAAAA", "CCCCCCCCCC");
+    }
+
+    private String person(String name, String email) {
+        return (
+            "{\"name\":\"" + name + "\",\"motherName\":\"" + motherName + "\",\"birthdate\":\"1970-01-01\",\"email\":\"" + email + "\"}\n"
+        );
+    }
+
+    private List<Person> imported() {
+        return personRepository.findAll().stream().filter(person -> motherName.equals(person.getMotherName())).toList();
+    }
+}
@@ -0,0 +1,165 @@
+package org.doben.raas.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.notNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.LongStream;
+import org.doben.raas.config.ApplicationProperties;
+import org.doben.raas.domain.OutgoingMail;
+import org.doben.raas.repository.OutgoingMailRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.transaction.PlatformTransactionManager;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Unit tests for {@link MailDispatcher}, against an in-process SMTP server.
+ */
+class MailDispatcherTest {
+
+    private SmtpStandIn smtp;
+
+    private ApplicationProperties applicationProperties;
+
+    private OutgoingMailRepository outgoingMailRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        smtp = new SmtpStandIn();
+        applicationProperties = new ApplicationProperties();
+        outgoingMailRepository = mock(OutgoingMailRepository.class);
+        when(outgoingMailRepository.claim(anyLong(), any(), any())).thenReturn(1);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        smtp.close();
+    }
+
+    @Test
+    void testBatchIsSentOverOneConnection() {
+        List<OutgoingMail> due = mails(3);
+        when(outgoingMailRepository.findDue(any(), any())).thenReturn(due, List.of());
+
+        dispatcher().dispatch();
+
+        assertThat(smtp.getMessages()).hasSize(3);
+        assertThat(smtp.getConnections()).isEqualTo(1);
+        verify(outgoingMailRepository).deleteAllByIdInBatch(List.of(1L, 2L, 3L));
+        assertThat(meterRegistry.get(MailDispatcher.SENT_METER_NAME).counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    void testFailedMailIsRetriedLater() {
+        smtp.setRejecting(true);
+        when(outgoingMailRepository.findDue(any(), any())).thenReturn(mails(1), List.of());
+        Instant before = Instant.now();
+
+        dispatcher().dispatch();
+
+        ArgumentCaptor<Instant> nextAttemptDate = ArgumentCaptor.forClass(Instant.class);
+        verify(outgoingMailRepository).reschedule(eq(1L), nextAttemptDate.capture(), notNull());
+        assertThat(nextAttemptDate.getValue()).isAfterOrEqualTo(before.plus(applicationProperties.getMail().getInitialBackoff()));
+        verify(outgoingMailRepository, never()).deleteAllByIdInBatch(any());
+        assertThat(meterRegistry.get(MailDispatcher.FAILED_METER_NAME).tag("outcome", "retried").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testMailIsAbandonedAfterMaxAttempts() {
+        smtp.setRejecting(true);
+        List<OutgoingMail> due = mails(1);
+        due.get(0).setAttempts(applicationProperties.getMail().getMaxAttempts() - 1);
+        when(outgoingMailRepository.findDue(any(), any())).thenReturn(due, List.of());
+
+        dispatcher().dispatch();
+
+        verify(outgoingMailRepository).reschedule(eq(1L), isNull(), notNull());
+        assertThat(meterRegistry.get(MailDispatcher.FAILED_METER_NAME).tag("outcome", "abandoned").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testAbandonedMailsAreDeletedAfterTheirRetention() {
+        applicationProperties.getMail().setAbandonedRetention(Duration.ofDays(7));
+        Instant before = Instant.now().minus(Duration.ofDays(7));
+
+        dispatcher().purgeAbandoned();
+
+        ArgumentCaptor<Instant> enqueuedBefore = ArgumentCaptor.forClass(Instant.class);
+        verify(outgoingMailRepository).deleteAbandonedBefore(enqueuedBefore.capture());
+        assertThat(enqueuedBefore.getValue()).isAfterOrEqualTo(before).isBefore(before.plus(Duration.ofMinutes(1)));
+    }
+
+    @Test
+    void testRateLimitIsEnforced() {
+        applicationProperties.getMail().setRateLimit(2);
+        when(outgoingMailRepository.findDue(any(), any())).thenReturn(mails(3));
+
+        dispatcher().dispatch();
+
+        assertThat(smtp.getMessages()).hasSize(2);
+        verify(outgoingMailRepository, never()).claim(eq(3L), any(), any());
+    }
+
+    @Test
+    void testBackoffDoublesUpToTheMaximum() {
+        Duration initial = Duration.ofSeconds(30);
+        Duration max = Duration.ofMinutes(5);
+
+        assertThat(MailDispatcher.backoff(1, initial, max)).isEqualTo(Duration.ofSeconds(30));
+        assertThat(MailDispatcher.backoff(2, initial, max)).isEqualTo(Duration.ofSeconds(60));
+        assertThat(MailDispatcher.backoff(4, initial, max)).isEqualTo(Duration.ofSeconds(240));
+        assertThat(MailDispatcher.backoff(5, initial, max)).isEqualTo(max);
+        assertThat(MailDispatcher.backoff(100, initial, max)).isEqualTo(max);
+    }
+
+    private MailDispatcher dispatcher() {
+        JavaMailSenderImpl javaMailSender = new JavaMailSenderImpl();
+        javaMailSender.setHost(smtp.getHost());
+        javaMailSender.setPort(smtp.getPort());
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getMail().setFrom("raas@localhost.com");
+        return new MailDispatcher(
+            applicationProperties,
+            outgoingMailRepository,
+            javaMailSender,
+            jHipsterProperties,
+            mock(PlatformTransactionManager.class),
+            meterRegistry
+        );
+    }
+
+    private static List<OutgoingMail> mails(int count) {
+        Instant now = Instant.now();
+        return LongStream
+            .rangeClosed(1, count)
+            .mapToObj(id -> {
+                OutgoingMail mail = new OutgoingMail();
+                mail.setId(id);
+                mail.setRecipient("john" + id + "@example.com");
+                mail.setSubject("testSubject");
+                mail.setContent("testContent");
+                mail.setCreatedDate(now);
+                mail.setNextAttemptDate(now);
+                return mail;
+            })
+            .toList();
+    }
+}
@@ -16,12 +16,14 @@ import java.io.InputStreamReader;
 import java.net.URI;
 import java.net.URL;
 import java.nio.charset.Charset;
+import java.time.Instant;
 import java.util.Properties;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.doben.raas.IntegrationTest;
 import org.doben.raas.config.Constants;
 import org.doben.raas.domain.User;
+import org.doben.raas.repository.OutgoingMailRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
@@ -30,6 +32,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import tech.jhipster.config.JHipsterProperties;
 
 /**
@@ -43,6 +47,7 @@ class MailServiceIT {
     };
     private static final Pattern PATTERN_LOCALE_3 = Pattern.compile("([a-z]{2})-([a-zA-Z]{4})-([a-z]{2})");
     private static final Pattern PATTERN_LOCALE_2 = Pattern.compile("([a-z]{2})-([a-z]{2})");
+    private static final long SEND_TIMEOUT = 5000;
 
     @Autowired
     private JHipsterProperties jHipsterProperties;
@@ -51,22 +56,35 @@ class MailServiceIT {
     private JavaMailSender javaMailSender;
 
     @Captor
-    private ArgumentCaptor<MimeMessage> messageCaptor;
+    private ArgumentCaptor<MimeMessage[]> messagesCaptor;
 
     @Autowired
     private MailService mailService;
 
+    @Autowired
+    private OutgoingMailRepository outgoingMailRepository;
+
+    @Autowired
+    private MailDispatcher mailDispatcher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     @BeforeEach
     public void setup() {
-        doNothing().when(javaMailSender).send(any(MimeMessage.class));
-        when(javaMailSender.createMimeMessage()).thenReturn(new MimeMessage((Session) null));
+        // The dispatcher may still be sending the mail of the previous test
+        mailDispatcher.stop();
+        outgoingMailRepository.deleteAllInBatch();
+        mailDispatcher.start();
+        doNothing().when(javaMailSender).send(any(MimeMessage[].class));
+        when(javaMailSender.createMimeMessage()).thenAnswer(invocation -> new MimeMessage((Session) null));
     }
 
     @Test
     void testSendEmail() throws Exception {
         mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", false, false);
-        verify(javaMailSender).send(messageCaptor.capture());
-        MimeMessage message = messageCaptor.getValue();
+        verify(javaMailSender, timeout(SEND_TIMEOUT)).send(messagesCaptor.capture());
+        MimeMessage message = messagesCaptor.getValue()[0];
         assertThat(message.getSubject()).isEqualTo("testSubject");
         assertThat(message.getAllRecipients()[0]).hasToString("john.doe@example.com");
         assertThat(message.getFrom()[0]).hasToString(jHipsterProperties.getMail().getFrom());
@@ -78,8 +96,8 @@ class MailServiceIT {
     @Test
     void testSendHtmlEmail() throws Exception {
         mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", false, true);
-        verify(javaMailSender).send(messageCaptor.capture());
-        MimeMessage message = messageCaptor.getValue();
+        verify(javaMailSender, timeout(SEND_TIMEOUT)).send(messagesCaptor.capture());
+        MimeMessage message = messagesCaptor.getValue()[0];
         assertThat(message.getSubject()).isEqualTo("testSubject");
         assertThat(message.getAllRecipients()[0]).hasToString("john.doe@example.com");
         assertThat(message.getFrom()[0]).hasToString(jHipsterProperties.getMail().getFrom());
@@ -91,8 +109,8 @@ class MailServiceIT {
     @Test
     void testSendMultipartEmail() throws Exception {
         mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", true, false);
-        verify(javaMailSender).send(messageCaptor.capture());
-        MimeMessage message = messageCaptor.getValue();
+        verify(javaMailSender, timeout(SEND_TIMEOUT)).send(messagesCaptor.capture());
+        MimeMessage message = messagesCaptor.getValue()[0];
         MimeMultipart mp = (MimeMultipart) message.getContent();
         MimeBodyPart part = (MimeBodyPart) ((MimeMultipart) mp.getBodyPart(0).getContent()).getBodyPart(0);
         ByteArrayOutputStream aos = new ByteArrayOutputStream();
@@ -108,8 +126,8 @@ class MailServiceIT {
     @Test
     void testSendMultipartHtmlEmail() throws Exception {
         mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", true, true);
-        verify(javaMailSender).send(messageCaptor.capture());
-        MimeMessage message = messageCaptor.getValue();
+        verify(javaMailSender, timeout(SEND_TIMEOUT)).send(messagesCaptor.capture());
+        MimeMessage message = messagesCaptor.getValue()[0];
         MimeMultipart mp = (MimeMultipart) message.getContent();
         MimeBodyPart part = (MimeBodyPart) ((MimeMultipart) mp.getBodyPart(0).getContent()).getBodyPart(0);
         ByteArrayOutputStream aos = new ByteArrayOutputStream();
@@ -129,8 +147,8 @@ class MailServiceIT {
         user.setLogin("john");
         user.setEmail("john.doe@example.com");
         mailService.sendEmailFromTemplate(user, "mail/testEmail", "email.test.title");
-        verify(javaMailSender).send(messageCaptor.capture());
-        MimeMessage message = messageCaptor.getValue();
+        verify(javaMailSender, timeout(SEND_TIMEOUT)).send(messagesCaptor.capture());
+        MimeMessage message = messagesCaptor.getValue()[0];
         assertThat(message.getSubject()).isEqualTo("test title");
         assertThat(message.getAllRecipients()[0]).hasToString(user.getEmail());
         assertThat(message.getFrom()[0]).hasToString(jHipsterProperties.getMail().getFrom());
@@ -145,8 +163,8 @@ class MailServiceIT {
         user.setLogin("john");
         user.setEmail("john.doe@example.com");
         mailService.sendActivationEmail(user);
-        verify(javaMailSender).send(messageCaptor.capture());
-        MimeMessage message = messageCaptor.getValue();
+        verify(javaMailSender, timeout(SEND_TIMEOUT)).send(messagesCaptor.capture());
+        MimeMessage message = messagesCaptor.getValue()[0];
         assertThat(message.getAllRecipients()[0]).hasToString(user.getEmail());
         assertThat(message.getFrom()[0]).hasToString(jHipsterProperties.getMail().getFrom());
         assertThat(message.getContent().toString()).isNotEmpty();
@@ -160,8 +178,8 @@ class MailServiceIT {
         user.setLogin("john");
         user.setEmail("john.doe@example.com");
         mailService.sendCreationEmail(user);
-        verify(javaMailSender).send(messageCaptor.capture());
-        MimeMessage message = messageCaptor.getValue();
+        verify(javaMailSender, timeout(SEND_TIMEOUT)).send(messagesCaptor.capture());
+        MimeMessage message = messagesCaptor.getValue()[0];
         assertThat(message.getAllRecipients()[0]).hasToString(user.getEmail());
         assertThat(message.getFrom()[0]).hasToString(jHipsterProperties.getMail().getFrom());
         assertThat(message.getContent().toString()).isNotEmpty();
@@ -175,8 +193,8 @@ class MailServiceIT {
         user.setLogin("john");
         user.setEmail("john.doe@example.com");
         mailService.sendPasswordResetMail(user);
-        verify(javaMailSender).send(messageCaptor.capture());
-        MimeMessage message = messageCaptor.getValue();
+        verify(javaMailSender, timeout(SEND_TIMEOUT)).send(messagesCaptor.capture());
+        MimeMessage message = messagesCaptor.getValue()[0];
         assertThat(message.getAllRecipients()[0]).hasToString(user.getEmail());
         assertThat(message.getFrom()[0]).hasToString(jHipsterProperties.getMail().getFrom());
         assertThat(message.getContent().toString()).isNotEmpty();
@@ -185,12 +203,31 @@ class MailServiceIT {
 
     @Test
     void testSendEmailWithException() {
-        doThrow(MailSendException.class).when(javaMailSender).send(any(MimeMessage.class));
+        doThrow(MailSendException.class).when(javaMailSender).send(any(MimeMessage[].class));
         try {
             mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", false, false);
         } catch (Exception e) {
             fail("Exception shouldn't have been thrown");
         }
+        verify(javaMailSender, timeout(SEND_TIMEOUT)).send(any(MimeMessage[].class));
+        assertThat(outgoingMailRepository.findAll())
+            .singleElement()
+            .satisfies(mail -> {
+                assertThat(mail.getAttempts()).isEqualTo(1);
+                assertThat(mail.getNextAttemptDate()).isAfter(Instant.now());
+            });
+    }
+
+    @Test
+    void testEmailIsNotSentWhenTransactionRollsBack() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> {
+            mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", false, false);
+            status.setRollbackOnly();
+        });
+
+        assertThat(outgoingMailRepository.count()).isZero();
+        verify(javaMailSender, after(SEND_TIMEOUT / 10).never()).send(any(MimeMessage[].class));
     }
 
     @Test
@@ -201,8 +238,8 @@ class MailServiceIT {
         for (String langKey : languages) {
             user.setLangKey(langKey);
             mailService.sendEmailFromTemplate(user, "mail/testEmail", "email.test.title");
-            verify(javaMailSender, atLeastOnce()).send(messageCaptor.capture());
-            MimeMessage message = messageCaptor.getValue();
+            verify(javaMailSender, timeout(SEND_TIMEOUT).atLeastOnce()).send(messagesCaptor.capture());
+            MimeMessage message = messagesCaptor.getValue()[0];
 
             String propertyFilePath = "i18n/messages_" + getMessageSourceSuffixForLanguage(langKey) + ".properties";
             URL resource = this.getClass().getClassLoader().getResource(propertyFilePath);
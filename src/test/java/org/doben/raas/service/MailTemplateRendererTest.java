@@ -0,0 +1,136 @@
+package org.doben.raas.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import org.doben.raas.domain.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.thymeleaf.ThymeleafProperties;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.MessageSource;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Unit tests for {@link MailTemplateRenderer}.
+ */
+class MailTemplateRendererTest {
+
+    private static final String BASE_URL = "http://127.0.0.1:8080";
+
+    private static final Locale LOCALE = Locale.ENGLISH;
+
+    private ResourceBundleMessageSource messageSource;
+
+    private SpringTemplateEngine templateEngine;
+
+    private MailTemplateRenderer renderer;
+
+    @BeforeEach
+    void setUp() {
+        messageSource = spy(new ResourceBundleMessageSource());
+        messageSource.setBasename("i18n/messages");
+        messageSource.setDefaultEncoding(StandardCharsets.UTF_8.name());
+        ClassLoaderTemplateResolver templateResolver = new ClassLoaderTemplateResolver();
+        templateResolver.setPrefix("templates/");
+        templateResolver.setSuffix(".html");
+        templateResolver.setTemplateMode(TemplateMode.HTML);
+        templateResolver.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+        templateEngine.setTemplateEngineMessageSource(messageSource);
+        renderer = new MailTemplateRenderer(templateEngine, messageSource, BASE_URL, true);
+    }
+
+    @Test
+    void testEveryMailTemplateRendersAsThymeleaf() throws Exception {
+        Set<String> templateNames = new TreeSet<>();
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources("classpath*:templates/mail/*.html")) {
+            templateNames.add("mail/" + resource.getFilename().substring(0, resource.getFilename().length() - ".html".length()));
+        }
+        assertThat(templateNames).contains("mail/activationEmail", "mail/creationEmail", "mail/passwordResetEmail");
+        User admin = user("jane", "activation\"key", "reset&key");
+        admin.setFirstName("Admin");
+
+        for (String templateName : templateNames) {
+            for (User user : new User[] { user("o'brien&<co>", "activation\"key", "reset&key"), user("john", null, null), admin }) {
+                // Twice, the second time from the cached template and the buffer size of the first one
+                assertThat(renderer.render(templateName, user, LOCALE)).as(templateName).isEqualTo(process(templateName, user));
+                assertThat(renderer.render(templateName, user, LOCALE)).as(templateName).isEqualTo(process(templateName, user));
+            }
+        }
+    }
+
+    @Test
+    void testTemplateIsRenderedForEachUser() {
+        renderer.render("mail/activationEmail", user("john", "key1", null), LOCALE);
+        User other = user("jane", "key2", null);
+
+        String content = renderer.render("mail/activationEmail", other, LOCALE);
+
+        assertThat(content).isEqualTo(process("mail/activationEmail", other)).contains("jane").contains("key2").doesNotContain("john");
+    }
+
+    @Test
+    void testRendererIsCreatedBySpring() {
+        new ApplicationContextRunner()
+            .withBean(SpringTemplateEngine.class, () -> templateEngine)
+            .withBean(MessageSource.class, () -> messageSource)
+            .withBean(JHipsterProperties.class)
+            .withBean(ThymeleafProperties.class)
+            .withBean(MailTemplateRenderer.class)
+            .run(context -> assertThat(context).hasNotFailed().hasSingleBean(MailTemplateRenderer.class));
+    }
+
+    @Test
+    void testSubjectIsResolvedOnce() {
+        assertThat(renderer.subject("email.test.title", LOCALE)).isEqualTo("test title");
+        assertThat(renderer.subject("email.test.title", LOCALE)).isEqualTo("test title");
+
+        verify(messageSource, times(1)).getMessage(eq("email.test.title"), any(), eq(LOCALE));
+    }
+
+    @Test
+    void testSubjectIsResolvedEachTimeWithoutCache() {
+        renderer = new MailTemplateRenderer(templateEngine, messageSource, BASE_URL, false);
+
+        assertThat(renderer.subject("email.test.title", LOCALE)).isEqualTo("test title");
+        assertThat(renderer.subject("email.test.title", LOCALE)).isEqualTo("test title");
+        User user = user("john", "key", null);
+        assertThat(renderer.render("mail/activationEmail", user, LOCALE)).isEqualTo(process("mail/activationEmail", user));
+
+        verify(messageSource, times(2)).getMessage(eq("email.test.title"), any(), eq(LOCALE));
+    }
+
+    private String process(String templateName, User user) {
+        Context context = new Context(LOCALE);
+        context.setVariable("user", user);
+        context.setVariable("baseUrl", BASE_URL);
+        return templateEngine.process(templateName, context);
+    }
+
+    private static User user(String login, String activationKey, String resetKey) {
+        User user = new User();
+        user.setLogin(login);
+        user.setEmail(login + "@example.com");
+        user.setLangKey("en");
+        user.setActivationKey(activationKey);
+        user.setResetKey(resetKey);
+        return user;
+    }
+}
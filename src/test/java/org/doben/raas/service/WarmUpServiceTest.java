@@ -0,0 +1,133 @@
+package org.doben.raas.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.net.InetAddress;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+import org.doben.raas.config.ApplicationProperties;
+import org.doben.raas.repository.AttendanceRepository;
+import org.doben.raas.repository.AuthorityRepository;
+import org.doben.raas.repository.PersonRepository;
+import org.doben.raas.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.server.Ssl;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Page;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Unit tests for {@link WarmUpService}.
+ */
+class WarmUpServiceTest {
+
+    private static final String WARMING_UP = "warming up";
+
+    private final List<Object> steps = new ArrayList<>();
+
+    private AuthorityRepository authorityRepository;
+
+    private UserRepository userRepository;
+
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        authorityRepository = mock(AuthorityRepository.class);
+        userRepository = mock(UserRepository.class);
+        dataSource = mock(DataSource.class);
+        when(userRepository.findAllByIdNotNullAndActivatedIsTrue(any())).thenReturn(Page.empty());
+    }
+
+    @Test
+    void testReadinessAcceptsTrafficOnlyOnceWarmedUp() {
+        when(authorityRepository.findAll())
+            .thenAnswer(invocation -> {
+                steps.add(WARMING_UP);
+                return List.of();
+            });
+
+        run().close();
+
+        assertThat(steps).contains(WARMING_UP, ReadinessState.ACCEPTING_TRAFFIC);
+        assertThat(steps.indexOf(WARMING_UP)).isLessThan(steps.indexOf(ReadinessState.ACCEPTING_TRAFFIC));
+    }
+
+    @Test
+    void testFailedWarmUpDoesNotPreventTheStartup() throws SQLException {
+        when(dataSource.getConnection()).thenThrow(new SQLException("Connection refused"));
+        when(authorityRepository.findAll()).thenThrow(new IllegalStateException("No database"));
+
+        run().close();
+
+        assertThat(steps).contains(ReadinessState.ACCEPTING_TRAFFIC);
+    }
+
+    @Test
+    void testBaseUrlFollowsTheServerSettings() throws Exception {
+        ServerProperties serverProperties = new ServerProperties();
+        assertThat(WarmUpService.baseUrl(serverProperties, 8080)).isEqualTo("http://localhost:8080");
+
+        Ssl ssl = new Ssl();
+        ssl.setEnabled(true);
+        serverProperties.setSsl(ssl);
+        serverProperties.getServlet().setContextPath("/raas");
+        serverProperties.setAddress(InetAddress.getByName("127.0.0.2"));
+
+        assertThat(WarmUpService.baseUrl(serverProperties, 8443)).isEqualTo("https://127.0.0.2:8443/raas");
+    }
+
+    private ConfigurableApplicationContext run() {
+        ApplicationListener<ApplicationEvent> readiness = event -> {
+            if (event instanceof AvailabilityChangeEvent<?> change && change.getState() instanceof ReadinessState) {
+                steps.add(change.getState());
+            }
+        };
+        return new SpringApplicationBuilder(WarmUpConfiguration.class)
+            .web(WebApplicationType.NONE)
+            .initializers(context -> {
+                context.getBeanFactory().registerSingleton("authorityRepository", authorityRepository);
+                context.getBeanFactory().registerSingleton("userRepository", userRepository);
+                context.getBeanFactory().registerSingleton("dataSource", dataSource);
+            })
+            .listeners(readiness)
+            .run();
+    }
+
+    @Configuration
+    static class WarmUpConfiguration {
+
+        @Bean
+        WarmUpService warmUpService(AuthorityRepository authorityRepository, UserRepository userRepository, DataSource dataSource) {
+            ApplicationProperties applicationProperties = new ApplicationProperties();
+            applicationProperties.getWarmUp().setEnabled(true);
+            return new WarmUpService(
+                applicationProperties,
+                authorityRepository,
+                userRepository,
+                mock(AttendanceRepository.class),
+                mock(PersonRepository.class),
+                dataSource,
+                mock(JwtEncoder.class),
+                mock(PlatformTransactionManager.class),
+                new ServerProperties()
+            );
+        }
+    }
+}
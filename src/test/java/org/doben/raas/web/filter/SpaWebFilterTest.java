@@ -0,0 +1,48 @@
+package org.doben.raas.web.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the route classification of {@link SpaWebFilter}.
+ */
+class SpaWebFilterTest {
+
+    private final SpaWebFilter filter = new SpaWebFilter(List.of("/api", "/management", "/v3/api-docs", "/h2-console"));
+
+    @Test
+    void testClientRoutes() {
+        assertThat(filter.isClientRoute("/", 0)).isTrue();
+        assertThat(filter.isClientRoute("/first-level/second-level", 0)).isTrue();
+        assertThat(filter.isClientRoute("/ap", 0)).isTrue();
+        assertThat(filter.isClientRoute("/v3/api", 0)).isTrue();
+    }
+
+    @Test
+    void testExcludedRoots() {
+        assertThat(filter.isClientRoute("/api", 0)).isFalse();
+        assertThat(filter.isClientRoute("/api/people", 0)).isFalse();
+        assertThat(filter.isClientRoute("/apidocs", 0)).isFalse();
+        assertThat(filter.isClientRoute("/management/health", 0)).isFalse();
+        assertThat(filter.isClientRoute("/v3/api-docs/swagger-config", 0)).isFalse();
+        assertThat(filter.isClientRoute("/h2-console", 0)).isFalse();
+    }
+
+    @Test
+    void testFilesAndOtherPaths() {
+        assertThat(filter.isClientRoute("/main.js", 0)).isFalse();
+        assertThat(filter.isClientRoute("/foo/bar.js", 0)).isFalse();
+        assertThat(filter.isClientRoute("", 0)).isFalse();
+        assertThat(filter.isClientRoute("foo", 0)).isFalse();
+        assertThat(filter.isClientRoute("/foo\nbar", 0)).isFalse();
+    }
+
+    @Test
+    void testContextPathIsSkipped() {
+        assertThat(filter.isClientRoute("/raas/api/people", "/raas".length())).isFalse();
+        assertThat(filter.isClientRoute("/raas/people", "/raas".length())).isTrue();
+        assertThat(filter.isClientRoute("/raas", "/raas".length())).isFalse();
+    }
+}
@@ -0,0 +1,150 @@
+package org.doben.raas.web.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.web.header.writers.ContentSecurityPolicyHeaderWriter;
+import org.springframework.security.web.header.writers.HstsHeaderWriter;
+import org.springframework.security.web.header.writers.XContentTypeOptionsHeaderWriter;
+
+/**
+ * Unit tests for {@link StaticAssetsFilter}.
+ */
+class StaticAssetsFilterTest {
+
+    private static final String ASSET = "/main.0123456789abcdef.js";
+
+    private static final String CONTENT = "console.log('raas');".repeat(100);
+
+    private static final String CONTENT_SECURITY_POLICY = "default-src 'self'";
+
+    @TempDir
+    Path staticDir;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        meterRegistry = new SimpleMeterRegistry();
+        Files.writeString(staticDir.resolve(ASSET.substring(1)), CONTENT);
+        Files.write(staticDir.resolve(ASSET.substring(1) + ".gz"), gzip(CONTENT));
+        Files.writeString(staticDir.resolve("index.html"), "<html></html>");
+    }
+
+    @Test
+    void testGzipVariantIsServedWithoutCallingTheChain() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", ASSET);
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter(1024 * 1024).doFilter(request, response, chain);
+
+        assertThat(chain.getRequest()).isNull();
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(response.getHeader(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).contains("immutable");
+        assertThat(response.getContentType()).isEqualTo("application/javascript");
+        assertThat(response.getContentAsByteArray()).isEqualTo(gzip(CONTENT));
+        assertThat(
+            meterRegistry.get(StaticAssetsFilter.REQUESTS_METER_NAME).tag("encoding", "gzip").tag("status", "200").counter().count()
+        )
+            .isEqualTo(1);
+    }
+
+    @Test
+    void testIdentityIsServedWhenGzipIsNotAccepted() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", ASSET);
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "br, gzip;q=0");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter(0).doFilter(request, response, new MockFilterChain());
+
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(response.getContentAsString()).isEqualTo(CONTENT);
+        assertThat(response.getContentLength()).isEqualTo(CONTENT.length());
+    }
+
+    @Test
+    void testNotModifiedWhenTheEtagMatches() throws Exception {
+        StaticAssetsFilter filter = filter(0);
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", ASSET), first, new MockFilterChain());
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", ASSET);
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, first.getHeader(HttpHeaders.ETAG));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain());
+
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getContentLength()).isZero();
+    }
+
+    @Test
+    void testSecurityHeadersAreWritten() throws Exception {
+        StaticAssetsFilter filter = filter(0);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", ASSET);
+        request.setSecure(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain());
+
+        assertThat(response.getHeader("X-Content-Type-Options")).isEqualTo("nosniff");
+        assertThat(response.getHeader("Strict-Transport-Security")).startsWith("max-age=");
+        assertThat(response.getHeader("Content-Security-Policy")).isEqualTo(CONTENT_SECURITY_POLICY);
+    }
+
+    @Test
+    void testOtherRequestsGoThroughTheChain() throws Exception {
+        StaticAssetsFilter filter = filter(0);
+        for (MockHttpServletRequest request : new MockHttpServletRequest[] {
+            new MockHttpServletRequest("GET", "/index.html"),
+            new MockHttpServletRequest("GET", "/api/people"),
+            new MockHttpServletRequest("POST", ASSET),
+        }) {
+            MockFilterChain chain = new MockFilterChain();
+
+            filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+            assertThat(chain.getRequest()).isSameAs(request);
+        }
+    }
+
+    private StaticAssetsFilter filter(long memoryBudget) throws Exception {
+        return new StaticAssetsFilter(
+            staticDir.toUri().toString(),
+            Duration.ofDays(365),
+            memoryBudget,
+            List.of(
+                new XContentTypeOptionsHeaderWriter(),
+                new HstsHeaderWriter(),
+                new ContentSecurityPolicyHeaderWriter(CONTENT_SECURITY_POLICY)
+            ),
+            new PathMatchingResourcePatternResolver(),
+            meterRegistry
+        );
+    }
+
+    private static byte[] gzip(String content) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return out.toByteArray();
+    }
+}
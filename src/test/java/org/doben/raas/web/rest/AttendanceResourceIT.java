@@ -1,7 +1,11 @@
 package org.doben.raas.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.everyItem;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -17,13 +21,17 @@ import org.doben.raas.domain.Person;
 import org.doben.raas.domain.enumeration.HowMany;
 import org.doben.raas.domain.enumeration.Place;
 import org.doben.raas.repository.AttendanceRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -147,6 +155,37 @@ class AttendanceResourceIT {
         assertThat(attendanceList).hasSize(databaseSizeBeforeCreate);
     }
 
+    @Test
+    @Transactional
+    void bulkImportAttendancesFromCsv() throws Exception {
+        int databaseSizeBeforeImport = attendanceRepository.findAll().size();
+        String body =
+            "id;date_time;place;how_many\n" +
+            "1;2023-10-19T01:36:10;TERRITORY;INDIVIDUAL\n" +
+            "2;not-a-date;TERRITORY;GROUP\n" +
+            "3;2023-10-19T01:12:17Z;INSTITUTION;GROUP\n";
+
+        restAttendanceMockMvc
+            .perform(post(ENTITY_API_URL + "/bulk").contentType("text/csv").content(body))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.rowsRead").value(3))
+            .andExpect(jsonPath("$.imported").value(2))
+            .andExpect(jsonPath("$.failed").value(1))
+            .andExpect(jsonPath("$.chunks[0].imported").value(2))
+            .andExpect(jsonPath("$.errors[0].row").value(3));
+
+        // Validate the Attendance in the database
+        assertThat(attendanceRepository.findAll()).hasSize(databaseSizeBeforeImport + 2);
+    }
+
+    @Test
+    @Transactional
+    void bulkImportAttendancesWithUnsupportedContentType() throws Exception {
+        restAttendanceMockMvc
+            .perform(post(ENTITY_API_URL + "/bulk").contentType(MediaType.APPLICATION_XML).content("<attendance/>"))
+            .andExpect(status().isUnsupportedMediaType());
+    }
+
     @Test
     @Transactional
     void getAllAttendances() throws Exception {
@@ -164,6 +203,229 @@ class AttendanceResourceIT {
             .andExpect(jsonPath("$.[*].howMany").value(hasItem(DEFAULT_HOW_MANY.toString())));
     }
 
+    @Test
+    @Transactional
+    void getAllAttendancesWithKeysetPagination() throws Exception {
+        // Initialize the database
+        attendanceRepository.saveAndFlush(attendance);
+        attendanceRepository.saveAndFlush(new Attendance().dateTime(UPDATED_DATE_TIME).place(UPDATED_PLACE).howMany(UPDATED_HOW_MANY));
+
+        // Get the first slice, newest first
+        String next = restAttendanceMockMvc
+            .perform(get(ENTITY_API_URL + "?after=&size=1"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(header().string("X-Has-Next", "true"))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].dateTime").value(UPDATED_DATE_TIME.toString()))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.LINK);
+        assertThat(next).contains("rel=\"next\"");
+
+        // Follow the cursor
+        String nextUrl = next.substring(next.indexOf('<') + 1, next.indexOf('>'));
+        restAttendanceMockMvc
+            .perform(get(nextUrl))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(attendance.getId().intValue()));
+    }
+
+    @Test
+    @Transactional
+    void getAllAttendancesWithInvalidCursor() throws Exception {
+        restAttendanceMockMvc.perform(get(ENTITY_API_URL + "?after=not-a-cursor")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void exportAttendancesAsCsv() throws Exception {
+        MvcResult result = restAttendanceMockMvc
+            .perform(get(ENTITY_API_URL + "/export?format=csv&from=2023-10-01T00:00:00Z"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        restAttendanceMockMvc
+            .perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().string(startsWith("id;date_time;place;how_many\n")))
+            .andExpect(content().contentType("text/csv"))
+            .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"attendances.csv\""));
+    }
+
+    @Test
+    @Transactional
+    void exportAttendancesWithUnsupportedFormat() throws Exception {
+        restAttendanceMockMvc.perform(get(ENTITY_API_URL + "/export?format=xml")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getAttendanceAnalytics() throws Exception {
+        restAttendanceMockMvc
+            .perform(get(ENTITY_API_URL + "/analytics/hour-of-day?zone=America/Sao_Paulo&place=" + DEFAULT_PLACE))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(24));
+        restAttendanceMockMvc
+            .perform(get(ENTITY_API_URL + "/analytics/weekday"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.MONDAY").isNumber());
+        restAttendanceMockMvc
+            .perform(get(ENTITY_API_URL + "/analytics/patient-age?bandWidth=25"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.['0-24']").isNumber())
+            .andExpect(jsonPath("$.['100+']").isNumber());
+    }
+
+    @Test
+    @Transactional
+    void getAttendanceAnalyticsWithInvalidBandWidth() throws Exception {
+        restAttendanceMockMvc.perform(get(ENTITY_API_URL + "/analytics/patient-age?bandWidth=0")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getAllAttendancesWithEagerRelationshipsInConstantQueries() throws Exception {
+        // Initialize the database with 100 attendances, each with its own professional and patient
+        for (int i = 0; i < 100; i++) {
+            Attendance pageAttendance = new Attendance().dateTime(DEFAULT_DATE_TIME).place(DEFAULT_PLACE).howMany(DEFAULT_HOW_MANY);
+            em.persist(pageAttendance);
+            em.persist(PersonResourceIT.createEntity(em).attendancesAsProfessional(pageAttendance));
+            em.persist(PersonResourceIT.createEntity(em).attendancesAsPatient(pageAttendance));
+        }
+        em.flush();
+        em.clear();
+
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        try {
+            for (int size : new int[] { 100, 10 }) {
+                em.clear();
+                statistics.clear();
+
+                restAttendanceMockMvc
+                    .perform(get(ENTITY_API_URL + "?eagerload=true&sort=id,desc&size=" + size))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(size))
+                    .andExpect(jsonPath("$.[*].professionals.length()").value(everyItem(is(1))))
+                    .andExpect(jsonPath("$.[*].patients.length()").value(everyItem(is(1))));
+
+                // The page, its count and one batch per collection, whatever the size of the page
+                assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(4);
+            }
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+
+    @Test
+    @Transactional
+    void getAttendanceWithEagerRelationships() throws Exception {
+        // Initialize the database
+        attendanceRepository.saveAndFlush(attendance);
+        Person person = attendance.getProfessionals().iterator().next();
+        person.setAttendancesAsProfessional(attendance);
+        person.setAttendancesAsPatient(attendance);
+        em.flush();
+        em.clear();
+
+        restAttendanceMockMvc
+            .perform(get(ENTITY_API_URL_ID + "?eagerload=true", attendance.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.professionals.[*].id").value(hasItem(person.getId().intValue())))
+            .andExpect(jsonPath("$.patients.[*].id").value(hasItem(person.getId().intValue())));
+    }
+
+    @Test
+    @Transactional
+    void getAllAttendancesWithCursorAndEagerRelationships() throws Exception {
+        restAttendanceMockMvc.perform(get(ENTITY_API_URL + "?after=&eagerload=true")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getAllAttendancesByFilter() throws Exception {
+        // Initialize the database
+        attendanceRepository.saveAndFlush(attendance);
+
+        String range = "&from=" + DEFAULT_DATE_TIME + "&to=" + DEFAULT_DATE_TIME.plusSeconds(1);
+
+        // Get the attendances matching the filters
+        restAttendanceMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc&place=" + DEFAULT_PLACE + "&howMany=" + DEFAULT_HOW_MANY + range))
+            .andExpect(status().isOk())
+            .andExpect(header().exists("X-Total-Count"))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(attendance.getId().intValue())));
+
+        // Get the attendances not matching the filters
+        restAttendanceMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc&place=" + UPDATED_PLACE + range))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(not(hasItem(attendance.getId().intValue()))));
+    }
+
+    @Test
+    @Transactional
+    void getAllAttendancesWithInvalidRange() throws Exception {
+        restAttendanceMockMvc
+            .perform(get(ENTITY_API_URL + "?from=" + UPDATED_DATE_TIME + "&to=" + DEFAULT_DATE_TIME))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getAttendancePatients() throws Exception {
+        // Initialize the database
+        attendanceRepository.saveAndFlush(attendance);
+        Person patient = PersonResourceIT.createEntity(em).attendancesAsPatient(attendance);
+        em.persist(patient);
+        em.flush();
+
+        restAttendanceMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/patients", attendance.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(hasItem(patient.getId().intValue())));
+
+        restAttendanceMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/professionals", attendance.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(not(hasItem(patient.getId().intValue()))));
+    }
+
+    @Test
+    @Transactional
+    void getAttendanceStatistics() throws Exception {
+        // Create the Attendance, counted in the rollup
+        restAttendanceMockMvc
+            .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(attendance)))
+            .andExpect(status().isCreated());
+
+        restAttendanceMockMvc
+            .perform(get(ENTITY_API_URL + "/stats?granularity=MONTH&from=1970-01-01&to=1970-12-31"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].period").value("1970-01-01"))
+            .andExpect(jsonPath("$.[0].place").value(DEFAULT_PLACE.toString()))
+            .andExpect(jsonPath("$.[0].howMany").value(DEFAULT_HOW_MANY.toString()))
+            .andExpect(jsonPath("$.[0].count").value(1));
+
+        // Move the Attendance to another month
+        Attendance movedAttendance = attendanceRepository.findAll().get(attendanceRepository.findAll().size() - 1);
+        restAttendanceMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, movedAttendance.getId())
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(new Attendance().id(movedAttendance.getId()).dateTime(UPDATED_DATE_TIME)))
+            )
+            .andExpect(status().isOk());
+
+        restAttendanceMockMvc
+            .perform(get(ENTITY_API_URL + "/stats?granularity=MONTH&from=1970-01-01&to=1970-12-31"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(0));
+    }
+
     @Test
     @Transactional
     void getAttendance() throws Exception {
@@ -188,6 +450,59 @@ class AttendanceResourceIT {
         restAttendanceMockMvc.perform(get(ENTITY_API_URL_ID, Long.MAX_VALUE)).andExpect(status().isNotFound());
     }
 
+    @Test
+    @Transactional
+    void getAttendanceNotModified() throws Exception {
+        // Initialize the database
+        attendanceRepository.saveAndFlush(attendance);
+
+        String eTag = restAttendanceMockMvc
+            .perform(get(ENTITY_API_URL_ID, attendance.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + attendance.getVersion() + "\""))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        restAttendanceMockMvc
+            .perform(get(ENTITY_API_URL_ID, attendance.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+
+        // The participants are not covered by the version of the attendance
+        restAttendanceMockMvc
+            .perform(get(ENTITY_API_URL_ID + "?eagerload=true", attendance.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    }
+
+    @Test
+    @Transactional
+    void getAllAttendancesNotModified() throws Exception {
+        // Initialize the database
+        attendanceRepository.saveAndFlush(attendance);
+
+        String eTag = restAttendanceMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc"))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).startsWith("W/");
+
+        restAttendanceMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc").header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified());
+
+        // Any update of the page changes its tag
+        attendance.setPlace(UPDATED_PLACE);
+        attendanceRepository.saveAndFlush(attendance);
+
+        restAttendanceMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc").header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk());
+    }
+
     @Test
     @Transactional
     void putExistingAttendance() throws Exception {
@@ -219,6 +534,57 @@ class AttendanceResourceIT {
         assertThat(testAttendance.getHowMany()).isEqualTo(UPDATED_HOW_MANY);
     }
 
+    @Test
+    @Transactional
+    void putAttendanceWithStaleIfMatch() throws Exception {
+        // Initialize the database
+        attendanceRepository.saveAndFlush(attendance);
+        String staleETag = "\"" + (attendance.getVersion() - 1) + "\"";
+
+        Attendance updatedAttendance = attendanceRepository.findById(attendance.getId()).orElseThrow();
+        em.detach(updatedAttendance);
+        updatedAttendance.place(UPDATED_PLACE);
+
+        restAttendanceMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, updatedAttendance.getId())
+                    .header(HttpHeaders.IF_MATCH, staleETag)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(updatedAttendance))
+            )
+            .andExpect(status().isPreconditionFailed());
+
+        assertThat(attendanceRepository.findById(attendance.getId()).orElseThrow().getPlace()).isEqualTo(DEFAULT_PLACE);
+    }
+
+    @Test
+    @Transactional
+    void putAttendanceChangedAfterTheIfMatchCheck() throws Exception {
+        // Initialize the database
+        attendanceRepository.saveAndFlush(attendance);
+        Long version = attendance.getVersion();
+        // Another transaction updates the attendance once If-Match is checked, while the persistence context keeps
+        // the previous version
+        em
+            .createNativeQuery("update attendance set version = version + 1 where id = :id")
+            .setParameter("id", attendance.getId())
+            .executeUpdate();
+
+        Attendance updatedAttendance = new Attendance();
+        updatedAttendance.setId(attendance.getId());
+        updatedAttendance.setVersion(version + 1);
+        updatedAttendance.dateTime(DEFAULT_DATE_TIME).place(UPDATED_PLACE).howMany(DEFAULT_HOW_MANY);
+
+        restAttendanceMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, updatedAttendance.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"" + (version + 1) + "\"")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(updatedAttendance))
+            )
+            .andExpect(status().isPreconditionFailed());
+    }
+
     @Test
     @Transactional
     void putNonExistingAttendance() throws Exception {
@@ -337,20 +703,93 @@ class AttendanceResourceIT {
         assertThat(testAttendance.getHowMany()).isEqualTo(UPDATED_HOW_MANY);
     }
 
+    @Test
+    @Transactional
+    void partialUpdateAttendanceInASingleStatement() throws Exception {
+        // Initialize the database
+        attendanceRepository.saveAndFlush(attendance);
+        Instant sameDay = DEFAULT_DATE_TIME.plus(1, ChronoUnit.HOURS);
+
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        try {
+            statistics.clear();
+
+            // The attendance is at hand, as it is when in the second-level cache, and stays in its daily count
+            restAttendanceMockMvc
+                .perform(
+                    patch(ENTITY_API_URL_ID, attendance.getId())
+                        .contentType("application/merge-patch+json")
+                        .content("{\"id\":" + attendance.getId() + ",\"dateTime\":\"" + sameDay + "\"}")
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.dateTime").value(sameDay.toString()))
+                .andExpect(jsonPath("$.place").value(DEFAULT_PLACE.toString()));
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+
+    @Test
+    @Transactional
+    void patchAttendanceWithStaleIfMatch() throws Exception {
+        // Initialize the database
+        attendanceRepository.saveAndFlush(attendance);
+
+        Attendance partialUpdatedAttendance = new Attendance();
+        partialUpdatedAttendance.setId(attendance.getId());
+        partialUpdatedAttendance.place(UPDATED_PLACE);
+
+        restAttendanceMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, partialUpdatedAttendance.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"" + (attendance.getVersion() + 1) + "\"")
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(partialUpdatedAttendance))
+            )
+            .andExpect(status().isPreconditionFailed());
+
+        assertThat(attendanceRepository.findById(attendance.getId()).orElseThrow().getPlace()).isEqualTo(DEFAULT_PLACE);
+    }
+
+    @Test
+    @Transactional
+    void patchAttendanceWithStaleVersion() throws Exception {
+        // Initialize the database
+        attendanceRepository.saveAndFlush(attendance);
+
+        Attendance partialUpdatedAttendance = new Attendance();
+        partialUpdatedAttendance.setId(attendance.getId());
+        partialUpdatedAttendance.setVersion(attendance.getVersion() + 1);
+        partialUpdatedAttendance.place(UPDATED_PLACE);
+
+        // The attendance exists, but no longer has the version sent
+        restAttendanceMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, partialUpdatedAttendance.getId())
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(partialUpdatedAttendance))
+            )
+            .andExpect(status().isConflict());
+
+        assertThat(attendanceRepository.findById(attendance.getId()).orElseThrow().getPlace()).isEqualTo(DEFAULT_PLACE);
+    }
+
     @Test
     @Transactional
     void patchNonExistingAttendance() throws Exception {
         int databaseSizeBeforeUpdate = attendanceRepository.findAll().size();
         attendance.setId(count.incrementAndGet());
 
-        // If the entity doesn't have an ID, it will throw BadRequestAlertException
+        // The update statement matches no row
         restAttendanceMockMvc
             .perform(
                 patch(ENTITY_API_URL_ID, attendance.getId())
                     .contentType("application/merge-patch+json")
                     .content(TestUtil.convertObjectToJsonBytes(attendance))
             )
-            .andExpect(status().isBadRequest());
+            .andExpect(status().isNotFound());
 
         // Validate the Attendance in the database
         List<Attendance> attendanceList = attendanceRepository.findAll();
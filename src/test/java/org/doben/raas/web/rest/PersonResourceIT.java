@@ -14,10 +14,13 @@ import java.util.concurrent.atomic.AtomicLong;
 import org.doben.raas.IntegrationTest;
 import org.doben.raas.domain.Person;
 import org.doben.raas.repository.PersonRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -175,6 +178,27 @@ class PersonResourceIT {
         assertThat(personList).hasSize(databaseSizeBeforeTest);
     }
 
+    @Test
+    @Transactional
+    void bulkImportPeopleFromNdjson() throws Exception {
+        int databaseSizeBeforeImport = personRepository.findAll().size();
+        String body =
+            "{\"name\":\"AAAAAAAAAA\",\"motherName\":\"AAAAAAAAAA\",\"birthdate\":\"1970-01-01\"}\n" +
+            "{\"name\":\"AAAAAAAAAA\"}\n" +
+            "{\"name\":\"BBBBBBBBBB\",\"motherName\":\"BBBBBBBBBB\",\"birthdate\":\"1970-01-02\",\"email\":\"BBBBBBBBBB\"}\n";
+
+        restPersonMockMvc
+            .perform(post(ENTITY_API_URL + "/bulk").contentType("application/x-ndjson").content(body))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.rowsRead").value(3))
+            .andExpect(jsonPath("$.imported").value(2))
+            .andExpect(jsonPath("$.failed").value(1))
+            .andExpect(jsonPath("$.errors[0].row").value(2));
+
+        // Validate the Person in the database
+        assertThat(personRepository.findAll()).hasSize(databaseSizeBeforeImport + 2);
+    }
+
     @Test
     @Transactional
     void getAllPeople() throws Exception {
@@ -193,6 +217,21 @@ class PersonResourceIT {
             .andExpect(jsonPath("$.[*].email").value(hasItem(DEFAULT_EMAIL)));
     }
 
+    @Test
+    @Transactional
+    void getAllPeopleWithKeysetPagination() throws Exception {
+        // Initialize the database
+        personRepository.saveAndFlush(person);
+
+        // Get the first slice, newest first
+        restPersonMockMvc
+            .perform(get(ENTITY_API_URL + "?after=&size=1"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(person.getId().intValue()));
+    }
+
     @Test
     @Transactional
     void getPerson() throws Exception {
@@ -218,6 +257,53 @@ class PersonResourceIT {
         restPersonMockMvc.perform(get(ENTITY_API_URL_ID, Long.MAX_VALUE)).andExpect(status().isNotFound());
     }
 
+    @Test
+    @Transactional
+    void getPersonNotModified() throws Exception {
+        // Initialize the database
+        personRepository.saveAndFlush(person);
+
+        String eTag = restPersonMockMvc
+            .perform(get(ENTITY_API_URL_ID, person.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + person.getVersion() + "\""))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        restPersonMockMvc
+            .perform(get(ENTITY_API_URL_ID, person.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+    }
+
+    @Test
+    @Transactional
+    void getAllPeopleNotModified() throws Exception {
+        // Initialize the database
+        personRepository.saveAndFlush(person);
+
+        String eTag = restPersonMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc"))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).startsWith("W/");
+
+        restPersonMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc").header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified());
+
+        // Any update of the page changes its tag
+        person.setName(UPDATED_NAME);
+        personRepository.saveAndFlush(person);
+
+        restPersonMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc").header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk());
+    }
+
     @Test
     @Transactional
     void putExistingPerson() throws Exception {
@@ -250,6 +336,53 @@ class PersonResourceIT {
         assertThat(testPerson.getEmail()).isEqualTo(UPDATED_EMAIL);
     }
 
+    @Test
+    @Transactional
+    void putPersonWithStaleIfMatch() throws Exception {
+        // Initialize the database
+        personRepository.saveAndFlush(person);
+        String staleETag = "\"" + (person.getVersion() - 1) + "\"";
+
+        Person updatedPerson = personRepository.findById(person.getId()).orElseThrow();
+        em.detach(updatedPerson);
+        updatedPerson.name(UPDATED_NAME);
+
+        restPersonMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, updatedPerson.getId())
+                    .header(HttpHeaders.IF_MATCH, staleETag)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(updatedPerson))
+            )
+            .andExpect(status().isPreconditionFailed());
+
+        assertThat(personRepository.findById(person.getId()).orElseThrow().getName()).isEqualTo(DEFAULT_NAME);
+    }
+
+    @Test
+    @Transactional
+    void putPersonChangedAfterTheIfMatchCheck() throws Exception {
+        // Initialize the database
+        personRepository.saveAndFlush(person);
+        Long version = person.getVersion();
+        // Another transaction updates the person once If-Match is checked, the persistence context keeping the previous version
+        em.createNativeQuery("update person set version = version + 1 where id = :id").setParameter("id", person.getId()).executeUpdate();
+
+        Person updatedPerson = new Person();
+        updatedPerson.setId(person.getId());
+        updatedPerson.setVersion(version + 1);
+        updatedPerson.name(UPDATED_NAME).motherName(DEFAULT_MOTHER_NAME).birthdate(DEFAULT_BIRTHDATE);
+
+        restPersonMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, updatedPerson.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"" + (version + 1) + "\"")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(updatedPerson))
+            )
+            .andExpect(status().isPreconditionFailed());
+    }
+
     @Test
     @Transactional
     void putNonExistingPerson() throws Exception {
@@ -370,20 +503,107 @@ class PersonResourceIT {
         assertThat(testPerson.getEmail()).isEqualTo(UPDATED_EMAIL);
     }
 
+    @Test
+    @Transactional
+    void partialUpdatePersonInASingleStatement() throws Exception {
+        // Initialize the database
+        personRepository.saveAndFlush(person);
+        Long version = person.getVersion();
+
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        try {
+            statistics.clear();
+
+            // The person is at hand, as it is when in the second-level cache: only the update is run
+            restPersonMockMvc
+                .perform(
+                    patch(ENTITY_API_URL_ID, person.getId())
+                        .contentType("application/merge-patch+json")
+                        .content("{\"id\":" + person.getId() + ",\"name\":\"" + UPDATED_NAME + "\"}")
+                )
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + (version + 1) + "\""))
+                .andExpect(jsonPath("$.name").value(UPDATED_NAME))
+                .andExpect(jsonPath("$.motherName").value(DEFAULT_MOTHER_NAME));
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+            // Otherwise, it is read first
+            em.clear();
+            statistics.clear();
+
+            restPersonMockMvc
+                .perform(
+                    patch(ENTITY_API_URL_ID, person.getId())
+                        .contentType("application/merge-patch+json")
+                        .content("{\"id\":" + person.getId() + ",\"motherName\":\"" + UPDATED_MOTHER_NAME + "\"}")
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value(UPDATED_NAME))
+                .andExpect(jsonPath("$.motherName").value(UPDATED_MOTHER_NAME));
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+
+    @Test
+    @Transactional
+    void patchPersonWithStaleIfMatch() throws Exception {
+        // Initialize the database
+        personRepository.saveAndFlush(person);
+
+        Person partialUpdatedPerson = new Person();
+        partialUpdatedPerson.setId(person.getId());
+        partialUpdatedPerson.name(UPDATED_NAME);
+
+        restPersonMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, partialUpdatedPerson.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"" + (person.getVersion() + 1) + "\"")
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(partialUpdatedPerson))
+            )
+            .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    @Transactional
+    void patchPersonWithStaleVersion() throws Exception {
+        // Initialize the database
+        personRepository.saveAndFlush(person);
+
+        Person partialUpdatedPerson = new Person();
+        partialUpdatedPerson.setId(person.getId());
+        partialUpdatedPerson.setVersion(person.getVersion() + 1);
+        partialUpdatedPerson.name(UPDATED_NAME);
+
+        // The update statement matches no row, but the person exists
+        restPersonMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, partialUpdatedPerson.getId())
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(partialUpdatedPerson))
+            )
+            .andExpect(status().isConflict());
+
+        assertThat(personRepository.findById(person.getId()).orElseThrow().getName()).isEqualTo(DEFAULT_NAME);
+    }
+
     @Test
     @Transactional
     void patchNonExistingPerson() throws Exception {
         int databaseSizeBeforeUpdate = personRepository.findAll().size();
         person.setId(count.incrementAndGet());
 
-        // If the entity doesn't have an ID, it will throw BadRequestAlertException
+        // The update statement matches no row
         restPersonMockMvc
             .perform(
                 patch(ENTITY_API_URL_ID, person.getId())
                     .contentType("application/merge-patch+json")
                     .content(TestUtil.convertObjectToJsonBytes(person))
             )
-            .andExpect(status().isBadRequest());
+            .andExpect(status().isNotFound());
 
         // Validate the Person in the database
         List<Person> personList = personRepository.findAll();
@@ -0,0 +1,110 @@
+package org.doben.raas.config;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Marker;
+import org.springframework.boot.ansi.AnsiColor;
+
+/**
+ * Benchmark of {@link CRLFLogConverter} against the former converter, replacing the CRLF characters with a regular
+ * expression on every line. Run with the {@code -prof gc} option to compare their allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CRLFLogConverterBenchmark {
+
+    @Param({ "clean", "crlf", "safe" })
+    private String line;
+
+    private CRLFLogConverter converter;
+
+    private CRLFLogConverter regexConverter;
+
+    private LoggingEvent event;
+
+    private String message;
+
+    @Setup
+    public void setUp() {
+        converter = withRedReplacement(new CRLFLogConverter());
+        regexConverter = withRedReplacement(new RegexCRLFLogConverter());
+        event = new LoggingEvent();
+        event.setLoggerName("safe".equals(line) ? "org.hibernate.SQL" : "org.doben.raas.web.rest.AttendanceResource");
+        message =
+            "crlf".equals(line)
+                ? "REST request to save Attendance : Attendance{id=1, description='first line\nsecond line'}"
+                : "REST request to get a page of Attendances : Page request [number: 0, size 20, sort: id: ASC]";
+    }
+
+    @Benchmark
+    public String transform() {
+        return converter.transform(event, message);
+    }
+
+    @Benchmark
+    public String regexTransform() {
+        return regexConverter.transform(event, message);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CRLFLogConverterBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    private static CRLFLogConverter withRedReplacement(CRLFLogConverter converter) {
+        converter.setOptionList(List.of("red"));
+        return converter;
+    }
+
+    /**
+     * The former converter.
+     */
+    private static class RegexCRLFLogConverter extends CRLFLogConverter {
+
+        private static final String[] SAFE_LOGGERS = {
+            "org.hibernate",
+            "org.springframework.boot.autoconfigure",
+            "org.springframework.boot.diagnostics",
+        };
+
+        @Override
+        protected String transform(ILoggingEvent event, String in) {
+            AnsiColor element = "red".equals(getFirstOption()) ? AnsiColor.RED : null;
+            List<Marker> markers = event.getMarkerList();
+            if ((markers != null && !markers.isEmpty() && markers.get(0).contains(CRLF_SAFE_MARKER)) || isLoggerSafe(event)) {
+                return in;
+            }
+            String replacement = element == null ? "_" : toAnsiString("_", element);
+            return in.replaceAll("[\n\r\t]", replacement);
+        }
+
+        @Override
+        protected boolean isLoggerSafe(ILoggingEvent event) {
+            for (String safeLogger : SAFE_LOGGERS) {
+                if (event.getLoggerName().startsWith(safeLogger)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
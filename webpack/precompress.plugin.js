@@ -0,0 +1,51 @@
+const zlib = require('zlib');
+const { promisify } = require('util');
+const webpack = require('webpack');
+
+const gzip = promisify(zlib.gzip);
+const brotliCompress = promisify(zlib.brotliCompress);
+
+const COMPRESSIBLE = /\.(js|css|html|json|svg|txt|ttf|eot)$/;
+const MIN_SIZE = 1024;
+
+/**
+ * Emits a Brotli (.br) and a gzip (.gz) variant of each compressible asset, served as is by the back end
+ * (see StaticAssetsFilter and StaticResourcesWebConfiguration) instead of compressing the asset on every request.
+ * A variant is only emitted when it is smaller than the asset.
+ */
+module.exports = class PrecompressPlugin {
+  apply(compiler) {
+    compiler.hooks.thisCompilation.tap('PrecompressPlugin', compilation => {
+      compilation.hooks.processAssets.tapPromise(
+        { name: 'PrecompressPlugin', stage: webpack.Compilation.PROCESS_ASSETS_STAGE_OPTIMIZE_TRANSFER },
+        async assets => {
+          await Promise.all(
+            Object.keys(assets)
+              .filter(name => COMPRESSIBLE.test(name))
+              .map(async name => {
+                const source = compilation.getAsset(name).source.buffer();
+                if (source.length < MIN_SIZE) {
+                  return;
+                }
+                const [brotli, gzipped] = await Promise.all([
+                  brotliCompress(source, {
+                    params: {
+                      [zlib.constants.BROTLI_PARAM_QUALITY]: zlib.constants.BROTLI_MAX_QUALITY,
+                      [zlib.constants.BROTLI_PARAM_SIZE_HINT]: source.length,
+                    },
+                  }),
+                  gzip(source, { level: zlib.constants.Z_BEST_COMPRESSION }),
+                ]);
+                if (brotli.length < source.length) {
+                  compilation.emitAsset(`${name}.br`, new webpack.sources.RawSource(brotli));
+                }
+                if (gzipped.length < source.length) {
+                  compilation.emitAsset(`${name}.gz`, new webpack.sources.RawSource(gzipped));
+                }
+              }),
+          );
+        },
+      );
+    });
+  }
+};
@@ -9,6 +9,7 @@ const ESLintPlugin = require('eslint-webpack-plugin');
 
 const environment = require('./environment');
 const proxyConfig = require('./proxy.conf');
+const PrecompressPlugin = require('./precompress.plugin');
 
 module.exports = async (config, options, targetOptions) => {
   // PLUGINS
@@ -77,6 +78,7 @@ module.exports = async (config, options, targetOptions) => {
         // Webpack statistics in temporary folder
         reportFilename: '../../stats.html',
       }),
+      new PrecompressPlugin(),
     );
   }
 